@@ -3,6 +3,7 @@ package bots;
 import cache.RedisCache;
 import org.telegram.telegrambots.longpolling.TelegramBotsLongPollingApplication;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import parser.CookieJar;
 import scheduler.SchedulerInitializer;
 import utils.PropertiesLoader;
 
@@ -23,12 +24,14 @@ public class MainBot {
     @SuppressWarnings({"PMD.CloseResource", "PMD.AvoidPrintStackTrace"})
     public static void main(final String[] args) {
         try {
+            CookieJar.afisha().warm();
             final RedisCache redisCache = new RedisCache(REDIS_HOST, REDIS_PORT);
             final SchedulerInitializer scheduler = new SchedulerInitializer(redisCache);
             scheduler.start();
 
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 scheduler.stop();
+                CookieJar.afisha().stop();
                 redisCache.close();
             }));
 
@@ -1,71 +1,255 @@
 package bots.services;
 
 import cache.RedisCache;
+import cache.RedisCrawlCheckpoint;
+import cache.ScheduleDiff;
+import crawler.CrawlBudget;
+import crawler.CrawlCheckpoint;
+import crawler.CrawlFailure;
+import crawler.CrawlPlanner;
+import crawler.CrawlQueue;
+import crawler.CrawlReport;
+import crawler.CrawlUnit;
+import crawler.Demand;
+import crawler.FetchedUnit;
+import crawler.RangePrefetch;
+import crawler.ScheduleCrawler;
 import filters.DateInterval;
 import parser.AfishaParser;
 import parser.City;
 import parser.MovieThumbnail;
+import parser.ScheduleSnapshot;
+import parser.ScheduleSource;
 import parser.Session;
 import utils.Utils;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** Manages session caching and retrieval from Redis. */
+@SuppressWarnings({"PMD.CouplingBetweenObjects", "PMD.ExcessiveImports", "PMD.TooManyMethods"})
 public class SessionCacheManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SessionCacheManager.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM");
     private static final DateTimeFormatter SCHEDULE_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final String MULTI_DAY_PROPERTY = "reelsift.multiDaySchedule";
 
     private final RedisCache redisCache;
+    private final ScheduleCrawler crawler;
+    private final Function<City, ScheduleSource> sources;
 
+    /**
+     * Creates a cache manager that fetches through the crawl queue shared
+     * by every search and the nightly job.
+     *
+     * @param redisCache The Redis cache to store sessions in
+     */
     public SessionCacheManager(final RedisCache redisCache) {
+        this(redisCache, CrawlQueue.shared());
+    }
+
+    /**
+     * Creates a cache manager with a custom crawl concurrency.
+     *
+     * @param redisCache The Redis cache to store sessions in
+     * @param crawlConcurrency Maximum number of schedule fetches run at the same time
+     */
+    public SessionCacheManager(final RedisCache redisCache, final int crawlConcurrency) {
+        this(redisCache, new CrawlQueue(crawlConcurrency));
+    }
+
+    /**
+     * Creates a cache manager that fetches through the given crawl queue.
+     *
+     * @param redisCache The Redis cache to store sessions in
+     * @param crawlQueue The queue that ranks and runs schedule fetches
+     */
+    public SessionCacheManager(final RedisCache redisCache, final CrawlQueue crawlQueue) {
+        this(redisCache, crawlQueue, AfishaParser::new);
+    }
+
+    /**
+     * Creates a cache manager that fetches schedules from the given sources.
+     * To crawl several sites, return a {@link parser.MergedScheduleSource}.
+     *
+     * @param redisCache The Redis cache to store sessions in
+     * @param crawlQueue The queue that ranks and runs schedule fetches
+     * @param sources Creates the schedule source of a city
+     */
+    public SessionCacheManager(
+        final RedisCache redisCache,
+        final CrawlQueue crawlQueue,
+        final Function<City, ScheduleSource> sources
+    ) {
         this.redisCache = redisCache;
+        this.crawler = new ScheduleCrawler(crawlQueue);
+        this.sources = sources;
     }
 
     /**
-     * Ensure all required dates are cached for the given city.
+     * Ensure all required dates are cached for the given city while a user
+     * waits. The missing units go ahead of any background refresh work.
      *
      * @param dateInterval The date interval to cache
      * @param city The city to cache sessions for
      * @throws IOException If parsing fails
      */
     public void ensureCached(final DateInterval dateInterval, final City city) throws IOException {
-        final List<LocalDate> requiredDates = dateInterval.getDatesInRange();
-        final List<LocalDate> cachedDates = this.redisCache.getCachedDates(city);
-        final List<LocalDate> missingDates = requiredDates.stream()
-            .filter(d -> !cachedDates.contains(d))
-            .toList();
+        this.ensureCached(dateInterval, city, CrawlCheckpoint.none(), Demand.INTERACTIVE);
+    }
 
-        if (missingDates.isEmpty()) {
-            return;
+    /**
+     * Ensure all required dates are cached for the given city as background
+     * refresh work, recording the progress in a checkpoint.
+     *
+     * @param dateInterval The date interval to cache
+     * @param city The city to cache sessions for
+     * @param checkpoint The progress of the current run
+     * @throws IOException If parsing fails
+     */
+    public void ensureCached(
+        final DateInterval dateInterval,
+        final City city,
+        final CrawlCheckpoint checkpoint
+    ) throws IOException {
+        this.ensureCached(dateInterval, city, checkpoint, Demand.BACKGROUND);
+    }
+
+    /**
+     * Ensure all required dates are cached for the given city, recording the
+     * progress in a checkpoint. If the checkpoint already holds a plan for the
+     * city, only its unfinished units are fetched.
+     *
+     * @param dateInterval The date interval to cache
+     * @param city The city to cache sessions for
+     * @param checkpoint The progress of the current run
+     * @param demand Whether a user is waiting for the units
+     * @throws IOException If parsing fails
+     */
+    public void ensureCached(
+        final DateInterval dateInterval,
+        final City city,
+        final CrawlCheckpoint checkpoint,
+        final Demand demand
+    ) throws IOException {
+        final ScheduleSource source = this.createScheduleSource(city);
+        final List<CrawlUnit> units = this.planUnits(source, dateInterval, city, checkpoint);
+        if (!units.isEmpty()) {
+            final Map<City, ScheduleSource> sources = Map.of(city, source);
+            this.crawlUnits(
+                sources, units, checkpoint, demand, CrawlBudget.unlimited(), this.prefetchOf(sources, units)
+            );
         }
+    }
 
-        final AfishaParser parser = this.createAfishaParser(city);
-        final List<String> dateRanges = convertToDateRanges(missingDates);
+    /**
+     * Plans the units a city still needs without fetching them. If the
+     * checkpoint already holds a plan for the city, its unfinished units are
+     * returned; otherwise the missing dates are planned and the plan is saved.
+     *
+     * @param dateInterval The date interval to cache
+     * @param city The city to cache sessions for
+     * @param checkpoint The progress of the current run
+     * @return The units to fetch, empty if every date is cached
+     * @throws IOException If a film listing cannot be fetched
+     */
+    public List<CrawlUnit> planUnits(
+        final DateInterval dateInterval,
+        final City city,
+        final CrawlCheckpoint checkpoint
+    ) throws IOException {
+        return this.planUnits(this.createScheduleSource(city), dateInterval, city, checkpoint);
+    }
 
-        for (final String dateRange : dateRanges) {
-            cacheDateRange(parser, dateRange, missingDates, city);
+    /**
+     * Fetches planned units of any number of cities as background work
+     * within a budget. The units are fetched one date at a time, soonest
+     * first; before each date the budget is asked again, with the latencies
+     * measured so far, which of the remaining units still fit, and the rest
+     * are left out, lowest priority first. Films kept for several
+     * consecutive dates may be fetched for all of them at once, see
+     * {@link #multiDayFetch()}.
+     *
+     * @param units The planned units
+     * @param checkpoint The progress of the current run
+     * @param budget The time and requests the crawl may use
+     * @return The units left out to stay within the budget, then the units whose fetch failed
+     */
+    public List<CrawlUnit> crawlWithin(
+        final List<CrawlUnit> units,
+        final CrawlCheckpoint checkpoint,
+        final CrawlBudget budget
+    ) {
+        final Map<City, ScheduleSource> sources = new EnumMap<>(City.class);
+        units.forEach(unit -> sources.computeIfAbsent(unit.city(), this::createScheduleSource));
+        List<CrawlUnit> remaining = budget.fit(units, this.crawler.concurrency());
+        final Set<CrawlUnit> kept = new HashSet<>(remaining);
+        final List<CrawlUnit> dropped = new ArrayList<>(units.stream().filter(unit -> !kept.contains(unit)).toList());
+        final List<CrawlUnit> failed = new ArrayList<>();
+        final RangePrefetch prefetch = this.prefetchOf(sources, remaining);
+        while (!remaining.isEmpty()) {
+            final LocalDate date = remaining.getFirst().date();
+            final List<CrawlUnit> wave = remaining.stream().filter(unit -> unit.date().equals(date)).toList();
+            this.crawlUnits(sources, wave, checkpoint, Demand.BACKGROUND, budget, prefetch)
+                .failures().forEach(failure -> failed.add(failure.unit()));
+            final List<CrawlUnit> rest = remaining.subList(wave.size(), remaining.size());
+            remaining = budget.fit(rest, this.crawler.concurrency());
+            dropped.addAll(rest.subList(remaining.size(), rest.size()));
+        }
+        if (!dropped.isEmpty() && LOGGER.isWarnEnabled()) {
+            LOGGER.warn(
+                "Left out {} of {} units to stay within the crawl budget, sent {} requests",
+                dropped.size(), units.size(), budget.requestsSent()
+            );
         }
+        dropped.addAll(failed);
+        return dropped;
     }
 
     /**
-     * Creates an AfishaParser instance for the given city.
+     * Opens the checkpoint of a crawl run. Every call with the same run id
+     * sees the progress recorded by the previous ones.
      *
-     * @param city The city for which to create the parser
-     * @return An {@link AfishaParser} instance
+     * @param runId Identifier of the run
+     * @return The checkpoint of the run
      */
-    protected AfishaParser createAfishaParser(final City city) throws IOException {
-        return new AfishaParser(city);
+    public CrawlCheckpoint openCheckpoint(final String runId) {
+        return new RedisCrawlCheckpoint(this.redisCache, runId);
     }
 
+    /**
+     * Creates the schedule source for the given city.
+     *
+     * @param city The city for which to create the source
+     * @return The {@link ScheduleSource} of the city
+     */
+    protected ScheduleSource createScheduleSource(final City city) {
+        return this.sources.apply(city);
+    }
+
+    /**
+     * Tells whether a film planned for several consecutive dates is fetched
+     * for all of them in one pass instead of date by date. Off unless the
+     * {@code reelsift.multiDaySchedule} system property is set.
+     *
+     * @return True if schedules are fetched for whole runs of dates
+     */
+    protected boolean multiDayFetch() {
+        return Boolean.getBoolean(MULTI_DAY_PROPERTY);
+    }
 
     /**
      * Get cached sessions for the given dates and city.
@@ -78,81 +262,174 @@ public class SessionCacheManager {
         return this.redisCache.getCachedSessions(dates, city);
     }
 
-    private void cacheDateRange(
-        final AfishaParser parser,
-        final String dateRange,
-        final List<LocalDate> missingDates,
-        final City city
+    private List<CrawlUnit> planUnits(
+        final ScheduleSource source,
+        final DateInterval dateInterval,
+        final City city,
+        final CrawlCheckpoint checkpoint
     ) throws IOException {
-        final List<MovieThumbnail> thumbnails = parser.parseFilmsInDates(dateRange);
-        final String[] rangeDates = dateRange.split("_");
-        final LocalDate startDate = parseDateFromRange(rangeDates[0]);
-        final LocalDate endDate = parseDateFromRange(rangeDates[1]);
-
-        for (int i = 0; i < thumbnails.size(); i++) {
-            final MovieThumbnail thumbnail = thumbnails.get(i);
+        final Optional<List<CrawlUnit>> pending = checkpoint.pendingUnits(city);
+        if (pending.isPresent()) {
             if (LOGGER.isInfoEnabled()) {
-                LOGGER.info(
-                    "Parsing sessions for film {}/{}: {}",
-                    i + 1, thumbnails.size(), thumbnail.name()
-                );
-            }
-            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-                if (missingDates.contains(date)) {
-                    cacheSessionsForDate(
-                        parser, thumbnail.sessionsLink(), thumbnail.imageLink(), date, city
-                    );
-                }
+                LOGGER.info("Resuming crawl of {} with {} units left", city, pending.get().size());
             }
+            return pending.get();
         }
+
+        final List<LocalDate> requiredDates = dateInterval.getDatesInRange();
+        final List<LocalDate> cachedDates = this.redisCache.getCachedDates(city);
+        final List<LocalDate> missingDates = requiredDates.stream()
+            .filter(d -> !cachedDates.contains(d))
+            .toList();
+
+        if (missingDates.isEmpty()) {
+            return List.of();
+        }
+
+        final List<CrawlUnit> units = new CrawlPlanner(
+            (start, end) -> this.listFilms(source, city, start, end)
+        ).plan(city, missingDates);
+        checkpoint.savePlan(city, units);
+        return units;
     }
 
-    private void cacheSessionsForDate(
-        final AfishaParser parser,
-        final String filmUrl,
-        final String imageUrl,
-        final LocalDate date,
-        final City city
+    /**
+     * Lists the films of a date range, reusing a listing cached by a recent
+     * crawl of the same range.
+     */
+    private List<MovieThumbnail> listFilms(
+        final ScheduleSource source, final City city, final LocalDate start, final LocalDate end
     ) throws IOException {
-        final String formattedDate = date.format(SCHEDULE_DATE_FORMATTER);
-        final List<Session> sessions = parser.parseSchedule(
-            Utils.cleanFilmUrl(filmUrl),
-            formattedDate
+        final Optional<List<MovieThumbnail>> cached = this.redisCache.getCachedListing(city, start, end);
+        if (cached.isPresent()) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Reusing cached listing of {} for {}_{}", city, start, end);
+            }
+            return cached.get();
+        }
+        final List<MovieThumbnail> films = source.listFilms(formatDateRange(start, end));
+        this.redisCache.cacheListing(city, start, end, films);
+        return films;
+    }
+
+    private CrawlReport crawlUnits(
+        final Map<City, ScheduleSource> sources,
+        final List<CrawlUnit> units,
+        final CrawlCheckpoint checkpoint,
+        final Demand demand,
+        final CrawlBudget budget,
+        final RangePrefetch prefetch
+    ) {
+        final CrawlReport report = this.crawler.crawlUnits(
+            units,
+            demand,
+            unit -> this.fetchSessions(sources.get(unit.city()), unit, budget, prefetch),
+            (unit, fetched) -> {
+                budget.record(fetched.latency(), fetched.requests());
+                fetched.storeOnce(() -> {
+                    this.scheduleChanged(unit, this.redisCache.updateFilm(
+                        unit.city(), unit.date(), unit.filmName(), fetched.sessions(), fetched.complete()
+                    ));
+                    this.redisCache.savePageDigests(unit.city(), unit.date(), unit.filmUrl(), fetched.digests());
+                });
+                if (fetched.whole()) {
+                    checkpoint.markCompleted(unit);
+                }
+            }
         );
-        sessions.forEach(s -> s.setImageUrl(imageUrl));
-        this.redisCache.cacheSessions(sessions, city);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(
+                "Crawled {}: {}, {} bytes saved by shared strings",
+                sources.keySet(), report, sources.values().stream().mapToLong(ScheduleSource::savedStringBytes).sum()
+            );
+        }
+        logFailures(report);
+        return report;
     }
 
-    private List<String> convertToDateRanges(final List<LocalDate> dates) {
-        if (dates.isEmpty()) {
-            return List.of();
+    private RangePrefetch prefetchOf(final Map<City, ScheduleSource> sources, final List<CrawlUnit> units) {
+        if (!this.multiDayFetch()) {
+            return RangePrefetch.none();
         }
+        return new RangePrefetch(
+            units,
+            (unit, first, last) -> sources.get(unit.city()).fetchScheduleRange(thumbnailOf(unit), first, last)
+        );
+    }
 
-        final List<String> ranges = new ArrayList<>();
-        LocalDate rangeStart = dates.get(0);
-        LocalDate previousDate = rangeStart;
+    /**
+     * Called from crawl worker threads with what changed in the stored
+     * schedule of each crawled unit.
+     *
+     * @param unit The crawled unit
+     * @param diff The sessions added, removed and changed by the crawl
+     */
+    protected void scheduleChanged(final CrawlUnit unit, final ScheduleDiff diff) {
+        if (!diff.isEmpty() && LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                "Schedule of {} on {} in {}: {} added, {} removed, {} changed",
+                unit.filmName(), unit.date(), unit.city(),
+                diff.added().size(), diff.removed().size(), diff.changed().size()
+            );
+        }
+    }
 
-        for (int i = 1; i < dates.size(); i++) {
-            final LocalDate currentDate = dates.get(i);
-            if (!currentDate.isEqual(previousDate.plusDays(1))) {
-                ranges.add(formatDateRange(rangeStart, previousDate));
-                rangeStart = currentDate;
+    /**
+     * Fetches the sessions of a unit that changed since the previous crawl.
+     * Pages identical to the previous crawl are skipped, so an unchanged
+     * unit yields no sessions and nothing is written for it. A unit served
+     * by a fetch of several days takes its day from it instead. The outcome
+     * carries the latency and the number of pages requested, which every
+     * crawl receiving it reports to its budget; a failed fetch is reported
+     * here, to the budget of the crawl that ran it.
+     */
+    private FetchedUnit fetchSessions(
+        final ScheduleSource source,
+        final CrawlUnit unit,
+        final CrawlBudget budget,
+        final RangePrefetch prefetch
+    ) throws IOException {
+        final long started = System.nanoTime();
+        final Optional<RangePrefetch.Day> day = prefetch.take(unit);
+        if (day.isPresent()) {
+            day.get().sessions().forEach(s -> s.setImageUrl(unit.imageUrl()));
+            return FetchedUnit.fromDay(day.get(), Duration.ofNanos(System.nanoTime() - started));
+        }
+        ScheduleSnapshot snapshot = null;
+        try {
+            snapshot = source.fetchSchedule(
+                thumbnailOf(unit),
+                unit.date().format(SCHEDULE_DATE_FORMATTER),
+                this.redisCache.getPageDigests(unit.city(), unit.date(), unit.filmUrl())
+            );
+        } finally {
+            if (snapshot == null) {
+                budget.record(Duration.ofNanos(System.nanoTime() - started), 1);
             }
-            previousDate = currentDate;
         }
+        snapshot.sessions().forEach(s -> s.setImageUrl(unit.imageUrl()));
+        return FetchedUnit.fromSnapshot(
+            snapshot, Math.max(1, snapshot.digests().size()), Duration.ofNanos(System.nanoTime() - started)
+        );
+    }
 
-        ranges.add(formatDateRange(rangeStart, previousDate));
-        return ranges;
+    private static MovieThumbnail thumbnailOf(final CrawlUnit unit) {
+        return new MovieThumbnail(unit.filmName(), Utils.cleanFilmUrl(unit.filmUrl()), unit.imageUrl());
     }
 
-    private String formatDateRange(final LocalDate start, final LocalDate end) {
-        return start.format(DATE_FORMATTER) + "_" + end.format(DATE_FORMATTER);
+    private static void logFailures(final CrawlReport report) {
+        for (final Map.Entry<String, List<CrawlFailure>> film : report.failuresByFilm().entrySet()) {
+            if (LOGGER.isWarnEnabled()) {
+                final CrawlFailure first = film.getValue().getFirst();
+                LOGGER.warn(
+                    "Failed to crawl {} of the requested dates for film {} in {}: {}",
+                    film.getValue().size(), film.getKey(), first.unit().city(), first.reason()
+                );
+            }
+        }
     }
 
-    private static LocalDate parseDateFromRange(final String dateStr) {
-        final String[] parts = dateStr.split("-");
-        final int day = Integer.parseInt(parts[0]);
-        final int month = Integer.parseInt(parts[1]);
-        return LocalDate.of(Year.now().getValue(), month, day);
+    private static String formatDateRange(final LocalDate start, final LocalDate end) {
+        return start.format(DATE_FORMATTER) + "_" + end.format(DATE_FORMATTER);
     }
 }
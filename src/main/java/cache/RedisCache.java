@@ -1,23 +1,35 @@
 package cache;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import parser.Cinema;
 import parser.City;
+import parser.MovieThumbnail;
+import parser.PageDigest;
 import parser.Session;
+import parser.SessionDictionary;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.resps.ScanResult;
 
@@ -27,21 +39,36 @@ import redis.clients.jedis.resps.ScanResult;
  * across multiple user searches.
  *
  * <h2>Key Structure</h2>
- * Keys are organized by city, date, and film: {@code CITY:DATE:FILM} (e.g., {@code MOSCOW:2026-01-23:FilmName})
+ * Sessions under {@code CITY:DATE:FILM} (e.g., {@code MOSCOW:2026-01-23:FilmName})
+ * as a hash of the film's details, stored once, and one slim row per session, so updates
+ * write only what changed; the cinemas those rows refer to under {@code CINEMA:CITY:DATE},
+ * each stored once (see {@link SessionRecords}); schedule page digests under
+ * {@code PAGEHASH:CITY:DATE:FILM_URL}, crawl progress under {@code CRAWL:RUN:NAME} and
+ * film listings under {@code LISTING:CITY:START_END}.
  *
  * <h2>Expiration</h2>
- * Keys automatically expire at the end of their respective date (23:59:59),
- * ensuring sessions don't persist after they're no longer relevant.
+ * Sessions, cinemas and page digests expire at the end of their date (23:59:59), listings
+ * after a few minutes and crawl progress after two days.
  *
  * <h2>Thread Safety</h2>
  * Uses {@link JedisPool} for safe concurrent access from multiple bot users.
  */
-@SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.TooManyMethods"})
+@SuppressWarnings({
+    "PMD.AvoidCatchingGenericException", "PMD.TooManyMethods", "PMD.CouplingBetweenObjects",
+    "PMD.CyclomaticComplexity", "PMD.ExcessiveImports", "PMD.GodClass"
+})
 public class RedisCache {
     private static final Logger LOGGER = Logger.getLogger(RedisCache.class.getName());
     private static final int DEFAULT_POOL_SIZE = 10;
     private static final long MINIMUM_TTL_SECONDS = 300; // 5 minutes safety margin
     private static final int SCAN_COUNT = 100;
+    private static final String CHECKPOINT_PREFIX = "CRAWL:";
+    private static final long CHECKPOINT_TTL_SECONDS = 172_800; // 2 days
+    private static final String LISTING_PREFIX = "LISTING:";
+    private static final String PAGE_HASH_PREFIX = "PAGEHASH:";
+    private static final String CINEMA_PREFIX = "CINEMA:";
+    private static final long LISTING_TTL_SECONDS = 900; // 15 minutes
+    private static final int LATE_NIGHT_HOUR = 3;
 
     private final JedisPool jedisPool;
 
@@ -75,12 +102,13 @@ public class RedisCache {
 
     /**
      * Caches sessions grouped by date and film.
-     * Sessions are stored as JSON and expire at the end of their respective date.
+     * Sessions are stored as records and expire at the end of their respective date.
+     * A session already stored is kept as it is; the details of the film are
+     * those of the latest sessions.
      *
      * @param sessions Sessions to cache
      * @param city     City for which sessions are cached
      */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
     public void cacheSessions(final List<Session> sessions, final City city) {
         if (sessions == null || sessions.isEmpty()) {
             return;
@@ -96,39 +124,35 @@ public class RedisCache {
             for (final Map.Entry<LocalDate, Map<String, List<Session>>> dateEntry : sessionsByDateAndFilm.entrySet()) {
                 final LocalDate date = dateEntry.getKey();
                 final long ttl = calculateTTL(date);
+                final String cinemaKey = this.buildCinemaKey(city, date);
 
                 for (final Map.Entry<String, List<Session>> filmEntry : dateEntry.getValue().entrySet()) {
                     final String filmName = filmEntry.getKey();
                     final List<Session> filmSessions = filmEntry.getValue();
                     final String key = this.buildKey(city, date, filmName);
 
-                    // Get existing sessions and merge with new ones
-                    final String existingJson = jedis.get(key);
-                    final List<Session> allSessions = new ArrayList<>();
-                    if (existingJson != null) {
-                        allSessions.addAll(Session.fromJsonArray(existingJson));
+                    if (needsConversion(jedis, key)) {
+                        readStored(jedis, key, cinemaKey, ttl);
+                    }
+                    final long added;
+                    final byte[] binaryKey = bytes(key);
+                    final Map<byte[], byte[]> fields = SessionRecords.filmFields(filmSessions);
+                    try (Pipeline pipeline = jedis.pipelined()) {
+                        final List<Response<Long>> written = fields.entrySet().stream()
+                            .skip(1)
+                            .map(field -> pipeline.hsetnx(binaryKey, field.getKey(), field.getValue()))
+                            .toList();
+                        pipeline.hset(binaryKey, bytes(SessionRecords.FILM_FIELD), fields.values().iterator().next());
+                        pipeline.hset(bytes(cinemaKey), SessionRecords.cinemaFields(filmSessions));
+                        pipeline.expire(key, ttl);
+                        pipeline.expire(cinemaKey, ttl);
+                        pipeline.sync();
+                        added = written.stream().mapToLong(Response::get).sum();
                     }
-                    allSessions.addAll(filmSessions);
-
-                    final List<Session> uniqueSessions = new ArrayList<>(
-                        allSessions.stream()
-                            .collect(Collectors.toMap(
-                                RedisCache::sessionBusinessKey,
-                                s -> s,
-                                (existing, replacement) -> existing,
-                                LinkedHashMap::new
-                            ))
-                            .values()
-                    );
-
-                    final String json = Session.toJson(uniqueSessions);
-                    jedis.set(key, json);
-                    jedis.expire(key, ttl);
 
                     LOGGER.fine(() -> String.format(
-                        "Cached %d sessions (%d new, %d existing) for %s on %s - %s (TTL: %d seconds)",
-                        uniqueSessions.size(), filmSessions.size(), 
-                        allSessions.size() - filmSessions.size(), city.name(), date, filmName, ttl
+                        "Cached %d new of %d sessions for %s on %s - %s (TTL: %d seconds)",
+                        added, filmSessions.size(), city.name(), date, filmName, ttl
                     ));
                 }
             }
@@ -140,7 +164,72 @@ public class RedisCache {
     }
 
     /**
-     * Retrieves cached sessions for multiple dates.
+     * Brings the stored sessions of a film crawled for one date up to date
+     * with a snapshot and tells what changed. Only the changed sessions are
+     * written. Stored sessions missing from the snapshot are removed only if
+     * the snapshot is the film's whole schedule for the date, and only from
+     * the date itself: sessions in the small hours may come from the
+     * schedule of the day before.
+     *
+     * @param city     City the schedule belongs to
+     * @param date     Date the schedule was crawled for
+     * @param filmName Name of the film
+     * @param sessions Sessions of the snapshot
+     * @param complete Whether the snapshot holds every session of the date
+     * @return What changed, or no change if the cache cannot be updated
+     */
+    public ScheduleDiff updateFilm(
+        final City city, final LocalDate date, final String filmName,
+        final List<Session> sessions, final boolean complete
+    ) {
+        if (sessions.isEmpty() && !complete) {
+            return ScheduleDiff.none();
+        }
+        final Map<String, List<Session>> byKey = sessions.stream()
+            .collect(Collectors.groupingBy(
+                s -> this.buildKey(city, s.dateTime().toLocalDate(), s.name()),
+                LinkedHashMap::new,
+                Collectors.toList()
+            ));
+        if (complete) {
+            byKey.putIfAbsent(this.buildKey(city, date, filmName), List.of());
+        }
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            ScheduleDiff total = ScheduleDiff.none();
+            for (final Map.Entry<String, List<Session>> entry : byKey.entrySet()) {
+                final String key = entry.getKey();
+                final LocalDate keyDate = entry.getValue().isEmpty()
+                    ? date
+                    : entry.getValue().getFirst().dateTime().toLocalDate();
+                final long ttl = calculateTTL(keyDate);
+                final String cinemaKey = this.buildCinemaKey(city, keyDate);
+                final List<Session> stored = readStored(jedis, key, cinemaKey, ttl);
+                final ScheduleDiff diff = ScheduleDiff.between(
+                    stored,
+                    entry.getValue(),
+                    session -> complete && session.dateTime().toLocalDate().equals(date)
+                        && session.dateTime().getHour() > LATE_NIGHT_HOUR
+                );
+                writeDiff(jedis, key, cinemaKey, diff, stored.size(), ttl);
+                total = total.plus(diff);
+            }
+            final ScheduleDiff changes = total;
+            LOGGER.fine(() -> String.format(
+                "Updated %s on %s - %s: %d added, %d removed, %d changed",
+                city.name(), date, filmName, changes.added().size(), changes.removed().size(), changes.changed().size()
+            ));
+            return total;
+        } catch (final Exception e) {
+            LOGGER.severe(() -> String.format(
+                "Failed to update sessions of %s for %s on %s: %s", filmName, city.name(), date, e.getMessage()
+            ));
+            return ScheduleDiff.none();
+        }
+    }
+
+    /**
+     * Retrieves cached sessions for multiple dates. The sessions of all the
+     * dates share their film details, cinemas and strings.
      *
      * @param dates Dates to retrieve sessions for
      * @param city  City to retrieve sessions from
@@ -151,11 +240,17 @@ public class RedisCache {
             return Collections.emptyList();
         }
 
-        return dates.stream()
-            .map(d -> getCachedSessions(d, city))
-            .filter(sessions -> sessions != null && !sessions.isEmpty())
+        final SessionDictionary dictionary = new SessionDictionary();
+        final List<Session> sessions = dates.stream()
+            .map(d -> getCachedSessions(d, city, dictionary))
+            .filter(found -> found != null && !found.isEmpty())
             .flatMap(List::stream)
             .collect(Collectors.toList());
+        LOGGER.fine(() -> String.format(
+            "Read %d sessions for %s, %d bytes saved by shared strings",
+            sessions.size(), city.name(), dictionary.strings().savedBytes()
+        ));
+        return sessions;
     }
 
 /**
@@ -166,6 +261,10 @@ public class RedisCache {
      * @return List of cached sessions for the date, or empty list if none found
      */
     public List<Session> getCachedSessions(final LocalDate date, final City city) {
+        return this.getCachedSessions(date, city, new SessionDictionary());
+    }
+
+    private List<Session> getCachedSessions(final LocalDate date, final City city, final SessionDictionary dictionary) {
         if (date == null) {
             return Collections.emptyList();
         }
@@ -181,13 +280,12 @@ public class RedisCache {
                 return Collections.emptyList();
             }
 
+            final Map<String, Cinema> cinemas = SessionRecords.cinemas(
+                jedis.hvals(bytes(this.buildCinemaKey(city, date))), dictionary
+            );
             final List<Session> allSessions = new ArrayList<>();
             for (final String key : keys) {
-                final String cached = jedis.get(key);
-                if (cached != null) {
-                    final List<Session> sessions = Session.fromJsonArray(cached);
-                    allSessions.addAll(sessions);
-                }
+                allSessions.addAll(readSessions(jedis, key, cinemas, dictionary));
             }
 
             LOGGER.fine(() -> String.format(
@@ -257,16 +355,9 @@ public class RedisCache {
      */
     public void invalidateCity(final City city) {
         try (Jedis jedis = this.jedisPool.getResource()) {
-            final ScanParams scanParams = new ScanParams().match(city.asPrefix() + "*").count(SCAN_COUNT);
-            String cursor = "0";
-            do {
-                final ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
-                final List<String> keys = scanResult.getResult();
-                if (!keys.isEmpty()) {
-                    jedis.del(keys.toArray(new String[0]));
-                }
-                cursor = scanResult.getCursor();
-            } while (!"0".equals(cursor));
+            deleteMatching(jedis, city.asPrefix() + "*");
+            deleteMatching(jedis, PAGE_HASH_PREFIX + city.asPrefix() + "*");
+            deleteMatching(jedis, CINEMA_PREFIX + city.asPrefix() + "*");
         } catch (final Exception e) {
             LOGGER.severe(() -> String.format(
                 "Failed to invalidate cache for %s: %s", city.name(), e.getMessage()
@@ -285,16 +376,9 @@ public class RedisCache {
             return;
         }
         try (Jedis jedis = this.jedisPool.getResource()) {
-            final ScanParams scanParams = new ScanParams().match(city.asPrefix() + date + ":*").count(SCAN_COUNT);
-            String cursor = "0";
-            do {
-                final ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
-                final List<String> keys = scanResult.getResult();
-                if (!keys.isEmpty()) {
-                    jedis.del(keys.toArray(new String[0]));
-                }
-                cursor = scanResult.getCursor();
-            } while (!"0".equals(cursor));
+            deleteMatching(jedis, city.asPrefix() + date + ":*");
+            deleteMatching(jedis, PAGE_HASH_PREFIX + city.asPrefix() + date + ":*");
+            jedis.del(this.buildCinemaKey(city, date));
         } catch (final Exception e) {
             LOGGER.severe(() -> String.format(
                 "Failed to invalidate cache for %s on %s: %s",
@@ -309,16 +393,7 @@ public class RedisCache {
      */
     public void invalidateAll() {
         try (Jedis jedis = this.jedisPool.getResource()) {
-            final ScanParams scanParams = new ScanParams().match("*").count(SCAN_COUNT);
-            String cursor = "0";
-            do {
-                final ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
-                final List<String> keys = scanResult.getResult();
-                if (!keys.isEmpty()) {
-                    jedis.del(keys.toArray(new String[0]));
-                }
-                cursor = scanResult.getCursor();
-            } while (!"0".equals(cursor));
+            deleteMatching(jedis, "*");
         } catch (final Exception e) {
             LOGGER.severe(() -> String.format(
                 "Failed to invalidate all cache entries: %s", e.getMessage()
@@ -326,6 +401,166 @@ public class RedisCache {
         }
     }
 
+    /**
+     * Adds members to a set that records the progress of a crawl run.
+     * The set expires two days after its last update, so abandoned runs
+     * clean up after themselves.
+     *
+     * @param runId   Identifier of the crawl run
+     * @param name    Name of the set within the run
+     * @param members Members to add
+     */
+    public void addCheckpointMembers(final String runId, final String name, final Collection<String> members) {
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            final String key = this.buildCheckpointKey(runId, name);
+            jedis.sadd(key, members.toArray(new String[0]));
+            jedis.expire(key, CHECKPOINT_TTL_SECONDS);
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to record checkpoint %s of run %s: %s", name, runId, e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Reads a set that records the progress of a crawl run.
+     *
+     * @param runId Identifier of the crawl run
+     * @param name  Name of the set within the run
+     * @return Members of the set, or empty set if it does not exist or cannot be read
+     */
+    public Set<String> getCheckpointMembers(final String runId, final String name) {
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            return jedis.smembers(this.buildCheckpointKey(runId, name));
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to read checkpoint %s of run %s: %s", name, runId, e.getMessage()
+            ));
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * Deletes every progress set of a crawl run.
+     *
+     * @param runId Identifier of the crawl run
+     */
+    public void clearCheckpoint(final String runId) {
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            final Set<String> keys = this.scanKeys(this.buildCheckpointKey(runId, "*"));
+            if (!keys.isEmpty()) {
+                jedis.del(keys.toArray(new String[0]));
+            }
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to clear checkpoint of run %s: %s", runId, e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Records the digests of the schedule pages a film's sessions were
+     * stored from. The digests expire together with the sessions of the
+     * date, so a matching digest always means the sessions are still cached.
+     *
+     * @param city    City the schedule belongs to
+     * @param date    Date of the schedule
+     * @param filmUrl Link to the film's schedule
+     * @param digests Digests keyed by page number
+     */
+    public void savePageDigests(
+        final City city, final LocalDate date, final String filmUrl, final Map<Integer, PageDigest> digests
+    ) {
+        if (digests == null || digests.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            final String key = this.buildPageHashKey(city, date, filmUrl);
+            final Map<String, String> fields = new LinkedHashMap<>();
+            digests.forEach((page, digest) -> fields.put(String.valueOf(page), digest.encode()));
+            jedis.hset(key, fields);
+            jedis.expire(key, calculateTTL(date));
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to record page digests of %s for %s on %s: %s", filmUrl, city.name(), date, e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Retrieves the digests of the schedule pages a film's sessions were
+     * stored from.
+     *
+     * @param city    City the schedule belongs to
+     * @param date    Date of the schedule
+     * @param filmUrl Link to the film's schedule
+     * @return Digests keyed by page number, or empty map if none are stored or they cannot be read
+     */
+    public Map<Integer, PageDigest> getPageDigests(final City city, final LocalDate date, final String filmUrl) {
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            return jedis.hgetAll(this.buildPageHashKey(city, date, filmUrl)).entrySet().stream()
+                .collect(Collectors.toMap(
+                    entry -> Integer.parseInt(entry.getKey()),
+                    entry -> PageDigest.decode(entry.getValue())
+                ));
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to read page digests of %s for %s on %s: %s", filmUrl, city.name(), date, e.getMessage()
+            ));
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Caches the films listed for a city over a date range. The listing is
+     * kept for fifteen minutes, long enough for the searches that follow one
+     * another to skip listing the same range again.
+     *
+     * @param city  City the listing belongs to
+     * @param start First date of the range
+     * @param end   Last date of the range, inclusive
+     * @param films Films found on the listing pages
+     */
+    public void cacheListing(
+        final City city, final LocalDate start, final LocalDate end, final List<MovieThumbnail> films
+    ) {
+        if (films == null || films.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            jedis.setex(this.buildListingKey(city, start, end), LISTING_TTL_SECONDS, MovieThumbnail.toJson(films));
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to cache listing of %s for %s_%s: %s", city.name(), start, end, e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Retrieves the films listed for a city over a date range.
+     *
+     * @param city  City the listing belongs to
+     * @param start First date of the range
+     * @param end   Last date of the range, inclusive
+     * @return The cached films, or empty if the range was not listed recently
+     */
+    public Optional<List<MovieThumbnail>> getCachedListing(
+        final City city, final LocalDate start, final LocalDate end
+    ) {
+        try (Jedis jedis = this.jedisPool.getResource()) {
+            return Optional.ofNullable(jedis.get(this.buildListingKey(city, start, end)))
+                .map(MovieThumbnail::fromJsonArray);
+        } catch (final Exception e) {
+            LOGGER.warning(() -> String.format(
+                "Failed to read cached listing of %s for %s_%s: %s", city.name(), start, end, e.getMessage()
+            ));
+            return Optional.empty();
+        }
+    }
+
     /**
      * Closes the connection pool and releases resources.
      * Should be called on application shutdown.
@@ -338,15 +573,166 @@ public class RedisCache {
     }
 
     /**
-     * Builds a business key for session deduplication.
-     * Sessions sharing the same dateTime, cinema, and price
-     * represent the same showtime regardless of other metadata.
+     * Reads the sessions stored for a film, in any storage format: a hash of
+     * records, a hash of binary or JSON sessions, or a single JSON array.
      *
-     * @param session Session to build key for
-     * @return Composite business key string
+     * @param jedis   Connection to read with
+     * @param key     Key of the film entry
+     * @param cinemas Cinemas of the date, by id
+     * @param dictionary Film details and cinemas shared by the sessions read
+     * @return The stored sessions, or empty list if there are none
      */
-    private static String sessionBusinessKey(final Session session) {
-        return session.dateTime() + "|" + session.cinema() + "|" + session.price();
+    private static List<Session> readSessions(
+        final Jedis jedis, final String key, final Map<String, Cinema> cinemas, final SessionDictionary dictionary
+    ) {
+        try {
+            return SessionRecords.join(jedis.hvals(bytes(key)), cinemas, dictionary);
+        } catch (final JedisDataException wrongType) {
+            return Session.fromJsonArray(jedis.get(key));
+        }
+    }
+
+    /**
+     * Tells whether a film entry holds sessions stored whole, as a single
+     * JSON array or as a hash of one session per field. An entry stored as
+     * records is told apart by its film record with one command.
+     *
+     * @param jedis Connection to use
+     * @param key   Key of the film entry
+     * @return True if the entry exists and is not stored as records
+     */
+    private static boolean needsConversion(final Jedis jedis, final String key) {
+        try {
+            return !jedis.hexists(bytes(key), bytes(SessionRecords.FILM_FIELD)) && jedis.exists(key);
+        } catch (final JedisDataException wrongType) {
+            return true;
+        }
+    }
+
+    /**
+     * Reads the sessions stored for a film to compare a crawl with. Only the
+     * cinemas the film's rows refer to are read from the cinemas of the
+     * date. Sessions stored whole are stored again as records first, so
+     * that they can be updated field by field.
+     *
+     * @param jedis     Connection to use
+     * @param key       Key of the film entry
+     * @param cinemaKey Key of the cinemas of the date
+     * @param ttl       TTL of a converted entry in seconds
+     * @return The stored sessions, or empty list if there are none
+     */
+    private static List<Session> readStored(
+        final Jedis jedis, final String key, final String cinemaKey, final long ttl
+    ) {
+        final SessionDictionary dictionary = new SessionDictionary();
+        final List<byte[]> values;
+        try {
+            values = jedis.hvals(bytes(key));
+        } catch (final JedisDataException wrongType) {
+            return convertLegacy(jedis, key, cinemaKey, ttl, Session.fromJsonArray(jedis.get(key)));
+        }
+        if (values.isEmpty() || SessionRecords.isNormalized(values)) {
+            return SessionRecords.join(values, cinemasOf(jedis, cinemaKey, values, dictionary), dictionary);
+        }
+        return convertLegacy(jedis, key, cinemaKey, ttl, SessionRecords.join(values, Map.of(), dictionary));
+    }
+
+    /**
+     * Reads the cinemas the rows of a film entry refer to.
+     */
+    private static Map<String, Cinema> cinemasOf(
+        final Jedis jedis, final String cinemaKey, final List<byte[]> values, final SessionDictionary dictionary
+    ) {
+        final byte[][] ids = SessionRecords.cinemaIds(values).stream()
+            .map(RedisCache::bytes)
+            .toArray(byte[][]::new);
+        if (ids.length == 0) {
+            return Map.of();
+        }
+        return SessionRecords.cinemas(
+            jedis.hmget(bytes(cinemaKey), ids).stream().filter(Objects::nonNull).toList(), dictionary
+        );
+    }
+
+    /**
+     * Stores the sessions of a film entry stored whole again as records,
+     * dropping duplicates.
+     *
+     * @param jedis     Connection to use
+     * @param key       Key of the film entry
+     * @param cinemaKey Key of the cinemas of the date
+     * @param ttl       TTL of the converted entry in seconds
+     * @param stored    The sessions read from the entry
+     * @return The sessions without duplicates
+     */
+    private static List<Session> convertLegacy(
+        final Jedis jedis, final String key, final String cinemaKey, final long ttl, final List<Session> stored
+    ) {
+        final Map<String, Session> unique = new LinkedHashMap<>();
+        stored.forEach(session -> unique.putIfAbsent(ScheduleDiff.identity(session), session));
+        try (Transaction transaction = jedis.multi()) {
+            transaction.del(key);
+            if (!unique.isEmpty()) {
+                transaction.hset(bytes(key), SessionRecords.filmFields(unique.values()));
+                transaction.expire(key, ttl);
+                transaction.hset(bytes(cinemaKey), SessionRecords.cinemaFields(unique.values()));
+                transaction.expire(cinemaKey, ttl);
+            }
+            transaction.exec();
+        }
+        LOGGER.fine(() -> String.format("Converted %d sessions of %s to records", unique.size(), key));
+        return List.copyOf(unique.values());
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the added and changed sessions of a film, with the film record
+     * and their cinemas, and deletes the removed ones in a single round
+     * trip. An entry left without sessions is deleted, film record and all.
+     * Nothing is sent if nothing changed.
+     */
+    private static void writeDiff(
+        final Jedis jedis, final String key, final String cinemaKey,
+        final ScheduleDiff diff, final int stored, final long ttl
+    ) {
+        if (diff.isEmpty()) {
+            return;
+        }
+        final List<Session> written = new ArrayList<>(diff.added());
+        written.addAll(diff.changed());
+        final byte[] binaryKey = bytes(key);
+        try (Pipeline pipeline = jedis.pipelined()) {
+            if (stored - diff.removed().size() + diff.added().size() == 0) {
+                pipeline.del(binaryKey);
+            } else {
+                if (!written.isEmpty()) {
+                    pipeline.hset(binaryKey, SessionRecords.filmFields(written));
+                    pipeline.hset(bytes(cinemaKey), SessionRecords.cinemaFields(written));
+                    pipeline.expire(cinemaKey, ttl);
+                }
+                if (!diff.removed().isEmpty()) {
+                    pipeline.hdel(binaryKey, diff.removed().stream().map(SessionRecords::field).toArray(byte[][]::new));
+                }
+                pipeline.expire(key, ttl);
+            }
+            pipeline.sync();
+        }
+    }
+
+    private static void deleteMatching(final Jedis jedis, final String pattern) {
+        final ScanParams scanParams = new ScanParams().match(pattern).count(SCAN_COUNT);
+        String cursor = "0";
+        do {
+            final ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+            final List<String> keys = scanResult.getResult();
+            if (!keys.isEmpty()) {
+                jedis.del(keys.toArray(new String[0]));
+            }
+            cursor = scanResult.getCursor();
+        } while (!"0".equals(cursor));
     }
 
     private Set<String> scanKeys(final String pattern) {
@@ -375,6 +761,52 @@ public class RedisCache {
         return city.asPrefix() + date + ":" + filmName;
     }
 
+    /**
+     * Builds the key of the cinemas of a city's sessions on a date.
+     *
+     * @param city City component
+     * @param date Date component
+     * @return Key in format {@code CINEMA:CITY:DATE}
+     */
+    private String buildCinemaKey(final City city, final LocalDate date) {
+        return CINEMA_PREFIX + city.asPrefix() + date;
+    }
+
+    /**
+     * Builds the key of a crawl progress set.
+     *
+     * @param runId Crawl run component
+     * @param name  Set name component
+     * @return Key in format {@code CRAWL:RUN:NAME}
+     */
+    private String buildCheckpointKey(final String runId, final String name) {
+        return CHECKPOINT_PREFIX + runId + ":" + name;
+    }
+
+    /**
+     * Builds the key of the page digests of a film's schedule.
+     *
+     * @param city    City component
+     * @param date    Date component
+     * @param filmUrl Film link component
+     * @return Key in format {@code PAGEHASH:CITY:DATE:FILM_URL}
+     */
+    private String buildPageHashKey(final City city, final LocalDate date, final String filmUrl) {
+        return PAGE_HASH_PREFIX + city.asPrefix() + date + ":" + filmUrl;
+    }
+
+    /**
+     * Builds the key of a cached film listing.
+     *
+     * @param city  City component
+     * @param start First date of the range
+     * @param end   Last date of the range
+     * @return Key in format {@code LISTING:CITY:START_END}
+     */
+    private String buildListingKey(final City city, final LocalDate start, final LocalDate end) {
+        return LISTING_PREFIX + city.asPrefix() + start + "_" + end;
+    }
+
     /**
      * Calculates TTL (time-to-live) for a cache entry.
      * Sessions expire at the end of their respective date.
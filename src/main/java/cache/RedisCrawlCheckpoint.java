@@ -0,0 +1,126 @@
+package cache;
+
+import crawler.CrawlCheckpoint;
+import crawler.CrawlUnit;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.logging.Logger;
+import org.json.JSONException;
+import org.json.JSONObject;
+import parser.City;
+
+/**
+ * {@link CrawlCheckpoint} kept in Redis, so the progress of a run outlives
+ * the process that made it.
+ *
+ * <h2>Key Structure</h2>
+ * Every set lives under {@code CRAWL:RUN:} (see {@link RedisCache}):
+ * <ul>
+ *   <li>{@code FRONTIER:CITY} - planned units of the city as JSON objects</li>
+ *   <li>{@code DONE:CITY} - keys of the units that finished, see {@link CrawlUnit#key()}</li>
+ *   <li>{@code CITIES} - cities whose units were all attempted</li>
+ * </ul>
+ *
+ * <p>Redis failures are logged by {@link RedisCache} and never stop the crawl;
+ * at worst a restarted run fetches some units again.
+ */
+public final class RedisCrawlCheckpoint implements CrawlCheckpoint {
+    private static final Logger LOGGER = Logger.getLogger(RedisCrawlCheckpoint.class.getName());
+    private static final String FRONTIER = "FRONTIER:";
+    private static final String DONE = "DONE:";
+    private static final String CITIES = "CITIES";
+
+    private final RedisCache redisCache;
+    private final String runId;
+
+    /**
+     * Creates a checkpoint for a run.
+     *
+     * @param redisCache Cache to keep the progress in
+     * @param runId Identifier shared by every attempt of the same run
+     */
+    public RedisCrawlCheckpoint(final RedisCache redisCache, final String runId) {
+        this.redisCache = redisCache;
+        this.runId = runId;
+    }
+
+    @Override
+    public Optional<List<CrawlUnit>> pendingUnits(final City city) {
+        final Set<String> planned = this.redisCache.getCheckpointMembers(this.runId, FRONTIER + city.name());
+        if (planned.isEmpty()) {
+            return Optional.empty();
+        }
+        final Set<String> done = this.redisCache.getCheckpointMembers(this.runId, DONE + city.name());
+        final List<CrawlUnit> pending = new ArrayList<>(planned.size());
+        for (final String encoded : planned) {
+            final Optional<CrawlUnit> unit = decode(encoded, city);
+            if (unit.isEmpty()) {
+                return Optional.empty();
+            }
+            if (!done.contains(unit.get().key())) {
+                pending.add(unit.get());
+            }
+        }
+        return Optional.of(pending);
+    }
+
+    @Override
+    public void savePlan(final City city, final List<CrawlUnit> units) {
+        this.redisCache.addCheckpointMembers(
+            this.runId, FRONTIER + city.name(), units.stream().map(RedisCrawlCheckpoint::encode).toList()
+        );
+    }
+
+    @Override
+    public void markCompleted(final CrawlUnit unit) {
+        this.redisCache.addCheckpointMembers(this.runId, DONE + unit.city().name(), List.of(unit.key()));
+    }
+
+    @Override
+    public boolean isCityCompleted(final City city) {
+        return this.redisCache.getCheckpointMembers(this.runId, CITIES).contains(city.name());
+    }
+
+    @Override
+    public void markCityCompleted(final City city) {
+        this.redisCache.addCheckpointMembers(this.runId, CITIES, List.of(city.name()));
+    }
+
+    @Override
+    public void clear() {
+        this.redisCache.clearCheckpoint(this.runId);
+    }
+
+    private static String encode(final CrawlUnit unit) {
+        return new JSONObject()
+            .put("film", unit.filmName())
+            .put("url", unit.filmUrl())
+            .put("image", unit.imageUrl())
+            .put("date", unit.date().toString())
+            .toString();
+    }
+
+    /**
+     * Restores a unit saved by {@link #encode(CrawlUnit)}. A frontier that
+     * cannot be read is treated as missing and the city is planned again.
+     */
+    private static Optional<CrawlUnit> decode(final String encoded, final City city) {
+        try {
+            final JSONObject json = new JSONObject(encoded);
+            return Optional.of(new CrawlUnit(
+                city,
+                json.getString("film"),
+                json.getString("url"),
+                json.optString("image", null),
+                LocalDate.parse(json.getString("date"))
+            ));
+        } catch (final JSONException | DateTimeParseException e) {
+            LOGGER.warning(() -> String.format("Ignoring unreadable crawl frontier of %s: %s", city, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import parser.Session;
+
+/**
+ * Difference between the stored sessions of a film and a newly crawled
+ * snapshot of them. A session is identified by its start time and cinema,
+ * so a session found on both sides whose other details differ, such as a
+ * new price, is changed rather than removed and added again.
+ *
+ * @param added Sessions found only in the snapshot
+ * @param removed Stored sessions the snapshot no longer has
+ * @param changed Snapshot versions of the sessions whose details changed
+ */
+public record ScheduleDiff(List<Session> added, List<Session> removed, List<Session> changed) {
+
+    private static final ScheduleDiff NONE = new ScheduleDiff(List.of(), List.of(), List.of());
+
+    /** Constructor. */
+    public ScheduleDiff {
+        added = List.copyOf(added);
+        removed = List.copyOf(removed);
+        changed = List.copyOf(changed);
+    }
+
+    /**
+     * Returns a difference with no sessions in it.
+     *
+     * @return The empty difference
+     */
+    public static ScheduleDiff none() {
+        return NONE;
+    }
+
+    /**
+     * Compares stored sessions with a snapshot. Only the stored sessions the
+     * snapshot covers can be removed: a snapshot of some pages of a
+     * schedule says nothing about the sessions on the other pages.
+     *
+     * @param stored The sessions stored so far
+     * @param snapshot The sessions just crawled
+     * @param covered Tells the stored sessions the snapshot would contain if they were still on
+     * @return The difference
+     */
+    public static ScheduleDiff between(
+        final Collection<Session> stored, final Collection<Session> snapshot, final Predicate<Session> covered
+    ) {
+        final Map<String, Session> before = byIdentity(stored);
+        final Map<String, Session> after = byIdentity(snapshot);
+        final List<Session> added = new ArrayList<>();
+        final List<Session> changed = new ArrayList<>();
+        after.forEach((identity, session) -> {
+            final Session previous = before.get(identity);
+            if (previous == null) {
+                added.add(session);
+            } else if (!previous.equals(session)) {
+                changed.add(session);
+            }
+        });
+        final List<Session> removed = before.entrySet().stream()
+            .filter(entry -> !after.containsKey(entry.getKey()) && covered.test(entry.getValue()))
+            .map(Map.Entry::getValue)
+            .toList();
+        return new ScheduleDiff(added, removed, changed);
+    }
+
+    /**
+     * Returns the key a session is identified by within one film.
+     *
+     * @param session The session
+     * @return The start time and cinema of the session
+     */
+    public static String identity(final Session session) {
+        return session.dateTime() + "|" + session.cinema();
+    }
+
+    /**
+     * Combines two differences of distinct sessions.
+     *
+     * @param other The other difference
+     * @return The difference holding the sessions of both
+     */
+    public ScheduleDiff plus(final ScheduleDiff other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (this.isEmpty()) {
+            return other;
+        }
+        return new ScheduleDiff(
+            concat(this.added, other.added), concat(this.removed, other.removed), concat(this.changed, other.changed)
+        );
+    }
+
+    /**
+     * Tells whether nothing changed.
+     *
+     * @return True if no session was added, removed or changed
+     */
+    public boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+    }
+
+    /**
+     * Keeps the first of the sessions sharing an identity, as the cache
+     * always has.
+     */
+    private static Map<String, Session> byIdentity(final Collection<Session> sessions) {
+        final Map<String, Session> sessionsById = new LinkedHashMap<>();
+        sessions.forEach(session -> sessionsById.putIfAbsent(identity(session), session));
+        return sessionsById;
+    }
+
+    private static List<Session> concat(final List<Session> first, final List<Session> second) {
+        final List<Session> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
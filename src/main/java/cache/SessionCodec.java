@@ -0,0 +1,328 @@
+package cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import parser.Cinema;
+import parser.Session;
+import parser.SessionDictionary;
+
+/**
+ * Compact binary form of a list of sessions, used for the values stored in
+ * Redis before {@link SessionRecords}. Nothing writes it any more: values
+ * stored in it are still read, and {@link SessionRecords} reuses its varint
+ * and genre helpers. Strings are written once per value into a string
+ * table and referenced by index, start times as minutes since the epoch,
+ * numbers as varints, and genres as a bitmask over {@link #GENRES} when they
+ * are all known and in table order.
+ *
+ * <p>A value starts with a zero byte, which no JSON text does, and the
+ * format version. Readers check {@link #isEncoded(byte[])} and read older
+ * JSON values with {@link Session#fromJsonArray(String)}.
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class SessionCodec {
+
+    /** Version written by {@link #encode(List)}. */
+    public static final int VERSION = 1;
+
+    /**
+     * Genres with a bit in version 1, by bit number. New genres may only be
+     * appended: the bits of values already stored must keep their meaning.
+     */
+    static final List<String> GENRES = List.of(
+        "Аниме", "Боевик", "Биография", "Вестерн", "Военный", "Детектив", "Детский", "Документальный",
+        "Драма", "Исторический", "Комедия", "Криминальный", "Мелодрама", "Мистика", "Музыкальный", "Мюзикл",
+        "Мультфильм", "Приключения", "Ромком", "Семейный", "Трагикомедия", "Триллер", "Ужасы", "Фантастика",
+        "Фэнтези", "Экранизация", "Анимация", "Короткометражный", "Спорт", "Концерт", "Артхаус"
+    );
+
+    private static final byte MAGIC = 0;
+    private static final int SUBTITLES = 1;
+    private static final int SECONDS = 1 << 1;
+    private static final int GENRE_MASK = 1 << 2;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MORE = 0x80;
+    private static final int VARINT_PAYLOAD = 0x7F;
+    private static final int LONG_BITS = 63;
+
+    private SessionCodec() {
+        // Utility class
+    }
+
+    /**
+     * Tells whether a stored value was written by this codec.
+     *
+     * @param value The stored value
+     * @return True if it is binary, false if it is JSON
+     */
+    public static boolean isEncoded(final byte[] value) {
+        return value != null && value.length > 1 && value[0] == MAGIC;
+    }
+
+    /**
+     * Decodes a stored value written by this codec or, before it, as JSON.
+     *
+     * @param value The stored value
+     * @return The sessions
+     */
+    public static List<Session> decodeStored(final byte[] value) {
+        return decodeStored(value, new SessionDictionary());
+    }
+
+    /**
+     * Decodes a stored value written by this codec or, before it, as JSON,
+     * sharing the film details and cinemas of a snapshot.
+     *
+     * @param value The stored value
+     * @param dictionary The film details and cinemas of the snapshot
+     * @return The sessions
+     */
+    public static List<Session> decodeStored(final byte[] value, final SessionDictionary dictionary) {
+        if (isEncoded(value)) {
+            return decode(value, dictionary);
+        }
+        return value == null ? List.of() : Session.fromJsonArray(new String(value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encodes sessions the way values were stored before {@link SessionRecords};
+     * kept for tests that build such values.
+     *
+     * @param sessions The sessions
+     * @return The binary value
+     */
+    static byte[] encode(final List<Session> sessions) {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeVarint(body, sessions.size());
+        sessions.forEach(session -> writeSession(body, session, strings));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + strings.size() * 16 + 4);
+        out.write(MAGIC);
+        writeVarint(out, VERSION);
+        writeVarint(out, strings.size());
+        strings.keySet().forEach(string -> {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.writeBytes(bytes);
+        });
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes sessions.
+     *
+     * @param value A value written by {@link #encode(List)}
+     * @return The sessions
+     * @throws IllegalArgumentException If the value is not binary, is of a newer version or is cut short
+     */
+    static List<Session> decode(final byte[] value) {
+        return decode(value, new SessionDictionary());
+    }
+
+    /**
+     * Decodes sessions, sharing the film details and cinemas of a snapshot.
+     *
+     * @param value A value written by {@link #encode(List)}
+     * @param dictionary The film details and cinemas of the snapshot
+     * @return The sessions
+     * @throws IllegalArgumentException If the value is not binary, is of a newer version or is cut short
+     */
+    static List<Session> decode(final byte[] value, final SessionDictionary dictionary) {
+        if (!isEncoded(value)) {
+            throw new IllegalArgumentException("Not a binary session value");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(value, 1, value.length - 1);
+        try {
+            final long version = readVarint(buffer);
+            if (version > VERSION) {
+                throw new IllegalArgumentException("Unsupported session value version " + version);
+            }
+            final List<String> strings = readStrings(buffer);
+            final int count = (int) readVarint(buffer);
+            final List<Session> sessions = new ArrayList<>(count);
+            for (int idx = 0; idx < count; idx++) {
+                sessions.add(readSession(buffer, strings, dictionary));
+            }
+            return sessions;
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated session value", e);
+        }
+    }
+
+    private static void writeSession(
+        final ByteArrayOutputStream out, final Session session, final Map<String, Integer> strings
+    ) {
+        final long epochSecond = session.dateTime().toEpochSecond(ZoneOffset.UTC);
+        final long extra = Math.floorMod(epochSecond, SECONDS_PER_MINUTE) * NANOS_PER_SECOND
+            + session.dateTime().getNano();
+        final long genreMask = genreMask(session.genres());
+        int flags = session.russianSubtitlesSession() ? SUBTITLES : 0;
+        if (extra != 0) {
+            flags |= SECONDS;
+        }
+        if (genreMask >= 0) {
+            flags |= GENRE_MASK;
+        }
+        writeVarint(out, zigzag(Math.floorDiv(epochSecond, SECONDS_PER_MINUTE)));
+        out.write(flags);
+        if (extra != 0) {
+            writeVarint(out, extra);
+        }
+        writeString(out, session.name(), strings);
+        writeString(out, session.description(), strings);
+        writeString(out, session.verdict(), strings);
+        writeString(out, session.cinema(), strings);
+        writeString(out, session.address(), strings);
+        writeString(out, session.link(), strings);
+        writeString(out, session.imageUrl(), strings);
+        writeVarint(out, zigzag(session.price()));
+        if (genreMask >= 0) {
+            writeVarint(out, genreMask);
+        } else {
+            writeVarint(out, session.genres().size());
+            session.genres().forEach(genre -> writeString(out, genre, strings));
+        }
+    }
+
+    private static Session readSession(
+        final ByteBuffer buffer, final List<String> strings, final SessionDictionary dictionary
+    ) {
+        final long minute = unzigzag(readVarint(buffer));
+        final int flags = buffer.get();
+        final long extra = (flags & SECONDS) == 0 ? 0 : readVarint(buffer);
+        final LocalDateTime dateTime = LocalDateTime.ofEpochSecond(
+            minute * SECONDS_PER_MINUTE + extra / NANOS_PER_SECOND,
+            (int) (extra % NANOS_PER_SECOND),
+            ZoneOffset.UTC
+        );
+        final String name = readString(buffer, strings);
+        final String description = readString(buffer, strings);
+        final String verdict = readString(buffer, strings);
+        final String cinema = readString(buffer, strings);
+        final String address = readString(buffer, strings);
+        final String link = readString(buffer, strings);
+        final String imageUrl = readString(buffer, strings);
+        final int price = (int) unzigzag(readVarint(buffer));
+        final List<String> genres = (flags & GENRE_MASK) == 0
+            ? readGenres(buffer, strings)
+            : genresOf(readVarint(buffer));
+        return dictionary.session(
+            dateTime, dictionary.film(name, description, verdict, genres), new Cinema(cinema, address),
+            price, link, (flags & SUBTITLES) != 0, imageUrl
+        );
+    }
+
+    /**
+     * Returns the bitmask of genres that are all in the table and listed in
+     * table order, so the mask gives them back in the same order.
+     *
+     * @return The mask, or -1 if the genres need to be written as strings
+     */
+    static long genreMask(final List<String> genres) {
+        long mask = 0;
+        int previous = -1;
+        for (final String genre : genres) {
+            final int bit = GENRES.indexOf(genre);
+            if (bit <= previous) {
+                return -1;
+            }
+            mask |= 1L << bit;
+            previous = bit;
+        }
+        return mask;
+    }
+
+    static List<String> genresOf(final long mask) {
+        final List<String> genres = new ArrayList<>(Long.bitCount(mask));
+        for (int bit = 0; bit < GENRES.size(); bit++) {
+            if ((mask & 1L << bit) != 0) {
+                genres.add(GENRES.get(bit));
+            }
+        }
+        return List.copyOf(genres);
+    }
+
+    private static List<String> readGenres(final ByteBuffer buffer, final List<String> strings) {
+        final int count = (int) readVarint(buffer);
+        final List<String> genres = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx++) {
+            genres.add(readString(buffer, strings));
+        }
+        return List.copyOf(genres);
+    }
+
+    /**
+     * Writes a string as its index in the string table plus one, adding it
+     * to the table if it is new; null is written as 0.
+     */
+    private static void writeString(
+        final ByteArrayOutputStream out, final String value, final Map<String, Integer> strings
+    ) {
+        if (value == null) {
+            writeVarint(out, 0);
+        } else {
+            writeVarint(out, strings.computeIfAbsent(value, key -> strings.size()) + 1L);
+        }
+    }
+
+    private static String readString(final ByteBuffer buffer, final List<String> strings) {
+        final int index = (int) readVarint(buffer);
+        return index == 0 ? null : strings.get(index - 1);
+    }
+
+    private static List<String> readStrings(final ByteBuffer buffer) {
+        final int count = (int) readVarint(buffer);
+        final List<String> strings = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx++) {
+            final int length = (int) readVarint(buffer);
+            strings.add(new String(
+                buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8
+            ));
+            buffer.position(buffer.position() + length);
+        }
+        return strings;
+    }
+
+    static void writeVarint(final ByteArrayOutputStream out, final long value) {
+        long rest = value;
+        while ((rest & ~VARINT_PAYLOAD) != 0) {
+            out.write((int) (rest & VARINT_PAYLOAD) | VARINT_MORE);
+            rest >>>= VARINT_BITS;
+        }
+        out.write((int) rest);
+    }
+
+    static long readVarint(final ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        int next;
+        do {
+            if (shift > LONG_BITS) {
+                throw new IllegalArgumentException("Malformed varint buffer session value");
+            }
+            next = buffer.get();
+            value |= (long) (next & VARINT_PAYLOAD) << shift;
+            shift += VARINT_BITS;
+        } while ((next & VARINT_MORE) != 0);
+        return value;
+    }
+
+    static long zigzag(final long value) {
+        return value << 1 ^ value >> LONG_BITS;
+    }
+
+    static long unzigzag(final long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
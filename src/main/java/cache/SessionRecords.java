@@ -0,0 +1,416 @@
+package cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import parser.Cinema;
+import parser.FilmMetadata;
+import parser.Session;
+import parser.SessionDictionary;
+
+/**
+ * Normalized storage of the sessions of a film. The details every session
+ * of a film shares are stored once in a {@link Film} record, the name and
+ * address of a cinema once in a cinema record, and each session as a slim
+ * {@link Row} that refers to its cinema by id. Sessions are rebuilt from the
+ * records on read, sharing the film details and cinemas they were stored
+ * apart from.
+ *
+ * <p>A record starts with a byte telling its kind and the format version,
+ * so rows can be told from the whole sessions {@link SessionCodec} stored
+ * before and from JSON.
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+final class SessionRecords {
+
+    /** Field of a film hash that holds the film record. */
+    static final String FILM_FIELD = "@film";
+
+    /** Version written with every record. */
+    static final int VERSION = 1;
+
+    private static final byte FILM = 1;
+    private static final byte CINEMA = 2;
+    private static final byte ROW = 3;
+    private static final int SUBTITLES = 1;
+    private static final int SECONDS = 1 << 1;
+    private static final int LINK = 1 << 2;
+    private static final int GENRE_MASK = 1 << 3;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int ID_BYTES = 6;
+
+    private SessionRecords() {
+        // Utility class
+    }
+
+    /**
+     * Returns the hash fields of the sessions of one film: the film record,
+     * taken from the first session, and a row per session.
+     *
+     * @param sessions Sessions of one film
+     * @return The fields, the film record first
+     */
+    static Map<byte[], byte[]> filmFields(final Collection<Session> sessions) {
+        final Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        if (sessions.isEmpty()) {
+            return fields;
+        }
+        final Film film = Film.from(sessions.iterator().next());
+        fields.put(bytes(FILM_FIELD), film.encode());
+        sessions.forEach(session -> fields.put(field(session), Row.from(session).encode()));
+        return fields;
+    }
+
+    /**
+     * Returns the cinema hash fields of the cinemas the sessions are shown in.
+     *
+     * @param sessions The sessions
+     * @return Cinema records keyed by cinema id
+     */
+    static Map<byte[], byte[]> cinemaFields(final Collection<Session> sessions) {
+        final Map<String, Cinema> cinemas = new LinkedHashMap<>();
+        sessions.forEach(session -> cinemas.putIfAbsent(session.cinema(), session.venue()));
+        final Map<byte[], byte[]> fields = new LinkedHashMap<>();
+        cinemas.values().forEach(cinema -> fields.put(bytes(cinemaId(cinema.name())), encode(cinema)));
+        return fields;
+    }
+
+    /**
+     * Returns the hash field a session is stored under: its start time and
+     * cinema id, the normalized form of {@link ScheduleDiff#identity}.
+     *
+     * @param session The session
+     * @return The field name
+     */
+    static byte[] field(final Session session) {
+        return bytes(session.dateTime() + "|" + cinemaId(session.cinema()));
+    }
+
+    /**
+     * Decodes the values of a cinema hash.
+     *
+     * @param values The stored cinema records
+     * @param dictionary The film details and cinemas of the snapshot read
+     * @return The cinemas by id
+     */
+    static Map<String, Cinema> cinemas(final Collection<byte[]> values, final SessionDictionary dictionary) {
+        final Map<String, Cinema> cinemas = new HashMap<>();
+        values.stream()
+            .map(value -> dictionary.cinema(decodeCinema(value)))
+            .forEach(cinema -> cinemas.put(cinemaId(cinema.name()), cinema));
+        return cinemas;
+    }
+
+    /**
+     * Rebuilds the sessions of a film hash. Rows are joined with the film
+     * record and their cinemas, rows of a cinema no longer stored are
+     * dropped, and any other value is read as a whole session stored before
+     * the records.
+     *
+     * @param values The values of the hash
+     * @param cinemas The cinemas of the date, by id
+     * @param dictionary The film details and cinemas of the snapshot read
+     * @return The sessions
+     */
+    static List<Session> join(
+        final Collection<byte[]> values, final Map<String, Cinema> cinemas, final SessionDictionary dictionary
+    ) {
+        Film film = null;
+        final List<Row> rows = new ArrayList<>();
+        final List<Session> sessions = new ArrayList<>();
+        for (final byte[] value : values) {
+            if (isKind(value, FILM)) {
+                film = Film.decode(value, dictionary);
+            } else if (isKind(value, ROW)) {
+                rows.add(Row.decode(value));
+            } else {
+                sessions.addAll(SessionCodec.decodeStored(value, dictionary));
+            }
+        }
+        if (film != null) {
+            for (final Row row : rows) {
+                final Cinema cinema = cinemas.get(row.cinemaId());
+                if (cinema != null) {
+                    sessions.add(row.session(film, cinema));
+                }
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Returns the ids of the cinemas the rows of a film hash refer to.
+     *
+     * @param values The values of the hash
+     * @return The cinema ids
+     */
+    static Set<String> cinemaIds(final Collection<byte[]> values) {
+        final Set<String> ids = new HashSet<>();
+        values.stream()
+            .filter(value -> isKind(value, ROW))
+            .forEach(value -> ids.add(Row.decode(value).cinemaId()));
+        return ids;
+    }
+
+    /**
+     * Tells whether the values of a film hash are stored as records.
+     *
+     * @param values The values of the hash
+     * @return True if the hash holds a film record
+     */
+    static boolean isNormalized(final Collection<byte[]> values) {
+        return values.stream().anyMatch(value -> isKind(value, FILM));
+    }
+
+    /**
+     * Returns the id a cinema is referred to by: the first 48 bits of the
+     * SHA-256 of its name, Base64url encoded. The address is left out, so a
+     * cinema that moves keeps its sessions.
+     *
+     * @param name The cinema name
+     * @return The id
+     */
+    static String cinemaId(final String name) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(String.valueOf(name).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, ID_BYTES));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Encodes a cinema record.
+     *
+     * @param cinema The cinema
+     * @return The record
+     */
+    static byte[] encode(final Cinema cinema) {
+        final ByteArrayOutputStream out = start(CINEMA);
+        writeText(out, cinema.name());
+        writeText(out, cinema.address());
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a cinema record.
+     *
+     * @param value The record
+     * @return The cinema
+     */
+    static Cinema decodeCinema(final byte[] value) {
+        final ByteBuffer buffer = open(value, CINEMA);
+        try {
+            return new Cinema(readText(buffer), readText(buffer));
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated cinema record", e);
+        }
+    }
+
+    private static boolean isKind(final byte[] value, final byte kind) {
+        return value != null && value.length > 1 && value[0] == kind;
+    }
+
+    private static ByteArrayOutputStream start(final byte kind) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(kind);
+        SessionCodec.writeVarint(out, VERSION);
+        return out;
+    }
+
+    private static ByteBuffer open(final byte[] value, final byte kind) {
+        if (!isKind(value, kind)) {
+            throw new IllegalArgumentException("Not a session record of kind " + kind);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(value, 1, value.length - 1);
+        final long version = SessionCodec.readVarint(buffer);
+        if (version > VERSION) {
+            throw new IllegalArgumentException("Unsupported session record version " + version);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes a string as its UTF-8 length plus one and its bytes; null is
+     * written as 0.
+     */
+    private static void writeText(final ByteArrayOutputStream out, final String value) {
+        if (value == null) {
+            SessionCodec.writeVarint(out, 0);
+        } else {
+            final byte[] text = bytes(value);
+            SessionCodec.writeVarint(out, text.length + 1L);
+            out.writeBytes(text);
+        }
+    }
+
+    private static String readText(final ByteBuffer buffer) {
+        final int length = (int) SessionCodec.readVarint(buffer) - 1;
+        if (length < 0) {
+            return null;
+        }
+        final String value = new String(
+            buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8
+        );
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] bytes(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The details shared by every session of a film.
+     *
+     * @param metadata The name, description, verdict and genres
+     * @param imageUrl The poster link
+     * @param link The schedule link of the session the record was taken from,
+     *     only read for rows stored without a link of their own
+     */
+    record Film(FilmMetadata metadata, String imageUrl, String link) {
+
+        static Film from(final Session session) {
+            return new Film(session.film(), session.imageUrl(), session.link());
+        }
+
+        byte[] encode() {
+            final ByteArrayOutputStream out = start(FILM);
+            final List<String> genres = this.metadata.genres();
+            final long mask = SessionCodec.genreMask(genres);
+            out.write(mask >= 0 ? GENRE_MASK : 0);
+            writeText(out, this.metadata.name());
+            writeText(out, this.metadata.description());
+            writeText(out, this.metadata.verdict());
+            writeText(out, this.imageUrl);
+            writeText(out, this.link);
+            if (mask >= 0) {
+                SessionCodec.writeVarint(out, mask);
+            } else {
+                SessionCodec.writeVarint(out, genres.size());
+                genres.forEach(genre -> writeText(out, genre));
+            }
+            return out.toByteArray();
+        }
+
+        static Film decode(final byte[] value, final SessionDictionary dictionary) {
+            final ByteBuffer buffer = open(value, FILM);
+            try {
+                final int flags = buffer.get();
+                final String name = readText(buffer);
+                final String description = readText(buffer);
+                final String verdict = readText(buffer);
+                final String imageUrl = readText(buffer);
+                final String link = readText(buffer);
+                final List<String> genres = (flags & GENRE_MASK) == 0
+                    ? readGenres(buffer)
+                    : SessionCodec.genresOf(SessionCodec.readVarint(buffer));
+                return new Film(dictionary.film(name, description, verdict, genres), imageUrl, link);
+            } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Truncated film record", e);
+            }
+        }
+
+        private static List<String> readGenres(final ByteBuffer buffer) {
+            final int count = (int) SessionCodec.readVarint(buffer);
+            final List<String> genres = new ArrayList<>(count);
+            for (int idx = 0; idx < count; idx++) {
+                genres.add(readText(buffer));
+            }
+            return List.copyOf(genres);
+        }
+    }
+
+    /**
+     * What is particular to one session of a film.
+     *
+     * @param dateTime The start of the session
+     * @param cinemaId The id of the cinema
+     * @param price The price
+     * @param subtitles Whether the session has Russian subtitles
+     * @param link The schedule link, or null for a row stored without one,
+     *     which takes the film's
+     */
+    record Row(LocalDateTime dateTime, String cinemaId, int price, boolean subtitles, String link) {
+
+        /**
+         * Takes the row of a session. The link is always kept: it is the URL
+         * of the schedule page the session was read from, so sessions of one
+         * film differ in it, and the film record is rewritten by every write.
+         */
+        static Row from(final Session session) {
+            return new Row(
+                session.dateTime(), SessionRecords.cinemaId(session.cinema()), session.price(),
+                session.russianSubtitlesSession(), session.link()
+            );
+        }
+
+        Session session(final Film film, final Cinema cinema) {
+            return new Session(
+                this.dateTime, film.metadata(), cinema, this.price, this.link == null ? film.link() : this.link,
+                this.subtitles, film.imageUrl()
+            );
+        }
+
+        byte[] encode() {
+            final ByteArrayOutputStream out = start(ROW);
+            final long epochSecond = this.dateTime.toEpochSecond(ZoneOffset.UTC);
+            final long extra = Math.floorMod(epochSecond, SECONDS_PER_MINUTE) * NANOS_PER_SECOND
+                + this.dateTime.getNano();
+            int flags = this.subtitles ? SUBTITLES : 0;
+            if (extra != 0) {
+                flags |= SECONDS;
+            }
+            if (this.link != null) {
+                flags |= LINK;
+            }
+            SessionCodec.writeVarint(out, SessionCodec.zigzag(Math.floorDiv(epochSecond, SECONDS_PER_MINUTE)));
+            out.write(flags);
+            if (extra != 0) {
+                SessionCodec.writeVarint(out, extra);
+            }
+            writeText(out, this.cinemaId);
+            SessionCodec.writeVarint(out, SessionCodec.zigzag(this.price));
+            if (this.link != null) {
+                writeText(out, this.link);
+            }
+            return out.toByteArray();
+        }
+
+        static Row decode(final byte[] value) {
+            final ByteBuffer buffer = open(value, ROW);
+            try {
+                final long minute = SessionCodec.unzigzag(SessionCodec.readVarint(buffer));
+                final int flags = buffer.get();
+                final long extra = (flags & SECONDS) == 0 ? 0 : SessionCodec.readVarint(buffer);
+                final LocalDateTime dateTime = LocalDateTime.ofEpochSecond(
+                    minute * SECONDS_PER_MINUTE + extra / NANOS_PER_SECOND, (int) (extra % NANOS_PER_SECOND),
+                    ZoneOffset.UTC
+                );
+                final String cinemaId = readText(buffer);
+                final int price = (int) SessionCodec.unzigzag(SessionCodec.readVarint(buffer));
+                final String link = (flags & LINK) == 0 ? null : readText(buffer);
+                return new Row(dateTime, cinemaId, price, (flags & SUBTITLES) != 0, link);
+            } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Truncated session row", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package crawler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time and request allowance of a crawl. The crawl reports the latency and
+ * the number of requests of every fetched unit; from those the budget
+ * estimates how many of the remaining units still fit before the deadline
+ * and within the request limit, and keeps the most important ones.
+ *
+ * <p>Units are ranked by {@link #PRIORITY}: the soonest dates first, and
+ * within a date the cities in declaration order, busiest first. Far-future
+ * dates of quiet cities are the first to be left out.
+ */
+public final class CrawlBudget {
+
+    /**
+     * Order in which units are kept when the budget is short.
+     */
+    public static final Comparator<CrawlUnit> PRIORITY = Comparator
+        .comparing(CrawlUnit::date)
+        .thenComparing(CrawlUnit::city);
+
+    private static final Duration ASSUMED_UNIT_LATENCY = Duration.ofSeconds(2);
+
+    private final Instant deadline;
+    private final int maxRequests;
+    private final Clock clock;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger fetchedUnits = new AtomicInteger();
+    private final AtomicLong fetchNanos = new AtomicLong();
+
+    /**
+     * Creates a budget.
+     *
+     * @param deadline The moment the crawl has to be finished by
+     * @param maxRequests Maximum number of requests the crawl may send
+     * @param clock The clock the deadline is checked against
+     */
+    public CrawlBudget(final Instant deadline, final int maxRequests, final Clock clock) {
+        if (maxRequests < 0) {
+            throw new IllegalArgumentException(
+                String.format("Request budget must not be negative, got %d", maxRequests)
+            );
+        }
+        this.deadline = deadline;
+        this.maxRequests = maxRequests;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a budget that never leaves a unit out.
+     *
+     * @return The budget
+     */
+    public static CrawlBudget unlimited() {
+        return new CrawlBudget(Instant.MAX, Integer.MAX_VALUE, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a budget that ends at the next occurrence of a local time.
+     *
+     * @param finishBy The local time the crawl has to be finished by
+     * @param zone The time zone of the finish time
+     * @param maxRequests Maximum number of requests the crawl may send
+     * @param clock The clock giving the current time
+     * @return The budget
+     */
+    public static CrawlBudget until(
+        final LocalTime finishBy, final ZoneId zone, final int maxRequests, final Clock clock
+    ) {
+        final ZonedDateTime now = ZonedDateTime.now(clock.withZone(zone));
+        ZonedDateTime deadline = now.with(finishBy);
+        if (!deadline.isAfter(now)) {
+            deadline = deadline.plusDays(1);
+        }
+        return new CrawlBudget(deadline.toInstant(), maxRequests, clock);
+    }
+
+    /**
+     * Records a fetched unit. Called from crawl worker threads.
+     *
+     * @param latency How long the unit took to fetch
+     * @param sent Number of requests the unit sent
+     */
+    public void record(final Duration latency, final int sent) {
+        this.fetchNanos.addAndGet(latency.toNanos());
+        this.fetchedUnits.incrementAndGet();
+        this.requests.addAndGet(sent);
+    }
+
+    /**
+     * Keeps the units that are expected to fit in what is left of the budget.
+     * Until a unit has been measured, every unit is assumed to take two
+     * seconds and one request.
+     *
+     * @param units The units still to fetch
+     * @param concurrency Number of units fetched at the same time
+     * @return The units to fetch, most important first
+     */
+    public List<CrawlUnit> fit(final List<CrawlUnit> units, final int concurrency) {
+        final List<CrawlUnit> ranked = new ArrayList<>(units);
+        ranked.sort(PRIORITY);
+        final long affordable = Math.min(this.affordableByTime(concurrency), this.affordableByRequests());
+        if (affordable >= ranked.size()) {
+            return ranked;
+        }
+        return List.copyOf(ranked.subList(0, (int) Math.max(affordable, 0)));
+    }
+
+    public int requestsSent() {
+        return this.requests.get();
+    }
+
+    private long affordableByTime(final int concurrency) {
+        final Instant now = this.clock.instant();
+        if (!now.isBefore(this.deadline)) {
+            return 0;
+        }
+        final double secondsLeft = Duration.between(now, this.deadline).getSeconds();
+        final double slots = secondsLeft / this.unitLatency().toMillis() * 1_000 * concurrency;
+        return (long) Math.min(slots, Integer.MAX_VALUE);
+    }
+
+    private long affordableByRequests() {
+        final int fetched = this.fetchedUnits.get();
+        final int sent = this.requests.get();
+        final double perUnit = fetched == 0 || sent == 0 ? 1.0 : (double) sent / fetched;
+        return (long) ((this.maxRequests - sent) / perUnit);
+    }
+
+    private Duration unitLatency() {
+        final int fetched = this.fetchedUnits.get();
+        if (fetched == 0) {
+            return ASSUMED_UNIT_LATENCY;
+        }
+        return Duration.ofNanos(Math.max(this.fetchNanos.get() / fetched, 1_000_000L));
+    }
+}
@@ -0,0 +1,67 @@
+package crawler;
+
+import java.util.List;
+import java.util.Optional;
+import parser.City;
+
+/**
+ * Durable progress of a crawl run. The planned units of each city (the
+ * frontier) and every unit that finished are recorded as the run goes, so
+ * a run that was interrupted can be started again and only fetch what is
+ * left.
+ */
+public interface CrawlCheckpoint {
+
+    /**
+     * Returns a checkpoint that remembers nothing; every run starts over.
+     *
+     * @return The checkpoint
+     */
+    static CrawlCheckpoint none() {
+        return NoCheckpoint.INSTANCE;
+    }
+
+    /**
+     * Returns the planned units of a city that have not finished yet.
+     *
+     * @param city The city
+     * @return The remaining units, or empty if no plan was saved for the city
+     */
+    Optional<List<CrawlUnit>> pendingUnits(City city);
+
+    /**
+     * Records the units planned for a city.
+     *
+     * @param city The city
+     * @param units Every unit the run has to fetch for the city
+     */
+    void savePlan(City city, List<CrawlUnit> units);
+
+    /**
+     * Records that a unit was fetched and its sessions were stored.
+     * Called from crawl worker threads.
+     *
+     * @param unit The finished unit
+     */
+    void markCompleted(CrawlUnit unit);
+
+    /**
+     * Tells whether every unit of a city was already attempted by this run.
+     *
+     * @param city The city
+     * @return True if the city is done
+     */
+    boolean isCityCompleted(City city);
+
+    /**
+     * Records that every unit of a city was attempted.
+     *
+     * @param city The city
+     */
+    void markCityCompleted(City city);
+
+    /**
+     * Forgets the progress of the run once it has finished.
+     */
+    void clear();
+}
@@ -0,0 +1,10 @@
+package crawler;
+
+/**
+ * A crawl unit that could not be fetched, with the reason it failed.
+ *
+ * @param unit The unit that failed
+ * @param reason The failure message
+ */
+public record CrawlFailure(CrawlUnit unit, String reason) {
+}
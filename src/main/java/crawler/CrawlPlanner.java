@@ -0,0 +1,91 @@
+package crawler;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import parser.City;
+import parser.MovieThumbnail;
+import utils.Utils;
+
+/**
+ * Works out the exact set of {@link CrawlUnit}s needed to cover some dates
+ * of a city before anything is fetched. The dates are split into runs of
+ * consecutive days, each run is listed once, and every (film, date) pair is
+ * kept only once, however many listing pages or links point at the film.
+ */
+public final class CrawlPlanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrawlPlanner.class);
+
+    private final ListingSource listings;
+
+    /**
+     * Creates a planner.
+     *
+     * @param listings Lists the films of a date range
+     */
+    public CrawlPlanner(final ListingSource listings) {
+        this.listings = listings;
+    }
+
+    /**
+     * Plans the units that cover the given dates.
+     *
+     * @param city The city to plan for
+     * @param dates The dates to cover, in any order and possibly repeated
+     * @return The units, without duplicates, in date-range then listing order
+     * @throws IOException If a listing cannot be fetched
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    public List<CrawlUnit> plan(final City city, final List<LocalDate> dates) throws IOException {
+        final Map<String, CrawlUnit> units = new LinkedHashMap<>();
+        int listed = 0;
+        for (final List<LocalDate> range : consecutiveRanges(dates)) {
+            final List<MovieThumbnail> films = this.listings.list(range.getFirst(), range.getLast());
+            listed += films.size();
+            for (final MovieThumbnail film : films) {
+                final String filmUrl = Utils.cleanFilmUrl(film.sessionsLink());
+                for (final LocalDate date : range) {
+                    final CrawlUnit unit = new CrawlUnit(city, film.name(), filmUrl, film.imageLink(), date);
+                    units.putIfAbsent(unit.key(), unit);
+                }
+            }
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(
+                "Planned {} schedules for {} listed films in {} over {} dates",
+                units.size(), listed, city, dates.size()
+            );
+        }
+        return List.copyOf(units.values());
+    }
+
+    /**
+     * Splits dates into runs of consecutive days.
+     *
+     * @param dates The dates to split
+     * @return The runs, each sorted, in date order
+     */
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    static List<List<LocalDate>> consecutiveRanges(final List<LocalDate> dates) {
+        final List<List<LocalDate>> ranges = new ArrayList<>();
+        List<LocalDate> current = new ArrayList<>();
+        for (final LocalDate date : new TreeSet<>(dates)) {
+            if (!current.isEmpty() && !date.isEqual(current.getLast().plusDays(1))) {
+                ranges.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(date);
+        }
+        if (!current.isEmpty()) {
+            ranges.add(current);
+        }
+        return ranges;
+    }
+}
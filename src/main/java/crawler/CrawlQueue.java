@@ -0,0 +1,186 @@
+package crawler;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Prioritized queue of crawl units with a fixed number of fetch slots.
+ * Units are ranked by {@link Demand} first, so a unit a user is waiting for
+ * is started before any background unit still in the queue, and then by
+ * date, so the soonest dates are fetched first. A unit submitted while the
+ * same unit is queued or running attaches to it instead of being fetched
+ * twice, and receives the same {@link FetchedUnit}; an interactive request
+ * raises a queued background unit to interactive.
+ *
+ * <p>Every running unit has its own virtual thread. Searches and the
+ * nightly job share {@link #shared()}, so their fetches compete for the
+ * same slots in priority order.
+ */
+public final class CrawlQueue {
+
+    private static final Comparator<Entry> ORDER = Comparator
+        .comparing((Entry entry) -> entry.demand)
+        .thenComparing(entry -> entry.unit.date())
+        .thenComparingLong(entry -> entry.sequence);
+    private static final int SHARED_CONCURRENCY = 4;
+    private static final CrawlQueue SHARED = new CrawlQueue(SHARED_CONCURRENCY);
+
+    private final int maxConcurrency;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Entry> queued = new PriorityQueue<>(ORDER);
+    private final Map<String, Entry> known = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int running;
+
+    /**
+     * Creates a queue.
+     *
+     * @param maxConcurrency Maximum number of units fetched at the same time
+     */
+    public CrawlQueue(final int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(
+                String.format("Concurrency must be positive, got %d", maxConcurrency)
+            );
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Returns the queue shared by every crawl in the JVM.
+     *
+     * @return The shared queue
+     */
+    public static CrawlQueue shared() {
+        return SHARED;
+    }
+
+    /**
+     * Queues a unit, or attaches to the same unit if it is already queued
+     * or running. The fetcher of an attached request is not used; the
+     * request completes with the outcome of the fetch it attached to.
+     *
+     * @param unit The unit to fetch
+     * @param demand Who is waiting for the unit
+     * @param fetcher Fetches the unit's sessions
+     * @return Completes with the outcome of the fetch, or exceptionally if the fetch failed
+     */
+    public CompletableFuture<FetchedUnit> submit(
+        final CrawlUnit unit, final Demand demand, final UnitFetcher fetcher
+    ) {
+        final String key = unit.city() + ":" + unit.key();
+        this.lock.lock();
+        try {
+            final Entry existing = this.known.get(key);
+            if (existing != null) {
+                if (demand.compareTo(existing.demand) < 0 && this.queued.remove(existing)) {
+                    existing.demand = demand;
+                    this.queued.add(existing);
+                }
+                return existing.result;
+            }
+            final Entry entry = new Entry(key, unit, demand, fetcher, this.sequence.incrementAndGet());
+            this.known.put(key, entry);
+            this.queued.add(entry);
+            this.dispatch();
+            return entry.result;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Tells how many units can be fetched at the same time.
+     *
+     * @return The number of fetch slots
+     */
+    public int concurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * Tells how many units wait for a free slot.
+     *
+     * @return The number of queued units
+     */
+    public int queuedUnits() {
+        this.lock.lock();
+        try {
+            return this.queued.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the highest ranked units while there are free slots.
+     * Called with the lock held.
+     */
+    private void dispatch() {
+        while (this.running < this.maxConcurrency && !this.queued.isEmpty()) {
+            final Entry entry = this.queued.poll();
+            this.running++;
+            Thread.ofVirtual().name("crawl-" + entry.sequence).start(() -> this.run(entry));
+        }
+    }
+
+    /**
+     * Fetches a unit and frees its slot. The unit is forgotten before its
+     * result completes, so a crawl that submits it again afterwards fetches
+     * it anew instead of attaching to the finished fetch.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void run(final Entry entry) {
+        FetchedUnit fetched = null;
+        Exception failure = null;
+        try {
+            fetched = entry.fetcher.fetch(entry.unit);
+        } catch (final IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            this.lock.lock();
+            try {
+                this.running--;
+                this.known.remove(entry.key);
+                this.dispatch();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        if (failure == null) {
+            entry.result.complete(fetched);
+        } else {
+            entry.result.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * A queued or running unit and everyone waiting for it.
+     */
+    private static final class Entry {
+        private final String key;
+        private final CrawlUnit unit;
+        private final UnitFetcher fetcher;
+        private final long sequence;
+        private final CompletableFuture<FetchedUnit> result = new CompletableFuture<>();
+        private Demand demand;
+
+        Entry(
+            final String key, final CrawlUnit unit, final Demand demand,
+            final UnitFetcher fetcher, final long sequence
+        ) {
+            this.key = key;
+            this.unit = unit;
+            this.demand = demand;
+            this.fetcher = fetcher;
+            this.sequence = sequence;
+        }
+    }
+}
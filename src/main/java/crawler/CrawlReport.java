@@ -0,0 +1,99 @@
+package crawler;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of a finished crawl: how many units ran, how many sessions
+ * they produced, how much work was skipped because the pages had not
+ * changed since the previous crawl, and which units failed.
+ */
+@SuppressWarnings("PMD.DataClass")
+public final class CrawlReport {
+
+    private final int completedUnits;
+    private final int sessions;
+    private final List<CrawlFailure> failures;
+    private final int unchangedPages;
+    private final int unchangedUnits;
+
+    /**
+     * Creates a crawl report.
+     *
+     * @param completedUnits Number of units fetched successfully
+     * @param sessions Number of sessions fetched across all units
+     * @param failures Units that failed
+     */
+    public CrawlReport(final int completedUnits, final int sessions, final List<CrawlFailure> failures) {
+        this(completedUnits, sessions, failures, 0, 0);
+    }
+
+    /**
+     * Creates a crawl report that also counts the skipped work.
+     *
+     * @param completedUnits Number of units fetched successfully
+     * @param sessions Number of sessions fetched across all units
+     * @param failures Units that failed
+     * @param unchangedPages Number of pages identical to the previous crawl, not parsed or stored again
+     * @param unchangedUnits Number of units whose every page was unchanged, so nothing was stored
+     */
+    public CrawlReport(
+        final int completedUnits,
+        final int sessions,
+        final List<CrawlFailure> failures,
+        final int unchangedPages,
+        final int unchangedUnits
+    ) {
+        this.completedUnits = completedUnits;
+        this.sessions = sessions;
+        this.failures = List.copyOf(failures);
+        this.unchangedPages = unchangedPages;
+        this.unchangedUnits = unchangedUnits;
+    }
+
+    public int completedUnits() {
+        return this.completedUnits;
+    }
+
+    public int sessions() {
+        return this.sessions;
+    }
+
+    public List<CrawlFailure> failures() {
+        return this.failures;
+    }
+
+    public int unchangedPages() {
+        return this.unchangedPages;
+    }
+
+    public int unchangedUnits() {
+        return this.unchangedUnits;
+    }
+
+    /**
+     * Groups failed units by film name, keeping the order in which they failed.
+     *
+     * @return Map of film names to their failed units
+     */
+    public Map<String, List<CrawlFailure>> failuresByFilm() {
+        return this.failures.stream()
+            .collect(Collectors.groupingBy(
+                failure -> failure.unit().filmName(),
+                LinkedHashMap::new,
+                Collectors.toList()
+            ));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "CrawlReport[completedUnits=%d, sessions=%d, unchangedUnits=%d, unchangedPages=%d, "
+                + "failedUnits=%d, failedFilms=%d]",
+            this.completedUnits, this.sessions, this.unchangedUnits, this.unchangedPages,
+            this.failures.size(), this.failuresByFilm().size()
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package crawler;
+
+import java.time.LocalDate;
+import parser.City;
+
+/**
+ * A single unit of schedule crawling: one film's sessions in one city on one date.
+ *
+ * @param city The city the schedule belongs to
+ * @param filmName The film name as shown on the listing page
+ * @param filmUrl The link to the film's schedule page
+ * @param imageUrl The film's poster URL taken from the listing page
+ * @param date The date to fetch sessions for
+ */
+public record CrawlUnit(City city, String filmName, String filmUrl, String imageUrl, LocalDate date) {
+
+    /**
+     * Identifies the unit within its city: the film link and the date.
+     *
+     * @return Identifier in format {@code FILM_URL|DATE}
+     */
+    public String key() {
+        return this.filmUrl + "|" + this.date;
+    }
+}
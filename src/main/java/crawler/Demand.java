@@ -0,0 +1,12 @@
+package crawler;
+
+/**
+ * Who is waiting for a crawl unit. Units a user is waiting for are always
+ * fetched before background refresh work.
+ */
+public enum Demand {
+    /** A user search is blocked until the unit is fetched. */
+    INTERACTIVE,
+    /** The unit is refreshed ahead of time, nobody is waiting for it. */
+    BACKGROUND
+}
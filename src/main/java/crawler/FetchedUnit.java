@@ -0,0 +1,169 @@
+package crawler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import parser.PageDigest;
+import parser.ScheduleSnapshot;
+import parser.Session;
+
+/**
+ * Outcome of fetching one {@link CrawlUnit}: its sessions, the page digests
+ * to record, whether the whole schedule was read, and what the fetch cost.
+ * A {@link CrawlQueue} hands the same outcome to every crawl waiting for
+ * the unit, so a crawl that attached to another crawl's fetch stores and
+ * checkpoints the unit just like the crawl that ran it.
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class FetchedUnit {
+
+    private final List<Session> sessions;
+    private final Map<Integer, PageDigest> digests;
+    private final boolean complete;
+    private final boolean whole;
+    private final int unchangedPages;
+    private final boolean unchanged;
+    private final int requests;
+    private final Duration latency;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CompletableFuture<Void> stored = new CompletableFuture<>();
+
+    /**
+     * Primary constructor.
+     *
+     * @param sessions The sessions fetched
+     * @param digests The page digests to record once the sessions are stored
+     * @param complete Whether the sessions are the unit's whole schedule
+     * @param whole Whether no page of the unit is missing
+     * @param unchangedPages The number of pages identical to the previous crawl
+     * @param unchanged Whether every page was identical to the previous crawl
+     * @param requests The number of requests the fetch sent
+     * @param latency How long the fetch took
+     */
+    public FetchedUnit(
+        final List<Session> sessions,
+        final Map<Integer, PageDigest> digests,
+        final boolean complete,
+        final boolean whole,
+        final int unchangedPages,
+        final boolean unchanged,
+        final int requests,
+        final Duration latency
+    ) {
+        this.sessions = List.copyOf(sessions);
+        this.digests = Map.copyOf(digests);
+        this.complete = complete;
+        this.whole = whole;
+        this.unchangedPages = unchangedPages;
+        this.unchanged = unchanged;
+        this.requests = requests;
+        this.latency = latency;
+    }
+
+    /**
+     * Creates the outcome of a fetch that only yields sessions, with nothing
+     * known about its pages.
+     *
+     * @param sessions The sessions fetched
+     * @return The outcome
+     */
+    public static FetchedUnit fromSessions(final List<Session> sessions) {
+        return new FetchedUnit(sessions, Map.of(), false, false, 0, false, 1, Duration.ZERO);
+    }
+
+    /**
+     * Creates the outcome of fetching a unit's schedule page by page. The
+     * digests of a unit whose every page was unchanged are already stored,
+     * so none are handed over.
+     *
+     * @param snapshot The sessions and page digests of the unit
+     * @param requests The number of requests the fetch sent
+     * @param latency How long the fetch took
+     * @return The outcome
+     */
+    public static FetchedUnit fromSnapshot(
+        final ScheduleSnapshot snapshot, final int requests, final Duration latency
+    ) {
+        return new FetchedUnit(
+            snapshot.sessions(),
+            snapshot.unchanged() ? Map.of() : snapshot.digests(),
+            snapshot.complete(),
+            snapshot.fetchedWhole(),
+            snapshot.unchangedPages(),
+            snapshot.unchanged(),
+            requests,
+            latency
+        );
+    }
+
+    /**
+     * Creates the outcome of a unit whose day was taken from a fetch of
+     * several days. Such a fetch has no page digests of the day.
+     *
+     * @param day The day's sessions
+     * @param latency How long taking the day took
+     * @return The outcome
+     */
+    public static FetchedUnit fromDay(final RangePrefetch.Day day, final Duration latency) {
+        return new FetchedUnit(
+            day.sessions(), Map.of(), day.complete(), day.complete(), 0, false, day.requests(), latency
+        );
+    }
+
+    public List<Session> sessions() {
+        return this.sessions;
+    }
+
+    public Map<Integer, PageDigest> digests() {
+        return this.digests;
+    }
+
+    public boolean complete() {
+        return this.complete;
+    }
+
+    public boolean whole() {
+        return this.whole;
+    }
+
+    public int unchangedPages() {
+        return this.unchangedPages;
+    }
+
+    public boolean unchanged() {
+        return this.unchanged;
+    }
+
+    public int requests() {
+        return this.requests;
+    }
+
+    public Duration latency() {
+        return this.latency;
+    }
+
+    /**
+     * Stores the outcome once, however many crawls receive it. The first
+     * caller runs the store; the others wait until it is done, so none of
+     * them records the unit as finished before it is stored, and fail if
+     * it failed.
+     *
+     * @param store Writes the sessions and digests
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void storeOnce(final Runnable store) {
+        if (!this.claimed.compareAndSet(false, true)) {
+            this.stored.join();
+            return;
+        }
+        try {
+            store.run();
+            this.stored.complete(null);
+        } catch (final RuntimeException e) {
+            this.stored.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package crawler;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import parser.MovieThumbnail;
+
+/**
+ * Lists the films showing in a city over a range of dates.
+ * Used by {@link CrawlPlanner} to find what has to be crawled.
+ */
+@FunctionalInterface
+public interface ListingSource {
+
+    /**
+     * Lists the films showing between two dates.
+     *
+     * @param start The first date of the range
+     * @param end The last date of the range, inclusive
+     * @return The films found on the listing pages
+     * @throws IOException If the listing cannot be fetched
+     */
+    List<MovieThumbnail> list(LocalDate start, LocalDate end) throws IOException;
+}
@@ -0,0 +1,42 @@
+package crawler;
+
+import java.util.List;
+import java.util.Optional;
+import parser.City;
+
+/**
+ * Checkpoint that records nothing, used by crawls that are cheap to repeat.
+ */
+enum NoCheckpoint implements CrawlCheckpoint {
+    INSTANCE;
+
+    @Override
+    public Optional<List<CrawlUnit>> pendingUnits(final City city) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void savePlan(final City city, final List<CrawlUnit> units) {
+        // Nothing to remember
+    }
+
+    @Override
+    public void markCompleted(final CrawlUnit unit) {
+        // Nothing to remember
+    }
+
+    @Override
+    public boolean isCityCompleted(final City city) {
+        return false;
+    }
+
+    @Override
+    public void markCityCompleted(final City city) {
+        // Nothing to remember
+    }
+
+    @Override
+    public void clear() {
+        // Nothing to forget
+    }
+}
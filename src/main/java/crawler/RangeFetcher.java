@@ -0,0 +1,24 @@
+package crawler;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import parser.MultiDaySchedule;
+
+/**
+ * Fetches a film's schedule over a run of consecutive days in one pass.
+ * Used by {@link RangePrefetch} to serve the units of the run.
+ */
+@FunctionalInterface
+public interface RangeFetcher {
+
+    /**
+     * Fetches the sessions of the unit's film between two dates.
+     *
+     * @param unit Any unit of the run; its date is ignored
+     * @param first The first date of the run
+     * @param last The last date of the run, inclusive
+     * @return The sessions of each day
+     * @throws IOException If the schedule cannot be fetched
+     */
+    MultiDaySchedule fetch(CrawlUnit unit, LocalDate first, LocalDate last) throws IOException;
+}
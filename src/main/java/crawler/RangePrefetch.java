@@ -0,0 +1,167 @@
+package crawler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import parser.MultiDaySchedule;
+import parser.Session;
+
+/**
+ * Serves the units of a film planned for several consecutive days from one
+ * fetch of the whole run instead of one fetch per day. The first unit of a
+ * run to be crawled fetches it; the others wait for that fetch and take
+ * their day from it. A unit alone on its day, or one whose run could not be
+ * fetched, is not served and is fetched on its own. One prefetch serves one
+ * crawl and is used from crawl worker threads.
+ */
+public final class RangePrefetch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RangePrefetch.class);
+
+    private final Map<String, Run> runs;
+    private final Map<String, CompletableFuture<Optional<MultiDaySchedule>>> fetches = new ConcurrentHashMap<>();
+    private final RangeFetcher fetcher;
+
+    /**
+     * Creates a prefetch of the runs found among some units.
+     *
+     * @param units The units of the crawl
+     * @param fetcher Fetches the schedule of a run
+     */
+    public RangePrefetch(final Collection<CrawlUnit> units, final RangeFetcher fetcher) {
+        this.fetcher = fetcher;
+        this.runs = new HashMap<>();
+        final Map<String, List<CrawlUnit>> byFilm = units.stream()
+            .collect(Collectors.groupingBy(unit -> unit.city() + ":" + unit.filmUrl()));
+        byFilm.forEach((film, filmUnits) -> {
+            final List<LocalDate> dates = filmUnits.stream().map(CrawlUnit::date).toList();
+            for (final List<LocalDate> range : CrawlPlanner.consecutiveRanges(dates)) {
+                if (range.size() > 1) {
+                    this.addRun(film, range);
+                }
+            }
+        });
+    }
+
+    private void addRun(final String film, final List<LocalDate> range) {
+        final Run run = new Run(film + ":" + range.getFirst(), range.getFirst(), range.getLast(), range.size());
+        range.forEach(date -> this.runs.put(film + ":" + date, run));
+    }
+
+    /**
+     * Creates a prefetch that serves no unit.
+     *
+     * @return The prefetch
+     */
+    public static RangePrefetch none() {
+        return new RangePrefetch(List.of(), (unit, first, last) -> {
+            throw new IllegalStateException("Nothing to prefetch");
+        });
+    }
+
+    /**
+     * Takes a unit's day from the fetch of its run, fetching the run if no
+     * other unit of it has.
+     *
+     * @param unit The unit to serve
+     * @return The sessions of the unit's day, or empty if the unit has to be fetched on its own
+     * @throws IOException If the thread is interrupted while waiting for the fetch
+     */
+    public Optional<Day> take(final CrawlUnit unit) throws IOException {
+        final Run run = this.runs.get(unit.city() + ":" + unit.filmUrl() + ":" + unit.date());
+        if (run == null) {
+            return Optional.empty();
+        }
+        final CompletableFuture<Optional<MultiDaySchedule>> own = new CompletableFuture<>();
+        final CompletableFuture<Optional<MultiDaySchedule>> shared = this.fetches.putIfAbsent(run.key(), own);
+        Optional<MultiDaySchedule> schedule = Optional.empty();
+        if (shared == null) {
+            try {
+                schedule = this.fetch(unit, run);
+            } finally {
+                own.complete(schedule);
+            }
+        } else {
+            schedule = await(shared);
+        }
+        if (run.left().decrementAndGet() == 0) {
+            this.fetches.remove(run.key());
+        }
+        return schedule.map(fetched -> new Day(
+            fetched.sessionsOn(unit.date()), fetched.complete(), shared == null ? fetched.pages() : 0
+        ));
+    }
+
+    private Optional<MultiDaySchedule> fetch(final CrawlUnit unit, final Run run) {
+        try {
+            return Optional.of(this.fetcher.fetch(unit, run.first(), run.last()));
+        } catch (final IOException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn(
+                    "Failed to fetch {} from {} to {} at once, fetching each day: {}",
+                    unit.filmName(), run.first(), run.last(), e.getMessage()
+                );
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<MultiDaySchedule> await(
+        final CompletableFuture<Optional<MultiDaySchedule>> fetch
+    ) throws IOException {
+        try {
+            return fetch.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException(
+                "Interrupted while waiting for a range fetch"
+            );
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (final ExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The sessions of one unit's day.
+     *
+     * @param sessions The sessions listed by the day's schedule
+     * @param complete Whether the sessions are the day's whole schedule
+     * @param requests The pages this unit requested, 0 if another unit fetched the run
+     */
+    public record Day(List<Session> sessions, boolean complete, int requests) {
+
+        /** Constructor. */
+        public Day {
+            sessions = List.copyOf(sessions);
+        }
+    }
+
+    /**
+     * Consecutive days of one film, fetched together.
+     *
+     * @param key Identifies the run within the crawl
+     * @param first The first day
+     * @param last The last day
+     * @param left The units of the run not yet served
+     */
+    private record Run(String key, LocalDate first, LocalDate last, AtomicInteger left) {
+
+        Run(final String key, final LocalDate first, final LocalDate last, final int units) {
+            this(key, first, last, new AtomicInteger(units));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import parser.Session;
+
+/**
+ * Runs schedule fetches for many {@link CrawlUnit}s at the same time.
+ * Units are handed to a {@link CrawlQueue}, which runs each on its own
+ * virtual thread, caps how many fetches are in flight at once and starts
+ * the units users are waiting for first. A failing unit is recorded in the
+ * {@link CrawlReport} and never cancels the rest of the run.
+ */
+public final class ScheduleCrawler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduleCrawler.class);
+
+    private final CrawlQueue queue;
+
+    /**
+     * Creates a crawler with its own queue.
+     *
+     * @param maxConcurrency Maximum number of units fetched at the same time
+     */
+    public ScheduleCrawler(final int maxConcurrency) {
+        this(new CrawlQueue(maxConcurrency));
+    }
+
+    /**
+     * Creates a crawler that fetches through the given queue.
+     *
+     * @param queue The queue shared with other crawlers
+     */
+    public ScheduleCrawler(final CrawlQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Tells how many units the crawler fetches at the same time.
+     *
+     * @return The number of fetch slots of the underlying queue
+     */
+    public int concurrency() {
+        return this.queue.concurrency();
+    }
+
+    /**
+     * Fetches all units and hands each unit's sessions to the sink as soon as
+     * that unit completes. Blocks until every unit has finished or failed.
+     *
+     * @param units The units to fetch
+     * @param fetcher Fetches the sessions of a single unit
+     * @param sink Receives the sessions of each successful unit; called from worker threads
+     * @return The crawl report
+     */
+    public CrawlReport crawl(
+        final List<CrawlUnit> units,
+        final UnitFetcher fetcher,
+        final Consumer<List<Session>> sink
+    ) {
+        return this.crawlUnits(units, fetcher, (unit, fetched) -> sink.accept(fetched.sessions()));
+    }
+
+    /**
+     * Fetches all units as interactive demand and hands each unit together
+     * with its sessions to the sink as soon as that unit completes.
+     *
+     * @param units The units to fetch
+     * @param fetcher Fetches the sessions of a single unit
+     * @param sink Receives each successful unit and its outcome; called from worker threads
+     * @return The crawl report
+     */
+    public CrawlReport crawlUnits(
+        final List<CrawlUnit> units,
+        final UnitFetcher fetcher,
+        final BiConsumer<CrawlUnit, FetchedUnit> sink
+    ) {
+        return this.crawlUnits(units, Demand.INTERACTIVE, fetcher, sink);
+    }
+
+    /**
+     * Fetches all units and hands each unit together with its outcome to the
+     * sink as soon as that unit completes. Blocks until every unit has
+     * finished or failed. A unit whose sink throws is reported as failed.
+     * A unit already queued by another crawl is fetched once, and the sink
+     * of every crawl waiting for it receives the same outcome. The report
+     * counts the pages and units each outcome found unchanged.
+     *
+     * @param units The units to fetch
+     * @param demand Who is waiting for the units
+     * @param fetcher Fetches the sessions of a single unit
+     * @param sink Receives each successful unit and its outcome; called from worker threads
+     * @return The crawl report
+     */
+    public CrawlReport crawlUnits(
+        final List<CrawlUnit> units,
+        final Demand demand,
+        final UnitFetcher fetcher,
+        final BiConsumer<CrawlUnit, FetchedUnit> sink
+    ) {
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger sessions = new AtomicInteger();
+        final AtomicInteger unchangedPages = new AtomicInteger();
+        final AtomicInteger unchangedUnits = new AtomicInteger();
+        final Queue<CrawlFailure> failures = new ConcurrentLinkedQueue<>();
+        final List<CompletableFuture<?>> pending = new ArrayList<>(units.size());
+        for (final CrawlUnit unit : units) {
+            pending.add(
+                this.queue.submit(unit, demand, fetcher)
+                    .thenAccept(fetched -> {
+                        sink.accept(unit, fetched);
+                        completed.incrementAndGet();
+                        sessions.addAndGet(fetched.sessions().size());
+                        unchangedPages.addAndGet(fetched.unchangedPages());
+                        if (fetched.unchanged()) {
+                            unchangedUnits.incrementAndGet();
+                        }
+                    })
+                    .exceptionally(error -> {
+                        fail(unit, error, failures);
+                        return null;
+                    })
+            );
+        }
+        awaitAll(units, pending, failures);
+        final CrawlReport report = new CrawlReport(
+            completed.get(), sessions.get(), List.copyOf(failures), unchangedPages.get(), unchangedUnits.get()
+        );
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Crawl of {} units finished: {}", units.size(), report);
+        }
+        return report;
+    }
+
+    private static void fail(final CrawlUnit unit, final Throwable error, final Queue<CrawlFailure> failures) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+        if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Failed to crawl {} on {}: {}", unit.filmName(), unit.date(), cause.getMessage());
+        }
+        failures.add(new CrawlFailure(unit, String.valueOf(cause.getMessage())));
+    }
+
+    /**
+     * Waits for every unit. If the waiting thread is interrupted, the units
+     * that have not finished yet are reported as failed and left to the queue.
+     * Failed fetches are recorded by each unit's own handler, so only a
+     * failure of that handler itself surfaces here.
+     */
+    private static void awaitAll(
+        final List<CrawlUnit> units,
+        final List<CompletableFuture<?>> pending,
+        final Queue<CrawlFailure> failures
+    ) {
+        for (int idx = 0; idx < pending.size(); idx++) {
+            try {
+                pending.get(idx).get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int rest = idx; rest < pending.size(); rest++) {
+                    if (!pending.get(rest).isDone()) {
+                        failures.add(new CrawlFailure(units.get(rest), "Interrupted while waiting for a crawl slot"));
+                    }
+                }
+                return;
+            } catch (final ExecutionException e) {
+                fail(units.get(idx), e.getCause(), failures);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package crawler;
+
+import java.io.IOException;
+
+/**
+ * Fetches the sessions of a single {@link CrawlUnit}.
+ * Used with {@link ScheduleCrawler} to run many fetches concurrently.
+ */
+@FunctionalInterface
+public interface UnitFetcher {
+
+    /**
+     * Fetches sessions for the given unit.
+     *
+     * @param unit The unit to fetch
+     * @return The sessions found for the unit and what is known about its pages
+     * @throws IOException If the fetch fails
+     */
+    FetchedUnit fetch(CrawlUnit unit) throws IOException;
+}
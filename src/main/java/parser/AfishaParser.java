@@ -1,113 +1,180 @@
 package parser;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Random;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.json.JSONException;
-import org.jsoup.Connection;
 import org.jsoup.HttpStatusException;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import parser.FilmListingParser.ListingPage;
 
-/** Afisha.ru parser. */
-public class AfishaParser {
+/** Afisha.ru parser, the primary {@link ScheduleSource}. */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.GodClass", "PMD.CouplingBetweenObjects"})
+public class AfishaParser implements ScheduleSource {
     private static final Logger LOGGER = LoggerFactory.getLogger(AfishaParser.class);
-    private static final String DATA_TEST_ATTR = "data-test";
-    private final Map<String, String> cookies;
-    private static final String BASE_LINK = "https://www.afisha.ru";
+    static final String BASE_LINK = "https://www.afisha.ru";
     public static final String SCHEDULE_PAGE = "%s/%s/page%d/";
 
     private final String currentDatePeriod;
+    private final String baseUrl;
     private final String filmsPageN;
-    private final Retrier retrier;
+    private final PageFetcher listingFetcher;
+    private final PageFetcher scheduleFetcher;
+    private final CookieJar cookieJar;
+    private final FilmMetadataCache filmMetadata = new FilmMetadataCache();
+    // Per parser: remembered sessions share this parser's film metadata and live for one crawl
+    private final PageMemo<SchedulePage> schedulePages = new PageMemo<>(4_096);
     private static final DateTimeFormatter SCHEDULE_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DateTimeFormatter RANGE_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM");
 
     private final BrowserProfile browserProfile;
 
-    private static final Pattern FILM_REF_PATTERN = Pattern.compile(
-        "href\\s*=\\s*\"([^\"]*)\"", Pattern.CASE_INSENSITIVE
-    );
-
-    private static final int MIN_DELAY_MS = 500;
-    private static final int MAX_DELAY_MS = 1000;
     private static final long RETRY_BUDGET_MS = 300_000L;
-    private static final long RETRY_INITIAL_DELAY_MS = 5_000L;
+    private static final PageMemo<ListingPage> FILM_PAGES = new PageMemo<>(256);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int FORBIDDEN = 403;
+    private static final int NOT_FOUND = 404;
+    private static final String HEDGE_PROPERTY = "reelsift.hedgeRequests";
+    private static final String BASE_URL_PROPERTY = "reelsift.afishaBaseUrl";
+    private static final RequestHedger SCHEDULE_HEDGER = RequestHedger.p95();
+
+    /**
+     * Creates a parser of the live site, or of the site set by the
+     * {@code reelsift.afishaBaseUrl} system property.
+     *
+     * @param city The city whose schedule is parsed
+     */
+    public AfishaParser(final City city) {
+        this(city, System.getProperty(BASE_URL_PROPERTY, BASE_LINK));
+    }
 
-    public AfishaParser(final City city) throws IOException {
-        this.filmsPageN = "https://www.afisha.ru/" + city.asCode() + "/schedule_cinema/%s/page%d/";
-        this.retrier = new Retrier(RETRY_BUDGET_MS, RETRY_INITIAL_DELAY_MS);
+    /**
+     * Creates a parser of a copy of the site, such as a recording replayed
+     * by the tests' {@code ReplayServer}.
+     *
+     * @param city The city whose schedule is parsed
+     * @param baseUrl The site URL without a trailing slash, for example {@code https://www.afisha.ru}
+     */
+    public AfishaParser(final City city, final String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.filmsPageN = baseUrl + "/" + city.asCode() + "/schedule_cinema/%s/page%d/";
+        final String host = URI.create(baseUrl).getAuthority();
+        this.listingFetcher = fetcherFor(host, CircuitBreaker.Endpoint.LISTING, RequestHedger.disabled());
+        this.scheduleFetcher = fetcherFor(
+            host,
+            CircuitBreaker.Endpoint.SCHEDULE,
+            Boolean.getBoolean(HEDGE_PROPERTY) ? SCHEDULE_HEDGER : RequestHedger.disabled()
+        );
+        this.cookieJar = CookieJar.forSite(baseUrl);
         this.browserProfile = BrowserProfile.random();
-        this.cookies = this.getCookies();
         this.currentDatePeriod = LocalDate.now().format(SCHEDULE_DATE_FORMATTER);
     }
 
-    @SuppressWarnings("PMD.ExceptionAsFlowControl")
-    private Map<String, String> getCookies() throws IOException {
-        final Map<String, String> cookies;
-        try {
-            final Connection.Response initialResponse = this.retrier.execute(
-                () -> {
-                    try {
-                        return this.browserProfile.applyTo(
-                            Jsoup.connect(BASE_LINK)
-                                .method(Connection.Method.GET)
-                                .timeout(30_000)
-                        ).execute();
-                    } catch (final HttpStatusException httpEx) {
-                        if (isRetryable(httpEx.getStatusCode())) {
-                            throw httpEx;
-                        }
-                        throw new NonRetryableIoException(httpEx);
-                    }
-                }
-            );
-            cookies = initialResponse.cookies();
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Initial cookies: {}", cookies);
-            }
-        } catch (IOException e) {
-            if (LOGGER.isErrorEnabled()) {
-                LOGGER.error("Failed to get initial cookies: {}", e.getMessage());
-            }
-            throw e;
+    private static PageFetcher fetcherFor(
+        final String host, final CircuitBreaker.Endpoint endpoint, final RequestHedger hedger
+    ) {
+        return PageFetcher.forHost(host, endpoint, RETRY_BUDGET_MS, hedger);
+    }
+
+    @Override
+    public List<MovieThumbnail> listFilms(final String dates) throws IOException {
+        return this.parseFilmsInDates(dates);
+    }
+
+    /**
+     * Fetches the schedule of a film listed on Afisha. Films listed only by
+     * another source have no link to this parser's site and yield an empty
+     * snapshot.
+     */
+    @Override
+    public ScheduleSnapshot fetchSchedule(
+        final MovieThumbnail film, final String date, final Map<Integer, PageDigest> previous
+    ) throws IOException {
+        if (!film.sessionsLink().startsWith(this.baseUrl)) {
+            return new ScheduleSnapshot(List.of(), Map.of(), 0);
+        }
+        return this.parseScheduleChanges(film.sessionsLink(), date, previous);
+    }
+
+    /**
+     * Fetches the schedule of a film listed on Afisha for a range of days
+     * from the pages of the range itself, so each page is requested once
+     * instead of once per day.
+     */
+    @Override
+    public MultiDaySchedule fetchScheduleRange(
+        final MovieThumbnail film, final LocalDate first, final LocalDate last
+    ) throws IOException {
+        if (!film.sessionsLink().startsWith(this.baseUrl)) {
+            return new MultiDaySchedule(Map.of(), 0, false);
         }
-        return cookies;
+        return this.parseScheduleRange(film.sessionsLink(), first, last);
+    }
+
+    @Override
+    public long savedStringBytes() {
+        return this.filmMetadata.strings().savedBytes();
     }
 
     /**
      * Parse films by provided dates.
+     * When the first listing page shows how many pages there are, the rest
+     * are fetched at the same time; otherwise pages are walked one by one
+     * until a page repeats the previous one or is not found. A listing that
+     * is not found has no films. Any other page that fails, including one
+     * the circuit breaker or the retries gave up on, fails the listing, so
+     * a partial listing is never cached or planned as the whole one.
      *
      * @return The map of film names to the link to the sessions
+     * @throws IOException If a listing page cannot be fetched
      */
     public List<MovieThumbnail> parseFilmsInDates(final String dates) throws IOException {
+        final ListingPage first;
+        try {
+            first = this.parseFilmsPage(dates, 1);
+        } catch (final HttpStatusException httpEx) {
+            if (httpEx.getStatusCode() != NOT_FOUND) {
+                throw httpEx;
+            }
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("No film listing for dates {}.", dates);
+            }
+            return List.of();
+        }
+        final List<MovieThumbnail> films = new ArrayList<>(first.films());
+        if (first.totalPages() > 1) {
+            PageFanOut.requiredPages(first.totalPages(), page -> this.parseFilmsPage(dates, page).films())
+                .forEach(films::addAll);
+        } else if (first.totalPages() == 0 && !first.films().isEmpty()) {
+            films.addAll(this.parseFilmsSequentially(dates, first.films()));
+        }
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("Parsed {} films for dates {}.", films.size(), dates);
+        }
+        return films;
+    }
+
+    private List<MovieThumbnail> parseFilmsSequentially(
+        final String dates, final List<MovieThumbnail> firstPage
+    ) throws IOException {
         final List<MovieThumbnail> films = new ArrayList<>();
         List<MovieThumbnail> pageFilms;
-        Set<String> prevNames = new HashSet<>();
-        int page = 1;
+        Set<String> prevNames = namesOf(firstPage);
+        int page = 2;
         do {
             try {
-                final String url = String.format(this.filmsPageN, dates, page);
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Parsing films from: {}", url);
-                }
-                pageFilms = parseFilmsPage(url);
-                final Set<String> names = pageFilms
-                    .stream()
-                    .map(MovieThumbnail::name)
-                    .collect(Collectors.toSet());
+                pageFilms = this.parseFilmsPage(dates, page).films();
+                final Set<String> names = namesOf(pageFilms);
                 if (prevNames.equals(names)) {
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Found duplicate film page, stopping parse");
@@ -117,97 +184,39 @@ public class AfishaParser {
                 prevNames = names;
                 page++;
                 films.addAll(pageFilms);
-                addRandomDelay();
             } catch (final HttpStatusException httpEx) {
-                if (LOGGER.isWarnEnabled()) {
-                    LOGGER.warn("HTTP error fetching film page: {}", httpEx.getMessage());
+                if (httpEx.getStatusCode() != NOT_FOUND) {
+                    throw httpEx;
+                }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Film page {} not found, stopping parse.", page);
                 }
                 break;
             }
         } while (!pageFilms.isEmpty());
-        if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Parsed {} films for dates {}.", films.size(), dates);
-        }
         return films;
     }
 
+    private static Set<String> namesOf(final List<MovieThumbnail> films) {
+        return films.stream()
+            .map(MovieThumbnail::name)
+            .collect(Collectors.toSet());
+    }
+
     /**
-     * Parse today films page.
+     * Parse one page of the films listing.
      *
-     * @return The list of {@link MovieThumbnail}.
+     * @return The films on the page and the total page count, if the page shows it
      */
-    private List<MovieThumbnail> parseFilmsPage(final String link) throws IOException {
-        final List<MovieThumbnail> thumbnails = new ArrayList<>();
-        final Document document = this.retrier.execute(
-            () -> {
-                try {
-                    return browserProfile.applyTo(
-                        Jsoup.connect(link)
-                            .timeout(30_000)
-                    ).get();
-                } catch (final HttpStatusException httpEx) {
-                    if (isRetryable(httpEx.getStatusCode())) {
-                        throw httpEx;
-                    }
-                    throw new NonRetryableIoException(httpEx);
-                }
-            }
-        );
-        final List<Element> filmContainers = document.select("div[data-test='ITEM']");
-
-        for (final Element container : filmContainers) {
-            extractFilmFromContainer(container)
-                .ifPresent(film -> thumbnails.add(
-                    new MovieThumbnail(
-                        film.getKey(),
-                        film.getValue(),
-                        extractImageUrl(container)
-                    )
-                ));
+    private ListingPage parseFilmsPage(final String dates, final int pageNumber) throws IOException {
+        final String link = String.format(this.filmsPageN, dates, pageNumber);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Parsing films from: {}", link);
         }
-        return thumbnails;
-    }
-
-    private static Optional<Map.Entry<String, String>> extractFilmFromContainer(final Element container) {
-        List<Element> linkElements = container.getElementsByAttributeValue(
-            DATA_TEST_ATTR, "LINK LINK-BUTTON TICKET-BUTTON"
+        final PageBody page = this.listingFetcher.fetchPage(
+            link, true, () -> browserProfile.applyTo(request(link))
         );
-        if (linkElements.isEmpty()) {
-            linkElements = container.getElementsByAttributeValue(DATA_TEST_ATTR, "LINK LINK-BUTTON");
-        }
-
-        if (!linkElements.isEmpty()) {
-            final String refElement = linkElements.getFirst().toString();
-            final Matcher matcher = FILM_REF_PATTERN.matcher(refElement);
-            if (matcher.find()) {
-                final String href = matcher.group(1);
-                if (href.contains("/schedule_cinema_product/")) {
-                    return Optional.of(Map.entry(
-                        container.getElementsByAttributeValue(DATA_TEST_ATTR, "LINK ITEM-NAME ITEM-URL").text(),
-                        BASE_LINK + href
-                    ));
-                } else {
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Skipping non-cinema product link: {}", href);
-                    }
-                }
-            } else {
-                LOGGER.warn("Film ref not found in element: {}", refElement);
-            }
-        }
-        return Optional.empty();
-    }
-
-    private static String extractImageUrl(final Element container) {
-        String result = "";
-        final List<Element> imgElements = container.getElementsByAttributeValue(DATA_TEST_ATTR, "IMAGE ITEM-IMAGE");
-        if (!imgElements.isEmpty()) {
-            final String src = imgElements.getFirst().attr("src");
-            if (!src.isEmpty()) {
-                result = src;
-            }
-        }
-        return result;
+        return FILM_PAGES.resolve(page, () -> FilmListingParser.parse(page.body(), link));
     }
 
     /**
@@ -215,6 +224,7 @@ public class AfishaParser {
      *
      * @param link The link to the specific movie's schedule
      * @return The list of {@link Session}
+     * @throws IOException If a schedule page cannot be fetched or parsed
      */
     public List<Session> parseSchedule(final String link) throws IOException {
         return parseSchedule(link, this.currentDatePeriod);
@@ -222,111 +232,282 @@ public class AfishaParser {
 
     /**
      * Parse specific movie's schedule for a given date.
+     * When the first schedule page shows how many pages there are, the rest
+     * are fetched at the same time; otherwise pages are walked one by one
+     * until a page repeats the previous page's cinemas.
      *
      * @param link The link to the specific movie's schedule
      * @param date The date in dd-MM-yyyy format
      * @return The list of {@link Session}
+     * @throws IOException If a schedule page cannot be fetched or parsed
      */
-    @SuppressWarnings("PMD.CognitiveComplexity")
     public List<Session> parseSchedule(final String link, final String date) throws IOException {
-        final List<Session> result = new ArrayList<>();
+        return this.parseScheduleChanges(link, date, Map.of()).sessions();
+    }
+
+    /**
+     * Parse specific movie's schedule for a given date, skipping the pages
+     * whose body is identical to the previous crawl. Such pages are not
+     * parsed when the stored digest already tells the page count, and their
+     * sessions are left out of the result because they are stored already.
+     * A page that cannot be fetched or parsed fails the whole fetch, so a
+     * partly read schedule is never taken for the film's whole schedule.
+     *
+     * @param link The link to the specific movie's schedule
+     * @param date The date in dd-MM-yyyy format
+     * @param previous The digests of the previous crawl, keyed by page number
+     * @return The sessions of the changed pages and the digests of every page
+     * @throws IOException If a schedule page cannot be fetched or parsed
+     */
+    public ScheduleSnapshot parseScheduleChanges(
+        final String link, final String date, final Map<Integer, PageDigest> previous
+    ) throws IOException {
+        final List<SchedulePage> pages = new ArrayList<>();
         final LocalDate expectedDate = LocalDate.parse(date, SCHEDULE_DATE_FORMATTER);
-        int page = 1;
-        String jsonPage;
-        Set<String> prevCinemas = new HashSet<>();
+        this.walkSchedule(
+            new ScheduleWindow(link, date, expectedDate, expectedDate), previous, pages
+        );
+        final ScheduleSnapshot snapshot = snapshotOf(pages);
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(
+                "Parsed {} sessions for link {} and date {}, {} of {} pages unchanged.",
+                snapshot.sessions().size(), link, date, snapshot.unchangedPages(), pages.size()
+            );
+        }
+        return snapshot;
+    }
+
+    /**
+     * Parse specific movie's schedule for a range of days from the pages
+     * that list the whole range, splitting the sessions by day. Every page
+     * is parsed: the digests of a range page say nothing about the pages of
+     * a single day.
+     *
+     * @param link The link to the specific movie's schedule
+     * @param first The first day of the range
+     * @param last The last day of the range
+     * @return The sessions of each day
+     * @throws IOException If a schedule page cannot be fetched or parsed
+     */
+    public MultiDaySchedule parseScheduleRange(
+        final String link, final LocalDate first, final LocalDate last
+    ) throws IOException {
+        final List<SchedulePage> pages = new ArrayList<>();
+        final String period = first.format(RANGE_DATE_FORMATTER) + "_" + last.format(RANGE_DATE_FORMATTER);
+        this.walkSchedule(new ScheduleWindow(link, period, first, last), Map.of(), pages);
+        final List<Session> sessions = new ArrayList<>();
+        pages.forEach(page -> sessions.addAll(page.sessions()));
+        final MultiDaySchedule schedule = new MultiDaySchedule(
+            SessionJsonParser.byScheduleDate(sessions, first, last),
+            pages.size(),
+            pages.stream().anyMatch(page -> !page.empty())
+        );
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(
+                "Parsed {} sessions for link {} and dates {} from {} pages.",
+                sessions.size(), link, period, pages.size()
+            );
+        }
+        return schedule;
+    }
+
+    /**
+     * Fetches the schedule pages of a window into the given list. When the
+     * first page shows how many pages there are, the rest are fetched at
+     * the same time; otherwise pages are walked one by one. A page that
+     * fails, including one the circuit breaker or the retries gave up on,
+     * fails the walk, so the crawl records the unit as failed.
+     *
+     * @throws IOException If a page cannot be fetched or parsed
+     */
+    private void walkSchedule(
+        final ScheduleWindow window, final Map<Integer, PageDigest> previous, final List<SchedulePage> pages
+    ) throws IOException {
+        try {
+            final SchedulePage first = this.loadSchedulePage(window, 1, previous, true);
+            pages.add(first);
+            if (first.totalPages() > 1) {
+                pages.addAll(PageFanOut.requiredPages(
+                    first.totalPages(),
+                    page -> this.loadSchedulePage(window, page, previous, true)
+                ));
+            } else if (first.totalPages() == 0 && !first.empty()) {
+                this.parseScheduleSequentially(window, previous, pages);
+            }
+        } catch (final JSONException e) {
+            throw new IOException(
+                "Malformed schedule for link " + window.link() + " and date " + window.period(), e
+            );
+        }
+    }
+
+    private static ScheduleSnapshot snapshotOf(final List<SchedulePage> pages) {
+        final List<Session> sessions = new ArrayList<>();
+        final Map<Integer, PageDigest> digests = new HashMap<>();
+        int unchanged = 0;
+        for (final SchedulePage page : pages) {
+            if (page.unchanged()) {
+                unchanged++;
+            } else {
+                sessions.addAll(page.sessions());
+            }
+            if (page.digest() != null) {
+                digests.put(page.number(), page.digest());
+            }
+        }
+        return new ScheduleSnapshot(sessions, digests, unchanged);
+    }
+
+    /**
+     * Walks the schedule pages after the first one, adding them to the
+     * pages read so far, until a page repeats the previous page's cinemas
+     * or the site answers that the page does not exist.
+     */
+    private void parseScheduleSequentially(
+        final ScheduleWindow window, final Map<Integer, PageDigest> previous, final List<SchedulePage> pages
+    ) throws IOException {
+        Set<String> prevCinemas = cinemasOf(pages.getFirst().sessions());
+        int page = 2;
+        boolean empty;
         do {
             try {
-                final String url = String.format(SCHEDULE_PAGE, link, date, page);
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Parsing schedule from: {}", url);
-                }
-                jsonPage = parseSchedulePage(url);
-                final List<Session> sessions = SessionJsonParser.parseSessions(jsonPage, url, expectedDate);
-                final Set<String> cinemas = sessions.stream().map(Session::cinema).collect(Collectors.toSet());
+                final SchedulePage schedulePage = this.loadSchedulePage(window, page, previous, false);
+                empty = schedulePage.empty();
+                final Set<String> cinemas = cinemasOf(schedulePage.sessions());
                 if (cinemas.equals(prevCinemas)) {
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("Found duplicate schedule page, stopping parse.");
                     }
                     break;
                 }
-                result.addAll(sessions);
+                pages.add(schedulePage);
                 prevCinemas = cinemas;
                 page++;
-                addRandomDelay();
             } catch (final HttpStatusException httpEx) {
-                if (LOGGER.isWarnEnabled()) {
-                    LOGGER.warn("HTTP error fetching schedule page: {}", httpEx.getMessage());
+                if (httpEx.getStatusCode() != NOT_FOUND) {
+                    throw httpEx;
+                }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Schedule page {} not found, stopping parse.", page);
                 }
-                break;
-            } catch (final JSONException | IOException e) {
-                LOGGER.error("Error parsing schedule for link {} and date {}", link, date, e);
                 break;
             }
-        } while (!jsonPage.isEmpty());
-        if (LOGGER.isInfoEnabled()) {
-            LOGGER.info("Parsed {} sessions for link {} and date {}.", result.size(), link, date);
-        }
-        return result;
+        } while (!empty);
+    }
+
+    private static Set<String> cinemasOf(final List<Session> sessions) {
+        return sessions.stream().map(Session::cinema).collect(Collectors.toSet());
     }
 
-    private String parseSchedulePage(final String page) throws IOException {
-        return this.retrier.execute(
+    /**
+     * Fetch and parse one schedule page. A page identical to the previous
+     * crawl is not parsed when skipping is allowed and the stored digest
+     * tells the page count; pages walked one by one are always parsed
+     * because the walk compares their cinemas.
+     */
+    private SchedulePage loadSchedulePage(
+        final ScheduleWindow window,
+        final int pageNumber,
+        final Map<Integer, PageDigest> previous,
+        final boolean skipUnchanged
+    ) throws IOException {
+        final String url = String.format(SCHEDULE_PAGE, window.link(), window.period(), pageNumber);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Parsing schedule from: {}", url);
+        }
+        final PageBody page = this.parseSchedulePage(url);
+        if (page.body().isEmpty()) {
+            return new SchedulePage(pageNumber, List.of(), 0, true, null, false);
+        }
+        final String hash = PageDigest.hash(page.body());
+        final PageDigest known = previous.get(pageNumber);
+        final boolean unchanged = known != null && known.matches(hash);
+        if (unchanged && skipUnchanged && known.totalPages() > 0) {
+            return new SchedulePage(pageNumber, List.of(), known.totalPages(), false, known, true);
+        }
+        final SchedulePage parsed = this.schedulePages.resolve(
+            page,
             () -> {
-                final Connection.Response response;
-                try {
-                    response = browserProfile.applyTo(
-                        Jsoup.connect(page)
-                            .ignoreContentType(true)
-                            .followRedirects(false)
-                            .cookies(cookies)
-                            .header("Accept", "application/json")
-                            .header("Sec-Fetch-Dest", "empty")
-                            .header("Sec-Fetch-Mode", "cors")
-                            .header("Sec-Fetch-Site", "same-origin")
-                            .timeout(30_000)
-                    ).execute();
-                } catch (final HttpStatusException httpEx) {
-                    if (isRetryable(httpEx.getStatusCode())) {
-                        throw httpEx;
-                    }
-                    throw new NonRetryableIoException(httpEx);
-                }
-                final int status = response.statusCode();
-                if (status >= 300 && status < 400) {
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug(
-                            "Schedule page {} redirected with status {}, returning empty",
-                            page, status
-                        );
+                final ParsedSchedulePage content = SessionJsonParser.parseSchedulePage(
+                    page.body(), url, window.first(), window.last(), this.filmMetadata
+                );
+                return new SchedulePage(
+                    pageNumber,
+                    content.sessions(),
+                    content.totalPages(),
+                    false,
+                    new PageDigest(hash, content.totalPages()),
+                    false
+                );
+            }
+        );
+        return unchanged ? parsed.asUnchanged() : parsed;
+    }
+
+    /**
+     * Fetch one schedule JSON page with the shared cookies. A redirect or a
+     * 403 means the cookies are no longer accepted, so the jar is refreshed.
+     */
+    private PageBody parseSchedulePage(final String page) throws IOException {
+        final String cookies = this.cookieJar.cookieHeader();
+        try {
+            final PageBody body = this.scheduleFetcher.fetchPage(
+                page,
+                false,
+                () -> {
+                    final HttpRequest.Builder request = browserProfile.applyTo(request(page))
+                        .header("Accept", "application/json")
+                        .header("Sec-Fetch-Dest", "empty")
+                        .header("Sec-Fetch-Mode", "cors")
+                        .header("Sec-Fetch-Site", "same-origin");
+                    if (!cookies.isEmpty()) {
+                        request.header("Cookie", cookies);
                     }
-                    return "";
+                    return request;
                 }
-                return response.body();
+            );
+            if (body.redirected()) {
+                this.cookieJar.invalidate();
             }
-        );
+            return body;
+        } catch (final HttpStatusException httpEx) {
+            if (httpEx.getStatusCode() == FORBIDDEN) {
+                this.cookieJar.invalidate();
+            }
+            throw httpEx;
+        }
+    }
+
+    private static HttpRequest.Builder request(final String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT);
     }
 
     /**
-     * Checks whether an HTTP status code represents a transient error
-     * that should be retried (429 Too Many Requests or server errors 5xx).
+     * The days whose schedule pages are fetched.
      *
-     * @param statusCode the HTTP status code
-     * @return true if the error is transient and should be retried
+     * @param link The link to the film's schedule
+     * @param period The days as they appear in page URLs
+     * @param first The first day
+     * @param last The last day, the same as the first for a single day
      */
-    private static boolean isRetryable(final int statusCode) {
-        return statusCode == 429 || statusCode >= 500;
+    private record ScheduleWindow(String link, String period, LocalDate first, LocalDate last) {
     }
 
-    private static void addRandomDelay() {
-        try {
-            final long delay = new Random().nextInt(MAX_DELAY_MS - MIN_DELAY_MS) + MIN_DELAY_MS;
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Adding a delay of {}ms before the next request.", delay);
-            }
-            Thread.sleep(delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LOGGER.warn("Thread interrupted during delay.", e);
+    /**
+     * Sessions found on one schedule page.
+     *
+     * @param number The page number
+     * @param sessions The sessions on the page, empty if the page was skipped as unchanged
+     * @param totalPages The number of schedule pages, or 0 if the page does not show it
+     * @param empty Whether the page had no body at all
+     * @param digest The digest of the page body, or {@code null} if the page had no body
+     * @param unchanged Whether the body was identical to the previous crawl
+     */
+    private record SchedulePage(
+        int number, List<Session> sessions, int totalPages, boolean empty, PageDigest digest, boolean unchanged
+    ) {
+        SchedulePage asUnchanged() {
+            return new SchedulePage(this.number, this.sessions, this.totalPages, this.empty, this.digest, true);
         }
     }
 }
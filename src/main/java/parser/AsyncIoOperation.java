@@ -0,0 +1,22 @@
+package parser;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Functional interface for IO operations that complete asynchronously.
+ * A failed attempt completes the future exceptionally with an
+ * {@link java.io.IOException}. Used with {@link Retrier#executeAsync} to
+ * retry transient failures without blocking a thread.
+ *
+ * @param <T> the type of result produced by the operation
+ */
+@FunctionalInterface
+public interface AsyncIoOperation<T> {
+
+  /**
+   * Starts the IO operation.
+   *
+   * @return a future completed with the result of the operation
+   */
+  CompletableFuture<T> execute();
+}
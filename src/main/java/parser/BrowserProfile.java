@@ -1,5 +1,6 @@
 package parser;
 
+import java.net.http.HttpRequest;
 import java.util.List;
 import java.util.Random;
 import org.jsoup.Connection;
@@ -91,6 +92,24 @@ public final class BrowserProfile {
     return connection;
   }
 
+  /**
+   * Applies this profile's headers to a request of the shared scraper
+   * HTTP client.
+   *
+   * @param request The request builder to configure
+   * @return The same builder with User-Agent and client-hint headers set
+   */
+  HttpRequest.Builder applyTo(final HttpRequest.Builder request) {
+    request.setHeader("User-Agent", this.userAgent);
+    if (!this.secChUa.isEmpty()) {
+      request.setHeader("Sec-Ch-Ua", this.secChUa);
+    }
+    if (!this.secChUaPlatform.isEmpty()) {
+      request.setHeader("Sec-Ch-Ua-Platform", this.secChUaPlatform);
+    }
+    return request;
+  }
+
   /**
    * Returns the User-Agent string of this profile.
    *
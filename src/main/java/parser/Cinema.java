@@ -0,0 +1,11 @@
+package parser;
+
+/**
+ * A cinema sessions are shown in. One instance is shared by all sessions
+ * of the cinema in a snapshot, see {@link SessionDictionary}.
+ *
+ * @param name The cinema name
+ * @param address The cinema address
+ */
+public record Cinema(String name, String address) {
+}
@@ -0,0 +1,238 @@
+package parser;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops sending requests to an endpoint that keeps failing. The breaker
+ * tracks the outcome of the most recent calls; once enough of them failed
+ * it opens and every request is refused at once instead of spending its
+ * own retry budget. After a cool-down the breaker lets a single probe
+ * through: a successful probe closes it again, a failed one reopens it.
+ *
+ * <p>Use {@link #forEndpoint(Endpoint)} to obtain the JVM-wide breaker for
+ * an endpoint class, so every parser sees the same state.
+ */
+public final class CircuitBreaker {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CircuitBreaker.class);
+
+  private static final int DEFAULT_WINDOW_SIZE = 20;
+  private static final int DEFAULT_MINIMUM_CALLS = 10;
+  private static final double DEFAULT_FAILURE_RATE = 0.5;
+  private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+  private static final Map<Endpoint, CircuitBreaker> SHARED =
+      new ConcurrentHashMap<>();
+
+  private final Endpoint endpoint;
+  private final boolean[] outcomes;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final long openDurationNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private State state = State.CLOSED;
+  private int recorded;
+  private int next;
+  private int failures;
+  private long openedAtNanos;
+  private boolean probeInFlight;
+
+  /**
+   * Primary constructor.
+   *
+   * @param endpoint the endpoint class guarded by this breaker
+   * @param windowSize how many recent calls the failure rate is computed over
+   * @param minimumCalls how many calls must be recorded before the breaker
+   *     may open
+   * @param failureRateThreshold the share of failed calls, between 0 and 1,
+   *     at which the breaker opens
+   * @param openDuration how long the breaker stays open before it lets a
+   *     probe through
+   */
+  CircuitBreaker(
+      final Endpoint endpoint,
+      final int windowSize,
+      final int minimumCalls,
+      final double failureRateThreshold,
+      final Duration openDuration
+  ) {
+    this.endpoint = endpoint;
+    this.outcomes = new boolean[windowSize];
+    this.minimumCalls = Math.min(minimumCalls, windowSize);
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDurationNanos = openDuration.toNanos();
+  }
+
+  /**
+   * Returns the breaker shared by every caller in the JVM for an endpoint
+   * class, creating it with default settings on first use.
+   *
+   * @param endpoint the endpoint class
+   * @return the shared breaker
+   */
+  public static CircuitBreaker forEndpoint(final Endpoint endpoint) {
+    return SHARED.computeIfAbsent(
+        endpoint,
+        ignored -> new CircuitBreaker(
+            endpoint,
+            DEFAULT_WINDOW_SIZE,
+            DEFAULT_MINIMUM_CALLS,
+            DEFAULT_FAILURE_RATE,
+            DEFAULT_OPEN_DURATION
+        )
+    );
+  }
+
+  /**
+   * Asks whether a request may be sent now. An open breaker refuses until
+   * its cool-down has passed and then admits exactly one probe; every
+   * admitted request must be followed by {@link #onSuccess()} or
+   * {@link #onFailure()}.
+   *
+   * @throws CircuitOpenException if the request must not be sent
+   */
+  public void acquire() throws CircuitOpenException {
+    this.lock.lock();
+    try {
+      if (this.state == State.OPEN
+          && System.nanoTime() - this.openedAtNanos >= this.openDurationNanos) {
+        this.transition(State.HALF_OPEN);
+      }
+      if (this.state == State.OPEN || this.state == State.HALF_OPEN && this.probeInFlight) {
+        throw new CircuitOpenException(this.endpoint);
+      }
+      if (this.state == State.HALF_OPEN) {
+        this.probeInFlight = true;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Records a healthy answer. A successful probe closes the breaker.
+   */
+  public void onSuccess() {
+    this.lock.lock();
+    try {
+      if (this.state == State.HALF_OPEN) {
+        this.transition(State.CLOSED);
+      } else if (this.state == State.CLOSED) {
+        this.record(false);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Records a failed call: a transport error, a timeout, a 429 or a 5xx. A
+   * failed probe reopens the breaker.
+   */
+  public void onFailure() {
+    this.lock.lock();
+    try {
+      if (this.state == State.HALF_OPEN) {
+        this.transition(State.OPEN);
+      } else if (this.state == State.CLOSED) {
+        this.record(true);
+        if (this.recorded >= this.minimumCalls
+            && this.failures >= this.failureRateThreshold * this.recorded) {
+          this.transition(State.OPEN);
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Gives back an admission that ended before the request was sent, for
+   * example because the thread was interrupted. Nothing is recorded.
+   */
+  public void release() {
+    this.lock.lock();
+    try {
+      this.probeInFlight = false;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the current state.
+   *
+   * @return the state of the breaker
+   */
+  public State state() {
+    this.lock.lock();
+    try {
+      return this.state;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void record(final boolean failed) {
+    if (this.recorded == this.outcomes.length) {
+      if (this.outcomes[this.next]) {
+        this.failures--;
+      }
+    } else {
+      this.recorded++;
+    }
+    this.outcomes[this.next] = failed;
+    if (failed) {
+      this.failures++;
+    }
+    this.next = (this.next + 1) % this.outcomes.length;
+  }
+
+  private void transition(final State target) {
+    final State previous = this.state;
+    this.state = target;
+    this.probeInFlight = false;
+    if (target == State.OPEN) {
+      this.openedAtNanos = System.nanoTime();
+    }
+    if (target == State.CLOSED) {
+      this.recorded = 0;
+      this.next = 0;
+      this.failures = 0;
+    }
+    if (LOGGER.isWarnEnabled()) {
+      LOGGER.warn("Circuit for {} moved from {} to {}", this.endpoint, previous, target);
+    }
+  }
+
+  /**
+   * Classes of scraper endpoints that fail independently of each other.
+   */
+  public enum Endpoint {
+    /** The site homepage that hands out cookies. */
+    HOMEPAGE,
+    /** The HTML film listing pages. */
+    LISTING,
+    /** The schedule JSON of a single film. */
+    SCHEDULE
+  }
+
+  /**
+   * States of a circuit breaker.
+   */
+  public enum State {
+    /** Requests flow and outcomes are recorded. */
+    CLOSED,
+    /** Requests are refused until the cool-down passes. */
+    OPEN,
+    /** A single probe request decides whether to close or reopen. */
+    HALF_OPEN
+  }
+}
@@ -0,0 +1,21 @@
+package parser;
+
+import java.io.IOException;
+
+/**
+ * Signals that a request was refused without being sent because the
+ * {@link CircuitBreaker} of its endpoint is open.
+ */
+public final class CircuitOpenException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Primary constructor.
+   *
+   * @param endpoint the endpoint whose breaker refused the request
+   */
+  public CircuitOpenException(final CircuitBreaker.Endpoint endpoint) {
+    super(String.format("Circuit for %s is open, failing fast", endpoint));
+  }
+}
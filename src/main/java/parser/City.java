@@ -1,6 +1,6 @@
 package parser;
 
-/** City enum. */
+/** City enum, declared from the busiest city to the quietest. */
 public enum City {
     MOSCOW(),
     SPB(),
@@ -0,0 +1,282 @@
+package parser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide holder of the session cookies handed out by a site's
+ * homepage. Every parser and every city shares one set of cookies, so the
+ * homepage is requested once per cookie lifetime rather than once per
+ * parser instance.
+ *
+ * <p>Cookies are refreshed in the background shortly before they expire,
+ * and right away after {@link #invalidate()}, which callers use when the
+ * site answers with a redirect or a {@code 403}. Once cookies are loaded,
+ * callers always get them at once, without waiting for a refresh. If a
+ * refresh fails, the previous cookies are kept and the refresh is retried
+ * in the background until it succeeds.
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class CookieJar {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CookieJar.class);
+
+  private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(30);
+  private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final long RETRY_BUDGET_MS = 60_000L;
+  private static final int REFRESH_PERCENT = 80;
+
+  private static final CookieJar AFISHA = new CookieJar(
+      homepage(AfishaParser.BASE_LINK, "www.afisha.ru"), DEFAULT_LIFETIME
+  );
+  private static final Map<String, CookieJar> SITES = new ConcurrentHashMap<>();
+
+  private final IoOperation<ScraperResponse> loader;
+  private final Duration maxLifetime;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ScheduledExecutorService scheduler;
+
+  private final AtomicReference<Snapshot> current =
+      new AtomicReference<>(new Snapshot(Map.of(), Instant.MIN, false));
+  private final AtomicReference<CompletableFuture<Snapshot>> loading = new AtomicReference<>();
+  private final AtomicBoolean refreshRequested = new AtomicBoolean();
+  private ScheduledFuture<?> nextRefresh;
+
+  /**
+   * Primary constructor.
+   *
+   * @param loader requests the page that sets the cookies
+   * @param maxLifetime how long cookies are used at most, even if the
+   *     server lets them live longer
+   */
+  CookieJar(final IoOperation<ScraperResponse> loader, final Duration maxLifetime) {
+    this.loader = loader;
+    this.maxLifetime = maxLifetime;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().daemon().name("cookie-refresh").factory()
+    );
+  }
+
+  /**
+   * Returns the cookie jar shared by every Afisha parser in the JVM.
+   *
+   * @return the shared Afisha cookie jar
+   */
+  public static CookieJar afisha() {
+    return AFISHA;
+  }
+
+  /**
+   * Returns the cookie jar shared by every parser of a site, the Afisha jar
+   * for the live Afisha site.
+   *
+   * @param baseUrl the site URL, whose homepage sets the cookies
+   * @return the shared cookie jar of the site
+   */
+  public static CookieJar forSite(final String baseUrl) {
+    if (AfishaParser.BASE_LINK.equals(baseUrl)) {
+      return AFISHA;
+    }
+    return SITES.computeIfAbsent(
+        baseUrl,
+        url -> new CookieJar(homepage(url, URI.create(url).getAuthority()), DEFAULT_LIFETIME)
+    );
+  }
+
+  /**
+   * Warms the jar in the background, so the first parser does not have to
+   * wait for the homepage. Returns immediately.
+   */
+  public void warm() {
+    this.scheduleRefresh(Duration.ZERO);
+  }
+
+  /**
+   * Returns the current cookies. Only the first callers wait, sharing a
+   * single load of the homepage; once cookies are loaded they are returned
+   * at once, and expired ones are kept while a background refresh replaces
+   * them.
+   *
+   * @return cookie names mapped to values
+   * @throws IOException if the homepage was never loaded and loading fails
+   */
+  public Map<String, String> cookies() throws IOException {
+    final Snapshot snapshot = this.current.get();
+    if (!snapshot.loaded()) {
+      return await(this.load()).cookies();
+    }
+    if (!snapshot.freshAt(Instant.now())) {
+      this.requestRefresh();
+    }
+    return snapshot.cookies();
+  }
+
+  /**
+   * Returns the current cookies formatted as a {@code Cookie} request
+   * header value.
+   *
+   * @return the header value, empty if the site set no cookies
+   * @throws IOException if the homepage was never loaded and loading fails
+   */
+  public String cookieHeader() throws IOException {
+    return this.cookies().entrySet().stream()
+        .map(cookie -> cookie.getKey() + '=' + cookie.getValue())
+        .collect(Collectors.joining("; "));
+  }
+
+  /**
+   * Starts a background refresh of the cookies, unless one is already
+   * requested. Callers keep receiving the old cookies until the refresh
+   * completes.
+   */
+  public void invalidate() {
+    if (this.requestRefresh() && LOGGER.isInfoEnabled()) {
+      LOGGER.info("Cookies invalidated, refreshing");
+    }
+  }
+
+  /**
+   * Stops background refreshes.
+   */
+  public void stop() {
+    this.scheduler.shutdownNow();
+  }
+
+  /**
+   * Schedules an immediate background refresh, unless one is requested
+   * already and has not succeeded yet.
+   *
+   * @return whether this call requested the refresh
+   */
+  private boolean requestRefresh() {
+    final boolean requested = this.refreshRequested.compareAndSet(false, true);
+    if (requested) {
+      this.scheduleRefresh(Duration.ZERO);
+    }
+    return requested;
+  }
+
+  /**
+   * Loads the homepage, or joins the load already in flight. The homepage
+   * is requested without holding any lock.
+   *
+   * @return the load, completed with the new cookies or the failure
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private CompletableFuture<Snapshot> load() {
+    final CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+    final CompletableFuture<Snapshot> running = this.loading.compareAndExchange(null, mine);
+    if (running != null) {
+      return running;
+    }
+    try {
+      mine.complete(this.refresh());
+    } catch (final IOException | RuntimeException e) {
+      mine.completeExceptionally(e);
+    } finally {
+      this.loading.set(null);
+    }
+    return mine;
+  }
+
+  private Snapshot refresh() throws IOException {
+    final ScraperResponse response = this.loader.execute();
+    final Instant now = Instant.now();
+    final Instant expiry = response.cookiesExpiry(now, this.maxLifetime);
+    final Snapshot snapshot = new Snapshot(Map.copyOf(response.cookies()), expiry, true);
+    this.current.set(snapshot);
+    this.refreshRequested.set(false);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Loaded cookies {} valid until {}", snapshot.cookies().keySet(), expiry);
+    }
+    this.scheduleRefresh(Duration.between(now, expiry).multipliedBy(REFRESH_PERCENT).dividedBy(100));
+    return snapshot;
+  }
+
+  private void refreshInBackground() {
+    try {
+      await(this.load());
+    } catch (final IOException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Background cookie refresh failed, retrying in {}: {}", RETRY_DELAY, e.getMessage());
+      }
+      this.refreshRequested.set(true);
+      this.scheduleRefresh(RETRY_DELAY);
+    }
+  }
+
+  private static Snapshot await(final CompletableFuture<Snapshot> load) throws IOException {
+    try {
+      return load.join();
+    } catch (final CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  private static IOException unwrap(final CompletionException failure) {
+    if (failure.getCause() instanceof IOException cause) {
+      return cause;
+    }
+    throw failure;
+  }
+
+  private void scheduleRefresh(final Duration delay) {
+    this.lock.lock();
+    try {
+      if (this.nextRefresh != null) {
+        this.nextRefresh.cancel(false);
+      }
+      if (!this.scheduler.isShutdown()) {
+        this.nextRefresh = this.scheduler.schedule(
+            this::refreshInBackground, delay.toMillis(), TimeUnit.MILLISECONDS
+        );
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private static IoOperation<ScraperResponse> homepage(final String url, final String host) {
+    final PageFetcher fetcher = PageFetcher.forHost(
+        host, CircuitBreaker.Endpoint.HOMEPAGE, RETRY_BUDGET_MS, RequestHedger.disabled()
+    );
+    final BrowserProfile profile = BrowserProfile.random();
+    return () -> fetcher.execute(
+        () -> profile.applyTo(HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT))
+    );
+  }
+
+  /**
+   * Cookies together with the time they stop being used. A homepage that
+   * sets no cookies still yields a snapshot, fresh until it expires.
+   *
+   * @param cookies cookie names mapped to values
+   * @param expiresAt when the cookies expire
+   * @param loaded whether the homepage was ever loaded
+   */
+  private record Snapshot(Map<String, String> cookies, Instant expiresAt, boolean loaded) {
+
+    boolean freshAt(final Instant now) {
+      return this.loaded && now.isBefore(this.expiresAt);
+    }
+  }
+}
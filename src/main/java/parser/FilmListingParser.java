@@ -0,0 +1,129 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extracts {@link MovieThumbnail}s and pagination from Afisha film listing pages.
+ * The page is streamed rather than built into a full document: every element
+ * is handled as soon as it closes and then dropped from the tree, unless it
+ * belongs to a film item that is still open. At any time the tree holds at
+ * most the open ancestors and the current item.
+ */
+final class FilmListingParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FilmListingParser.class);
+    private static final String DATA_TEST_ATTR = "data-test";
+    private static final String ITEM = "ITEM";
+    private static final String HREF = "href";
+    private static final Pattern PAGE_NUMBER_PATTERN = Pattern.compile("/page(\\d+)/?");
+
+    private FilmListingParser() {
+        // Utility class
+    }
+
+    /**
+     * Extracts the films listed on a page and the number of listing pages.
+     *
+     * @param html The listing page HTML
+     * @param baseUri The page URL, used to resolve relative links
+     * @return The films and the highest page number linked from the page, or 0 if there are no such links
+     */
+    static ListingPage parse(final String html, final String baseUri) {
+        final List<MovieThumbnail> thumbnails = new ArrayList<>();
+        int pages = 0;
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, baseUri)) {
+            for (final Element element : (Iterable<Element>) streamer.stream()::iterator) {
+                if (isItem(element)) {
+                    extractFilm(element).ifPresent(thumbnails::add);
+                    element.remove();
+                } else if (!insideItem(element)) {
+                    pages = Math.max(pages, pageNumberOf(element));
+                    element.remove();
+                }
+            }
+        }
+        return new ListingPage(thumbnails, pages);
+    }
+
+    private static boolean isItem(final Element element) {
+        return "div".equals(element.normalName()) && ITEM.equals(element.attr(DATA_TEST_ATTR));
+    }
+
+    private static boolean insideItem(final Element element) {
+        for (Element parent = element.parent(); parent != null; parent = parent.parent()) {
+            if (isItem(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<MovieThumbnail> extractFilm(final Element container) {
+        List<Element> linkElements = container.getElementsByAttributeValue(
+            DATA_TEST_ATTR, "LINK LINK-BUTTON TICKET-BUTTON"
+        );
+        if (linkElements.isEmpty()) {
+            linkElements = container.getElementsByAttributeValue(DATA_TEST_ATTR, "LINK LINK-BUTTON");
+        }
+        if (linkElements.isEmpty()) {
+            return Optional.empty();
+        }
+        final Element link = linkElements.getFirst();
+        if (!link.hasAttr(HREF)) {
+            LOGGER.warn("Film ref not found in element: {}", link);
+            return Optional.empty();
+        }
+        final String href = link.attr(HREF);
+        if (!href.contains("/schedule_cinema_product/")) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Skipping non-cinema product link: {}", href);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(new MovieThumbnail(
+            container.getElementsByAttributeValue(DATA_TEST_ATTR, "LINK ITEM-NAME ITEM-URL").text(),
+            link.absUrl(HREF),
+            extractImageUrl(container)
+        ));
+    }
+
+    private static String extractImageUrl(final Element container) {
+        final List<Element> imgElements = container.getElementsByAttributeValue(DATA_TEST_ATTR, "IMAGE ITEM-IMAGE");
+        return imgElements.isEmpty() ? "" : imgElements.getFirst().attr("src");
+    }
+
+    /**
+     * Reads the page number of a pagination link.
+     *
+     * @return The linked page number, or 0 if the element is not a pagination link
+     */
+    private static int pageNumberOf(final Element element) {
+        if (!"a".equals(element.normalName())) {
+            return 0;
+        }
+        final String href = element.attr(HREF);
+        if (!href.contains("/schedule_cinema/")) {
+            return 0;
+        }
+        final Matcher matcher = PAGE_NUMBER_PATTERN.matcher(href);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Films found on one listing page.
+     *
+     * @param films The films on the page
+     * @param totalPages The number of listing pages, or 0 if the page does not show it
+     */
+    record ListingPage(List<MovieThumbnail> films, int totalPages) {
+    }
+}
@@ -0,0 +1,21 @@
+package parser;
+
+import java.util.List;
+
+/**
+ * Film details shown on every schedule page of a film: its name, the
+ * distributor's description, the verdict and the genres. One instance is
+ * shared by all sessions of the film found during a crawl.
+ *
+ * @param name The film name
+ * @param description The distributor's description, empty if there is none
+ * @param verdict The short verdict
+ * @param genres The genre names, unmodifiable
+ */
+public record FilmMetadata(String name, String description, String verdict, List<String> genres) {
+
+    /** Constructor. */
+    public FilmMetadata {
+        genres = List.copyOf(genres);
+    }
+}
@@ -0,0 +1,75 @@
+package parser;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Film details extracted from schedule pages, keyed by the canonical film URL.
+ * The details repeat on every page of every date of a film, so they are
+ * extracted from the first page seen and reused for the rest of the crawl,
+ * together with the crawl's {@link StringPool}. Safe to use from crawl
+ * worker threads.
+ */
+public final class FilmMetadataCache {
+
+    private final Map<String, FilmMetadata> films = new ConcurrentHashMap<>();
+    private final StringPool strings = new StringPool();
+
+    /**
+     * Returns the details of a film, extracting them only if the film has not
+     * been seen yet.
+     *
+     * @param filmUrl The link to the film's schedule, with or without date and page parts
+     * @param extractor Extracts the details from the current page
+     * @return The details shared by every page of the film
+     */
+    public FilmMetadata resolve(final String filmUrl, final Supplier<FilmMetadata> extractor) {
+        return this.films.computeIfAbsent(canonical(filmUrl), url -> extractor.get());
+    }
+
+    /**
+     * Returns the details of a film if they were extracted already, so a
+     * page of a known film can skip its details without reading them.
+     *
+     * @param filmUrl The link to the film's schedule, with or without date and page parts
+     * @return The details, or empty if the film has not been seen yet
+     */
+    public Optional<FilmMetadata> find(final String filmUrl) {
+        return Optional.ofNullable(this.films.get(canonical(filmUrl)));
+    }
+
+    /**
+     * Returns the canonical copies of the strings read by the current crawl.
+     *
+     * @return The pool of the crawl
+     */
+    public StringPool strings() {
+        return this.strings;
+    }
+
+    /**
+     * Tells how many films are remembered.
+     *
+     * @return The number of films
+     */
+    public int size() {
+        return this.films.size();
+    }
+
+    /**
+     * Reduces a film link to the film itself: drops the fragment, the query,
+     * the trailing slash and any date, date range or page segments after the
+     * film id.
+     *
+     * @param filmUrl The link to the film's schedule
+     * @return The canonical film URL
+     */
+    static String canonical(final String filmUrl) {
+        return filmUrl
+            .replaceAll("[#?].*", "")
+            .replaceAll("/\\d{2}-\\d{2}(-\\d{4}|_\\d{2}-\\d{2}).*", "")
+            .replaceAll("/+$", "");
+    }
+}
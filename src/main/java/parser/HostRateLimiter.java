@@ -0,0 +1,203 @@
+package parser;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Paces requests to a single host with an additive-increase /
+ * multiplicative-decrease (AIMD) budget. Every healthy response raises the
+ * allowed request rate by a fixed step; a 429, a 5xx, a transport failure
+ * or a slow response cuts it by a constant factor. Callers reserve evenly
+ * spaced slots with {@link #acquire()}, so concurrent threads share one
+ * budget instead of each sleeping independently.
+ *
+ * <p>Use {@link #forHost(String)} to obtain the JVM-wide limiter for a host.
+ */
+public final class HostRateLimiter {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(HostRateLimiter.class);
+
+  private static final Map<String, HostRateLimiter> SHARED =
+      new ConcurrentHashMap<>();
+
+  private static final double DEFAULT_INITIAL_RATE = 1.0;
+  private static final double DEFAULT_MIN_RATE = 0.2;
+  private static final double DEFAULT_MAX_RATE = 8.0;
+  private static final double DEFAULT_INCREASE_STEP = 0.05;
+  private static final double DEFAULT_DECREASE_FACTOR = 0.5;
+  private static final long DEFAULT_SLOW_RESPONSE_MS = 5_000L;
+
+  private final double minRate;
+  private final double maxRate;
+  private final double increaseStep;
+  private final double decreaseFactor;
+  private final long slowResponseMs;
+  private final long decreaseCooldownNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private double rate;
+  private long nextSlotNanos;
+  private long lastDecreaseNanos;
+
+  /**
+   * Primary constructor.
+   *
+   * @param initialRate starting rate in requests per second
+   * @param minRate lower bound for the rate in requests per second
+   * @param maxRate upper bound for the rate in requests per second
+   * @param increaseStep requests per second added after a healthy response
+   * @param decreaseFactor multiplier applied to the rate after an
+   *     unhealthy response, between 0 and 1
+   * @param slowResponseMs latency above which a response counts as
+   *     unhealthy
+   */
+  HostRateLimiter(
+      final double initialRate,
+      final double minRate,
+      final double maxRate,
+      final double increaseStep,
+      final double decreaseFactor,
+      final long slowResponseMs
+  ) {
+    this.minRate = minRate;
+    this.maxRate = maxRate;
+    this.increaseStep = increaseStep;
+    this.decreaseFactor = decreaseFactor;
+    this.slowResponseMs = slowResponseMs;
+    this.rate = Math.clamp(initialRate, minRate, maxRate);
+    this.decreaseCooldownNanos = intervalNanos(initialRate);
+    this.nextSlotNanos = System.nanoTime();
+    this.lastDecreaseNanos = this.nextSlotNanos - this.decreaseCooldownNanos;
+  }
+
+  /**
+   * Returns the limiter shared by every caller in the JVM for the host,
+   * creating it with default settings on first use.
+   *
+   * @param host the host name, for example {@code www.afisha.ru}
+   * @return the shared limiter for the host
+   */
+  public static HostRateLimiter forHost(final String host) {
+    return SHARED.computeIfAbsent(
+        host,
+        ignored -> new HostRateLimiter(
+            DEFAULT_INITIAL_RATE,
+            DEFAULT_MIN_RATE,
+            DEFAULT_MAX_RATE,
+            DEFAULT_INCREASE_STEP,
+            DEFAULT_DECREASE_FACTOR,
+            DEFAULT_SLOW_RESPONSE_MS
+        )
+    );
+  }
+
+  /**
+   * Blocks until the caller may send its next request. Slots are handed
+   * out one interval apart at the current rate, in call order.
+   *
+   * @throws InterruptedIOException if the thread is interrupted while
+   *     waiting for its slot
+   */
+  public void acquire() throws InterruptedIOException {
+    final long waitNanos;
+    this.lock.lock();
+    try {
+      final long now = System.nanoTime();
+      final long slot = Math.max(now, this.nextSlotNanos);
+      this.nextSlotNanos = slot + intervalNanos(this.rate);
+      waitNanos = slot - now;
+    } finally {
+      this.lock.unlock();
+    }
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        final InterruptedIOException wrapped = new InterruptedIOException(
+            "Interrupted while waiting for a request slot"
+        );
+        wrapped.initCause(ie);
+        throw wrapped;
+      }
+    }
+  }
+
+  /**
+   * Adjusts the rate after a response was received.
+   *
+   * @param statusCode the HTTP status code of the response
+   * @param latencyMs how long the request took in milliseconds
+   */
+  public void onResponse(final int statusCode, final long latencyMs) {
+    if (statusCode == 429 || statusCode >= 500 || latencyMs > this.slowResponseMs) {
+      this.decrease(statusCode, latencyMs);
+    } else {
+      this.lock.lock();
+      try {
+        this.rate = Math.min(this.maxRate, this.rate + this.increaseStep);
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Adjusts the rate after a request failed without an HTTP status,
+   * for example on a timeout or a reset connection.
+   */
+  public void onFailure() {
+    this.decrease(0, 0L);
+  }
+
+  /**
+   * Returns the current allowed rate.
+   *
+   * @return the rate in requests per second
+   */
+  public double currentRate() {
+    this.lock.lock();
+    try {
+      return this.rate;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Cuts the rate multiplicatively. Responses that were already in flight
+   * when the rate was last cut are ignored for one interval, so a burst of
+   * concurrent failures counts as one congestion signal.
+   */
+  private void decrease(final int statusCode, final long latencyMs) {
+    final double reduced;
+    this.lock.lock();
+    try {
+      final long now = System.nanoTime();
+      if (now - this.lastDecreaseNanos < this.decreaseCooldownNanos) {
+        return;
+      }
+      this.lastDecreaseNanos = now;
+      this.rate = Math.max(this.minRate, this.rate * this.decreaseFactor);
+      reduced = this.rate;
+    } finally {
+      this.lock.unlock();
+    }
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info(
+          "Backing off to {} requests/s after status {} in {}ms",
+          String.format("%.2f", reduced), statusCode, latencyMs
+      );
+    }
+  }
+
+  private static long intervalNanos(final double requestsPerSecond) {
+    return (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+  }
+}
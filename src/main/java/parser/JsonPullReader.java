@@ -0,0 +1,368 @@
+package parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import org.json.JSONException;
+
+/**
+ * Reads a JSON document one token at a time, without building a tree of
+ * it. The caller asks for the names and values it needs and skips the
+ * rest; a skipped subtree is scanned but none of its strings are kept.
+ * Malformed input fails with a {@link JSONException}, as {@code org.json}
+ * does.
+ */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.CyclomaticComplexity", "PMD.AvoidStringBufferField"})
+final class JsonPullReader {
+
+    /** Kinds of tokens. */
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+    private static final int HEX = 16;
+    private static final int UNICODE_DIGITS = 4;
+
+    private final Reader source;
+    private final char[] buffer = new char[8_192];
+    private final StringBuilder text = new StringBuilder();
+    private int pos;
+    private int limit;
+    private long consumed;
+    private int[] scopes = new int[32];
+    private int depth = 1;
+    private Token peeked;
+    private boolean buffered;
+    private boolean skipping;
+
+    /**
+     * Creates a reader.
+     *
+     * @param source The JSON document
+     */
+    JsonPullReader(final Reader source) {
+        this.source = source;
+        this.scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     *
+     * @return The next token
+     * @throws IOException If the document cannot be read
+     */
+    Token peek() throws IOException {
+        if (!this.buffered) {
+            this.peeked = this.fill();
+            this.buffered = true;
+        }
+        return this.peeked;
+    }
+
+    /**
+     * Tells whether the current object or array has another element.
+     *
+     * @return False at the end of the object or array
+     * @throws IOException If the document cannot be read
+     */
+    boolean hasNext() throws IOException {
+        final Token token = this.peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    void beginObject() throws IOException {
+        this.expect(Token.BEGIN_OBJECT);
+        this.push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        this.expect(Token.END_OBJECT);
+        this.depth--;
+    }
+
+    void beginArray() throws IOException {
+        this.expect(Token.BEGIN_ARRAY);
+        this.push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        this.expect(Token.END_ARRAY);
+        this.depth--;
+    }
+
+    /**
+     * Consumes the name of the next member of an object.
+     *
+     * @return The name
+     * @throws IOException If the document cannot be read
+     */
+    String nextName() throws IOException {
+        this.expect(Token.NAME);
+        return this.text.toString();
+    }
+
+    /**
+     * Consumes a string, number, boolean or null value and returns it as
+     * {@code org.json} prints it: a string as is, anything else as written
+     * in the document, and null as {@code "null"}.
+     *
+     * @return The value
+     * @throws IOException If the document cannot be read
+     */
+    String nextScalar() throws IOException {
+        final Token token = this.peek();
+        if (token == Token.NULL) {
+            this.buffered = false;
+            return "null";
+        }
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN) {
+            throw this.syntaxError("Expected a value but was " + token);
+        }
+        this.buffered = false;
+        return this.text.toString();
+    }
+
+    /**
+     * Consumes the next value, with everything nested in it.
+     *
+     * @throws IOException If the document cannot be read
+     */
+    void skipValue() throws IOException {
+        this.skipping = true;
+        try {
+            int nested = 0;
+            do {
+                final Token token = this.peek();
+                if (token == Token.BEGIN_OBJECT) {
+                    this.beginObject();
+                    nested++;
+                } else if (token == Token.BEGIN_ARRAY) {
+                    this.beginArray();
+                    nested++;
+                } else if (token == Token.END_OBJECT) {
+                    this.endObject();
+                    nested--;
+                } else if (token == Token.END_ARRAY) {
+                    this.endArray();
+                    nested--;
+                } else if (token == Token.END_DOCUMENT) {
+                    throw this.syntaxError("Unexpected end of document");
+                } else {
+                    this.buffered = false;
+                }
+            } while (nested > 0);
+        } finally {
+            this.skipping = false;
+        }
+    }
+
+    private void expect(final Token expected) throws IOException {
+        final Token token = this.peek();
+        if (token != expected) {
+            throw this.syntaxError("Expected " + expected + " but was " + token);
+        }
+        this.buffered = false;
+    }
+
+    private void push(final int scope) {
+        if (this.depth == this.scopes.length) {
+            this.scopes = Arrays.copyOf(this.scopes, this.depth * 2);
+        }
+        this.scopes[this.depth] = scope;
+        this.depth++;
+    }
+
+    private Token fill() throws IOException {
+        final int scope = this.scopes[this.depth - 1];
+        final Token token;
+        if (scope == EMPTY_ARRAY || scope == NONEMPTY_ARRAY) {
+            token = this.fillArray(scope);
+        } else if (scope == EMPTY_OBJECT || scope == NONEMPTY_OBJECT) {
+            token = this.fillName(scope);
+        } else if (scope == DANGLING_NAME) {
+            this.require(this.nextNonWhitespace(), ':');
+            this.scopes[this.depth - 1] = NONEMPTY_OBJECT;
+            token = this.readValue();
+        } else if (scope == EMPTY_DOCUMENT) {
+            this.scopes[this.depth - 1] = NONEMPTY_DOCUMENT;
+            token = this.nextNonWhitespace() == -1 ? Token.END_DOCUMENT : this.unreadAndReadValue();
+        } else if (this.nextNonWhitespace() == -1) {
+            token = Token.END_DOCUMENT;
+        } else {
+            throw this.syntaxError("Unexpected content after the document");
+        }
+        return token;
+    }
+
+    private Token fillArray(final int scope) throws IOException {
+        final int next = this.nextNonWhitespace();
+        if (next == ']') {
+            return Token.END_ARRAY;
+        }
+        if (next == -1) {
+            throw this.syntaxError("Unterminated array");
+        }
+        if (scope == NONEMPTY_ARRAY) {
+            this.require(next, ',');
+        } else {
+            this.pos--;
+        }
+        this.scopes[this.depth - 1] = NONEMPTY_ARRAY;
+        return this.readValue();
+    }
+
+    private Token fillName(final int scope) throws IOException {
+        int next = this.nextNonWhitespace();
+        if (next == '}') {
+            return Token.END_OBJECT;
+        }
+        if (scope == NONEMPTY_OBJECT) {
+            this.require(next, ',');
+            next = this.nextNonWhitespace();
+        }
+        this.require(next, '"');
+        this.readString(false);
+        this.scopes[this.depth - 1] = DANGLING_NAME;
+        return Token.NAME;
+    }
+
+    private Token unreadAndReadValue() throws IOException {
+        this.pos--;
+        return this.readValue();
+    }
+
+    private Token readValue() throws IOException {
+        final int next = this.nextNonWhitespace();
+        final Token token;
+        if (next == '{') {
+            token = Token.BEGIN_OBJECT;
+        } else if (next == '[') {
+            token = Token.BEGIN_ARRAY;
+        } else if (next == '"') {
+            this.readString(this.skipping);
+            token = Token.STRING;
+        } else if (next == -1) {
+            throw this.syntaxError("Unexpected end of document");
+        } else {
+            this.pos--;
+            token = this.readLiteral();
+        }
+        return token;
+    }
+
+    /**
+     * Reads the rest of a string after its opening quote into the text
+     * buffer, or past it without keeping it.
+     */
+    private void readString(final boolean discard) throws IOException {
+        this.text.setLength(0);
+        while (true) {
+            final int next = this.read();
+            if (next == -1) {
+                throw this.syntaxError("Unterminated string");
+            }
+            if (next == '"') {
+                return;
+            }
+            final char value = next == '\\' ? this.readEscape() : (char) next;
+            if (!discard) {
+                this.text.append(value);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        final int escaped = this.read();
+        return switch (escaped) {
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case '"', '\\', '/' -> (char) escaped;
+            case 'u' -> this.readUnicode();
+            default -> throw this.syntaxError("Invalid escape sequence");
+        };
+    }
+
+    private char readUnicode() throws IOException {
+        int code = 0;
+        for (int digit = 0; digit < UNICODE_DIGITS; digit++) {
+            final int value = Character.digit(this.read(), HEX);
+            if (value < 0) {
+                throw this.syntaxError("Invalid unicode escape");
+            }
+            code = code * HEX + value;
+        }
+        return (char) code;
+    }
+
+    private Token readLiteral() throws IOException {
+        this.text.setLength(0);
+        while (true) {
+            final int next = this.read();
+            if (next == -1 || isDelimiter(next)) {
+                if (next != -1) {
+                    this.pos--;
+                }
+                break;
+            }
+            this.text.append((char) next);
+        }
+        final String literal = this.text.toString();
+        final Token token;
+        if ("true".equals(literal) || "false".equals(literal)) {
+            token = Token.BOOLEAN;
+        } else if ("null".equals(literal)) {
+            token = Token.NULL;
+        } else if (!literal.isEmpty() && (literal.charAt(0) == '-' || Character.isDigit(literal.charAt(0)))) {
+            token = Token.NUMBER;
+        } else {
+            throw this.syntaxError("Unexpected value " + literal);
+        }
+        return token;
+    }
+
+    private static boolean isDelimiter(final int next) {
+        return next == ',' || next == '}' || next == ']' || next == ':' || Character.isWhitespace(next);
+    }
+
+    private void require(final int actual, final char expected) {
+        if (actual != expected) {
+            throw this.syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int next = this.read();
+        while (next != -1 && Character.isWhitespace(next)) {
+            next = this.read();
+        }
+        return next;
+    }
+
+    private int read() throws IOException {
+        if (this.pos == this.limit) {
+            this.consumed += this.limit;
+            this.pos = 0;
+            this.limit = Math.max(this.source.read(this.buffer), 0);
+            if (this.limit == 0) {
+                return -1;
+            }
+        }
+        final char next = this.buffer[this.pos];
+        this.pos++;
+        return next;
+    }
+
+    private JSONException syntaxError(final String message) {
+        return new JSONException(message + " at character " + (this.consumed + this.pos));
+    }
+}
@@ -0,0 +1,214 @@
+package parser;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedule source that asks several sites at the same time and merges what
+ * they return. Each site is called on its own virtual thread and paced by
+ * its own rate limiter, so adding a site adds its slowest response to a
+ * fetch rather than its whole duration.
+ *
+ * <p>Films are merged by name, keeping the listing of the first source that
+ * shows them. Sessions are merged by cinema, start time and film, keeping
+ * the one from the first source. Film and cinema names are compared without
+ * surrounding whitespace and case, as sites spell them differently. Page digests of the n-th source are kept
+ * under page numbers offset by n times {@value #PAGES_PER_SOURCE}, so the
+ * sources' pages are tracked apart.
+ */
+@SuppressWarnings("PMD.CouplingBetweenObjects")
+public final class MergedScheduleSource implements ScheduleSource {
+
+    static final int PAGES_PER_SOURCE = 1_000;
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergedScheduleSource.class);
+
+    private final List<ScheduleSource> sources;
+
+    /**
+     * Creates a merged source.
+     *
+     * @param sources The sources, most trusted first
+     */
+    public MergedScheduleSource(final List<ScheduleSource> sources) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one schedule source is required");
+        }
+        this.sources = List.copyOf(sources);
+    }
+
+    @Override
+    public List<MovieThumbnail> listFilms(final String dates) throws IOException {
+        final Map<String, MovieThumbnail> films = new LinkedHashMap<>();
+        for (final List<MovieThumbnail> listed : this.fanOut((idx, source) -> source.listFilms(dates))) {
+            listed.forEach(film -> films.putIfAbsent(normalized(film.name()), film));
+        }
+        return List.copyOf(films.values());
+    }
+
+    /**
+     * Fetches the film's schedule from every source. The snapshot is
+     * truncated when a source failed or returned a truncated snapshot.
+     */
+    @Override
+    public ScheduleSnapshot fetchSchedule(
+        final MovieThumbnail film, final String date, final Map<Integer, PageDigest> previous
+    ) throws IOException {
+        final List<ScheduleSnapshot> snapshots = this.fanOut(
+            (idx, source) -> offset(idx, source.fetchSchedule(film, date, pagesOf(idx, previous)))
+        );
+        final List<List<Session>> sessions = new ArrayList<>(snapshots.size());
+        final Map<Integer, PageDigest> digests = new HashMap<>();
+        int unchanged = 0;
+        boolean truncated = snapshots.size() < this.sources.size();
+        for (final ScheduleSnapshot snapshot : snapshots) {
+            sessions.add(snapshot.sessions());
+            digests.putAll(snapshot.digests());
+            unchanged += snapshot.unchangedPages();
+            truncated |= snapshot.truncated();
+        }
+        return new ScheduleSnapshot(merge(sessions), digests, unchanged, truncated);
+    }
+
+    /**
+     * Fetches the film's schedule for a range of days from every source and
+     * merges each day. The schedule is complete only when every source
+     * answered with a complete schedule.
+     */
+    @Override
+    public MultiDaySchedule fetchScheduleRange(
+        final MovieThumbnail film, final LocalDate first, final LocalDate last
+    ) throws IOException {
+        final List<MultiDaySchedule> schedules = this.fanOut(
+            (idx, source) -> source.fetchScheduleRange(film, first, last)
+        );
+        final Map<LocalDate, List<Session>> merged = new TreeMap<>();
+        schedules.stream().flatMap(schedule -> schedule.days().keySet().stream()).distinct().forEach(
+            date -> merged.put(date, merge(schedules.stream().map(schedule -> schedule.sessionsOn(date)).toList()))
+        );
+        int pages = 0;
+        boolean complete = schedules.size() == this.sources.size();
+        for (final MultiDaySchedule schedule : schedules) {
+            pages += schedule.pages();
+            complete &= schedule.complete();
+        }
+        return new MultiDaySchedule(merged, pages, complete);
+    }
+
+    @Override
+    public long savedStringBytes() {
+        return this.sources.stream().mapToLong(ScheduleSource::savedStringBytes).sum();
+    }
+
+    /**
+     * Merges the sessions of several sources, dropping the sessions of a
+     * later source that show the same film in the same cinema at the same
+     * time as an earlier one.
+     *
+     * @param sessions The sessions of each source, most trusted first
+     * @return The merged sessions
+     */
+    static List<Session> merge(final List<List<Session>> sessions) {
+        final Map<String, Session> merged = new LinkedHashMap<>();
+        for (final List<Session> source : sessions) {
+            source.forEach(session -> merged.putIfAbsent(
+                normalized(session.cinema()) + "|" + session.dateTime() + "|" + normalized(session.name()), session
+            ));
+        }
+        return List.copyOf(merged.values());
+    }
+
+    private static String normalized(final String name) {
+        return name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Calls every source at the same time. A source that fails is logged and
+     * left out; only when every source fails does the call fail.
+     */
+    private <T> List<T> fanOut(final SourceCall<T> call) throws IOException {
+        final List<Future<T>> futures = new ArrayList<>(this.sources.size());
+        final List<T> results = new ArrayList<>(this.sources.size());
+        final List<Throwable> failures = new ArrayList<>(this.sources.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int idx = 0; idx < this.sources.size(); idx++) {
+                final int number = idx;
+                futures.add(executor.submit(() -> call.apply(number, this.sources.get(number))));
+            }
+            for (int idx = 0; idx < futures.size(); idx++) {
+                collect(futures, idx, results, failures);
+            }
+        }
+        if (results.isEmpty()) {
+            throw new IOException("Every schedule source failed", failures.getFirst());
+        }
+        return results;
+    }
+
+    private static <T> void collect(
+        final List<Future<T>> futures, final int idx, final List<T> results, final List<Throwable> failures
+    ) throws IOException {
+        try {
+            results.add(futures.get(idx).get());
+        } catch (final ExecutionException e) {
+            if (LOGGER.isWarnEnabled()) {
+                LOGGER.warn("Schedule source {} failed: {}", idx, e.getCause().getMessage());
+            }
+            failures.add(e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IOException("Interrupted while waiting for schedule sources", e);
+        }
+    }
+
+    private static Map<Integer, PageDigest> pagesOf(final int source, final Map<Integer, PageDigest> digests) {
+        final Map<Integer, PageDigest> pages = new HashMap<>();
+        digests.forEach((page, digest) -> {
+            if (page / PAGES_PER_SOURCE == source) {
+                pages.put(page % PAGES_PER_SOURCE, digest);
+            }
+        });
+        return pages;
+    }
+
+    private static ScheduleSnapshot offset(final int source, final ScheduleSnapshot snapshot) {
+        if (source == 0) {
+            return snapshot;
+        }
+        final Map<Integer, PageDigest> digests = new HashMap<>();
+        snapshot.digests().forEach((page, digest) -> digests.put(source * PAGES_PER_SOURCE + page, digest));
+        return new ScheduleSnapshot(snapshot.sessions(), digests, snapshot.unchangedPages(), snapshot.truncated());
+    }
+
+    /**
+     * A call to one source.
+     *
+     * @param <T> The type of the result
+     */
+    @FunctionalInterface
+    private interface SourceCall<T> {
+
+        /**
+         * Calls the source.
+         *
+         * @param index The position of the source
+         * @param source The source
+         * @return The result
+         * @throws IOException If the source fails
+         */
+        T apply(int index, ScheduleSource source) throws IOException;
+    }
+}
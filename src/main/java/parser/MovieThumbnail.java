@@ -1,6 +1,12 @@
 package parser;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.json.JSONArray;
+import org.json.JSONObject;
 
 /**
  * Movie thumbnail DTO.
@@ -33,6 +39,30 @@ public final class MovieThumbnail {
         return this.imageLink;
     }
 
+    public static String toJson(final List<MovieThumbnail> thumbnails) {
+        final JSONArray jsonArray = new JSONArray();
+        thumbnails.forEach(thumbnail -> jsonArray.put(
+            new JSONObject()
+                .put("name", thumbnail.name())
+                .put("sessionsLink", thumbnail.sessionsLink())
+                .put("imageLink", thumbnail.imageLink())
+        ));
+        return jsonArray.toString();
+    }
+
+    public static List<MovieThumbnail> fromJsonArray(final String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final JSONArray arr = new JSONArray(json);
+        return IntStream.range(0, arr.length())
+            .mapToObj(arr::getJSONObject)
+            .map(obj -> new MovieThumbnail(
+                obj.getString("name"), obj.getString("sessionsLink"), obj.optString("imageLink", "")
+            ))
+            .collect(Collectors.toList());
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (obj == this) {
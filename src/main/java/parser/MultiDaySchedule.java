@@ -0,0 +1,34 @@
+package parser;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A film's sessions over several days, fetched in one pass and split by the
+ * day whose schedule lists them. A day's schedule runs past midnight, so a
+ * session in the small hours belongs to the day before.
+ *
+ * @param days The sessions of each day; days without sessions may be missing
+ * @param pages The number of pages requested
+ * @param complete Whether the sessions are the whole schedule of every day: no
+ *     page is missing and at least one page had a body, so a stored session
+ *     missing from a day has been cancelled
+ */
+public record MultiDaySchedule(Map<LocalDate, List<Session>> days, int pages, boolean complete) {
+
+    /** Constructor. */
+    public MultiDaySchedule {
+        days = Map.copyOf(days);
+    }
+
+    /**
+     * Returns the sessions listed by one day's schedule.
+     *
+     * @param date The day
+     * @return The sessions, empty if the day has none
+     */
+    public List<Session> sessionsOn(final LocalDate date) {
+        return this.days.getOrDefault(date, List.of());
+    }
+}
@@ -0,0 +1,16 @@
+package parser;
+
+/**
+ * A downloaded or revalidated page body.
+ *
+ * @param url the page URL
+ * @param body the page body, empty for a redirect that was not followed
+ * @param validator the validator of the body, empty if the server sent none
+ * @param notModified whether the body was reused after a {@code 304} answer
+ * @param redirected whether the server answered with a redirect that was
+ *     not followed
+ */
+record PageBody(
+    String url, String body, String validator, boolean notModified, boolean redirected
+) {
+}
@@ -0,0 +1,82 @@
+package parser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact fingerprint of one schedule page: a truncated SHA-256 of the body
+ * and the page count the body declared. The page count is kept so that a
+ * page found unchanged does not have to be parsed to learn how many pages
+ * follow it.
+ *
+ * @param hash The first 96 bits of the body's SHA-256, Base64url encoded
+ * @param totalPages The number of schedule pages, or 0 if the page did not say
+ */
+public record PageDigest(String hash, int totalPages) {
+
+    private static final int HASH_BYTES = 12;
+
+    /**
+     * Fingerprints a page body.
+     *
+     * @param body The page body
+     * @param totalPages The number of schedule pages the body declares
+     * @return The digest
+     */
+    public static PageDigest fromBody(final String body, final int totalPages) {
+        return new PageDigest(hash(body), totalPages);
+    }
+
+    /**
+     * Hashes a page body.
+     *
+     * @param body The page body
+     * @return The truncated, Base64url encoded SHA-256 of the body
+     */
+    static String hash(final String body) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, HASH_BYTES));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Tells whether a body is the one this digest was taken from.
+     *
+     * @param bodyHash The hash of the current body
+     * @return True if the hashes are equal
+     */
+    public boolean matches(final String bodyHash) {
+        return this.hash.equals(bodyHash);
+    }
+
+    /**
+     * Encodes the digest for storage.
+     *
+     * @return The digest in format {@code HASH:PAGES}
+     */
+    public String encode() {
+        return this.hash + ':' + this.totalPages;
+    }
+
+    /**
+     * Decodes a stored digest.
+     *
+     * @param encoded The digest in format {@code HASH:PAGES}
+     * @return The digest
+     * @throws IllegalArgumentException If the value is not a stored digest
+     */
+    public static PageDigest decode(final String encoded) {
+        final int colon = encoded.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException(String.format("Not a page digest: %s", encoded));
+        }
+        return new PageDigest(encoded.substring(0, colon), Integer.parseInt(encoded.substring(colon + 1)));
+    }
+}
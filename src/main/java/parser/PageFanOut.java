@@ -0,0 +1,98 @@
+package parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches the remaining pages of a paginated listing at the same time once
+ * the first page has revealed how many pages there are. Each page is loaded
+ * on its own virtual thread; pacing is left to the {@link HostRateLimiter}
+ * that every request already goes through.
+ */
+final class PageFanOut {
+
+  /**
+   * Upper bound on the number of pages fetched for one listing, guarding
+   * against a nonsensical page count in a response.
+   */
+  static final int MAX_PAGES = 100;
+
+  private PageFanOut() {
+    // Utility class
+  }
+
+  /**
+   * Loads pages {@code 2..totalPages} concurrently and returns them in page
+   * order, failing as soon as a page fails to load: a missing page would
+   * pass for a shorter listing or schedule.
+   *
+   * @param totalPages the total number of pages, including the first one
+   * @param loader loads a single page by its 1-based number
+   * @param <T> the type of a loaded page
+   * @return the loaded pages after the first, in page order
+   * @throws IOException if a page cannot be loaded or the thread is interrupted
+   */
+  static <T> List<T> requiredPages(final int totalPages, final PageLoader<T> loader)
+      throws IOException {
+    final int lastPage = Math.min(totalPages, MAX_PAGES);
+    final List<Future<T>> futures = new ArrayList<>();
+    final List<T> pages = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int page = 2; page <= lastPage; page++) {
+        final int number = page;
+        futures.add(executor.submit(() -> loader.load(number)));
+      }
+      for (int idx = 0; idx < futures.size(); idx++) {
+        try {
+          pages.add(futures.get(idx).get());
+        } catch (final ExecutionException e) {
+          futures.forEach(future -> future.cancel(true));
+          throw failure(idx + 2, e);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          futures.forEach(future -> future.cancel(true));
+          throw new IOException("Interrupted while loading pages", e);
+        }
+      }
+    }
+    return pages;
+  }
+
+  /**
+   * Returns the failure of a required page as the loader threw it, so
+   * callers see the original {@link IOException}; runtime exceptions, such
+   * as a malformed page, are rethrown as they are.
+   */
+  private static IOException failure(final int page, final ExecutionException error) {
+    if (error.getCause() instanceof RuntimeException runtime) {
+      throw runtime;
+    }
+    if (error.getCause() instanceof IOException failed) {
+      return failed;
+    }
+    return new IOException("Failed to load page " + page, error.getCause());
+  }
+
+  /**
+   * Loads a single page of a listing.
+   *
+   * @param <T> the type of a loaded page
+   */
+  @FunctionalInterface
+  interface PageLoader<T> {
+
+    /**
+     * Loads the page.
+     *
+     * @param page the 1-based page number
+     * @return the loaded page
+     * @throws IOException if the page cannot be loaded
+     */
+    T load(int page) throws IOException;
+  }
+}
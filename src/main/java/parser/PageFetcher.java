@@ -0,0 +1,300 @@
+package parser;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpRequest;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.jsoup.HttpStatusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends scraper requests on behalf of {@link AfishaParser} over the shared
+ * {@link ScraperHttpClient}. Every request is retried by a {@link Retrier},
+ * paced by the shared {@link HostRateLimiter}, guarded by the
+ * {@link CircuitBreaker} of its endpoint and, for pages, sent as a
+ * conditional GET against the {@link ResponseStore}. While the breaker is
+ * open, requests fail with {@link CircuitOpenException} without being
+ * retried. A fetcher built with an enabled {@link RequestHedger} hedges
+ * requests that are slower than the recently observed tail latency.
+ * Downloaded pages are also handed to a {@link ResponseRecorder}, which
+ * keeps them as replay fixtures when recording is switched on.
+ */
+final class PageFetcher {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(PageFetcher.class);
+
+  private static final int NOT_MODIFIED = 304;
+  private static final long RETRY_INITIAL_DELAY_MS = 5_000L;
+
+  private final ScraperHttpClient client;
+  private final Retrier retrier;
+  private final HostRateLimiter rateLimiter;
+  private final CircuitBreaker breaker;
+  private final ResponseStore responseStore;
+  private final RequestHedger hedger;
+  private final ResponseRecorder recorder;
+
+  /**
+   * Creates a fetcher on the shared HTTP client that never hedges.
+   *
+   * @param retrier the retrier for transient failures
+   * @param rateLimiter the limiter of the target host
+   * @param breaker the breaker of the endpoint class
+   * @param responseStore the store of previously downloaded pages
+   */
+  PageFetcher(
+      final Retrier retrier,
+      final HostRateLimiter rateLimiter,
+      final CircuitBreaker breaker,
+      final ResponseStore responseStore
+  ) {
+    this(retrier, rateLimiter, breaker, responseStore, RequestHedger.disabled());
+  }
+
+  /**
+   * Creates a fetcher on the shared HTTP client.
+   *
+   * @param retrier the retrier for transient failures
+   * @param rateLimiter the limiter of the target host
+   * @param breaker the breaker of the endpoint class
+   * @param responseStore the store of previously downloaded pages
+   * @param hedger the hedging policy for slow requests
+   */
+  PageFetcher(
+      final Retrier retrier,
+      final HostRateLimiter rateLimiter,
+      final CircuitBreaker breaker,
+      final ResponseStore responseStore,
+      final RequestHedger hedger
+  ) {
+    this(ScraperHttpClient.shared(), retrier, rateLimiter, breaker, responseStore, hedger);
+  }
+
+  /**
+   * Creates a fetcher that records nothing.
+   *
+   * @param client the HTTP client requests are sent with
+   * @param retrier the retrier for transient failures
+   * @param rateLimiter the limiter of the target host
+   * @param breaker the breaker of the endpoint class
+   * @param responseStore the store of previously downloaded pages
+   * @param hedger the hedging policy for slow requests
+   */
+  PageFetcher(
+      final ScraperHttpClient client,
+      final Retrier retrier,
+      final HostRateLimiter rateLimiter,
+      final CircuitBreaker breaker,
+      final ResponseStore responseStore,
+      final RequestHedger hedger
+  ) {
+    this(client, retrier, rateLimiter, breaker, responseStore, hedger, ResponseRecorder.disabled());
+  }
+
+  /**
+   * Primary constructor.
+   *
+   * @param client the HTTP client requests are sent with
+   * @param retrier the retrier for transient failures
+   * @param rateLimiter the limiter of the target host
+   * @param breaker the breaker of the endpoint class
+   * @param responseStore the store of previously downloaded pages
+   * @param hedger the hedging policy for slow requests
+   * @param recorder the recorder downloaded pages are handed to
+   */
+  PageFetcher(
+      final ScraperHttpClient client,
+      final Retrier retrier,
+      final HostRateLimiter rateLimiter,
+      final CircuitBreaker breaker,
+      final ResponseStore responseStore,
+      final RequestHedger hedger,
+      final ResponseRecorder recorder
+  ) {
+    this.client = client;
+    this.retrier = retrier;
+    this.rateLimiter = rateLimiter;
+    this.breaker = breaker;
+    this.responseStore = responseStore;
+    this.hedger = hedger;
+    this.recorder = recorder;
+  }
+
+  /**
+   * Creates a fetcher for one endpoint class of a host, using the shared
+   * rate limiter, circuit breaker, response store and recorder.
+   *
+   * @param host the host name, for example {@code www.afisha.ru}
+   * @param endpoint the endpoint class the fetcher requests
+   * @param retryBudgetMs the total retry budget of one request in
+   *     milliseconds
+   * @param hedger the hedging policy for slow requests
+   * @return a new fetcher
+   */
+  static PageFetcher forHost(
+      final String host,
+      final CircuitBreaker.Endpoint endpoint,
+      final long retryBudgetMs,
+      final RequestHedger hedger
+  ) {
+    return new PageFetcher(
+        ScraperHttpClient.shared(),
+        new Retrier(retryBudgetMs, RETRY_INITIAL_DELAY_MS),
+        HostRateLimiter.forHost(host),
+        CircuitBreaker.forEndpoint(endpoint),
+        ResponseStore.shared(),
+        hedger,
+        ResponseRecorder.shared()
+    );
+  }
+
+  /**
+   * Executes a GET with retries, following redirects, and returns the raw
+   * response.
+   *
+   * @param request creates a fresh request for every attempt
+   * @return the response
+   * @throws IOException if all attempts fail
+   */
+  ScraperResponse execute(final Supplier<HttpRequest.Builder> request) throws IOException {
+    return this.retrier.execute(() -> this.send(request.get(), true));
+  }
+
+  /**
+   * Fetches a page as a conditional GET with retries. A
+   * {@code 304 Not Modified} answer reuses the stored body, and a fresh body
+   * is stored with its validators for the next run. Redirects that were not
+   * followed yield an empty body.
+   *
+   * @param url the page URL
+   * @param followRedirects whether redirects are followed
+   * @param request creates a fresh request to the URL for every attempt
+   * @return the page body
+   * @throws IOException if all attempts fail
+   */
+  PageBody fetchPage(
+      final String url, final boolean followRedirects, final Supplier<HttpRequest.Builder> request
+  ) throws IOException {
+    return this.retrier.execute(() -> this.fetchConditional(url, followRedirects, request.get()));
+  }
+
+  private PageBody fetchConditional(
+      final String url, final boolean followRedirects, final HttpRequest.Builder request
+  ) throws IOException {
+    final Optional<ResponseStore.StoredResponse> stored = this.responseStore.lookup(url);
+    stored.ifPresent(response -> response.conditionalHeaders().forEach(request::setHeader));
+    final ScraperResponse response = this.send(request, followRedirects);
+    final int status = response.statusCode();
+    if (status == NOT_MODIFIED && stored.isPresent()) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Page {} not modified, reusing stored body", url);
+      }
+      this.recorder.record(url, "", stored.get().body());
+      return new PageBody(url, stored.get().body(), stored.get().validator(), true, false);
+    }
+    if (status >= 300 && status < 400) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Page {} redirected with status {}, returning empty", url, status);
+      }
+      return new PageBody(url, "", "", false, true);
+    }
+    final ResponseStore.StoredResponse fresh = ResponseStore.StoredResponse.fromHeaders(
+        response.body(), response.header("ETag"), response.header("Last-Modified")
+    );
+    this.responseStore.save(url, fresh);
+    this.recorder.record(
+        url, Objects.requireNonNullElse(response.header("Content-Type"), ""), fresh.body()
+    );
+    return new PageBody(url, fresh.body(), fresh.validator(), false, false);
+  }
+
+  /**
+   * Executes a request within the host rate budget and feeds the outcome
+   * back to the limiter and the circuit breaker. Non-transient HTTP errors
+   * and refusals of an open breaker are wrapped in
+   * {@link NonRetryableIoException} so that {@link Retrier} gives up on them.
+   *
+   * @param request the prepared request
+   * @param followRedirects whether redirects are followed
+   * @return the response
+   * @throws IOException if the request fails
+   */
+  private ScraperResponse send(final HttpRequest.Builder request, final boolean followRedirects)
+      throws IOException {
+    this.admit();
+    final long start = System.nanoTime();
+    try {
+      final ScraperResponse response = this.exchange(request, followRedirects);
+      final long latency = elapsedMs(start);
+      this.rateLimiter.onResponse(response.statusCode(), latency);
+      this.hedger.record(latency);
+      this.breaker.onSuccess();
+      return response;
+    } catch (final HttpStatusException httpEx) {
+      this.rateLimiter.onResponse(httpEx.getStatusCode(), elapsedMs(start));
+      if (isRetryable(httpEx.getStatusCode())) {
+        this.breaker.onFailure();
+        throw httpEx;
+      }
+      this.breaker.onSuccess();
+      throw new NonRetryableIoException(httpEx);
+    } catch (final IOException e) {
+      this.rateLimiter.onFailure();
+      this.breaker.onFailure();
+      throw e;
+    }
+  }
+
+  /**
+   * Sends the request once, or hedged when hedging is enabled. Hedges are
+   * built from copies of the request, so every attempt is identical.
+   */
+  private ScraperResponse exchange(final HttpRequest.Builder request, final boolean followRedirects)
+      throws IOException {
+    if (!this.hedger.isEnabled()) {
+      return this.client.send(request, followRedirects);
+    }
+    return this.hedger.call(
+        () -> this.client.sendAsync(request.copy(), followRedirects), this.rateLimiter
+    );
+  }
+
+  /**
+   * Waits until the circuit breaker and the host rate budget both let a
+   * request through.
+   *
+   * @throws IOException if the breaker is open or the wait is interrupted
+   */
+  private void admit() throws IOException {
+    try {
+      this.breaker.acquire();
+    } catch (final CircuitOpenException open) {
+      throw new NonRetryableIoException(open);
+    }
+    try {
+      this.rateLimiter.acquire();
+    } catch (final InterruptedIOException interrupted) {
+      this.breaker.release();
+      throw interrupted;
+    }
+  }
+
+  /**
+   * Checks whether an HTTP status code represents a transient error
+   * that should be retried (429 Too Many Requests or server errors 5xx).
+   *
+   * @param statusCode the HTTP status code
+   * @return true if the error is transient and should be retried
+   */
+  private static boolean isRetryable(final int statusCode) {
+    return statusCode == 429 || statusCode >= 500;
+  }
+
+  private static long elapsedMs(final long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000_000L;
+  }
+}
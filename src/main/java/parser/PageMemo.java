@@ -0,0 +1,107 @@
+package parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, least-recently-used memo of values parsed from downloaded pages.
+ * Each value is remembered together with the validator of the body it was
+ * parsed from, so that a {@code 304 Not Modified} answer can reuse the
+ * parsed value instead of parsing the stored body again.
+ *
+ * @param <T> the type of the parsed value
+ */
+final class PageMemo<T> {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, Entry<T>> entries;
+
+  /**
+   * Primary constructor.
+   *
+   * @param capacity the maximum number of remembered pages
+   */
+  PageMemo(final int capacity) {
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry<T>> eldest) {
+        return this.size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the value parsed from a page. The body is parsed only when it
+   * was downloaded again or its parsed value is no longer remembered.
+   *
+   * @param page the page body
+   * @param parser parses the page body
+   * @return the parsed value
+   */
+  T resolve(final PageBody page, final Supplier<T> parser) {
+    if (page.validator().isEmpty()) {
+      return parser.get();
+    }
+    if (page.notModified()) {
+      final Optional<T> remembered = this.get(page.url(), page.validator());
+      if (remembered.isPresent()) {
+        return remembered.get();
+      }
+    }
+    final T parsed = parser.get();
+    this.put(page.url(), page.validator(), parsed);
+    return parsed;
+  }
+
+  /**
+   * Returns the value parsed from the page, if it was parsed from a body
+   * with the same validator.
+   *
+   * @param url the page URL
+   * @param validator the validator of the current body
+   * @return the memoized value, or empty if there is none for the validator
+   */
+  Optional<T> get(final String url, final String validator) {
+    this.lock.lock();
+    try {
+      final Entry<T> entry = this.entries.get(url);
+      if (entry == null || !entry.validator().equals(validator)) {
+        return Optional.empty();
+      }
+      return Optional.of(entry.value());
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Remembers the value parsed from a page body.
+   *
+   * @param url the page URL
+   * @param validator the validator of the parsed body
+   * @param value the parsed value
+   */
+  void put(final String url, final String validator, final T value) {
+    this.lock.lock();
+    try {
+      this.entries.put(url, new Entry<>(validator, value));
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * A memoized value and the validator of the body it came from.
+   *
+   * @param validator the body validator
+   * @param value the parsed value
+   * @param <T> the type of the parsed value
+   */
+  private record Entry<T>(String validator, T value) {
+  }
+}
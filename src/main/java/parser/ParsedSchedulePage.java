@@ -0,0 +1,18 @@
+package parser;
+
+import java.util.List;
+
+/**
+ * What one schedule page of the Afisha API says: its sessions and how many
+ * pages the schedule has.
+ *
+ * @param sessions The sessions on the page, empty if the page belongs to another date
+ * @param totalPages The number of schedule pages, or 0 if the page does not say
+ */
+public record ParsedSchedulePage(List<Session> sessions, int totalPages) {
+
+    /** Constructor. */
+    public ParsedSchedulePage {
+        sessions = List.copyOf(sessions);
+    }
+}
@@ -0,0 +1,250 @@
+package parser;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cuts tail latency by hedging slow requests. The hedger keeps the
+ * latencies of recent responses; when a request has not been answered
+ * after the observed high percentile (p95 by default), an identical second
+ * request is sent. The first successful answer wins and the other request
+ * is cancelled. Every hedge takes its own slot from the
+ * {@link HostRateLimiter}, so hedging never exceeds the host budget.
+ *
+ * <p>Until enough latencies have been recorded no request is hedged. A
+ * {@link #disabled()} hedger never hedges and records nothing.
+ */
+final class RequestHedger {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(RequestHedger.class);
+
+  private static final int DEFAULT_WINDOW_SIZE = 200;
+  private static final int DEFAULT_MINIMUM_SAMPLES = 20;
+  private static final double DEFAULT_PERCENTILE = 0.95;
+  private static final long DEFAULT_MINIMUM_DELAY_MS = 50L;
+
+  private final long[] samples;
+  private final int minimumSamples;
+  private final double percentile;
+  private final long minimumDelayMs;
+  private final boolean enabled;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private int recorded;
+  private int next;
+
+  /**
+   * Primary constructor.
+   *
+   * @param windowSize how many recent latencies the percentile is taken over
+   * @param minimumSamples how many latencies must be recorded before
+   *     requests are hedged
+   * @param percentile the latency percentile after which a request is
+   *     hedged, between 0 and 1
+   * @param minimumDelayMs the shortest wait before hedging
+   */
+  RequestHedger(
+      final int windowSize,
+      final int minimumSamples,
+      final double percentile,
+      final long minimumDelayMs
+  ) {
+    this(new long[windowSize], minimumSamples, percentile, minimumDelayMs, true);
+  }
+
+  private RequestHedger(
+      final long[] samples,
+      final int minimumSamples,
+      final double percentile,
+      final long minimumDelayMs,
+      final boolean enabled
+  ) {
+    this.samples = samples;
+    this.minimumSamples = minimumSamples;
+    this.percentile = percentile;
+    this.minimumDelayMs = minimumDelayMs;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Creates a hedger that hedges after the observed p95 latency.
+   *
+   * @return a new hedger
+   */
+  static RequestHedger p95() {
+    return new RequestHedger(
+        DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_SAMPLES, DEFAULT_PERCENTILE, DEFAULT_MINIMUM_DELAY_MS
+    );
+  }
+
+  /**
+   * Creates a hedger that never hedges.
+   *
+   * @return a new disabled hedger
+   */
+  static RequestHedger disabled() {
+    return new RequestHedger(new long[0], 0, DEFAULT_PERCENTILE, DEFAULT_MINIMUM_DELAY_MS, false);
+  }
+
+  /**
+   * Tells whether this hedger can ever hedge a request.
+   *
+   * @return true if hedging is possible
+   */
+  boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Records the latency of an answered request.
+   *
+   * @param latencyMs how long the request took in milliseconds
+   */
+  void record(final long latencyMs) {
+    if (!this.enabled) {
+      return;
+    }
+    this.lock.lock();
+    try {
+      this.samples[this.next] = latencyMs;
+      this.next = (this.next + 1) % this.samples.length;
+      this.recorded = Math.min(this.recorded + 1, this.samples.length);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns how long to wait for an answer before hedging.
+   *
+   * @return the delay in milliseconds, or -1 while too few latencies are
+   *     known or hedging is disabled
+   */
+  long hedgeDelayMs() {
+    if (!this.enabled) {
+      return -1L;
+    }
+    final long[] known;
+    this.lock.lock();
+    try {
+      if (this.recorded < this.minimumSamples) {
+        return -1L;
+      }
+      known = Arrays.copyOf(this.samples, this.recorded);
+    } finally {
+      this.lock.unlock();
+    }
+    Arrays.sort(known);
+    final int index = Math.max(0, (int) Math.ceil(this.percentile * known.length) - 1);
+    return Math.max(this.minimumDelayMs, known[index]);
+  }
+
+  /**
+   * Runs a request, hedging it once if it is slower than the hedge delay.
+   *
+   * @param attempt starts one identical request each time it is called
+   * @param rateLimiter the limiter the hedge takes its slot from
+   * @param <T> the response type
+   * @return the first successful response
+   * @throws IOException if every started request failed or the caller
+   *     was interrupted
+   */
+  <T> T call(final Supplier<CompletableFuture<T>> attempt, final HostRateLimiter rateLimiter)
+      throws IOException {
+    final long delay = this.hedgeDelayMs();
+    final CompletableFuture<T> primary = attempt.get();
+    if (delay < 0 || answeredWithin(primary, delay)) {
+      return await(primary);
+    }
+    try {
+      rateLimiter.acquire();
+    } catch (final InterruptedIOException interrupted) {
+      primary.cancel(true);
+      throw interrupted;
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("No answer after {}ms, sending hedged request", delay);
+    }
+    final CompletableFuture<T> hedge = attempt.get();
+    try {
+      return await(firstSuccessful(primary, hedge));
+    } finally {
+      primary.cancel(true);
+      hedge.cancel(true);
+    }
+  }
+
+  private static boolean answeredWithin(final CompletableFuture<?> future, final long delayMs)
+      throws InterruptedIOException {
+    try {
+      future.get(delayMs, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (final TimeoutException timeout) {
+      return false;
+    } catch (final ExecutionException | CancellationException failed) {
+      return true;
+    } catch (final InterruptedException ie) {
+      throw interrupted(future, ie);
+    }
+  }
+
+  private static <T> CompletableFuture<T> firstSuccessful(
+      final CompletableFuture<T> first, final CompletableFuture<T> second
+  ) {
+    final CompletableFuture<T> winner = new CompletableFuture<>();
+    final AtomicInteger failures = new AtomicInteger();
+    for (final CompletableFuture<T> candidate : List.of(first, second)) {
+      candidate.whenComplete((value, error) -> {
+        if (error == null) {
+          winner.complete(value);
+        } else if (failures.incrementAndGet() == 2) {
+          winner.completeExceptionally(error);
+        }
+      });
+    }
+    return winner;
+  }
+
+  @SuppressWarnings("PMD.PreserveStackTrace")
+  private static <T> T await(final CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (final InterruptedException ie) {
+      throw interrupted(future, ie);
+    } catch (final ExecutionException failed) {
+      final Throwable cause = failed.getCause();
+      if (cause instanceof IOException ioFailure) {
+        throw ioFailure;
+      }
+      if (cause instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private static InterruptedIOException interrupted(
+      final CompletableFuture<?> future, final InterruptedException cause
+  ) {
+    future.cancel(true);
+    Thread.currentThread().interrupt();
+    final InterruptedIOException wrapped = new InterruptedIOException(
+        "Interrupted while waiting for a response"
+    );
+    wrapped.initCause(cause);
+    return wrapped;
+  }
+}
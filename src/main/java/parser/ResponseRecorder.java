@@ -0,0 +1,166 @@
+package parser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the pages the scraper downloads as fixtures for the tests'
+ * {@code ReplayServer}. Recording is switched on for the whole JVM by the
+ * {@code reelsift.recordDir} system property; without it nothing is
+ * written.
+ *
+ * <p>Each page is kept in one file named after the SHA-256 of its path and
+ * query, without the host, so a recording made against the live site can
+ * be replayed on any host. Files are replaced atomically.
+ */
+public final class ResponseRecorder {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(ResponseRecorder.class);
+
+  private static final String DIRECTORY_PROPERTY = "reelsift.recordDir";
+  private static final String FIXTURE_SUFFIX = ".fixture";
+
+  private static final ResponseRecorder DISABLED = new ResponseRecorder(Path.of(""), false);
+
+  private static final ResponseRecorder SHARED = Optional
+      .ofNullable(System.getProperty(DIRECTORY_PROPERTY))
+      .map(directory -> new ResponseRecorder(Path.of(directory), true))
+      .orElse(DISABLED);
+
+  private final Path directory;
+  private final boolean enabled;
+
+  /**
+   * Creates a recorder that writes to a directory.
+   *
+   * @param directory the fixture directory; created on first write
+   */
+  public ResponseRecorder(final Path directory) {
+    this(directory, true);
+  }
+
+  private ResponseRecorder(final Path directory, final boolean enabled) {
+    this.directory = directory;
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns the recorder configured by the {@code reelsift.recordDir}
+   * system property, disabled when the property is not set.
+   *
+   * @return the shared recorder
+   */
+  public static ResponseRecorder shared() {
+    return SHARED;
+  }
+
+  /**
+   * Returns a recorder that writes nothing.
+   *
+   * @return the disabled recorder
+   */
+  public static ResponseRecorder disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * Records a downloaded page.
+   *
+   * @param url the requested URL
+   * @param contentType the {@code Content-Type} of the answer, empty if unknown
+   * @param body the page body
+   */
+  public void record(final String url, final String contentType, final String body) {
+    if (!this.enabled) {
+      return;
+    }
+    final String path = pathOf(URI.create(url));
+    try {
+      Files.createDirectories(this.directory);
+      final Path temp = Files.createTempFile(this.directory, "fixture", ".tmp");
+      try (OutputStream file = Files.newOutputStream(temp);
+           DataOutputStream output = new DataOutputStream(file)) {
+        output.writeUTF(path);
+        output.writeUTF(contentType);
+        output.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+      Files.move(
+          temp, fixturePath(this.directory, path),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (final IOException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Failed to record response for {}: {}", url, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Reads the fixture recorded for a path.
+   *
+   * @param directory the fixture directory
+   * @param path the request path with its query, as returned by {@link #pathOf(URI)}
+   * @return the fixture, or empty if none was recorded for the path
+   * @throws IOException if the fixture exists but cannot be read
+   */
+  static Optional<Fixture> lookup(final Path directory, final String path) throws IOException {
+    final Path file = fixturePath(directory, path);
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+      final String storedPath = input.readUTF();
+      final String contentType = input.readUTF();
+      final String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+      if (!storedPath.equals(path)) {
+        return Optional.empty();
+      }
+      return Optional.of(new Fixture(contentType, body));
+    }
+  }
+
+  /**
+   * Returns the part of a URI a fixture is recorded under.
+   *
+   * @param uri the requested URI
+   * @return the raw path followed by the raw query, if there is one
+   */
+  static String pathOf(final URI uri) {
+    final String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+    return uri.getRawQuery() == null ? path : path + '?' + uri.getRawQuery();
+  }
+
+  private static Path fixturePath(final Path directory, final String path) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return directory.resolve(
+          HexFormat.of().formatHex(digest.digest(path.getBytes(StandardCharsets.UTF_8))) + FIXTURE_SUFFIX
+      );
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * A recorded page.
+   *
+   * @param contentType the {@code Content-Type} it was served with, empty if unknown
+   * @param body the page body
+   */
+  record Fixture(String contentType, String body) {
+  }
+}
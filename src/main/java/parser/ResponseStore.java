@@ -0,0 +1,320 @@
+package parser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk store of HTTP response bodies together with their
+ * {@code ETag} and {@code Last-Modified} validators. A stored entry lets the
+ * next request for the same URL be sent as a conditional GET; when the
+ * server answers {@code 304 Not Modified} the stored body is reused instead
+ * of being downloaded again.
+ *
+ * <p>Each URL is kept in one file named after the SHA-256 of the URL and
+ * replaced atomically, so concurrent writers never leave a torn entry.
+ *
+ * <p>The store is bounded: on the first write and then every few hundred
+ * writes it deletes entries not written for longer than the maximum age,
+ * then the least recently written ones until the directory fits the size
+ * limit. A deleted entry only costs one full download.
+ */
+public final class ResponseStore {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(ResponseStore.class);
+
+  private static final String DIRECTORY_PROPERTY = "reelsift.httpCacheDir";
+  private static final String ENTRY_SUFFIX = ".http";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final Duration DEFAULT_MAX_AGE = Duration.ofDays(7);
+  private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+  private static final int SWEEP_INTERVAL = 256;
+
+  private static final ResponseStore SHARED = new ResponseStore(
+      Path.of(System.getProperty(
+          DIRECTORY_PROPERTY,
+          Path.of(System.getProperty("java.io.tmpdir"), "reelsift-http").toString()
+      ))
+  );
+
+  private final Path directory;
+  private final Duration maxAge;
+  private final long maxBytes;
+  private final AtomicInteger writes = new AtomicInteger();
+
+  /**
+   * Creates a store that keeps entries for a week and at most 256 MiB of
+   * them.
+   *
+   * @param directory the directory the entries are written to; created on
+   *     first write
+   */
+  public ResponseStore(final Path directory) {
+    this(directory, DEFAULT_MAX_AGE, DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * Primary constructor.
+   *
+   * @param directory the directory the entries are written to; created on
+   *     first write
+   * @param maxAge how long an entry is kept after it was last written
+   * @param maxBytes the total size of the entries the directory holds at
+   *     most
+   */
+  public ResponseStore(final Path directory, final Duration maxAge, final long maxBytes) {
+    this.directory = directory;
+    this.maxAge = maxAge;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the store shared by every parser in the JVM. Its directory is
+   * taken from the {@code reelsift.httpCacheDir} system property and
+   * defaults to {@code reelsift-http} under the system temp directory.
+   *
+   * @return the shared store
+   */
+  public static ResponseStore shared() {
+    return SHARED;
+  }
+
+  /**
+   * Looks up the stored response for a URL.
+   *
+   * @param url the requested URL
+   * @return the stored response, or empty if there is none or it cannot
+   *     be read
+   */
+  public Optional<StoredResponse> lookup(final String url) {
+    final Path entry = this.entryPath(url);
+    if (!Files.exists(entry)) {
+      return Optional.empty();
+    }
+    try (DataInputStream input = new DataInputStream(Files.newInputStream(entry))) {
+      final String storedUrl = input.readUTF();
+      final String etag = input.readUTF();
+      final String lastModified = input.readUTF();
+      final String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+      if (!storedUrl.equals(url)) {
+        return Optional.empty();
+      }
+      return Optional.of(new StoredResponse(body, etag, lastModified));
+    } catch (final IOException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Failed to read stored response for {}: {}", url, e.getMessage());
+      }
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores a response body with its validators. Responses without any
+   * validator cannot be revalidated and are not stored.
+   *
+   * @param url the requested URL
+   * @param response the response body and validators
+   */
+  public void save(final String url, final StoredResponse response) {
+    if (response.validator().isEmpty()) {
+      return;
+    }
+    try {
+      Files.createDirectories(this.directory);
+      final Path temp = Files.createTempFile(this.directory, "entry", TEMP_SUFFIX);
+      try (OutputStream file = Files.newOutputStream(temp);
+           DataOutputStream output = new DataOutputStream(file)) {
+        output.writeUTF(url);
+        output.writeUTF(response.etag());
+        output.writeUTF(response.lastModified());
+        output.write(response.body().getBytes(StandardCharsets.UTF_8));
+      }
+      Files.move(
+          temp, this.entryPath(url),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (final IOException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Failed to store response for {}: {}", url, e.getMessage());
+      }
+    }
+    if (this.writes.getAndIncrement() % SWEEP_INTERVAL == 0) {
+      this.evict();
+    }
+  }
+
+  /**
+   * Deletes the entries older than the maximum age, then the least
+   * recently written ones until the rest fit the size limit. Temp files
+   * left by a crashed writer are deleted by age too.
+   */
+  void evict() {
+    final List<Entry> entries = this.entries();
+    final FileTime oldest = FileTime.from(Instant.now().minus(this.maxAge));
+    entries.sort(Comparator.comparing(Entry::written));
+    long total = entries.stream().mapToLong(Entry::size).sum();
+    int deleted = 0;
+    for (final Entry entry : entries) {
+      final boolean stale = entry.written().compareTo(oldest) < 0;
+      if (!stale && (total <= this.maxBytes || !entry.isResponse())) {
+        continue;
+      }
+      if (delete(entry.path())) {
+        total -= entry.size();
+        deleted++;
+      }
+    }
+    if (deleted > 0 && LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Evicted {} stored responses, {} bytes left", deleted, total);
+    }
+  }
+
+  private List<Entry> entries() {
+    final List<Entry> entries = new ArrayList<>();
+    if (!Files.isDirectory(this.directory)) {
+      return entries;
+    }
+    try (Stream<Path> files = Files.list(this.directory)) {
+      files.forEach(file -> entryOf(file).ifPresent(entries::add));
+    } catch (final IOException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Failed to list stored responses: {}", e.getMessage());
+      }
+    }
+    return entries;
+  }
+
+  private static Optional<Entry> entryOf(final Path file) {
+    final String name = file.getFileName().toString();
+    if (!name.endsWith(ENTRY_SUFFIX) && !name.endsWith(TEMP_SUFFIX)) {
+      return Optional.empty();
+    }
+    try {
+      final BasicFileAttributes attributes =
+          Files.readAttributes(file, BasicFileAttributes.class);
+      return Optional.of(new Entry(file, attributes.lastModifiedTime(), attributes.size()));
+    } catch (final IOException e) {
+      // Replaced or deleted by another writer since the listing
+      return Optional.empty();
+    }
+  }
+
+  private static boolean delete(final Path file) {
+    try {
+      return Files.deleteIfExists(file);
+    } catch (final IOException e) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Failed to evict stored response {}: {}", file, e.getMessage());
+      }
+      return false;
+    }
+  }
+
+  private Path entryPath(final String url) {
+    return this.directory.resolve(sha256(url) + ENTRY_SUFFIX);
+  }
+
+  private static String sha256(final String value) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * A file in the store directory.
+   *
+   * @param path the file
+   * @param written when the file was last written
+   * @param size the size of the file in bytes
+   */
+  private record Entry(Path path, FileTime written, long size) {
+
+    boolean isResponse() {
+      return this.path.getFileName().toString().endsWith(ENTRY_SUFFIX);
+    }
+  }
+
+  /**
+   * A stored response body and the validators it was served with.
+   *
+   * @param body the response body
+   * @param etag the {@code ETag} value, empty if the server sent none
+   * @param lastModified the {@code Last-Modified} value, empty if the
+   *     server sent none
+   */
+  public record StoredResponse(String body, String etag, String lastModified) {
+
+    /**
+     * Creates a stored response from raw header values.
+     *
+     * @param body the response body
+     * @param etag the {@code ETag} header value, or {@code null}
+     * @param lastModified the {@code Last-Modified} header value, or
+     *     {@code null}
+     * @return the stored response
+     */
+    public static StoredResponse fromHeaders(
+        final String body, final String etag, final String lastModified
+    ) {
+      return new StoredResponse(
+          body,
+          etag == null ? "" : etag,
+          lastModified == null ? "" : lastModified
+      );
+    }
+
+    /**
+     * Builds the request headers that turn a GET into a conditional GET.
+     *
+     * @return header names mapped to values
+     */
+    public Map<String, String> conditionalHeaders() {
+      final Map<String, String> headers = new LinkedHashMap<>();
+      if (!this.etag.isEmpty()) {
+        headers.put("If-None-Match", this.etag);
+      }
+      if (!this.lastModified.isEmpty()) {
+        headers.put("If-Modified-Since", this.lastModified);
+      }
+      return headers;
+    }
+
+    /**
+     * Returns a key that changes whenever the stored body changes.
+     *
+     * @return the validator key, empty if the response has no validators
+     */
+    public String validator() {
+      if (this.etag.isEmpty() && this.lastModified.isEmpty()) {
+        return "";
+      }
+      return this.etag + '|' + this.lastModified;
+    }
+  }
+}
@@ -1,6 +1,12 @@
 package parser;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,12 +15,21 @@ import org.slf4j.LoggerFactory;
  * The delay between attempts starts at {@code initialDelayMs} and doubles
  * after each failure. Retrying stops when total elapsed time exceeds
  * {@code maxTotalTimeMs}.
+ *
+ * <p>{@link #executeAsync(AsyncIoOperation)} applies the same policy to
+ * asynchronous operations. Its delays are timers on one shared scheduler
+ * thread, so a waiting retry does not hold any thread.
  */
 public final class Retrier {
 
   private static final Logger LOGGER =
       LoggerFactory.getLogger(Retrier.class);
 
+  private static final ScheduledExecutorService SCHEDULER =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().daemon().name("retrier-scheduler").factory()
+      );
+
   private final long maxTotalTimeMs;
   private final long initialDelayMs;
 
@@ -69,6 +84,115 @@ public final class Retrier {
     throw lastException;
   }
 
+  /**
+   * Starts the given asynchronous operation and retries it on
+   * {@link IOException} with exponential backoff until the total retry
+   * budget is exhausted. {@link NonRetryableIoException} is never retried —
+   * the returned future fails with its original exception. Cancelling the
+   * returned future stops further attempts.
+   *
+   * @param operation the asynchronous IO operation to execute
+   * @param <T> the result type
+   * @return a future completed with the result of the first successful
+   *     attempt, or with the last {@link IOException} once the budget is
+   *     exhausted
+   */
+  public <T> CompletableFuture<T> executeAsync(final AsyncIoOperation<T> operation) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+    this.attemptAsync(operation, result, System.currentTimeMillis(), this.initialDelayMs, 1);
+    return result;
+  }
+
+  /**
+   * Runs one asynchronous attempt and, if it fails with a retryable
+   * {@link IOException}, schedules the next one. Whatever goes wrong while
+   * starting or settling the attempt, including an operation that returns
+   * no future, fails the result, so it never stays incomplete. Cancelling
+   * the result cancels the attempt in flight.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private <T> void attemptAsync(
+      final AsyncIoOperation<T> operation,
+      final CompletableFuture<T> result,
+      final long startTime,
+      final long delay,
+      final int attempt
+  ) {
+    if (result.isDone()) {
+      return;
+    }
+    try {
+      final CompletableFuture<T> pending = operation.execute();
+      if (pending == null) {
+        result.completeExceptionally(
+            new IllegalStateException("Asynchronous operation returned no future")
+        );
+        return;
+      }
+      result.whenComplete((value, error) -> {
+        if (result.isCancelled()) {
+          pending.cancel(true);
+        }
+      });
+      pending.whenComplete((value, error) -> {
+        try {
+          this.settle(operation, result, startTime, delay, attempt, value, error);
+        } catch (final RuntimeException ex) {
+          result.completeExceptionally(ex);
+        }
+      });
+    } catch (final RuntimeException ex) {
+      result.completeExceptionally(ex);
+    }
+  }
+
+  /**
+   * Completes the result with the outcome of an attempt, or schedules the
+   * next attempt if the failure is worth retrying within the budget.
+   */
+  private <T> void settle(
+      final AsyncIoOperation<T> operation,
+      final CompletableFuture<T> result,
+      final long startTime,
+      final long delay,
+      final int attempt,
+      final T value,
+      final Throwable error
+  ) {
+    if (error == null) {
+      result.complete(value);
+      return;
+    }
+    final Throwable cause = unwrapCompletion(error);
+    if (cause instanceof NonRetryableIoException nonRetryable) {
+      result.completeExceptionally(nonRetryable.unwrap());
+    } else if (cause instanceof IOException failure) {
+      final long elapsed = System.currentTimeMillis() - startTime;
+      if (elapsed + delay > this.maxTotalTimeMs) {
+        logBudgetExhausted(attempt, elapsed);
+        result.completeExceptionally(failure);
+        return;
+      }
+      logRetryAttempt(attempt, delay, failure);
+      SCHEDULER.schedule(
+          () -> this.attemptAsync(operation, result, startTime, delay * 2, attempt + 1),
+          delay,
+          TimeUnit.MILLISECONDS
+      );
+    } else {
+      result.completeExceptionally(cause);
+    }
+  }
+
+  private static Throwable unwrapCompletion(final Throwable error) {
+    Throwable cause = error;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
   /**
    * Logs a warning that the retry budget has been exhausted.
    *
@@ -0,0 +1,423 @@
+package parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.json.JSONException;
+import parser.JsonPullReader.Token;
+
+/**
+ * Reads one schedule page of the Afisha API from a stream. Only
+ * {@code MovieCard.Info}, the schedule items and the pagers are read; every
+ * other subtree is skipped, and the film details are skipped too when an
+ * earlier page of the film already gave them. What is kept while reading is
+ * the film details, the pager counts and the few fields of each session
+ * already read, never the document itself.
+ */
+@SuppressWarnings({"PMD.TooManyMethods", "PMD.CyclomaticComplexity"})
+final class ScheduleJsonReader {
+
+    private static final String NAME = "Name";
+    private static final String NULL = "null";
+
+    private final JsonPullReader json;
+    private final String url;
+    private final LocalDate first;
+    private final LocalDate last;
+    private final boolean withSessions;
+    private final StringPool strings;
+    private final List<Row> rows = new ArrayList<>();
+    private FilmMetadata film;
+    private boolean outOfRange;
+    private int listPages;
+    private int widgetPages;
+
+    /**
+     * Creates a reader of the sessions and page count of a page.
+     *
+     * @param body The page body
+     * @param url The URL of the page
+     * @param first The first day the page may list
+     * @param last The last day the page may list
+     * @param strings The canonical strings of the crawl
+     */
+    ScheduleJsonReader(
+        final Reader body, final String url, final LocalDate first, final LocalDate last, final StringPool strings
+    ) {
+        this(body, url, first, last, true, strings);
+    }
+
+    /**
+     * Creates a reader of the page count of a page only.
+     *
+     * @param body The page body
+     */
+    ScheduleJsonReader(final Reader body) {
+        this(body, "", LocalDate.MIN, LocalDate.MAX, false, new StringPool(0));
+    }
+
+    private ScheduleJsonReader(
+        final Reader body, final String url, final LocalDate first, final LocalDate last,
+        final boolean withSessions, final StringPool strings
+    ) {
+        this.json = new JsonPullReader(body);
+        this.url = url;
+        this.first = first;
+        this.last = last;
+        this.withSessions = withSessions;
+        this.strings = strings;
+    }
+
+    /**
+     * Reads the page. A page listing any session outside the requested days
+     * belongs to another date, as when the site redirects, and yields no
+     * sessions.
+     *
+     * @param films The film details remembered by the current crawl
+     * @return The sessions and the page count
+     * @throws IOException If the page cannot be read
+     */
+    ParsedSchedulePage read(final FilmMetadataCache films) throws IOException {
+        final Optional<FilmMetadata> known = this.withSessions ? films.find(this.url) : Optional.empty();
+        if (this.json.peek() == Token.END_DOCUMENT) {
+            return new ParsedSchedulePage(List.of(), 0);
+        }
+        this.readRoot(this.withSessions && known.isEmpty());
+        final int totalPages = this.listPages > 0 ? this.listPages : this.widgetPages;
+        if (!this.withSessions) {
+            return new ParsedSchedulePage(List.of(), totalPages);
+        }
+        final FilmMetadata extracted = this.film;
+        if (known.isEmpty() && extracted == null) {
+            throw new JSONException("MovieCard.Info not found");
+        }
+        final FilmMetadata shared = films.resolve(this.url, () -> extracted);
+        if (this.outOfRange) {
+            return new ParsedSchedulePage(List.of(), totalPages);
+        }
+        return new ParsedSchedulePage(
+            this.rows.stream().map(row -> row.session(shared, this.url)).toList(), totalPages
+        );
+    }
+
+    private void readRoot(final boolean withFilm) throws IOException {
+        this.json.beginObject();
+        while (this.json.hasNext()) {
+            final String name = this.json.nextName();
+            if ("MovieCard".equals(name) && withFilm) {
+                this.readMovieCard();
+            } else if ("ScheduleWidget".equals(name)) {
+                this.readWidget();
+            } else {
+                this.json.skipValue();
+            }
+        }
+        this.json.endObject();
+    }
+
+    /**
+     * Tells whether the page listed a session outside the requested days.
+     *
+     * @return True if the sessions of the page were discarded
+     */
+    boolean discarded() {
+        return this.outOfRange;
+    }
+
+    private void readMovieCard() throws IOException {
+        if (!this.enterObject()) {
+            return;
+        }
+        while (this.json.hasNext()) {
+            if ("Info".equals(this.json.nextName())) {
+                this.film = this.readInfo();
+            } else {
+                this.json.skipValue();
+            }
+        }
+        this.json.endObject();
+    }
+
+    private FilmMetadata readInfo() throws IOException {
+        if (!this.enterObject()) {
+            return null;
+        }
+        final Map<String, String> scalars = new HashMap<>();
+        String description = "";
+        List<String> genres = List.of();
+        while (this.json.hasNext()) {
+            final String name = this.json.nextName();
+            if ("DistributorInfo".equals(name)) {
+                description = this.readScalars().getOrDefault("Text", "");
+            } else if ("Genres".equals(name)) {
+                genres = this.readGenres();
+            } else if (this.json.peek() == Token.BEGIN_OBJECT || this.json.peek() == Token.BEGIN_ARRAY) {
+                this.json.skipValue();
+            } else {
+                scalars.put(name, this.json.nextScalar());
+            }
+        }
+        this.json.endObject();
+        if (!scalars.containsKey(NAME)) {
+            throw new JSONException("MovieCard.Info.Name not found");
+        }
+        return new FilmMetadata(
+            this.strings.canonical(scalars.get(NAME)),
+            description,
+            this.strings.canonical(scalars.getOrDefault("Verdict", "")),
+            genres
+        );
+    }
+
+    private List<String> readGenres() throws IOException {
+        final List<String> genres = new ArrayList<>();
+        if (!this.enterObject()) {
+            return genres;
+        }
+        while (this.json.hasNext()) {
+            if ("Links".equals(this.json.nextName())) {
+                this.readLinks(genres);
+            } else {
+                this.json.skipValue();
+            }
+        }
+        this.json.endObject();
+        return genres;
+    }
+
+    private void readLinks(final List<String> genres) throws IOException {
+        if (!this.enterArray()) {
+            return;
+        }
+        while (this.json.hasNext()) {
+            Optional.ofNullable(this.readScalars().get(NAME)).map(this.strings::canonical).ifPresent(genres::add);
+        }
+        this.json.endArray();
+    }
+
+    private void readWidget() throws IOException {
+        if (!this.enterObject()) {
+            return;
+        }
+        while (this.json.hasNext()) {
+            final String name = this.json.nextName();
+            if ("ScheduleList".equals(name)) {
+                this.readList();
+            } else if ("Pager".equals(name)) {
+                this.widgetPages = this.readPager();
+            } else {
+                this.json.skipValue();
+            }
+        }
+        this.json.endObject();
+    }
+
+    private void readList() throws IOException {
+        if (!this.enterObject()) {
+            return;
+        }
+        while (this.json.hasNext()) {
+            final String name = this.json.nextName();
+            if ("Items".equals(name) && this.withSessions) {
+                this.readItems();
+            } else if ("Pager".equals(name)) {
+                this.listPages = this.readPager();
+            } else {
+                this.json.skipValue();
+            }
+        }
+        this.json.endObject();
+    }
+
+    private void readItems() throws IOException {
+        if (!this.enterArray()) {
+            return;
+        }
+        while (this.json.hasNext()) {
+            this.readItem();
+        }
+        this.json.endArray();
+    }
+
+    /**
+     * Reads the cinema and sessions of one schedule item. The cinema may
+     * come after the sessions, so the sessions of the item wait for it.
+     */
+    private void readItem() throws IOException {
+        if (!this.enterObject()) {
+            return;
+        }
+        Map<String, String> place = Map.of();
+        final List<Timing> timings = new ArrayList<>();
+        while (this.json.hasNext()) {
+            final String name = this.json.nextName();
+            if ("Place".equals(name)) {
+                place = this.readScalars();
+            } else if ("Sessions".equals(name)) {
+                this.readTimings(timings);
+            } else {
+                this.json.skipValue();
+            }
+        }
+        this.json.endObject();
+        if (timings.isEmpty()) {
+            return;
+        }
+        if (!place.containsKey(NAME)) {
+            throw new JSONException("Place of schedule item not found");
+        }
+        final Cinema cinema = new Cinema(
+            this.strings.canonical(place.get(NAME)), this.strings.canonical(place.getOrDefault("Address", NULL))
+        );
+        timings.forEach(timing -> this.rows.add(new Row(timing, cinema)));
+    }
+
+    private void readTimings(final List<Timing> timings) throws IOException {
+        if (!this.enterArray()) {
+            return;
+        }
+        while (this.json.hasNext()) {
+            final Map<String, String> session = this.readScalars();
+            if (!this.outOfRange) {
+                final Timing timing = Timing.from(session);
+                this.outOfRange = !this.covers(timing.dateTime());
+                timings.add(timing);
+            }
+        }
+        this.json.endArray();
+    }
+
+    /**
+     * Reads the page count from a pager the way {@code org.json}'s
+     * {@code optInt} would: numbers and numeric strings count, anything
+     * else is 0.
+     */
+    private int readPager() throws IOException {
+        final Map<String, String> fields = this.readScalars();
+        final int pages = firstPositive(fields, "PagesCount", "TotalPages", "PageCount");
+        if (pages > 0) {
+            return pages;
+        }
+        final int total = firstPositive(fields, "TotalCount", "ItemsCount");
+        final int pageSize = firstPositive(fields, "PageSize", "ItemsPerPage");
+        return total > 0 && pageSize > 0 ? (total + pageSize - 1) / pageSize : 0;
+    }
+
+    /**
+     * Reads the string, number, boolean and null members of an object,
+     * skipping any nested object or array. Anything but an object reads as
+     * an object without members.
+     */
+    private Map<String, String> readScalars() throws IOException {
+        final Map<String, String> scalars = new HashMap<>();
+        if (!this.enterObject()) {
+            return scalars;
+        }
+        while (this.json.hasNext()) {
+            final String name = this.json.nextName();
+            final Token token = this.json.peek();
+            if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                this.json.skipValue();
+            } else {
+                scalars.put(name, this.json.nextScalar());
+            }
+        }
+        this.json.endObject();
+        return scalars;
+    }
+
+    private boolean enterObject() throws IOException {
+        if (this.json.peek() == Token.BEGIN_OBJECT) {
+            this.json.beginObject();
+            return true;
+        }
+        this.json.skipValue();
+        return false;
+    }
+
+    private boolean enterArray() throws IOException {
+        if (this.json.peek() == Token.BEGIN_ARRAY) {
+            this.json.beginArray();
+            return true;
+        }
+        this.json.skipValue();
+        return false;
+    }
+
+    /**
+     * A day's schedule runs past midnight, so a session in the small hours
+     * after the last day still belongs to the page.
+     */
+    private boolean covers(final LocalDateTime dateTime) {
+        final LocalDate date = dateTime.toLocalDate();
+        return !date.isBefore(this.first) && !date.isAfter(this.last)
+            || dateTime.getHour() <= SessionJsonParser.NEXT_DAY_HOUR;
+    }
+
+    private static int toInt(final String value) {
+        try {
+            return new BigDecimal(value.strip()).intValue();
+        } catch (final NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static int firstPositive(final Map<String, String> fields, final String... keys) {
+        for (final String key : keys) {
+            final int value = toInt(fields.getOrDefault(key, ""));
+            if (value > 0) {
+                return value;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The fields of a session read from a schedule item.
+     *
+     * @param dateTime The start of the session
+     * @param price The lowest price, or -1 if not shown
+     * @param subtitles Whether the session has Russian subtitles
+     */
+    private record Timing(LocalDateTime dateTime, int price, boolean subtitles) {
+
+        /**
+         * Takes the fields of a session from its members. A session with
+         * subtitles in another shape than a single format has none.
+         */
+        static Timing from(final Map<String, String> session) {
+            final String dateTime = session.get("DateTime");
+            if (dateTime == null || NULL.equals(dateTime)) {
+                throw new JSONException("DateTime of session not found");
+            }
+            final String price = session.getOrDefault("MinPriceFormatted", NULL);
+            return new Timing(
+                LocalDateTime.parse(dateTime),
+                NULL.equals(price) ? -1 : Integer.parseInt(price),
+                "russiansubtitlessession".equals(session.get("SubtitlesFormats"))
+            );
+        }
+    }
+
+    /**
+     * A session read from the page, waiting for the film details.
+     *
+     * @param timing The fields of the session
+     * @param cinema The cinema, shared by the sessions of the item
+     */
+    private record Row(Timing timing, Cinema cinema) {
+
+        Session session(final FilmMetadata film, final String url) {
+            return new Session(
+                this.timing.dateTime(), film, this.cinema, this.timing.price(), url, this.timing.subtitles(), ""
+            );
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package parser;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of fetching a film's schedule for one date while comparing every
+ * page against the digests taken by the previous crawl.
+ *
+ * @param sessions The sessions of the pages that changed since the previous crawl
+ * @param digests The digests of every page fetched, keyed by page number
+ * @param unchangedPages The number of pages whose body was identical to the previous crawl
+ * @param truncated Whether fetching stopped early on an error, so pages may be missing
+ */
+public record ScheduleSnapshot(
+    List<Session> sessions, Map<Integer, PageDigest> digests, int unchangedPages, boolean truncated
+) {
+
+    /** Constructor. */
+    public ScheduleSnapshot {
+        sessions = List.copyOf(sessions);
+        digests = Map.copyOf(digests);
+    }
+
+    /**
+     * Creates a snapshot of a fetch that reached the last page.
+     *
+     * @param sessions The sessions of the pages that changed since the previous crawl
+     * @param digests The digests of every page fetched, keyed by page number
+     * @param unchangedPages The number of pages whose body was identical to the previous crawl
+     */
+    public ScheduleSnapshot(
+        final List<Session> sessions, final Map<Integer, PageDigest> digests, final int unchangedPages
+    ) {
+        this(sessions, digests, unchangedPages, false);
+    }
+
+    /**
+     * Tells whether every fetched page was identical to the previous crawl,
+     * so nothing has to be stored.
+     *
+     * @return True if no page changed
+     */
+    public boolean unchanged() {
+        return !this.digests.isEmpty() && this.unchangedPages == this.digests.size();
+    }
+
+    /**
+     * Tells whether every page of the date was fetched, changed or not, so
+     * the store is up to date once the snapshot is written.
+     *
+     * @return True if no page is missing
+     */
+    public boolean fetchedWhole() {
+        return !this.truncated && !this.digests.isEmpty();
+    }
+
+    /**
+     * Tells whether the sessions are the film's whole schedule for the
+     * date: every page was fetched and parsed, so a stored session missing
+     * from the snapshot has been cancelled.
+     *
+     * @return True if the snapshot holds every session of the date
+     */
+    public boolean complete() {
+        return this.fetchedWhole() && this.unchangedPages == 0;
+    }
+}
@@ -0,0 +1,77 @@
+package parser;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A site that lists the films showing in a city and the sessions of each
+ * film. Every source paces its own requests, so several sources fetched at
+ * the same time do not wait for each other.
+ */
+public interface ScheduleSource {
+
+    /**
+     * Lists the films showing in a date range.
+     *
+     * @param dates The date range in {@code dd-MM_dd-MM} format
+     * @return The films with the links to their schedules
+     * @throws IOException If the listing cannot be fetched
+     */
+    List<MovieThumbnail> listFilms(String dates) throws IOException;
+
+    /**
+     * Fetches a film's sessions for one date, skipping the pages that did
+     * not change since the previous crawl. The film may have been listed by
+     * another source; a source that does not show the film returns an empty
+     * snapshot.
+     *
+     * @param film The film, as listed by this or another source
+     * @param date The date in dd-MM-yyyy format
+     * @param previous The digests this source produced in the previous crawl, keyed by page number
+     * @return The sessions of the changed pages and the digests of every page
+     * @throws IOException If the schedule cannot be fetched
+     */
+    ScheduleSnapshot fetchSchedule(MovieThumbnail film, String date, Map<Integer, PageDigest> previous)
+        throws IOException;
+
+    /**
+     * Fetches a film's sessions for a range of days, split by the day whose
+     * schedule lists them. Sources that cannot fetch a range in one pass
+     * fetch it day by day.
+     *
+     * @param film The film, as listed by this or another source
+     * @param first The first day of the range
+     * @param last The last day of the range
+     * @return The sessions of each day
+     * @throws IOException If the schedule cannot be fetched
+     */
+    default MultiDaySchedule fetchScheduleRange(
+        final MovieThumbnail film, final LocalDate first, final LocalDate last
+    ) throws IOException {
+        final DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        final Map<LocalDate, List<Session>> days = new TreeMap<>();
+        int pages = 0;
+        boolean truncated = false;
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            final ScheduleSnapshot snapshot = this.fetchSchedule(film, date.format(format), Map.of());
+            days.put(date, snapshot.sessions());
+            pages += snapshot.digests().size();
+            truncated |= snapshot.truncated();
+        }
+        return new MultiDaySchedule(days, pages, !truncated && pages > 0);
+    }
+
+    /**
+     * Tells how much heap the source saved by keeping one copy of the
+     * strings its sessions repeat, see {@link StringPool}.
+     *
+     * @return The estimated number of bytes, 0 for a source that keeps every copy
+     */
+    default long savedStringBytes() {
+        return 0;
+    }
+}
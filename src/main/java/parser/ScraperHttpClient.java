@@ -0,0 +1,251 @@
+package parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.jsoup.HttpStatusException;
+
+/**
+ * HTTP transport of the scraper. All parsers share one
+ * {@link HttpClient}, so connections to a host are kept alive and reused
+ * across parser instances and, over HTTP/2, multiplexed. Responses are
+ * requested compressed and decoded here; callers receive the downloaded
+ * body as text and hand it to Jsoup or the JSON parser only for parsing.
+ *
+ * <p>Like {@code Jsoup.connect(...).execute()}, a {@code 4xx} or
+ * {@code 5xx} answer is raised as {@link HttpStatusException}.
+ */
+final class ScraperHttpClient {
+
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final int MAX_REDIRECTS = 5;
+  private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  private static final ScraperHttpClient SHARED = new ScraperHttpClient(
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_2)
+          .followRedirects(HttpClient.Redirect.NEVER)
+          .connectTimeout(CONNECT_TIMEOUT)
+          .executor(Executors.newVirtualThreadPerTaskExecutor())
+          .build()
+  );
+
+  private final HttpClient client;
+
+  /**
+   * Primary constructor.
+   *
+   * @param client the underlying client; must not follow redirects itself
+   */
+  ScraperHttpClient(final HttpClient client) {
+    this.client = client;
+  }
+
+  /**
+   * Returns the client shared by every parser in the JVM.
+   *
+   * @return the shared client
+   */
+  static ScraperHttpClient shared() {
+    return SHARED;
+  }
+
+  /**
+   * Sends a GET request and downloads the whole decoded body.
+   *
+   * @param request the prepared request; its timeout applies to every hop
+   * @param followRedirects whether to follow {@code 3xx} answers with a
+   *     {@code Location} header; when false they are returned as they are
+   * @return the response
+   * @throws HttpStatusException if the final answer is a {@code 4xx} or
+   *     {@code 5xx}
+   * @throws IOException if the request fails or is interrupted
+   */
+  ScraperResponse send(final HttpRequest.Builder request, final boolean followRedirects)
+      throws IOException {
+    HttpRequest current = prepare(request);
+    HttpResponse<byte[]> response = this.exchange(current);
+    int hops = 0;
+    Optional<HttpRequest> next = redirectOf(current, response, followRedirects, hops);
+    while (next.isPresent()) {
+      current = next.get();
+      response = this.exchange(current);
+      hops++;
+      next = redirectOf(current, response, followRedirects, hops);
+    }
+    return toResponse(response);
+  }
+
+  /**
+   * Sends a GET request without blocking the caller. Cancelling the
+   * returned future aborts the exchange that is in flight.
+   *
+   * @param request the prepared request; its timeout applies to every hop
+   * @param followRedirects whether to follow {@code 3xx} answers with a
+   *     {@code Location} header; when false they are returned as they are
+   * @return a future completed with the response, or exceptionally with
+   *     an {@link IOException} such as {@link HttpStatusException}
+   */
+  CompletableFuture<ScraperResponse> sendAsync(
+      final HttpRequest.Builder request, final boolean followRedirects
+  ) {
+    final CompletableFuture<ScraperResponse> result = new CompletableFuture<>();
+    final AtomicReference<CompletableFuture<?>> inFlight = new AtomicReference<>();
+    result.whenComplete((response, error) -> {
+      if (result.isCancelled() && inFlight.get() != null) {
+        inFlight.get().cancel(true);
+      }
+    });
+    this.exchangeAsync(prepare(request), new AsyncExchange(result, inFlight, followRedirects), 0);
+    return result;
+  }
+
+  private void exchangeAsync(final HttpRequest request, final AsyncExchange exchange, final int hops) {
+    final CompletableFuture<HttpResponse<byte[]>> pending =
+        this.client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+    exchange.inFlight().set(pending);
+    if (exchange.result().isCancelled()) {
+      pending.cancel(true);
+    }
+    pending.whenComplete((response, error) -> {
+      if (error != null) {
+        exchange.result().completeExceptionally(
+            error instanceof CompletionException && error.getCause() != null ? error.getCause() : error
+        );
+        return;
+      }
+      final Optional<HttpRequest> next = redirectOf(request, response, exchange.followRedirects(), hops);
+      if (next.isPresent()) {
+        this.exchangeAsync(next.get(), exchange, hops + 1);
+        return;
+      }
+      try {
+        exchange.result().complete(toResponse(response));
+      } catch (final IOException e) {
+        exchange.result().completeExceptionally(e);
+      }
+    });
+  }
+
+  private static HttpRequest prepare(final HttpRequest.Builder request) {
+    return request.setHeader("Accept-Encoding", ACCEPT_ENCODING).GET().build();
+  }
+
+  /**
+   * Builds the request for the next redirect hop, if the response is a
+   * redirect that should be followed.
+   */
+  private static Optional<HttpRequest> redirectOf(
+      final HttpRequest current,
+      final HttpResponse<byte[]> response,
+      final boolean followRedirects,
+      final int hops
+  ) {
+    if (!followRedirects || !isRedirect(response.statusCode()) || hops >= MAX_REDIRECTS) {
+      return Optional.empty();
+    }
+    return response.headers().firstValue("Location").map(
+        location -> HttpRequest.newBuilder(current, (name, value) -> true)
+            .uri(current.uri().resolve(location))
+            .build()
+    );
+  }
+
+  private static ScraperResponse toResponse(final HttpResponse<byte[]> response) throws IOException {
+    final String url = response.uri().toString();
+    if (response.statusCode() >= 400) {
+      throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), url);
+    }
+    return new ScraperResponse(
+        url, response.statusCode(), response.headers(), decode(response.body(), response.headers())
+    );
+  }
+
+  private HttpResponse<byte[]> exchange(final HttpRequest request) throws IOException {
+    try {
+      return this.client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException wrapped = new InterruptedIOException(
+          "Interrupted while fetching " + request.uri()
+      );
+      wrapped.initCause(ie);
+      throw wrapped;
+    }
+  }
+
+  private static boolean isRedirect(final int statusCode) {
+    return statusCode >= 300 && statusCode < 400 && statusCode != 304;
+  }
+
+  /**
+   * Undoes the transfer compression and decodes the body with the charset
+   * from {@code Content-Type}, falling back to UTF-8.
+   */
+  private static String decode(final byte[] body, final HttpHeaders headers) throws IOException {
+    final String encoding = headers.firstValue("Content-Encoding").orElse("")
+        .trim().toLowerCase(Locale.ROOT);
+    final byte[] plain;
+    if (body.length == 0 || encoding.isEmpty() || "identity".equals(encoding)) {
+      plain = body;
+    } else if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+      try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+        plain = input.readAllBytes();
+      }
+    } else if ("deflate".equals(encoding)) {
+      try (InputStream input = new InflaterInputStream(new ByteArrayInputStream(body))) {
+        plain = input.readAllBytes();
+      }
+    } else {
+      throw new IOException("Unsupported content encoding: " + encoding);
+    }
+    return new String(plain, charsetOf(headers));
+  }
+
+  private static Charset charsetOf(final HttpHeaders headers) {
+    final String contentType = headers.firstValue("Content-Type").orElse("");
+    for (final String part : contentType.split(";")) {
+      final String param = part.trim();
+      if (param.regionMatches(true, 0, "charset=", 0, 8)) {
+        try {
+          return Charset.forName(param.substring(8).replace("\"", "").trim());
+        } catch (final IllegalCharsetNameException | UnsupportedCharsetException e) {
+          return StandardCharsets.UTF_8;
+        }
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+
+  /**
+   * State shared by the hops of one asynchronous exchange.
+   *
+   * @param result the future handed to the caller
+   * @param inFlight the HTTP exchange currently running
+   * @param followRedirects whether redirects are followed
+   */
+  private record AsyncExchange(
+      CompletableFuture<ScraperResponse> result,
+      AtomicReference<CompletableFuture<?>> inFlight,
+      boolean followRedirects
+  ) {
+  }
+}
@@ -0,0 +1,105 @@
+package parser;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A fully downloaded and decoded scraper response.
+ *
+ * @param url the URL of the final answer, after any followed redirects
+ * @param statusCode the HTTP status code
+ * @param headers the response headers
+ * @param body the decoded response body
+ */
+record ScraperResponse(String url, int statusCode, HttpHeaders headers, String body) {
+
+  /**
+   * Returns the first value of a response header.
+   *
+   * @param name the header name, case-insensitive
+   * @return the header value, or {@code null} if the header is absent
+   */
+  String header(final String name) {
+    return this.headers.firstValue(name).orElse(null);
+  }
+
+  /**
+   * Returns the cookies set by this response.
+   *
+   * @return cookie names mapped to values, in header order
+   */
+  Map<String, String> cookies() {
+    final Map<String, String> cookies = new LinkedHashMap<>();
+    for (final String header : this.headers.allValues("Set-Cookie")) {
+      final String pair = header.split(";", 2)[0];
+      final int separator = pair.indexOf('=');
+      if (separator > 0) {
+        cookies.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+      }
+    }
+    return cookies;
+  }
+
+  /**
+   * Finds when the first cookie set by this response expires, from the
+   * {@code Max-Age} and {@code Expires} attributes, capped at a maximum
+   * lifetime.
+   *
+   * @param now the time the response was received
+   * @param maxLifetime the longest lifetime allowed
+   * @return the expiry time of the cookies
+   */
+  Instant cookiesExpiry(final Instant now, final Duration maxLifetime) {
+    Instant expiry = now.plus(maxLifetime);
+    for (final String header : this.headers.allValues("Set-Cookie")) {
+      final Instant cookieExpiry = attributeExpiry(header, now);
+      if (cookieExpiry.isAfter(now) && cookieExpiry.isBefore(expiry)) {
+        expiry = cookieExpiry;
+      }
+    }
+    return expiry;
+  }
+
+  /**
+   * Reads the expiry of one cookie; {@code Max-Age} wins over
+   * {@code Expires}. Returns {@link Instant#MAX} when neither is present or
+   * readable.
+   */
+  private static Instant attributeExpiry(final String header, final Instant now) {
+    Instant expires = Instant.MAX;
+    for (final String part : header.split(";")) {
+      final String attribute = part.trim();
+      final String name = attribute.toLowerCase(Locale.ROOT);
+      if (name.startsWith("max-age=")) {
+        return parseMaxAge(attribute.substring(8).trim(), now);
+      }
+      if (name.startsWith("expires=")) {
+        expires = parseExpires(attribute.substring(8).trim());
+      }
+    }
+    return expires;
+  }
+
+  private static Instant parseMaxAge(final String value, final Instant now) {
+    try {
+      return now.plusSeconds(Long.parseLong(value));
+    } catch (final NumberFormatException e) {
+      return Instant.MAX;
+    }
+  }
+
+  private static Instant parseExpires(final String value) {
+    try {
+      return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+    } catch (final DateTimeParseException e) {
+      return Instant.MAX;
+    }
+  }
+}
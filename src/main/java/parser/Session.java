@@ -2,6 +2,7 @@ package parser;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -17,21 +18,57 @@ import org.json.JSONObject;
 
 /**
  * Session DTO.
+ *
+ * <p>A session is kept compact, as a city snapshot holds thousands of them:
+ * the start as minutes since the epoch, the price and flags as ints, and the
+ * film details and cinema as references to instances shared by the other
+ * sessions of the film and cinema (see {@link SessionDictionary}). The
+ * accessors give the fields back in their usual types.
  */
 @SuppressWarnings({"PMD.ConsecutiveLiteralAppends", "PMD.TooManyMethods"})
 public final class Session {
-    private final LocalDateTime dateTime;
-    private final String name;
-    private final String description;
-    private final String verdict;
-    private final List<String> genres;
-    private final String cinema;
-    private final String address;
+    private static final int SUBTITLES = 1;
+    private static final int SECOND_SHIFT = 1;
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final int startMinute;
+    private final int startNanos;
+    private final int flags;
     private final int price;
+    private final FilmMetadata film;
+    private final Cinema venue;
     private final String link;
-    private final boolean russianSubtitlesSession;
     private String imageUrl;
 
+    /**
+     * Creates a session that refers to film details and a cinema, usually
+     * the instances shared by the other sessions of a snapshot.
+     *
+     * @param dateTime The start of the session
+     * @param film The film details
+     * @param venue The cinema
+     * @param price The price, or -1 if not shown
+     * @param link The schedule link
+     * @param subtitles Whether the session has Russian subtitles
+     * @param imageUrl The poster link
+     */
+    public Session(
+        final LocalDateTime dateTime, final FilmMetadata film, final Cinema venue,
+        final int price, final String link, final boolean subtitles, final String imageUrl
+    ) {
+        final long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        this.startMinute = Math.toIntExact(Math.floorDiv(epochSecond, SECONDS_PER_MINUTE));
+        this.startNanos = dateTime.getNano();
+        this.flags = (subtitles ? SUBTITLES : 0)
+            | Math.floorMod(epochSecond, SECONDS_PER_MINUTE) << SECOND_SHIFT;
+        this.price = price;
+        this.film = film;
+        this.venue = venue;
+        this.link = link;
+        this.imageUrl = imageUrl;
+    }
+
     /** Constructor. */
     @SuppressWarnings("PMD.ExcessiveParameterList")
     public Session(
@@ -42,17 +79,10 @@ public final class Session {
         final String link, final boolean russianSubtitlesSession,
         final String imageUrl
     ) {
-        this.dateTime = dateTime;
-        this.name = name;
-        this.description = description;
-        this.verdict = verdict;
-        this.genres = genres;
-        this.cinema = cinema;
-        this.address = address;
-        this.price = price;
-        this.link = link;
-        this.russianSubtitlesSession = russianSubtitlesSession;
-        this.imageUrl = imageUrl;
+        this(
+            dateTime, new FilmMetadata(name, description, verdict, genres == null ? List.of() : genres),
+            new Cinema(cinema, address), price, link, russianSubtitlesSession, imageUrl
+        );
     }
 
     /** Constructor. */
@@ -79,7 +109,12 @@ public final class Session {
         return jsonArray.toString();
     }
 
-    private String toJson() {
+    /**
+     * Serializes the session to a JSON object.
+     *
+     * @return The JSON text
+     */
+    public String toJson() {
         final JSONObject obj = new JSONObject();
         obj.put("dateTime", this.dateTime().toString());
         obj.put("name", this.name());
@@ -90,6 +125,7 @@ public final class Session {
         obj.put("address", this.address());
         obj.put("price", this.price());
         obj.put("link", this.link());
+        obj.put("russianSubtitlesSession", this.russianSubtitlesSession());
         obj.put("imageUrl", this.imageUrl());
         return obj.toString();
     }
@@ -98,21 +134,22 @@ public final class Session {
         if (json == null || json.isEmpty()) {
             return Collections.emptyList();
         }
+        final SessionDictionary dictionary = new SessionDictionary();
         if (json.charAt(0) == '[') {
             final JSONArray arr = new JSONArray(json);
             return IntStream.range(0, arr.length())
-                    .mapToObj(i -> fromJson(arr.get(i).toString()))
+                    // toJson(List) writes each session as a string holding its object
+                    .mapToObj(i -> fromJson(new JSONObject(arr.get(i).toString()), dictionary))
                     .collect(Collectors.toList());
         } else if (json.charAt(0) == '{') {
-            return Collections.singletonList(fromJson(json));
+            return Collections.singletonList(fromJson(new JSONObject(json), dictionary));
         } else {
             // TODO:: Log it
             return Collections.emptyList();
         }
     }
 
-    private static Session fromJson(final String json) {
-        final JSONObject obj = new JSONObject(json);
+    private static Session fromJson(final JSONObject obj, final SessionDictionary dictionary) {
         final LocalDateTime dateTime = LocalDateTime.parse(obj.getString("dateTime"));
         final String name = obj.getString("name");
         final String description = obj.getString("description");
@@ -124,9 +161,9 @@ public final class Session {
         final String link = obj.getString("link");
         final boolean withSubs = obj.optBoolean("russianSubtitlesSession", false);
         final String imageUrl = obj.getString("imageUrl");
-        return new Session(
-            dateTime, name, description, verdict, genres, cinema,
-            address, price, link, withSubs, imageUrl
+        return dictionary.session(
+            dateTime, dictionary.film(name, description, verdict, genres), new Cinema(cinema, address),
+            price, link, withSubs, imageUrl
         );
     }
 
@@ -358,49 +395,71 @@ public final class Session {
     }
 
     public LocalDateTime dateTime() {
-        return dateTime;
+        return LocalDateTime.ofEpochSecond(
+            (long) this.startMinute * SECONDS_PER_MINUTE + (this.flags >>> SECOND_SHIFT),
+            this.startNanos,
+            ZoneOffset.UTC
+        );
     }
 
     public String name() {
-        return name;
+        return this.film.name();
     }
 
     public String description() {
-        return description;
+        return this.film.description();
     }
 
     public String verdict() {
-        return verdict;
+        return this.film.verdict();
     }
 
     public List<String> genres() {
-        return genres;
+        return this.film.genres();
     }
 
     public String cinema() {
-        return cinema;
+        return this.venue.name();
     }
 
     public String address() {
-        return address;
+        return this.venue.address();
     }
 
     public int price() {
-        return price;
+        return this.price;
     }
 
     public String link() {
-        return link;
+        return this.link;
     }
 
     public boolean russianSubtitlesSession() {
-        return russianSubtitlesSession;
+        return (this.flags & SUBTITLES) != 0;
     }
 
     public String imageUrl() {
         return this.imageUrl;
     }
 
+    /**
+     * Returns the film details, shared with the other sessions of the film.
+     *
+     * @return The film details
+     */
+    public FilmMetadata film() {
+        return this.film;
+    }
+
+    /**
+     * Returns the cinema, shared with the other sessions of the cinema.
+     *
+     * @return The cinema
+     */
+    public Cinema venue() {
+        return this.venue;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (obj == this) {
@@ -410,38 +469,38 @@ public final class Session {
             return false;
         }
         final Session that = (Session) obj;
-        return Objects.equals(this.dateTime, that.dateTime) &&
-            Objects.equals(this.name, that.name) &&
-            Objects.equals(this.description, that.description) &&
-            Objects.equals(this.verdict, that.verdict) &&
-            Objects.equals(this.genres, that.genres) &&
-            Objects.equals(this.cinema, that.cinema) &&
-            Objects.equals(this.address, that.address) &&
+        return this.startMinute == that.startMinute &&
+            this.startNanos == that.startNanos &&
+            this.flags == that.flags &&
             this.price == that.price &&
+            Objects.equals(this.venue, that.venue) &&
+            Objects.equals(this.film, that.film) &&
             Objects.equals(this.link, that.link) &&
-            this.russianSubtitlesSession == that.russianSubtitlesSession &&
             Objects.equals(this.imageUrl, that.imageUrl);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(dateTime, name, description, verdict, genres, cinema, address, price, link, russianSubtitlesSession, imageUrl);
+        int result = this.startMinute;
+        result = HASH_MULTIPLIER * result + this.price;
+        result = HASH_MULTIPLIER * result + Objects.hashCode(this.cinema());
+        return HASH_MULTIPLIER * result + Objects.hashCode(this.name());
     }
 
     @Override
     public String toString() {
         return "Session[" +
-                "dateTime=" + dateTime + ", " +
-                "name=" + name + ", " +
-                "description=" + description + ", " +
-                "verdict=" + verdict + ", " +
-                "genres=" + genres + ", " +
-                "cinema=" + cinema + ", " +
-                "address=" + address + ", " +
-                "price=" + price + ", " +
-                "link=" + link + ", " +
-                "russianSubtitlesSession=" + russianSubtitlesSession + ", " +
-                "imageUrl=" + imageUrl + ']';
+                "dateTime=" + this.dateTime() + ", " +
+                "name=" + this.name() + ", " +
+                "description=" + this.description() + ", " +
+                "verdict=" + this.verdict() + ", " +
+                "genres=" + this.genres() + ", " +
+                "cinema=" + this.cinema() + ", " +
+                "address=" + this.address() + ", " +
+                "price=" + this.price + ", " +
+                "link=" + this.link + ", " +
+                "russianSubtitlesSession=" + this.russianSubtitlesSession() + ", " +
+                "imageUrl=" + this.imageUrl + ']';
     }
 
 }
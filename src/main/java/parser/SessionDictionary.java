@@ -0,0 +1,127 @@
+package parser;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Film details and cinemas shared by the sessions of one snapshot. The
+ * sessions of a film all refer to one {@link FilmMetadata}, and the sessions
+ * of a cinema to one {@link Cinema}, instead of each holding its own copy.
+ * The strings of the shared instances are taken from a {@link StringPool},
+ * so a genre or address repeated by several films or cinemas is kept once
+ * too. A dictionary lives as long as the snapshot it is used for, so it
+ * never outgrows it. Not thread safe.
+ */
+public final class SessionDictionary {
+
+    private final Map<FilmMetadata, FilmMetadata> films = new HashMap<>();
+    private final Map<Cinema, Cinema> cinemas = new HashMap<>();
+    private final StringPool strings;
+
+    /** Creates a dictionary with a pool of its own. */
+    public SessionDictionary() {
+        this(new StringPool());
+    }
+
+    /**
+     * Creates a dictionary.
+     *
+     * @param strings The canonical strings of the snapshot
+     */
+    public SessionDictionary(final StringPool strings) {
+        this.strings = strings;
+    }
+
+    /**
+     * Returns the shared instance of film details.
+     *
+     * @param film The film details
+     * @return The instance equal to them seen first
+     */
+    public FilmMetadata film(final FilmMetadata film) {
+        final FilmMetadata known = this.films.get(film);
+        if (known != null) {
+            return known;
+        }
+        final FilmMetadata canonical = new FilmMetadata(
+            this.strings.canonical(film.name()),
+            film.description(),
+            this.strings.canonical(film.verdict()),
+            this.strings.canonical(film.genres())
+        );
+        this.films.put(canonical, canonical);
+        return canonical;
+    }
+
+    /**
+     * Returns the shared instance of a cinema.
+     *
+     * @param cinema The cinema
+     * @return The instance equal to it seen first
+     */
+    public Cinema cinema(final Cinema cinema) {
+        final Cinema known = this.cinemas.get(cinema);
+        if (known != null) {
+            return known;
+        }
+        final Cinema canonical = new Cinema(
+            this.strings.canonical(cinema.name()), this.strings.canonical(cinema.address())
+        );
+        this.cinemas.put(canonical, canonical);
+        return canonical;
+    }
+
+    /**
+     * Creates a session that refers to the shared film details and cinema.
+     *
+     * @param dateTime The start of the session
+     * @param film The film details
+     * @param cinema The cinema
+     * @param price The price, or -1 if not shown
+     * @param link The schedule link
+     * @param subtitles Whether the session has Russian subtitles
+     * @param imageUrl The poster link
+     * @return The session
+     */
+    public Session session(
+        final LocalDateTime dateTime, final FilmMetadata film, final Cinema cinema,
+        final int price, final String link, final boolean subtitles, final String imageUrl
+    ) {
+        return new Session(dateTime, this.film(film), this.cinema(cinema), price, link, subtitles, imageUrl);
+    }
+
+    /**
+     * Creates film details from the fields of a session.
+     *
+     * @param name The film name
+     * @param description The description
+     * @param verdict The verdict
+     * @param genres The genres, or null for none
+     * @return The shared film details
+     */
+    public FilmMetadata film(
+        final String name, final String description, final String verdict, final List<String> genres
+    ) {
+        return this.film(new FilmMetadata(name, description, verdict, genres == null ? List.of() : genres));
+    }
+
+    /**
+     * Returns the canonical strings of the snapshot.
+     *
+     * @return The pool
+     */
+    public StringPool strings() {
+        return this.strings;
+    }
+
+    /**
+     * Tells how many distinct films and cinemas are shared.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return this.films.size() + this.cinemas.size();
+    }
+}
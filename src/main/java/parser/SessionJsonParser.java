@@ -1,22 +1,32 @@
 package parser;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
-/** Parses JSON responses from Afisha API into Session objects. */
+/**
+ * Parses JSON responses from Afisha API into Session objects. Responses
+ * are read as a stream of tokens by {@link ScheduleJsonReader}, skipping
+ * the parts no session needs.
+ */
 public final class SessionJsonParser {
 
+    /** Latest hour of a session that still belongs to the previous day's schedule. */
+    static final int NEXT_DAY_HOUR = 3;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(SessionJsonParser.class);
-    private static final int NEXT_DAY_HOUR = 3;
 
     private SessionJsonParser() {
         // Utility class
@@ -33,108 +43,153 @@ public final class SessionJsonParser {
     public static List<Session> parseSessions(
         final String json, final String url, final LocalDate expectedDate
     ) {
-        if (json == null || json.isEmpty()) {
-            return Collections.emptyList();
-        }
-        final List<Session> result = new ArrayList<>();
-        final JSONObject root = new JSONObject(json);
-        final JSONObject info = root.getJSONObject("MovieCard").getJSONObject("Info");
-
-        final List<String> genres = extractGenres(info);
-        final JSONObject distributorInfo = extractDistributorInfo(info);
-
-        final JSONObject scheduleWidget = root.optJSONObject("ScheduleWidget");
-        if (scheduleWidget == null) {
-            return Collections.emptyList();
-        }
-
-        final JSONArray items = scheduleWidget
-            .optJSONObject("ScheduleList")
-            .optJSONArray("Items");
-
-        if (items == null) {
-            return Collections.emptyList();
-        }
+        return parseSessions(json, url, expectedDate, new FilmMetadataCache());
+    }
 
-        for (int i = 0; i < items.length(); i++) {
-            final JSONObject item = items.getJSONObject(i);
-            final JSONObject place = item.getJSONObject("Place");
-            final JSONArray sessions = item.getJSONArray("Sessions");
-            final List<Session> placeSessions = createSessionsForPlace(
-                sessions, info, distributorInfo, genres, place, url, expectedDate
-            );
-            if (placeSessions.isEmpty() && !sessions.isEmpty()) {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Discarded sessions from redirected page: {}", url);
-                }
-                return Collections.emptyList();
-            }
-            result.addAll(placeSessions);
-        }
-        return result;
+    /**
+     * Parse sessions from Afisha API JSON response with date validation,
+     * reusing the film details already extracted from another page of the
+     * same film. Only the schedule items are read from such pages.
+     *
+     * @param json The JSON string from Afisha API
+     * @param url The URL to the sessions page
+     * @param expectedDate The expected date for sessions
+     * @param films The film details remembered by the current crawl
+     * @return List of parsed sessions, or empty list if any session date does not match expected date
+     */
+    public static List<Session> parseSessions(
+        final String json, final String url, final LocalDate expectedDate, final FilmMetadataCache films
+    ) {
+        return parseSessions(json, url, expectedDate, expectedDate, films);
     }
 
-    private static List<String> extractGenres(final JSONObject info) {
-        final JSONArray genresArray = info.getJSONObject("Genres").getJSONArray("Links");
-        final List<String> genres = new ArrayList<>();
-        for (int i = 0; i < genresArray.length(); i++) {
-            genres.add(((JSONObject) genresArray.get(i)).get("Name").toString());
-        }
-        return genres;
+    /**
+     * Parse sessions of a schedule page covering several days. A session
+     * belongs to the range if it starts on one of its days, or in the small
+     * hours after one of them.
+     *
+     * @param json The JSON string from Afisha API
+     * @param url The URL to the sessions page
+     * @param first The first day of the range
+     * @param last The last day of the range
+     * @param films The film details remembered by the current crawl
+     * @return List of parsed sessions, or empty list if any session falls outside the range
+     */
+    public static List<Session> parseSessions(
+        final String json,
+        final String url,
+        final LocalDate first,
+        final LocalDate last,
+        final FilmMetadataCache films
+    ) {
+        return parseSchedulePage(json, url, first, last, films).sessions();
     }
 
-    private static JSONObject extractDistributorInfo(final JSONObject info) {
+    /**
+     * Parse the sessions and the page count of a schedule page in one pass.
+     *
+     * @param json The JSON string from Afisha API
+     * @param url The URL to the sessions page
+     * @param first The first day the page may list
+     * @param last The last day the page may list
+     * @param films The film details remembered by the current crawl
+     * @return The sessions, empty if any session falls outside the days, and the page count
+     */
+    public static ParsedSchedulePage parseSchedulePage(
+        final String json,
+        final String url,
+        final LocalDate first,
+        final LocalDate last,
+        final FilmMetadataCache films
+    ) {
+        if (json == null || json.isEmpty()) {
+            return new ParsedSchedulePage(List.of(), 0);
+        }
         try {
-            return info.getJSONObject("DistributorInfo");
-        } catch (final JSONException ignored) {
-            return null;
+            return parseSchedulePage(new StringReader(json), url, first, last, films);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private static List<Session> createSessionsForPlace(
-        final JSONArray sessions,
-        final JSONObject info,
-        final JSONObject distributorInfo,
-        final List<String> genres,
-        final JSONObject place,
+    /**
+     * Parse the sessions and the page count of a schedule page straight
+     * from the response stream, without holding the response or a tree of
+     * it in memory.
+     *
+     * @param body The UTF-8 response body
+     * @param url The URL to the sessions page
+     * @param first The first day the page may list
+     * @param last The last day the page may list
+     * @param films The film details remembered by the current crawl
+     * @return The sessions, empty if any session falls outside the days, and the page count
+     * @throws IOException If the stream cannot be read
+     */
+    public static ParsedSchedulePage parseSchedulePage(
+        final InputStream body,
         final String url,
-        final LocalDate expectedDate
-    ) {
-        final List<Session> result = new ArrayList<>();
-        for (int j = 0; j < sessions.length(); j++) {
-            final JSONObject session = sessions.getJSONObject(j);
-            final Session created = createSession(session, info, distributorInfo, genres, place, url);
-            if (!created.dateTime().toLocalDate().equals(expectedDate)
-                && created.dateTime().toLocalTime().getHour() > NEXT_DAY_HOUR
-            ) {
-                return Collections.emptyList();
-            }
-            result.add(created);
+        final LocalDate first,
+        final LocalDate last,
+        final FilmMetadataCache films
+    ) throws IOException {
+        return parseSchedulePage(new InputStreamReader(body, StandardCharsets.UTF_8), url, first, last, films);
+    }
+
+    private static ParsedSchedulePage parseSchedulePage(
+        final Reader body,
+        final String url,
+        final LocalDate first,
+        final LocalDate last,
+        final FilmMetadataCache films
+    ) throws IOException {
+        final ScheduleJsonReader reader = new ScheduleJsonReader(body, url, first, last, films.strings());
+        final ParsedSchedulePage page = reader.read(films);
+        if (reader.discarded() && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Discarded sessions from redirected page: {}", url);
         }
-        return result;
+        return page;
     }
 
-    private static Session createSession(
-        final JSONObject session,
-        final JSONObject info,
-        final JSONObject distributorInfo,
-        final List<String> genres,
-        final JSONObject place,
-        final String url
+    /**
+     * Splits the sessions of a range by the day whose schedule lists them.
+     * A session in the small hours belongs to the day before, unless that
+     * day lies outside the range.
+     *
+     * @param sessions The sessions parsed for the range
+     * @param first The first day of the range
+     * @param last The last day of the range
+     * @return The sessions of each day that has any, in order of the days
+     */
+    public static Map<LocalDate, List<Session>> byScheduleDate(
+        final List<Session> sessions, final LocalDate first, final LocalDate last
     ) {
-        final String price = session.get("MinPriceFormatted").toString();
-        return new Session(
-            LocalDateTime.parse(session.get("DateTime").toString()),
-            info.get("Name").toString(),
-            distributorInfo == null ? "" : distributorInfo.get("Text").toString(),
-            info.get("Verdict").toString(),
-            genres,
-            place.getString("Name"),
-            place.get("Address").toString(),
-            "null".equals(price) ? -1 : Integer.parseInt(price),
-            url,
-            "russiansubtitlessession".equals(session.get("SubtitlesFormats").toString()),
-            ""
+        return sessions.stream().collect(
+            Collectors.groupingBy(session -> scheduleDate(session, first, last), TreeMap::new, Collectors.toList())
         );
     }
+
+    private static LocalDate scheduleDate(final Session session, final LocalDate first, final LocalDate last) {
+        final LocalDate date = session.dateTime().toLocalDate();
+        final LocalDate before = date.minusDays(1);
+        return session.dateTime().getHour() <= NEXT_DAY_HOUR && !before.isBefore(first) && !before.isAfter(last)
+            ? before : date;
+    }
+
+    /**
+     * Reads the total number of schedule pages from the pagination block of
+     * an Afisha API response, if the response carries one.
+     *
+     * @param json The JSON string from Afisha API
+     * @return The total number of pages, or 0 if the response does not say
+     */
+    public static int parsePageCount(final String json) {
+        if (json == null || json.isEmpty()) {
+            return 0;
+        }
+        try {
+            return new ScheduleJsonReader(new StringReader(json)).read(new FilmMetadataCache()).totalPages();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package parser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canonical copies of the strings that repeat across the sessions of a
+ * snapshot: film and cinema names, addresses, verdicts and genres. A string
+ * read again is replaced by the copy read first, so the snapshot holds one
+ * copy of each instead of one per session.
+ *
+ * <p>A pool lives as long as one crawl or one read of the cache and holds at
+ * most a fixed number of strings; once full, new strings are passed through
+ * as they are. It counts the heap the copies it dropped would have taken.
+ * Safe to use from crawl worker threads.
+ */
+public final class StringPool {
+
+    /** Number of strings a pool holds by default. */
+    public static final int DEFAULT_CAPACITY = 8_192;
+
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int ALIGNMENT = 8;
+    private static final int LATIN1_MAX = 0xFF;
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final AtomicLong saved = new AtomicLong();
+
+    /** Creates a pool of the default capacity. */
+    public StringPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity The number of strings the pool holds at most
+     */
+    public StringPool(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the canonical copy of a string.
+     *
+     * @param value The string, may be null
+     * @return The copy read first, or the string itself if it is new or the pool is full
+     */
+    @SuppressWarnings({"PMD.CompareObjectsWithEquals", "PMD.UseEqualsToCompareStrings"})
+    public String canonical(final String value) {
+        if (value == null) {
+            return null;
+        }
+        String known = this.strings.get(value);
+        if (known == null && this.strings.size() < this.capacity) {
+            known = this.strings.putIfAbsent(value, value);
+        }
+        if (known == null) {
+            return value;
+        }
+        // The canonical copy passed in again saves nothing
+        if (known != value) {
+            this.saved.addAndGet(heapSize(value));
+        }
+        return known;
+    }
+
+    /**
+     * Returns the canonical copies of a list of strings.
+     *
+     * @param values The strings
+     * @return An unmodifiable list of their canonical copies
+     */
+    public List<String> canonical(final List<String> values) {
+        return values.stream().map(this::canonical).toList();
+    }
+
+    /**
+     * Tells how much heap the dropped copies would have taken.
+     *
+     * @return The estimated number of bytes
+     */
+    public long savedBytes() {
+        return this.saved.get();
+    }
+
+    /**
+     * Tells how many strings the pool holds.
+     *
+     * @return The number of strings
+     */
+    public int size() {
+        return this.strings.size();
+    }
+
+    /**
+     * Estimates the heap a string takes with compressed oops and compact
+     * strings: the object itself and its byte array, one byte per char if
+     * every char is Latin-1 and two otherwise.
+     *
+     * @param value The string
+     * @return The estimated number of bytes
+     */
+    static long heapSize(final String value) {
+        final boolean latin1 = value.chars().allMatch(chr -> chr <= LATIN1_MAX);
+        final long array = ARRAY_HEADER_BYTES + (long) value.length() * (latin1 ? 1 : 2);
+        return STRING_BYTES + (array + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+}
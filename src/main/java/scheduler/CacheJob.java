@@ -1,8 +1,18 @@
 package scheduler;
 
 import bots.services.SessionCacheManager;
+import crawler.CrawlBudget;
+import crawler.CrawlCheckpoint;
+import crawler.CrawlUnit;
 import filters.DateInterval;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import parser.City;
@@ -10,6 +20,17 @@ import parser.City;
 /**
  * Job that caches movie sessions for all cities for the next 3 weeks.
  * Designed to run as a scheduled background job via JobRunr.
+ *
+ * <p>The units of every city are planned first and then fetched together
+ * within a {@link CrawlBudget}, so the run ends before its deadline and
+ * request limit; when the budget is short, the far-future dates of the
+ * quieter cities are left out first.
+ *
+ * <p>Progress is checkpointed per run, identified by the first date of the
+ * interval. If the process stops mid-run, the next run of the same day skips
+ * the cities that were done and fetches only the units that were left. A
+ * city is done only once every one of its units was fetched, so units left
+ * out by the budget or whose fetch failed are retried by the next run.
  */
 public final class CacheJob {
 
@@ -17,6 +38,7 @@ public final class CacheJob {
 
     private final SessionCacheManager cacheManager;
     private final ThreeWeekInterval intervalFactory;
+    private final Supplier<CrawlBudget> budgets;
 
     /**
      * Creates a cache job with the given cache manager.
@@ -28,7 +50,8 @@ public final class CacheJob {
     }
 
     /**
-     * Creates a cache job with the given cache manager and interval factory.
+     * Creates a cache job with the given cache manager and interval factory
+     * that runs until every unit is fetched.
      *
      * @param cacheManager The session cache manager to use for caching
      * @param intervalFactory The factory for creating the date interval
@@ -36,36 +59,110 @@ public final class CacheJob {
     public CacheJob(
         final SessionCacheManager cacheManager,
         final ThreeWeekInterval intervalFactory
+    ) {
+        this(cacheManager, intervalFactory, CrawlBudget::unlimited);
+    }
+
+    /**
+     * Creates a cache job with the given cache manager, interval factory and budget.
+     *
+     * @param cacheManager The session cache manager to use for caching
+     * @param intervalFactory The factory for creating the date interval
+     * @param budgets Creates the budget of each run when the run starts
+     */
+    public CacheJob(
+        final SessionCacheManager cacheManager,
+        final ThreeWeekInterval intervalFactory,
+        final Supplier<CrawlBudget> budgets
     ) {
         this.cacheManager = cacheManager;
         this.intervalFactory = intervalFactory;
+        this.budgets = budgets;
     }
 
     /**
      * Caches sessions for all cities for the next 3 weeks.
      * This method is called by JobRunr at the scheduled time.
      */
-    @SuppressWarnings("PMD.AvoidCatchingGenericException")
     public void cacheAllCities() {
         LOGGER.info("Starting scheduled cache job for all cities");
         final DateInterval interval = this.intervalFactory.create();
         LOGGER.info("Caching sessions for interval: {}", interval);
+        final CrawlCheckpoint checkpoint = this.cacheManager.openCheckpoint(interval.start().toString());
 
+        boolean allCached = true;
+        final Map<City, List<CrawlUnit>> plans = new EnumMap<>(City.class);
         for (final City city : City.values()) {
-            try {
-                LOGGER.info("Caching sessions for city: {}", city);
-                this.cacheManager.ensureCached(interval, city);
-                LOGGER.info("Successfully cached sessions for city: {}", city);
-            } catch (final IOException e) {
-                if (LOGGER.isErrorEnabled()) {
-                    LOGGER.error("Failed to cache sessions for city {}: {}", city, e.getMessage());
-                }
-            } catch (final Exception e) {
-                if (LOGGER.isErrorEnabled()) {
-                    LOGGER.error("Unexpected error caching sessions for city {}: {}", city, e.getMessage());
-                }
+            if (checkpoint.isCityCompleted(city)) {
+                LOGGER.info("Skipping city already cached by this run: {}", city);
+                continue;
+            }
+            final Optional<List<CrawlUnit>> plan = this.planCity(interval, city, checkpoint);
+            if (plan.isPresent()) {
+                plans.put(city, plan.get());
+            } else {
+                allCached = false;
+            }
+        }
+        final Set<City> unfinished = this.crawl(plans, checkpoint);
+        for (final City city : plans.keySet()) {
+            if (unfinished.contains(city)) {
+                allCached = false;
+            } else {
+                checkpoint.markCityCompleted(city);
             }
         }
+        if (allCached) {
+            checkpoint.clear();
+        }
         LOGGER.info("Completed scheduled cache job for all cities");
     }
+
+    /**
+     * Plans the units of one city.
+     *
+     * @return The units to fetch, or empty if planning failed
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private Optional<List<CrawlUnit>> planCity(
+        final DateInterval interval, final City city, final CrawlCheckpoint checkpoint
+    ) {
+        try {
+            LOGGER.info("Planning sessions for city: {}", city);
+            return Optional.of(this.cacheManager.planUnits(interval, city, checkpoint));
+        } catch (final IOException e) {
+            if (LOGGER.isErrorEnabled()) {
+                LOGGER.error("Failed to cache sessions for city {}: {}", city, e.getMessage());
+            }
+        } catch (final Exception e) {
+            if (LOGGER.isErrorEnabled()) {
+                LOGGER.error("Unexpected error caching sessions for city {}: {}", city, e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Fetches the planned units of every city within the budget of this run.
+     *
+     * @return The cities with units that were left out, failed or not attempted
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private Set<City> crawl(final Map<City, List<CrawlUnit>> plans, final CrawlCheckpoint checkpoint) {
+        final List<CrawlUnit> units = plans.values().stream().flatMap(List::stream).toList();
+        try {
+            final Set<City> unfinished = EnumSet.noneOf(City.class);
+            this.cacheManager.crawlWithin(units, checkpoint, this.budgets.get())
+                .forEach(unit -> unfinished.add(unit.city()));
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Finished caching sessions for cities: {}", plans.keySet());
+            }
+            return unfinished;
+        } catch (final Exception e) {
+            if (LOGGER.isErrorEnabled()) {
+                LOGGER.error("Unexpected error caching sessions for cities {}: {}", plans.keySet(), e.getMessage());
+            }
+            return plans.isEmpty() ? Set.of() : EnumSet.copyOf(plans.keySet());
+        }
+    }
 }
@@ -2,6 +2,9 @@ package scheduler;
 
 import bots.services.SessionCacheManager;
 import cache.RedisCache;
+import crawler.CrawlBudget;
+import java.time.Clock;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import org.jobrunr.configuration.JobRunr;
 import org.jobrunr.scheduling.BackgroundJob;
@@ -22,6 +25,9 @@ public final class SchedulerInitializer {
     private static final int SCHEDULE_HOUR = 2;
     private static final int SCHEDULE_MINUTE = 55;
     private static final String MOSCOW_TIMEZONE = "Europe/Moscow";
+    private static final LocalTime FINISH_BY = LocalTime.of(7, 0);
+    private static final String REQUEST_BUDGET_PROPERTY = "reelsift.nightlyRequestBudget";
+    private static final int DEFAULT_REQUEST_BUDGET = 20_000;
 
     private final RedisCache redisCache;
     private BackgroundJobServer backgroundJobServer;
@@ -38,14 +44,22 @@ public final class SchedulerInitializer {
 
     /**
      * Starts the scheduler and schedules the daily cache job.
-     * The job runs at specified Moscow time.
+     * The job runs at specified Moscow time and leaves out the least
+     * important units when it would not finish before the morning peak or
+     * would exceed the request budget.
      */
     public void start() {
         LOGGER.info("Starting scheduler");
 
         final CacheJobActivator activator = new CacheJobActivator();
         final SessionCacheManager cacheManager = new SessionCacheManager(this.redisCache);
-        final CacheJob cacheJob = new CacheJob(cacheManager);
+        final ZoneId zone = ZoneId.of(MOSCOW_TIMEZONE);
+        final int requestBudget = Integer.getInteger(REQUEST_BUDGET_PROPERTY, DEFAULT_REQUEST_BUDGET);
+        final CacheJob cacheJob = new CacheJob(
+            cacheManager,
+            new ThreeWeekInterval(),
+            () -> CrawlBudget.until(FINISH_BY, zone, requestBudget, Clock.system(zone))
+        );
         activator.register(CacheJob.class, cacheJob);
 
         this.storageProvider = new InMemoryStorageProvider();
@@ -61,13 +75,13 @@ public final class SchedulerInitializer {
         BackgroundJob.<CacheJob>scheduleRecurrently(
             JOB_ID,
             Cron.daily(SCHEDULE_HOUR, SCHEDULE_MINUTE),
-            ZoneId.of(MOSCOW_TIMEZONE),
+            zone,
             CacheJob::cacheAllCities
         );
 
         LOGGER.info(
-            "Scheduled daily cache job '{}' at {}:{} {}",
-            JOB_ID, SCHEDULE_HOUR, SCHEDULE_MINUTE, MOSCOW_TIMEZONE
+            "Scheduled daily cache job '{}' at {}:{} {}, finishing by {} within {} requests",
+            JOB_ID, SCHEDULE_HOUR, SCHEDULE_MINUTE, MOSCOW_TIMEZONE, FINISH_BY, requestBudget
         );
     }
 
@@ -3,6 +3,16 @@ package bots.services;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
+import cache.ScheduleDiff;
+import crawler.CrawlBudget;
+import crawler.CrawlCheckpoint;
+import crawler.CrawlQueue;
+import crawler.CrawlUnit;
+import crawler.Demand;
+import filters.DateInterval;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,13 +20,27 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 import parser.City;
+import parser.MovieThumbnail;
+import parser.PageDigest;
+import parser.ScheduleSnapshot;
+import parser.ScheduleSource;
 import parser.Session;
+import parser.StubScheduleSource;
 
 /**
  * Unit tests for {@link SessionCacheManager}.
@@ -145,6 +169,187 @@ final class SessionCacheManagerTest {
         );
     }
 
+    @Test
+    void ensureCachedFetchesOnlyUnfinishedUnitsOfSavedPlan() throws IOException {
+        final City city = randomCity();
+        final LocalDate date = randomFutureDate();
+        final List<CrawlUnit> pending = List.of(randomUnit(city, date), randomUnit(city, date.plusDays(1)));
+        final MemoryCheckpoint checkpoint = new MemoryCheckpoint(pending);
+        final RecordingManager manager = new RecordingManager(new FakeRedisCache(), List.of());
+
+        manager.ensureCached(new DateInterval(date, date.plusDays(5)), city, checkpoint);
+
+        assertThat(
+            "manager cant resume only the unfinished units",
+            manager.fetchedUrls(),
+            containsInAnyOrder(pending.get(0).filmUrl(), pending.get(1).filmUrl())
+        );
+        assertThat(
+            "manager cant record finished units in the checkpoint",
+            checkpoint.completed(),
+            containsInAnyOrder(pending.toArray())
+        );
+    }
+
+    @Test
+    void ensureCachedFetchesTruncatedUnitAgainOnResume() throws IOException {
+        final City city = randomCity();
+        final LocalDate date = LocalDate.now().plusDays(1);
+        final MovieThumbnail whole = randomThumbnail();
+        final MovieThumbnail cut = randomThumbnail();
+        final MemoryCheckpoint checkpoint = new MemoryCheckpoint(null);
+        final RecordingManager manager = new RecordingManager(
+            new FakeRedisCache(), new StubScheduleSource(List.of(whole, cut)).truncating(cut.name())
+        );
+
+        manager.ensureCached(new DateInterval(date, date), city, checkpoint);
+        manager.ensureCached(new DateInterval(date, date), city, checkpoint);
+
+        assertThat(
+            "manager cant leave a truncated unit unfinished in the checkpoint",
+            checkpoint.completed().stream().map(CrawlUnit::filmName).toList(),
+            contains(whole.name())
+        );
+        assertThat(
+            "manager cant fetch a truncated unit again on resume",
+            manager.fetchedUrls(),
+            containsInAnyOrder(whole.sessionsLink(), cut.sessionsLink(), cut.sessionsLink())
+        );
+    }
+
+    @Test
+    void ensureCachedSavesPlanBeforeCrawling() throws IOException {
+        final City city = randomCity();
+        final LocalDate date = LocalDate.now().plusDays(1);
+        final List<MovieThumbnail> films = List.of(randomThumbnail(), randomThumbnail(), randomThumbnail());
+        final MemoryCheckpoint checkpoint = new MemoryCheckpoint(null);
+        final RecordingManager manager = new RecordingManager(new FakeRedisCache(), films);
+
+        manager.ensureCached(new DateInterval(date, date), city, checkpoint);
+
+        assertThat(
+            "manager cant save one planned unit per film and date",
+            checkpoint.planned(),
+            hasSize(films.size())
+        );
+        assertThat(
+            "manager cant mark every planned unit as finished",
+            checkpoint.completed(),
+            containsInAnyOrder(checkpoint.planned().toArray())
+        );
+    }
+
+    @Test
+    void ensureCachedReusesListingCachedByEarlierCrawl() throws IOException {
+        final City city = randomCity();
+        final LocalDate date = LocalDate.now().plusDays(1);
+        final FakeRedisCache cache = new FakeRedisCache();
+        final List<MovieThumbnail> films = List.of(randomThumbnail(), randomThumbnail());
+        cache.cacheListing(city, date, date, films);
+        final MemoryCheckpoint checkpoint = new MemoryCheckpoint(null);
+
+        new RecordingManager(cache, List.of()).ensureCached(new DateInterval(date, date), city, checkpoint);
+
+        assertThat(
+            "manager cant plan from a listing cached by an earlier crawl",
+            checkpoint.planned(),
+            hasSize(films.size())
+        );
+    }
+
+    @Test
+    @Timeout(10)
+    void crawlsAskingForSameUnitBothRecordIt() throws Exception {
+        final City city = randomCity();
+        final LocalDate date = LocalDate.now().plusDays(1);
+        final FakeRedisCache cache = new FakeRedisCache();
+        final GatedSource source = new GatedSource(new StubScheduleSource(List.of(randomThumbnail())));
+        final RecordingManager manager = new RecordingManager(cache, new CrawlQueue(1), source);
+        final MemoryCheckpoint search = new MemoryCheckpoint(null);
+        final MemoryCheckpoint nightly = new MemoryCheckpoint(null);
+        final CrawlBudget budget = CrawlBudget.unlimited();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<?> interactive = threads.submit(() -> {
+                manager.ensureCached(new DateInterval(date, date), city, search, Demand.INTERACTIVE);
+                return null;
+            });
+            source.entered.await();
+            final Thread background = Thread.ofVirtual().start(
+                () -> manager.crawlWithin(search.planned(), nightly, budget)
+            );
+            while (background.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            source.release.countDown();
+            interactive.get();
+            background.join();
+        }
+
+        assertThat(
+            "cant fetch a unit two crawls ask for only once",
+            manager.fetchedUrls(),
+            hasSize(1)
+        );
+        assertThat(
+            "cant record the unit in the checkpoint of the crawl that attached to the fetch",
+            nightly.completed(),
+            containsInAnyOrder(search.planned().toArray())
+        );
+        assertThat(
+            "cant record the unit in the checkpoint of the crawl that ran the fetch",
+            search.completed(),
+            containsInAnyOrder(search.planned().toArray())
+        );
+        assertThat("cant charge the budget of the crawl that attached", budget.requestsSent(), is(equalTo(1)));
+        assertThat("cant store a unit fetched for two crawls once", cache.updates(), is(equalTo(1)));
+    }
+
+    @Test
+    void crawlWithinLeavesOutFarFutureUnitsWhenRequestsRunShort() {
+        final City city = randomCity();
+        final LocalDate date = randomFutureDate();
+        final List<CrawlUnit> latest = List.of(randomUnit(city, date.plusDays(2)), randomUnit(city, date.plusDays(2)));
+        final List<CrawlUnit> soonest = List.of(randomUnit(city, date), randomUnit(city, date.plusDays(1)));
+        final List<CrawlUnit> units = new ArrayList<>(latest);
+        units.addAll(soonest);
+        final RecordingManager manager = new RecordingManager(new FakeRedisCache(), List.of());
+
+        final List<CrawlUnit> dropped = manager.crawlWithin(
+            units,
+            new MemoryCheckpoint(null),
+            new CrawlBudget(Instant.now().plusSeconds(3_600), soonest.size(), Clock.systemUTC())
+        );
+
+        assertThat(
+            "manager cant fetch the soonest units that fit the budget",
+            manager.fetchedUrls(),
+            containsInAnyOrder(soonest.get(0).filmUrl(), soonest.get(1).filmUrl())
+        );
+        assertThat(
+            "manager cant report the far-future units it left out",
+            dropped,
+            containsInAnyOrder(latest.toArray())
+        );
+    }
+
+    private static CrawlUnit randomUnit(final City city, final LocalDate date) {
+        return new CrawlUnit(
+            city,
+            UUID.randomUUID().toString(),
+            "https://www.afisha.ru/movie/" + UUID.randomUUID(),
+            UUID.randomUUID().toString(),
+            date
+        );
+    }
+
+    private static MovieThumbnail randomThumbnail() {
+        return new MovieThumbnail(
+            UUID.randomUUID().toString(),
+            "https://www.afisha.ru/movie/" + UUID.randomUUID(),
+            UUID.randomUUID().toString()
+        );
+    }
+
     private static City randomCity() {
         final City[] cities = City.values();
         return cities[new Random().nextInt(cities.length)];
@@ -177,17 +382,141 @@ final class SessionCacheManagerTest {
         );
     }
 
+    /**
+     * Cache manager whose source lists the given films and records every schedule it fetches.
+     */
+    private static final class RecordingManager extends SessionCacheManager {
+        private final StubScheduleSource stub;
+        private final ScheduleSource source;
+
+        RecordingManager(final cache.RedisCache redisCache, final List<MovieThumbnail> films) {
+            this(redisCache, new StubScheduleSource(films));
+        }
+
+        RecordingManager(final cache.RedisCache redisCache, final StubScheduleSource source) {
+            super(redisCache);
+            this.stub = source;
+            this.source = source;
+        }
+
+        RecordingManager(final cache.RedisCache redisCache, final CrawlQueue queue, final GatedSource source) {
+            super(redisCache, queue);
+            this.stub = source.stub;
+            this.source = source;
+        }
+
+        List<String> fetchedUrls() {
+            return this.stub.fetchedLinks();
+        }
+
+        @Override
+        protected ScheduleSource createScheduleSource(final City city) {
+            return this.source;
+        }
+    }
+
+    /**
+     * Source whose schedule fetches wait until the test releases them.
+     */
+    private static final class GatedSource implements ScheduleSource {
+        private final StubScheduleSource stub;
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        GatedSource(final StubScheduleSource stub) {
+            this.stub = stub;
+        }
+
+        @Override
+        public List<MovieThumbnail> listFilms(final String dates) {
+            return this.stub.listFilms(dates);
+        }
+
+        @Override
+        public ScheduleSnapshot fetchSchedule(
+            final MovieThumbnail film, final String date, final Map<Integer, PageDigest> previous
+        ) throws IOException {
+            this.entered.countDown();
+            try {
+                this.release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while gated", e);
+            }
+            return this.stub.fetchSchedule(film, date, previous);
+        }
+    }
+
+    /**
+     * Checkpoint kept in memory. Without a given plan, a saved plan is
+     * resumed with the units not completed yet.
+     */
+    private static final class MemoryCheckpoint implements CrawlCheckpoint {
+        private final List<CrawlUnit> pending;
+        private final Queue<CrawlUnit> planned = new ConcurrentLinkedQueue<>();
+        private final Queue<CrawlUnit> completed = new ConcurrentLinkedQueue<>();
+
+        MemoryCheckpoint(final List<CrawlUnit> pending) {
+            this.pending = pending;
+        }
+
+        List<CrawlUnit> planned() {
+            return List.copyOf(this.planned);
+        }
+
+        List<CrawlUnit> completed() {
+            return List.copyOf(this.completed);
+        }
+
+        @Override
+        public Optional<List<CrawlUnit>> pendingUnits(final City city) {
+            if (this.pending == null && !this.planned.isEmpty()) {
+                return Optional.of(this.planned.stream().filter(unit -> !this.completed.contains(unit)).toList());
+            }
+            return Optional.ofNullable(this.pending);
+        }
+
+        @Override
+        public void savePlan(final City city, final List<CrawlUnit> units) {
+            this.planned.addAll(units);
+        }
+
+        @Override
+        public void markCompleted(final CrawlUnit unit) {
+            this.completed.add(unit);
+        }
+
+        @Override
+        public boolean isCityCompleted(final City city) {
+            return false;
+        }
+
+        @Override
+        public void markCityCompleted(final City city) {
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+
     /**
      * Fake implementation of RedisCache that stores sessions in memory.
      * Extends RedisCache but does not require actual Redis connection.
      */
     private static final class FakeRedisCache extends cache.RedisCache {
         private final Map<City, Map<LocalDate, List<Session>>> storage = new HashMap<>();
+        private final Map<String, List<MovieThumbnail>> listings = new HashMap<>();
+        private final AtomicInteger updates = new AtomicInteger();
 
         FakeRedisCache() {
             super("localhost", 0);
         }
 
+        int updates() {
+            return this.updates.get();
+        }
+
         @Override
         public void cacheSessions(final List<Session> sessions, final City city) {
             if (sessions == null || sessions.isEmpty()) {
@@ -202,6 +531,16 @@ final class SessionCacheManagerTest {
             }
         }
 
+        @Override
+        public ScheduleDiff updateFilm(
+            final City city, final LocalDate date, final String filmName,
+            final List<Session> sessions, final boolean complete
+        ) {
+            this.updates.incrementAndGet();
+            this.cacheSessions(sessions, city);
+            return ScheduleDiff.between(List.of(), sessions, stored -> false);
+        }
+
         @Override
         public List<Session> getCachedSessions(final List<LocalDate> dates, final City city) {
             if (dates == null || dates.isEmpty()) {
@@ -226,6 +565,31 @@ final class SessionCacheManagerTest {
             return new ArrayList<>(cityStorage.keySet());
         }
 
+        @Override
+        public void cacheListing(
+            final City city, final LocalDate start, final LocalDate end, final List<MovieThumbnail> films
+        ) {
+            this.listings.put(city.asPrefix() + start + "_" + end, films);
+        }
+
+        @Override
+        public Optional<List<MovieThumbnail>> getCachedListing(
+            final City city, final LocalDate start, final LocalDate end
+        ) {
+            return Optional.ofNullable(this.listings.get(city.asPrefix() + start + "_" + end));
+        }
+
+        @Override
+        public Map<Integer, PageDigest> getPageDigests(final City city, final LocalDate date, final String filmUrl) {
+            return Map.of();
+        }
+
+        @Override
+        public void savePageDigests(
+            final City city, final LocalDate date, final String filmUrl, final Map<Integer, PageDigest> digests
+        ) {
+        }
+
         @Override
         public void close() {
             this.storage.clear();
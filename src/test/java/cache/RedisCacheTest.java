@@ -403,20 +403,98 @@ public class RedisCacheTest {
         assertEquals(300, result);
     }
 
+    @Test
+    public void updateFilmWritesNothingForUnchangedSchedule() {
+        if (!this.redisAvailable) {
+            fail(REDIS_UNAVAILABLE_MESSAGE);
+        }
+        final LocalDate date = LocalDate.of(2024, 1, 1);
+        this.redisCache.cacheSessions(createSession(), City.MOSCOW);
+
+        final ScheduleDiff diff = this.redisCache.updateFilm(City.MOSCOW, date, "Test Movie", createSession(), true);
+        assertTrue(diff.isEmpty());
+        assertEquals(createSession(), this.redisCache.getCachedSessions(date, City.MOSCOW));
+    }
+
+    @Test
+    public void updateFilmWritesChangedSession() {
+        if (!this.redisAvailable) {
+            fail(REDIS_UNAVAILABLE_MESSAGE);
+        }
+        final LocalDate date = LocalDate.of(2024, 1, 1);
+        this.redisCache.cacheSessions(createSession(), City.MOSCOW);
+        final List<Session> repriced = List.of(createSession(700, "test-link/page2/"));
+
+        final ScheduleDiff diff = this.redisCache.updateFilm(City.MOSCOW, date, "Test Movie", repriced, true);
+        assertEquals(1, diff.changed().size());
+        assertTrue(diff.added().isEmpty() && diff.removed().isEmpty());
+        final List<Session> cached = this.redisCache.getCachedSessions(date, City.MOSCOW);
+        assertEquals(1, cached.size());
+        assertEquals(700, cached.get(0).price());
+        assertEquals("test-link/page2/", cached.get(0).link());
+    }
+
+    @Test
+    public void updateFilmRemovesCancelledSession() {
+        if (!this.redisAvailable) {
+            fail(REDIS_UNAVAILABLE_MESSAGE);
+        }
+        final LocalDate date = LocalDate.of(2024, 1, 1);
+        this.redisCache.cacheSessions(createSession(), City.MOSCOW);
+
+        final ScheduleDiff diff = this.redisCache.updateFilm(City.MOSCOW, date, "Test Movie", List.of(), true);
+        assertEquals(createSession(), diff.removed());
+        assertTrue(this.redisCache.getCachedSessions(date, City.MOSCOW).isEmpty());
+    }
+
+    @Test
+    public void updateFilmKeepsMissingSessionOfPartialSchedule() {
+        if (!this.redisAvailable) {
+            fail(REDIS_UNAVAILABLE_MESSAGE);
+        }
+        final LocalDate date = LocalDate.of(2024, 1, 1);
+        this.redisCache.cacheSessions(createSession(), City.MOSCOW);
+
+        assertTrue(this.redisCache.updateFilm(City.MOSCOW, date, "Test Movie", List.of(), false).isEmpty());
+        assertEquals(1, this.redisCache.getCachedSessions(date, City.MOSCOW).size());
+    }
+
+    @Test
+    public void updateFilmConvertsLegacyEntry() {
+        if (!this.redisAvailable) {
+            fail(REDIS_UNAVAILABLE_MESSAGE);
+        }
+        final LocalDate date = LocalDate.of(2024, 1, 1);
+        final String key = "MOSCOW:" + date + ":Test Movie";
+        try (Jedis jedis = new Jedis(TEST_HOST, TEST_PORT)) {
+            jedis.set(key, Session.toJson(createSession()));
+        }
+
+        final ScheduleDiff diff = this.redisCache.updateFilm(City.MOSCOW, date, "Test Movie", createSession(), true);
+        assertTrue(diff.isEmpty());
+        try (Jedis jedis = new Jedis(TEST_HOST, TEST_PORT)) {
+            assertEquals("hash", jedis.type(key));
+            assertTrue(jedis.hexists(key, SessionRecords.FILM_FIELD));
+        }
+        assertEquals(createSession(), this.redisCache.getCachedSessions(date, City.MOSCOW));
+    }
+
     private static List<Session> createSession() {
-        return List.of(
-            new Session(
-                LocalDateTime.of(2024, 1, 1, 10, 30),
-                "Test Movie",
-                "Description",
-                "Verdict",
-                Arrays.asList("Action", "Drama"),
-                "Test Cinema",
-                "Test Address",
-                500,
-                "test-link",
-                true
-            )
+        return List.of(createSession(500, "test-link"));
+    }
+
+    private static Session createSession(final int price, final String link) {
+        return new Session(
+            LocalDateTime.of(2024, 1, 1, 10, 30),
+            "Test Movie",
+            "Description",
+            "Verdict",
+            Arrays.asList("Action", "Drama"),
+            "Test Cinema",
+            "Test Address",
+            price,
+            link,
+            true
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import crawler.CrawlUnit;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import parser.City;
+
+/**
+ * Unit tests for {@link RedisCrawlCheckpoint}.
+ * Uses an in-memory cache instead of a Redis server.
+ */
+final class RedisCrawlCheckpointTest {
+
+    @Test
+    void hasNoPendingUnitsBeforePlanIsSaved() {
+        final RedisCrawlCheckpoint checkpoint = new RedisCrawlCheckpoint(new FakeRedisCache(), randomRun());
+
+        assertThat(
+            "checkpoint cant report a missing plan",
+            checkpoint.pendingUnits(randomCity()),
+            is(Optional.empty())
+        );
+    }
+
+    @Test
+    void returnsEveryPlannedUnitWhenNothingFinished() {
+        final City city = randomCity();
+        final List<CrawlUnit> units = randomUnits(city, 5);
+        final RedisCrawlCheckpoint checkpoint = new RedisCrawlCheckpoint(new FakeRedisCache(), randomRun());
+        checkpoint.savePlan(city, units);
+
+        assertThat(
+            "checkpoint cant restore the planned units",
+            checkpoint.pendingUnits(city).orElseThrow(),
+            containsInAnyOrder(units.toArray())
+        );
+    }
+
+    @Test
+    void leavesOutFinishedUnits() {
+        final City city = randomCity();
+        final List<CrawlUnit> units = randomUnits(city, 4);
+        final RedisCrawlCheckpoint checkpoint = new RedisCrawlCheckpoint(new FakeRedisCache(), randomRun());
+        checkpoint.savePlan(city, units);
+        checkpoint.markCompleted(units.get(0));
+        checkpoint.markCompleted(units.get(2));
+
+        assertThat(
+            "checkpoint cant leave out finished units",
+            checkpoint.pendingUnits(city).orElseThrow(),
+            containsInAnyOrder(units.get(1), units.get(3))
+        );
+    }
+
+    @Test
+    void keepsProgressAcrossInstancesOfSameRun() {
+        final FakeRedisCache cache = new FakeRedisCache();
+        final String run = randomRun();
+        final City city = randomCity();
+        final List<CrawlUnit> units = randomUnits(city, 3);
+        final RedisCrawlCheckpoint first = new RedisCrawlCheckpoint(cache, run);
+        first.savePlan(city, units);
+        first.markCompleted(units.get(1));
+        first.markCityCompleted(city);
+        final RedisCrawlCheckpoint restarted = new RedisCrawlCheckpoint(cache, run);
+
+        assertThat(
+            "checkpoint cant resume the progress of a restarted run",
+            restarted.pendingUnits(city).orElseThrow(),
+            containsInAnyOrder(units.get(0), units.get(2))
+        );
+        assertThat(
+            "checkpoint cant remember a completed city",
+            restarted.isCityCompleted(city),
+            is(true)
+        );
+    }
+
+    @Test
+    void separatesRuns() {
+        final FakeRedisCache cache = new FakeRedisCache();
+        final City city = randomCity();
+        new RedisCrawlCheckpoint(cache, randomRun()).markCityCompleted(city);
+
+        assertThat(
+            "checkpoint cant keep runs apart",
+            new RedisCrawlCheckpoint(cache, randomRun()).isCityCompleted(city),
+            is(false)
+        );
+    }
+
+    @Test
+    void clearForgetsProgress() {
+        final City city = randomCity();
+        final RedisCrawlCheckpoint checkpoint = new RedisCrawlCheckpoint(new FakeRedisCache(), randomRun());
+        checkpoint.savePlan(city, randomUnits(city, 2));
+        checkpoint.markCityCompleted(city);
+
+        checkpoint.clear();
+
+        assertThat(
+            "checkpoint cant forget the plan after clear",
+            checkpoint.pendingUnits(city),
+            is(equalTo(Optional.empty()))
+        );
+        assertThat(
+            "checkpoint cant forget completed cities after clear",
+            checkpoint.isCityCompleted(city),
+            is(false)
+        );
+    }
+
+    private static String randomRun() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static City randomCity() {
+        final City[] cities = City.values();
+        return cities[new Random().nextInt(cities.length)];
+    }
+
+    private static List<CrawlUnit> randomUnits(final City city, final int count) {
+        final LocalDate date = LocalDate.now().plusDays(new Random().nextInt(20));
+        return IntStream.range(0, count)
+            .mapToObj(i -> new CrawlUnit(
+                city,
+                UUID.randomUUID().toString(),
+                "https://www.afisha.ru/movie/" + UUID.randomUUID() + "/",
+                "https://img.afisha.ru/" + UUID.randomUUID() + ".jpg",
+                date.plusDays(i)
+            ))
+            .toList();
+    }
+
+    /**
+     * Cache that keeps checkpoint sets in memory.
+     */
+    private static final class FakeRedisCache extends RedisCache {
+        private final Map<String, Set<String>> sets = new HashMap<>();
+
+        FakeRedisCache() {
+            super("localhost", 0);
+        }
+
+        @Override
+        public void addCheckpointMembers(final String runId, final String name, final Collection<String> members) {
+            this.sets.computeIfAbsent(runId + ":" + name, k -> new HashSet<>()).addAll(members);
+        }
+
+        @Override
+        public Set<String> getCheckpointMembers(final String runId, final String name) {
+            return new HashSet<>(this.sets.getOrDefault(runId + ":" + name, Set.of()));
+        }
+
+        @Override
+        public void clearCheckpoint(final String runId) {
+            this.sets.keySet().removeIf(key -> key.startsWith(runId + ":"));
+        }
+    }
+}
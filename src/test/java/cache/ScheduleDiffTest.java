@@ -0,0 +1,103 @@
+package cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import parser.Session;
+
+/**
+ * Unit tests for {@link ScheduleDiff}.
+ */
+final class ScheduleDiffTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2026, 6, 1, 19, 30);
+
+    @Test
+    void reportsSessionOnlyInSnapshotAsAdded() {
+        final Session stored = session(EVENING, 500);
+        final Session fresh = session(EVENING.plusHours(2), 500);
+
+        assertThat(
+            "cant report a new session as added",
+            ScheduleDiff.between(List.of(stored), List.of(stored, fresh), session -> true).added(),
+            contains(fresh)
+        );
+    }
+
+    @Test
+    void reportsRepricedSessionAsChanged() {
+        final Session stored = session(EVENING, 500);
+        final Session repriced = repriced(stored, 700);
+        final ScheduleDiff diff = ScheduleDiff.between(List.of(stored), List.of(repriced), session -> true);
+
+        assertThat("cant report a repriced session as changed", diff.changed(), contains(repriced));
+        assertThat("cant tell a repriced session from a new one", diff.added(), is(empty()));
+    }
+
+    @Test
+    void removesCoveredSessionMissingFromSnapshot() {
+        final Session cancelled = session(EVENING, 500);
+
+        assertThat(
+            "cant report a cancelled session as removed",
+            ScheduleDiff.between(List.of(cancelled), List.of(), session -> true).removed(),
+            contains(cancelled)
+        );
+    }
+
+    @Test
+    void keepsSessionsSnapshotDoesNotCover() {
+        assertThat(
+            "cant keep sessions a partial snapshot says nothing about",
+            ScheduleDiff.between(List.of(session(EVENING, 500)), List.of(), session -> false).isEmpty(),
+            is(true)
+        );
+    }
+
+    @Test
+    void findsNothingInIdenticalSnapshot() {
+        final Session stored = session(EVENING, 500);
+
+        assertThat(
+            "cant see that an identical snapshot changed nothing",
+            ScheduleDiff.between(List.of(stored), List.of(repriced(stored, 500)), session -> true).isEmpty(),
+            is(true)
+        );
+    }
+
+    private static Session session(final LocalDateTime start, final int price) {
+        return new Session(
+            start,
+            "Film",
+            "",
+            "",
+            List.of(),
+            UUID.randomUUID().toString(),
+            "",
+            price,
+            "",
+            false
+        );
+    }
+
+    private static Session repriced(final Session session, final int price) {
+        return new Session(
+            session.dateTime(),
+            session.name(),
+            session.description(),
+            session.verdict(),
+            session.genres(),
+            session.cinema(),
+            session.address(),
+            price,
+            session.link(),
+            session.russianSubtitlesSession()
+        );
+    }
+}
@@ -0,0 +1,127 @@
+package cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import parser.Session;
+
+/**
+ * Unit tests for {@link SessionCodec}.
+ */
+final class SessionCodecTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2026, 6, 1, 19, 30);
+
+    @Test
+    void decodesWhatItEncodes() {
+        final List<Session> sessions = List.of(
+            session(EVENING, List.of("Драма", "Комедия"), "https://img/1.jpg", 500, true),
+            session(EVENING.plusHours(2), List.of("Комедия", "Драма"), null, -1, false),
+            session(EVENING.plusSeconds(17).plusNanos(42), List.of("Неизвестный жанр"), "", 0, false)
+        );
+
+        assertThat(
+            "cant decode sessions to what was encoded",
+            SessionCodec.decode(SessionCodec.encode(sessions)),
+            is(equalTo(sessions))
+        );
+    }
+
+    @Test
+    void writesRepeatedStringsOnce() {
+        final String description = "Описание ".repeat(50);
+        final Session first = session(EVENING, List.of("Драма"), "", 500, false);
+        final List<Session> one = List.of(withDescription(first, description));
+        final List<Session> two = List.of(
+            withDescription(first, description),
+            withDescription(session(EVENING.plusHours(1), List.of("Драма"), "", 500, false), description)
+        );
+
+        assertThat(
+            "cant share a string between the sessions of a value",
+            SessionCodec.encode(two).length - SessionCodec.encode(one).length,
+            is(lessThan(description.length()))
+        );
+    }
+
+    @Test
+    void encodesSmallerThanJson() {
+        final Session session = session(EVENING, List.of("Драма", "Триллер"), "https://img/1.jpg", 500, false);
+
+        assertThat(
+            "cant encode a session smaller than its JSON",
+            SessionCodec.encode(List.of(session)).length,
+            is(lessThan(session.toJson().getBytes(StandardCharsets.UTF_8).length / 2))
+        );
+    }
+
+    @Test
+    void tellsJsonFromBinary() {
+        final Session session = session(EVENING, List.of(), "", 500, false);
+
+        assertThat(
+            "cant tell a JSON value from a binary one",
+            List.of(
+                SessionCodec.isEncoded(session.toJson().getBytes(StandardCharsets.UTF_8)),
+                SessionCodec.isEncoded(SessionCodec.encode(List.of(session)))
+            ),
+            contains(false, true)
+        );
+    }
+
+    @Test
+    void rejectsNewerVersion() {
+        final byte[] value = SessionCodec.encode(List.of());
+        value[1] = (byte) (SessionCodec.VERSION + 1);
+
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> SessionCodec.decode(value),
+            "cant reject a value written by a newer version"
+        );
+    }
+
+    private static Session session(
+        final LocalDateTime start, final List<String> genres, final String imageUrl, final int price,
+        final boolean subtitles
+    ) {
+        return new Session(
+            start,
+            "Фильм",
+            "Описание",
+            "Вердикт",
+            genres,
+            UUID.randomUUID().toString(),
+            "Адрес",
+            price,
+            "https://www.afisha.ru/movie/1/",
+            subtitles,
+            imageUrl
+        );
+    }
+
+    private static Session withDescription(final Session session, final String description) {
+        return new Session(
+            session.dateTime(),
+            session.name(),
+            description,
+            session.verdict(),
+            session.genres(),
+            session.cinema(),
+            session.address(),
+            session.price(),
+            session.link(),
+            session.russianSubtitlesSession(),
+            session.imageUrl()
+        );
+    }
+}
@@ -0,0 +1,118 @@
+package cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.Session;
+import parser.SessionDictionary;
+
+/**
+ * Compares the {@link SessionRecords} written to Redis with the JSON that
+ * {@link Session#toJson(List)} wrote before them: the time to encode and
+ * decode one cached day of a film, and the size of what is stored, printed
+ * once per trial.
+ *
+ * <p>Not a unit test; run it with {@code mvn -Pbench test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("PMD.SystemPrintln")
+public class SessionRecordsBenchmark {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2026, 6, 1, 10, 0);
+
+    @Param({"20", "200"})
+    private int count;
+
+    private List<Session> sessions;
+
+    private Map<byte[], byte[]> films;
+
+    private Map<byte[], byte[]> cinemas;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        this.sessions = IntStream.range(0, this.count)
+            .mapToObj(SessionRecordsBenchmark::session)
+            .toList();
+        this.films = SessionRecords.filmFields(this.sessions);
+        this.cinemas = SessionRecords.cinemaFields(this.sessions);
+        this.json = Session.toJson(this.sessions);
+        System.out.printf(
+            "%n%d sessions: records %d bytes, json %d bytes%n",
+            this.count,
+            size(this.films) + size(this.cinemas),
+            this.json.getBytes(StandardCharsets.UTF_8).length
+        );
+    }
+
+    @Benchmark
+    public void encodeRecords(final Blackhole sink) {
+        sink.consume(SessionRecords.filmFields(this.sessions));
+        sink.consume(SessionRecords.cinemaFields(this.sessions));
+    }
+
+    @Benchmark
+    public String encodeJson() {
+        return Session.toJson(this.sessions);
+    }
+
+    @Benchmark
+    public List<Session> decodeRecords() {
+        final SessionDictionary dictionary = new SessionDictionary();
+        return SessionRecords.join(
+            this.films.values(),
+            SessionRecords.cinemas(this.cinemas.values(), dictionary),
+            dictionary
+        );
+    }
+
+    @Benchmark
+    public List<Session> decodeJson() {
+        return Session.fromJsonArray(this.json);
+    }
+
+    private static int size(final Map<byte[], byte[]> fields) {
+        return fields.entrySet().stream()
+            .mapToInt(field -> field.getKey().length + field.getValue().length)
+            .sum();
+    }
+
+    private static Session session(final int idx) {
+        final String cinema = "Кинотеатр " + idx % 12;
+        return new Session(
+            EVENING.plusMinutes(idx * 15L),
+            "Фильм",
+            "Описание фильма ".repeat(20),
+            "Вердикт",
+            List.of("Драма", "Комедия"),
+            cinema,
+            "Адрес " + cinema,
+            300 + idx % 7 * 50,
+            "https://www.afisha.ru/movie/1/schedule/page" + (idx / 20 + 1) + "/",
+            idx % 3 == 0,
+            "https://img/1.jpg"
+        );
+    }
+}
@@ -0,0 +1,151 @@
+package cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import parser.Session;
+import parser.SessionDictionary;
+
+/**
+ * Unit tests for {@link SessionRecords}.
+ */
+final class SessionRecordsTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2026, 6, 1, 19, 30);
+
+    private static final String LINK = "https://www.afisha.ru/movie/1/schedule/";
+
+    @Test
+    void rebuildsSessionsFromRecords() {
+        final List<Session> sessions = List.of(
+            session(EVENING, "Октябрь", 500, LINK),
+            session(EVENING.plusHours(2), "Октябрь", 700, LINK),
+            session(EVENING.plusSeconds(5), "Пионер", -1, LINK + "?page=2")
+        );
+
+        assertThat(
+            "cant rebuild sessions from the film, cinema and row records",
+            SessionRecords.join(
+                SessionRecords.filmFields(sessions).values(),
+                SessionRecords.cinemas(SessionRecords.cinemaFields(sessions).values(), new SessionDictionary()),
+                new SessionDictionary()
+            ),
+            containsInAnyOrder(sessions.toArray())
+        );
+    }
+
+    @Test
+    void keepsPageLinksWhenFilmRecordIsRewritten() {
+        final Session first = session(EVENING, "Октябрь", 500, LINK + "page1/");
+        final Session second = session(EVENING.plusHours(2), "Пионер", 700, LINK + "page2/");
+        final Map<String, byte[]> hash = new HashMap<>();
+        for (final Session session : List.of(first, second)) {
+            SessionRecords.filmFields(List.of(session))
+                .forEach((field, value) -> hash.put(new String(field, UTF_8), value));
+        }
+
+        assertThat(
+            "cant keep the page link of a row after the film record is rewritten",
+            SessionRecords.join(
+                hash.values(),
+                SessionRecords.cinemas(
+                    SessionRecords.cinemaFields(List.of(first, second)).values(),
+                    new SessionDictionary()
+                ),
+                new SessionDictionary()
+            ).stream().map(Session::link).toList(),
+            containsInAnyOrder(first.link(), second.link())
+        );
+    }
+
+    @Test
+    void storesSharedDetailsOnce() {
+        final List<Session> sessions = IntStream.range(0, 50)
+            .mapToObj(idx -> session(EVENING.plusMinutes(idx * 10L), "Кинотеатр " + idx % 5, 500, LINK))
+            .toList();
+        final int whole = sessions.stream().mapToInt(session -> SessionCodec.encode(List.of(session)).length).sum();
+        final int records = size(SessionRecords.filmFields(sessions))
+            + size(SessionRecords.cinemaFields(sessions));
+
+        assertThat("cant store sessions in a fifth of their whole size", records * 5, is(lessThan(whole)));
+    }
+
+    @Test
+    void sharesFilmDetailsBetweenRebuiltSessions() {
+        final List<Session> sessions = List.of(
+            session(EVENING, "Октябрь", 500, LINK),
+            session(EVENING.plusHours(2), "Октябрь", 700, LINK)
+        );
+        final SessionDictionary dictionary = new SessionDictionary();
+        final List<Session> rebuilt = SessionRecords.join(
+            SessionRecords.filmFields(sessions).values(),
+            SessionRecords.cinemas(SessionRecords.cinemaFields(sessions).values(), dictionary),
+            dictionary
+        );
+
+        assertThat(
+            "cant share film details between rebuilt sessions",
+            rebuilt.get(1).film(),
+            is(sameInstance(rebuilt.get(0).film()))
+        );
+    }
+
+    @Test
+    void readsWholeSessionsStoredBefore() {
+        final Session session = session(EVENING, "Октябрь", 500, LINK);
+
+        assertThat(
+            "cant read a session stored whole",
+            SessionRecords.join(List.of(SessionCodec.encode(List.of(session))), Map.of(), new SessionDictionary()),
+            containsInAnyOrder(session)
+        );
+    }
+
+    @Test
+    void dropsRowsOfUnknownCinema() {
+        assertThat(
+            "cant drop a row whose cinema is gone",
+            SessionRecords.join(
+                SessionRecords.filmFields(List.of(session(EVENING, "Октябрь", 500, LINK))).values(),
+                Map.of(),
+                new SessionDictionary()
+            ),
+            is(empty())
+        );
+    }
+
+    private static int size(final Map<byte[], byte[]> fields) {
+        return fields.entrySet().stream()
+            .mapToInt(field -> field.getKey().length + field.getValue().length)
+            .sum();
+    }
+
+    private static Session session(
+        final LocalDateTime start, final String cinema, final int price, final String link
+    ) {
+        return new Session(
+            start,
+            "Film",
+            "Описание фильма ".repeat(20),
+            "Вердикт",
+            List.of("Драма", "Комедия"),
+            cinema,
+            "Адрес " + cinema,
+            price,
+            link,
+            false,
+            "https://img/1.jpg"
+        );
+    }
+}
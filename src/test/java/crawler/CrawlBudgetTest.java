@@ -0,0 +1,134 @@
+package crawler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import parser.City;
+
+/**
+ * Unit tests for {@link CrawlBudget}.
+ */
+final class CrawlBudgetTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T00:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    void fitKeepsSoonestDatesWhenRequestsRunShort() {
+        final LocalDate today = LocalDate.of(2026, 3, 1);
+        final CrawlUnit soon = unit(City.MOSCOW, today);
+        final CrawlUnit later = unit(City.MOSCOW, today.plusDays(3));
+        final CrawlUnit latest = unit(City.MOSCOW, today.plusDays(20));
+
+        assertThat(
+            "budget cant leave out the far-future dates first",
+            new CrawlBudget(NOW.plusSeconds(3_600), 2, CLOCK).fit(List.of(latest, soon, later), 1),
+            contains(soon, later)
+        );
+    }
+
+    @Test
+    void fitKeepsBusierCityOnTheSameDate() {
+        final LocalDate date = LocalDate.of(2026, 3, 2);
+        final CrawlUnit quiet = unit(City.BALASHIHA, date);
+        final CrawlUnit busy = unit(City.MOSCOW, date);
+
+        assertThat(
+            "budget cant leave out the quieter city first",
+            new CrawlBudget(NOW.plusSeconds(3_600), 1, CLOCK).fit(List.of(quiet, busy), 1),
+            contains(busy)
+        );
+    }
+
+    @Test
+    void fitEstimatesTimeFromMeasuredLatency() {
+        final CrawlBudget budget = new CrawlBudget(NOW.plusSeconds(30), 1_000, CLOCK);
+        budget.record(Duration.ofSeconds(10), 1);
+
+        assertThat(
+            "budget cant estimate from measured latency and concurrency",
+            budget.fit(units(10), 2),
+            hasSize(6)
+        );
+    }
+
+    @Test
+    void fitEstimatesRequestsFromMeasuredPagesPerUnit() {
+        final CrawlBudget budget = new CrawlBudget(NOW.plusSeconds(3_600), 13, CLOCK);
+        budget.record(Duration.ofMillis(100), 3);
+
+        assertThat(
+            "budget cant estimate requests from pages fetched per unit",
+            budget.fit(units(10), 4),
+            hasSize(3)
+        );
+    }
+
+    @Test
+    void fitKeepsNothingAfterDeadline() {
+        assertThat(
+            "budget cant leave out every unit once the deadline has passed",
+            new CrawlBudget(NOW.minusSeconds(1), 1_000, CLOCK).fit(units(3), 4),
+            is(empty())
+        );
+    }
+
+    @Test
+    void unlimitedKeepsEveryUnit() {
+        assertThat(
+            "unlimited budget cant keep every unit",
+            CrawlBudget.unlimited().fit(units(50), 1),
+            hasSize(50)
+        );
+    }
+
+    @Test
+    void untilMovesDeadlineToNextDayWhenTimeHasPassed() {
+        final ZoneId zone = ZoneId.of("Europe/Moscow");
+        final CrawlBudget budget = CrawlBudget.until(
+            LocalTime.of(2, 0),
+            zone,
+            Integer.MAX_VALUE,
+            Clock.fixed(Instant.parse("2026-03-01T00:00:00Z"), zone)
+        );
+
+        assertThat(
+            "budget cant end at the next occurrence of the finish time",
+            budget.fit(units(50_000), 1).size(),
+            is(equalTo(41_400))
+        );
+    }
+
+    private static List<CrawlUnit> units(final int count) {
+        final List<CrawlUnit> units = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx++) {
+            units.add(unit(City.MOSCOW, LocalDate.of(2026, 3, 1).plusDays(idx % 21)));
+        }
+        return units;
+    }
+
+    private static CrawlUnit unit(final City city, final LocalDate date) {
+        return new CrawlUnit(
+            city,
+            UUID.randomUUID().toString(),
+            "https://www.afisha.ru/movie/" + UUID.randomUUID(),
+            "",
+            date
+        );
+    }
+}
@@ -0,0 +1,84 @@
+package crawler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import parser.City;
+import parser.MovieThumbnail;
+
+/**
+ * Unit tests for {@link CrawlPlanner}.
+ */
+final class CrawlPlannerTest {
+
+    @Test
+    void planHasOneUnitPerFilmAndDate() throws IOException {
+        final LocalDate start = LocalDate.now().plusDays(1);
+        final List<MovieThumbnail> films = List.of(randomThumbnail(), randomThumbnail());
+
+        assertThat(
+            "cant plan one unit for every film on every date",
+            new CrawlPlanner((from, to) -> films)
+                .plan(City.MOSCOW, List.of(start, start.plusDays(1), start.plusDays(2))),
+            hasSize(6)
+        );
+    }
+
+    @Test
+    void planDropsFilmsListedTwiceUnderDifferentLinks() throws IOException {
+        final LocalDate date = LocalDate.now().plusDays(1);
+        final String film = "https://www.afisha.ru/movie/" + UUID.randomUUID();
+        final List<MovieThumbnail> films = List.of(
+            new MovieThumbnail("Фильм", film + "/16-10-2026/", ""),
+            new MovieThumbnail("Фильм", film + "/#rasp", "")
+        );
+
+        assertThat(
+            "cant drop a film that two listing pages link to",
+            new CrawlPlanner((from, to) -> films).plan(City.SPB, List.of(date)),
+            hasSize(1)
+        );
+    }
+
+    @Test
+    void planListsEachRunOfConsecutiveDatesOnce() throws IOException {
+        final LocalDate start = LocalDate.now().plusDays(1);
+        final List<LocalDate> listed = new ArrayList<>();
+        new CrawlPlanner((from, to) -> {
+            listed.add(from);
+            listed.add(to);
+            return List.of();
+        }).plan(City.MOSCOW, List.of(start.plusDays(4), start, start.plusDays(1), start.plusDays(1)));
+
+        assertThat(
+            "cant list each run of consecutive dates exactly once",
+            listed,
+            contains(start, start.plusDays(1), start.plusDays(4), start.plusDays(4))
+        );
+    }
+
+    @Test
+    void consecutiveRangesReturnsNothingForNoDates() {
+        assertThat(
+            "cant return no ranges for no dates",
+            CrawlPlanner.consecutiveRanges(List.of()).isEmpty(),
+            is(true)
+        );
+    }
+
+    private static MovieThumbnail randomThumbnail() {
+        return new MovieThumbnail(
+            UUID.randomUUID().toString(),
+            "https://www.afisha.ru/movie/" + UUID.randomUUID(),
+            UUID.randomUUID().toString()
+        );
+    }
+}
@@ -0,0 +1,154 @@
+package crawler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import parser.City;
+
+/**
+ * Unit tests for {@link CrawlQueue}.
+ */
+@Timeout(10)
+final class CrawlQueueTest {
+
+    @Test
+    void startsInteractiveUnitsBeforeBackgroundUnits() throws Exception {
+        final CrawlQueue queue = new CrawlQueue(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final UnitFetcher recording = unit -> {
+            order.add(unit.filmName());
+            return FetchedUnit.fromSessions(List.of());
+        };
+        final CompletableFuture<FetchedUnit> blocker = queue.submit(
+            unit("blocker", 0),
+            Demand.BACKGROUND,
+            unit -> {
+                await(release);
+                return FetchedUnit.fromSessions(List.of());
+            }
+        );
+        final CompletableFuture<FetchedUnit> background =
+            queue.submit(unit("background", 0), Demand.BACKGROUND, recording);
+        final CompletableFuture<FetchedUnit> interactive =
+            queue.submit(unit("interactive", 5), Demand.INTERACTIVE, recording);
+        release.countDown();
+        CompletableFuture.allOf(blocker, background, interactive).get();
+
+        assertThat("cant start the unit a user waits for first", order, contains("interactive", "background"));
+    }
+
+    @Test
+    void startsSoonerDatesFirst() throws Exception {
+        final CrawlQueue queue = new CrawlQueue(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final UnitFetcher recording = unit -> {
+            order.add(unit.filmName());
+            return FetchedUnit.fromSessions(List.of());
+        };
+        final CompletableFuture<FetchedUnit> blocker = queue.submit(unit("blocker", 0), Demand.BACKGROUND, unit -> {
+            await(release);
+            return FetchedUnit.fromSessions(List.of());
+        });
+        final CompletableFuture<FetchedUnit> later = queue.submit(unit("later", 7), Demand.BACKGROUND, recording);
+        final CompletableFuture<FetchedUnit> sooner = queue.submit(unit("sooner", 1), Demand.BACKGROUND, recording);
+        release.countDown();
+        CompletableFuture.allOf(blocker, later, sooner).get();
+
+        assertThat("cant start the sooner date first", order, contains("sooner", "later"));
+    }
+
+    @Test
+    void attachesDuplicateRequestsToQueuedUnit() throws Exception {
+        final CrawlQueue queue = new CrawlQueue(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger fetches = new AtomicInteger();
+        final CrawlUnit unit = unit("film", 2);
+        final UnitFetcher counting = fetched -> {
+            fetches.incrementAndGet();
+            return FetchedUnit.fromSessions(List.of());
+        };
+        final CompletableFuture<FetchedUnit> blocker = queue.submit(
+            unit("blocker", 0),
+            Demand.BACKGROUND,
+            fetched -> {
+                await(release);
+                return FetchedUnit.fromSessions(List.of());
+            }
+        );
+        final CompletableFuture<FetchedUnit> first = queue.submit(unit, Demand.BACKGROUND, counting);
+        final CompletableFuture<FetchedUnit> second = queue.submit(unit, Demand.INTERACTIVE, counting);
+        release.countDown();
+        CompletableFuture.allOf(blocker, first, second).get();
+
+        assertThat("cant share one fetch between duplicate requests", second, is(sameInstance(first)));
+        assertThat("cant fetch a duplicated unit only once", fetches.get(), is(equalTo(1)));
+    }
+
+    @Test
+    void fetchesFinishedUnitAgain() throws Exception {
+        final CrawlQueue queue = new CrawlQueue(1);
+        final AtomicInteger fetches = new AtomicInteger();
+        final CrawlUnit unit = unit("film", 2);
+        final UnitFetcher counting = fetched -> {
+            fetches.incrementAndGet();
+            return FetchedUnit.fromSessions(List.of());
+        };
+        queue.submit(unit, Demand.BACKGROUND, counting).get();
+        queue.submit(unit, Demand.BACKGROUND, counting).get();
+
+        assertThat("cant fetch again a unit whose fetch has finished", fetches.get(), is(equalTo(2)));
+    }
+
+    @Test
+    void raisesQueuedBackgroundUnitWhenUserWaitsForIt() throws Exception {
+        final CrawlQueue queue = new CrawlQueue(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final UnitFetcher recording = unit -> {
+            order.add(unit.filmName());
+            return FetchedUnit.fromSessions(List.of());
+        };
+        final CompletableFuture<FetchedUnit> blocker = queue.submit(unit("blocker", 0), Demand.BACKGROUND, unit -> {
+            await(release);
+            return FetchedUnit.fromSessions(List.of());
+        });
+        final CompletableFuture<FetchedUnit> other = queue.submit(unit("other", 1), Demand.BACKGROUND, recording);
+        final CrawlUnit wanted = unit("wanted", 9);
+        final CompletableFuture<FetchedUnit> refresh = queue.submit(wanted, Demand.BACKGROUND, recording);
+        queue.submit(wanted, Demand.INTERACTIVE, recording);
+        release.countDown();
+        CompletableFuture.allOf(blocker, other, refresh).get();
+
+        assertThat("cant raise a queued unit a user starts waiting for", order, contains("wanted", "other"));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CrawlUnit unit(final String name, final int daysAhead) {
+        return new CrawlUnit(
+            City.MOSCOW, name, "https://www.afisha.ru/movie/" + UUID.randomUUID(), "",
+            LocalDate.now().plusDays(daysAhead)
+        );
+    }
+}
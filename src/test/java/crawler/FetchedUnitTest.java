@@ -0,0 +1,85 @@
+package crawler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import parser.PageDigest;
+import parser.ScheduleSnapshot;
+
+/**
+ * Unit tests for {@link FetchedUnit}.
+ */
+final class FetchedUnitTest {
+
+    @Test
+    void handsOverDigestsOfChangedUnit() {
+        assertThat(
+            "cant hand over the digests of a changed unit",
+            FetchedUnit.fromSnapshot(new ScheduleSnapshot(List.of(), digests(2), 1), 2, Duration.ZERO)
+                .digests(),
+            is(aMapWithSize(2))
+        );
+    }
+
+    @Test
+    void keepsNoDigestsOfUnchangedUnit() {
+        assertThat(
+            "cant skip recording digests that did not change",
+            FetchedUnit.fromSnapshot(new ScheduleSnapshot(List.of(), digests(1), 1), 1, Duration.ZERO)
+                .digests(),
+            is(anEmptyMap())
+        );
+    }
+
+    @Test
+    void tellsThatUnitHoldsWholeSchedule() {
+        assertThat(
+            "cant tell a unit whose every page was parsed",
+            FetchedUnit.fromSnapshot(new ScheduleSnapshot(List.of(), digests(2), 0), 2, Duration.ZERO)
+                .complete(),
+            is(true)
+        );
+    }
+
+    @Test
+    void tellsWhetherUnitLostNoPage() {
+        final FetchedUnit unchanged = FetchedUnit.fromSnapshot(
+            new ScheduleSnapshot(List.of(), digests(2), 2), 2, Duration.ZERO
+        );
+        final FetchedUnit truncated = FetchedUnit.fromSnapshot(
+            new ScheduleSnapshot(List.of(), digests(1), 0, true), 1, Duration.ZERO
+        );
+
+        assertThat("cant tell an unchanged unit lost no page", unchanged.whole(), is(true));
+        assertThat("cant tell a truncated unit lost pages", truncated.whole(), is(false));
+    }
+
+    @Test
+    void storesOnceForEveryCrawlReceivingIt() {
+        final FetchedUnit fetched = FetchedUnit.fromSessions(List.of());
+        final AtomicInteger stores = new AtomicInteger();
+
+        fetched.storeOnce(stores::incrementAndGet);
+        fetched.storeOnce(stores::incrementAndGet);
+
+        assertThat("cant store a fetch received by two crawls only once", stores.get(), is(equalTo(1)));
+    }
+
+    private static Map<Integer, PageDigest> digests(final int pages) {
+        final Map<Integer, PageDigest> digests = new HashMap<>();
+        for (int page = 1; page <= pages; page++) {
+            digests.put(page, PageDigest.fromBody(UUID.randomUUID().toString(), pages));
+        }
+        return digests;
+    }
+}
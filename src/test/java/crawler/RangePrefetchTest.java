@@ -0,0 +1,114 @@
+package crawler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import parser.City;
+import parser.MultiDaySchedule;
+import parser.Session;
+
+/**
+ * Unit tests for {@link RangePrefetch}.
+ */
+final class RangePrefetchTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2026, 6, 1);
+
+    @Test
+    void fetchesRunOfConsecutiveDatesOnce() throws IOException {
+        final String film = "https://www.afisha.ru/movie/" + UUID.randomUUID();
+        final AtomicInteger fetches = new AtomicInteger();
+        final RangePrefetch prefetch = new RangePrefetch(
+            List.of(unit(film, FIRST), unit(film, FIRST.plusDays(1)), unit(film, FIRST.plusDays(2))),
+            (unit, first, last) -> {
+                fetches.incrementAndGet();
+                return new MultiDaySchedule(Map.of(), 1, true);
+            }
+        );
+        for (int day = 0; day < 3; day++) {
+            prefetch.take(unit(film, FIRST.plusDays(day)));
+        }
+
+        assertThat("cant fetch a run of dates in one pass", fetches.get(), is(equalTo(1)));
+    }
+
+    @Test
+    void servesEachUnitTheSessionsOfItsDay() throws IOException {
+        final String film = "https://www.afisha.ru/movie/" + UUID.randomUUID();
+        final Session second = session(FIRST.plusDays(1).atTime(19, 0));
+        final RangePrefetch prefetch = new RangePrefetch(
+            List.of(unit(film, FIRST), unit(film, FIRST.plusDays(1))),
+            (unit, first, last) -> new MultiDaySchedule(
+                Map.of(FIRST, List.of(session(FIRST.atTime(19, 0))), FIRST.plusDays(1), List.of(second)), 1, true
+            )
+        );
+
+        assertThat(
+            "cant serve a unit the sessions of its own day",
+            prefetch.take(unit(film, FIRST.plusDays(1))).orElseThrow().sessions(),
+            contains(second)
+        );
+    }
+
+    @Test
+    void leavesUnitAloneOnItsDateToBeFetchedOnItsOwn() throws IOException {
+        final String film = "https://www.afisha.ru/movie/" + UUID.randomUUID();
+        final RangePrefetch prefetch = new RangePrefetch(
+            List.of(unit(film, FIRST), unit(film, FIRST.plusDays(2))),
+            (unit, first, last) -> new MultiDaySchedule(Map.of(), 1, true)
+        );
+
+        assertThat(
+            "cant leave a date without neighbours to the single date fetch",
+            prefetch.take(unit(film, FIRST)).isPresent(),
+            is(false)
+        );
+    }
+
+    @Test
+    void leavesUnitsOfFailedRunToBeFetchedOnTheirOwn() throws IOException {
+        final String film = "https://www.afisha.ru/movie/" + UUID.randomUUID();
+        final RangePrefetch prefetch = new RangePrefetch(
+            List.of(unit(film, FIRST), unit(film, FIRST.plusDays(1))),
+            (unit, first, last) -> {
+                throw new IOException("Range not found");
+            }
+        );
+        prefetch.take(unit(film, FIRST));
+
+        assertThat(
+            "cant fall back to single date fetches when the run fails",
+            prefetch.take(unit(film, FIRST.plusDays(1))).isPresent(),
+            is(false)
+        );
+    }
+
+    private static CrawlUnit unit(final String film, final LocalDate date) {
+        return new CrawlUnit(City.MOSCOW, "Film", film, "", date);
+    }
+
+    private static Session session(final LocalDateTime start) {
+        return new Session(
+            start,
+            "Film",
+            "",
+            "",
+            List.of(),
+            UUID.randomUUID().toString(),
+            "",
+            500,
+            "",
+            false
+        );
+    }
+}
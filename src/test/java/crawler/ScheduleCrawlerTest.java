@@ -0,0 +1,240 @@
+package crawler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import parser.City;
+import parser.PageDigest;
+import parser.ScheduleSnapshot;
+import parser.Session;
+
+/**
+ * Unit tests for {@link ScheduleCrawler}.
+ */
+@Timeout(10)
+final class ScheduleCrawlerTest {
+
+    @Test
+    void crawlFetchesEveryUnit() {
+        final List<CrawlUnit> units = randomUnits(12);
+        final AtomicInteger fetched = new AtomicInteger();
+
+        new ScheduleCrawler(3).crawl(
+            units,
+            unit -> {
+                fetched.incrementAndGet();
+                return FetchedUnit.fromSessions(List.of());
+            },
+            sessions -> { }
+        );
+
+        assertThat(
+            "crawler doesnt fetch every unit",
+            fetched.get(),
+            is(equalTo(units.size()))
+        );
+    }
+
+    @Test
+    void crawlNeverExceedsConcurrencyCap() {
+        final int cap = new Random().nextInt(3) + 2;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        new ScheduleCrawler(cap).crawl(
+            randomUnits(20),
+            unit -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(20);
+                inFlight.decrementAndGet();
+                return FetchedUnit.fromSessions(List.of());
+            },
+            sessions -> { }
+        );
+
+        assertThat(
+            "crawler runs more units at once than allowed",
+            peak.get(),
+            is(lessThanOrEqualTo(cap))
+        );
+    }
+
+    @Test
+    void crawlRunsUnitsConcurrently() {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        new ScheduleCrawler(4).crawl(
+            randomUnits(8),
+            unit -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                sleep(50);
+                inFlight.decrementAndGet();
+                return FetchedUnit.fromSessions(List.of());
+            },
+            sessions -> { }
+        );
+
+        assertThat(
+            "crawler doesnt run units at the same time",
+            peak.get(),
+            is(greaterThan(1))
+        );
+    }
+
+    @Test
+    void crawlReportsFailuresWithoutCancellingOtherUnits() {
+        final List<CrawlUnit> units = randomUnits(6);
+        final CrawlUnit failing = units.get(new Random().nextInt(units.size()));
+
+        final CrawlReport report = new ScheduleCrawler(2).crawl(
+            units,
+            unit -> {
+                if (unit.equals(failing)) {
+                    throw new IOException("simulated failure");
+                }
+                return FetchedUnit.fromSessions(List.of());
+            },
+            sessions -> { }
+        );
+
+        assertThat(
+            "crawler doesnt complete the units that did not fail",
+            report.completedUnits(),
+            is(equalTo(units.size() - 1))
+        );
+        assertThat(
+            "crawler doesnt report the failed film",
+            report.failuresByFilm().get(failing.filmName()),
+            hasSize(1)
+        );
+    }
+
+    @Test
+    void crawlPassesSessionsToSink() {
+        final List<Session> sink = Collections.synchronizedList(new ArrayList<>());
+        final List<CrawlUnit> units = randomUnits(5);
+
+        final CrawlReport report = new ScheduleCrawler(2).crawl(
+            units,
+            unit -> FetchedUnit.fromSessions(List.of(randomSession(unit.date()))),
+            sink::addAll
+        );
+
+        assertThat(
+            "crawler doesnt hand every unit's sessions to the sink",
+            sink,
+            hasSize(units.size())
+        );
+        assertThat(
+            "crawler doesnt count fetched sessions",
+            report.sessions(),
+            is(equalTo(units.size()))
+        );
+    }
+
+    @Test
+    void crawlUnitsPassesOnlySuccessfulUnitsToSink() {
+        final List<CrawlUnit> units = randomUnits(6);
+        final CrawlUnit broken = units.get(new Random().nextInt(units.size()));
+        final List<CrawlUnit> sunk = Collections.synchronizedList(new ArrayList<>());
+
+        new ScheduleCrawler(3).crawlUnits(
+            units,
+            unit -> {
+                if (unit.equals(broken)) {
+                    throw new IOException("Simulated failure");
+                }
+                return FetchedUnit.fromSessions(List.of(randomSession(unit.date())));
+            },
+            (unit, sessions) -> sunk.add(unit)
+        );
+
+        final List<CrawlUnit> expected = new ArrayList<>(units);
+        expected.remove(broken);
+        assertThat(
+            "crawler cant hand each successful unit to the sink",
+            sunk,
+            containsInAnyOrder(expected.toArray())
+        );
+    }
+
+    @Test
+    void crawlCountsUnchangedPagesAndUnits() {
+        final List<CrawlUnit> units = randomUnits(2);
+        final Map<Integer, PageDigest> digests = Map.of(
+            1, PageDigest.fromBody(UUID.randomUUID().toString(), 2),
+            2, PageDigest.fromBody(UUID.randomUUID().toString(), 2)
+        );
+
+        final CrawlReport report = new ScheduleCrawler(2).crawl(
+            units,
+            unit -> FetchedUnit.fromSnapshot(
+                new ScheduleSnapshot(List.of(), digests, unit.equals(units.getFirst()) ? 2 : 1),
+                digests.size(),
+                Duration.ZERO
+            ),
+            sessions -> { }
+        );
+
+        assertThat(
+            "cant count pages and units skipped as unchanged",
+            report.unchangedPages() == 3 && report.unchangedUnits() == 1,
+            is(true)
+        );
+    }
+
+    private static List<CrawlUnit> randomUnits(final int count) {
+        final List<CrawlUnit> units = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            units.add(new CrawlUnit(
+                City.MOSCOW,
+                UUID.randomUUID().toString(),
+                "https://www.afisha.ru/movie/" + UUID.randomUUID(),
+                "",
+                LocalDate.now().plusDays(i)
+            ));
+        }
+        return units;
+    }
+
+    private static Session randomSession(final LocalDate date) {
+        return new Session(
+            date.atTime(18, 0),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            List.of(UUID.randomUUID().toString()),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            new Random().nextInt(1000),
+            UUID.randomUUID().toString(),
+            false
+        );
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
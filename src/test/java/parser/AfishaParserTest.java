@@ -0,0 +1,124 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link AfishaParser}, run against a {@link ReplayServer}.
+ */
+@Timeout(30)
+final class AfishaParserTest {
+
+    private static final String DATE = "01-06-2026";
+
+    @TempDir
+    private Path fixtures;
+
+    @Test
+    void readsEveryPageOfSchedule() throws IOException {
+        final String film = "/movie/" + UUID.randomUUID();
+        this.recordPage(film, 1, 2);
+        this.recordPage(film, 2, 2);
+        try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+            assertThat(
+                "cant read the sessions of every schedule page",
+                parser(server).fetchSchedule(thumbnail(server, film), DATE, Map.of()).sessions(),
+                hasSize(2)
+            );
+        }
+    }
+
+    @Test
+    void failsWhenFirstSchedulePageCannotBeFetched() throws IOException {
+        final String film = "/movie/" + UUID.randomUUID();
+        try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+            final AfishaParser parser = parser(server);
+            assertThrows(
+                IOException.class,
+                () -> parser.fetchSchedule(thumbnail(server, film), DATE, Map.of())
+            );
+        }
+    }
+
+    @Test
+    void failsWhenLaterSchedulePageCannotBeFetched() throws IOException {
+        final String film = "/movie/" + UUID.randomUUID();
+        this.recordPage(film, 1, 3);
+        this.recordPage(film, 2, 3);
+        try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+            final AfishaParser parser = parser(server);
+            assertThrows(
+                IOException.class,
+                () -> parser.fetchSchedule(thumbnail(server, film), DATE, Map.of())
+            );
+        }
+    }
+
+    @Test
+    void findsNoFilmsWhenListingIsNotFound() throws IOException {
+        try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+            assertThat(
+                "cant take a listing that is not found for one without films",
+                parser(server).parseFilmsInDates(UUID.randomUUID().toString()),
+                is(empty())
+            );
+        }
+    }
+
+    @Test
+    void failsWhenLaterListingPageCannotBeFetched() throws IOException {
+        final String dates = UUID.randomUUID().toString();
+        try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+            this.recordListingPage(dates, 1, 3);
+            this.recordListingPage(dates, 2, 3);
+            final AfishaParser parser = parser(server);
+            assertThrows(IOException.class, () -> parser.parseFilmsInDates(dates));
+        }
+    }
+
+    private void recordListingPage(final String dates, final int page, final int pages) {
+        final String listing = "/" + City.MOSCOW.asCode() + "/schedule_cinema/" + dates + "/";
+        new ResponseRecorder(this.fixtures).record(
+            AfishaParser.BASE_LINK + listing + "page" + page + "/",
+            "text/html",
+            "<html><body><div data-test=\"ITEM\">"
+                + "<a data-test=\"LINK ITEM-NAME ITEM-URL\">Фильм " + page + "</a>"
+                + "<a data-test=\"LINK LINK-BUTTON\" href=\"/msk/schedule_cinema_product/" + page + "/\">"
+                + "Билеты</a></div>"
+                + "<a href=\"" + listing + "page" + pages + "/\">" + pages + "</a></body></html>"
+        );
+    }
+
+    private void recordPage(final String film, final int page, final int pages) {
+        new ResponseRecorder(this.fixtures).record(
+            AfishaParser.BASE_LINK + film + "/" + DATE + "/page" + page + "/",
+            "application/json",
+            "{\"ScheduleWidget\": {\"ScheduleList\": {\"Items\": [{"
+                + "\"Sessions\": [{\"DateTime\": \"2026-06-01T18:00:00\","
+                + " \"MinPriceFormatted\": \"400\", \"SubtitlesFormats\": null}],"
+                + " \"Place\": {\"Name\": \"Кинотеатр " + page + "\","
+                + " \"Address\": \"Адрес\"}}], \"Pager\": {\"PagesCount\": " + pages + "}}},"
+                + " \"MovieCard\": {\"Info\": {\"Name\": \"Фильм\", \"Verdict\": \"\","
+                + " \"Genres\": {\"Links\": []}}}}"
+        );
+    }
+
+    private static AfishaParser parser(final ReplayServer server) {
+        return new AfishaParser(City.MOSCOW, server.baseUrl());
+    }
+
+    private static MovieThumbnail thumbnail(final ReplayServer server, final String film) {
+        return new MovieThumbnail("Фильм", server.baseUrl() + film, "");
+    }
+}
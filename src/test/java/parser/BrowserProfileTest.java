@@ -1,6 +1,7 @@
 package parser;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -8,6 +9,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.net.URI;
+import java.net.http.HttpRequest;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
@@ -67,6 +70,28 @@ final class BrowserProfileTest {
     org.mockito.Mockito.verifyNoMoreInteractions(connection);
   }
 
+  @Test
+  void appliesHeadersToHttpRequest() {
+    final BrowserProfile profile = new BrowserProfile(
+        "TestAgent/1.0",
+        "\"Chromium\";v=\"134\"",
+        "\"Windows\""
+    );
+    final HttpRequest request = profile.applyTo(
+        HttpRequest.newBuilder(URI.create("https://www.afisha.ru/"))
+    ).build();
+    assertThat(
+        "cant set the user agent on an http request",
+        request.headers().firstValue("User-Agent").orElse(""),
+        is(equalTo("TestAgent/1.0"))
+    );
+    assertThat(
+        "cant set the client hint on an http request",
+        request.headers().firstValue("Sec-Ch-Ua-Platform").orElse(""),
+        is(equalTo("\"Windows\""))
+    );
+  }
+
   @Test
   void randomReturnsNonNullProfile() {
     assertThat(
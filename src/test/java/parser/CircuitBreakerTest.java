@@ -0,0 +1,116 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for {@link CircuitBreaker}.
+ */
+@Timeout(10)
+final class CircuitBreakerTest {
+
+  @Test
+  void staysClosedBelowMinimumCalls() throws CircuitOpenException {
+    final CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+    for (int idx = 0; idx < 3; idx++) {
+      breaker.acquire();
+      breaker.onFailure();
+    }
+    assertThat(
+        "cant wait for enough calls before opening",
+        breaker.state(),
+        is(equalTo(CircuitBreaker.State.CLOSED))
+    );
+  }
+
+  @Test
+  void opensWhenFailureRateCrossesThreshold() throws CircuitOpenException {
+    final CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+    failCalls(breaker, 4);
+    assertThat(
+        "cant open after most recent calls failed",
+        breaker.state(),
+        is(equalTo(CircuitBreaker.State.OPEN))
+    );
+  }
+
+  @Test
+  void staysClosedWhileMostCallsSucceed() throws CircuitOpenException {
+    final CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+    for (int idx = 0; idx < 12; idx++) {
+      breaker.acquire();
+      if (idx % 4 == 0) {
+        breaker.onFailure();
+      } else {
+        breaker.onSuccess();
+      }
+    }
+    assertThat(
+        "cant stay closed at a low failure rate",
+        breaker.state(),
+        is(equalTo(CircuitBreaker.State.CLOSED))
+    );
+  }
+
+  @Test
+  void refusesRequestsWhileOpen() throws CircuitOpenException {
+    final CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+    failCalls(breaker, 4);
+    assertThrows(CircuitOpenException.class, breaker::acquire);
+  }
+
+  @Test
+  void admitsSingleProbeAfterCoolDown() throws Exception {
+    final CircuitBreaker breaker = breaker(Duration.ofMillis(20));
+    failCalls(breaker, 4);
+    Thread.sleep(40L);
+    breaker.acquire();
+    assertThrows(CircuitOpenException.class, breaker::acquire);
+  }
+
+  @Test
+  void closesAfterSuccessfulProbe() throws Exception {
+    final CircuitBreaker breaker = breaker(Duration.ofMillis(20));
+    failCalls(breaker, 4);
+    Thread.sleep(40L);
+    breaker.acquire();
+    breaker.onSuccess();
+    assertThat(
+        "cant close after the probe succeeded",
+        breaker.state(),
+        is(equalTo(CircuitBreaker.State.CLOSED))
+    );
+  }
+
+  @Test
+  void reopensAfterFailedProbe() throws Exception {
+    final CircuitBreaker breaker = breaker(Duration.ofMillis(20));
+    failCalls(breaker, 4);
+    Thread.sleep(40L);
+    breaker.acquire();
+    breaker.onFailure();
+    assertThat(
+        "cant reopen after the probe failed",
+        breaker.state(),
+        is(equalTo(CircuitBreaker.State.OPEN))
+    );
+  }
+
+  private static CircuitBreaker breaker(final Duration openDuration) {
+    return new CircuitBreaker(CircuitBreaker.Endpoint.SCHEDULE, 8, 4, 0.5, openDuration);
+  }
+
+  private static void failCalls(final CircuitBreaker breaker, final int count)
+      throws CircuitOpenException {
+    for (int idx = 0; idx < count; idx++) {
+      breaker.acquire();
+      breaker.onFailure();
+    }
+  }
+}
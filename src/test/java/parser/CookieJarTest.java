@@ -0,0 +1,273 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for {@link CookieJar}.
+ */
+@Timeout(10)
+final class CookieJarTest {
+
+  @Test
+  void readsCookiesFromSetCookieHeaders() throws IOException {
+    final String session = UUID.randomUUID().toString();
+    final CookieJar jar = new CookieJar(
+        () -> response("session=" + session + "; Path=/; HttpOnly"), Duration.ofMinutes(5)
+    );
+    try {
+      assertThat(
+          "cant read cookie value from the homepage response",
+          jar.cookies(),
+          is(equalTo(Map.of("session", session)))
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void formatsCookieHeader() throws IOException {
+    final CookieJar jar = new CookieJar(
+        () -> response("a=1; Path=/", "b=2; HttpOnly"), Duration.ofMinutes(5)
+    );
+    try {
+      assertThat(
+          "cant format cookies as a Cookie header",
+          List.of(jar.cookieHeader().split("; ")),
+          containsInAnyOrder("a=1", "b=2")
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void loadsCookiesOnceForManyCallers() throws IOException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CookieJar jar = new CookieJar(
+        () -> {
+          loads.incrementAndGet();
+          return response("session=" + UUID.randomUUID());
+        },
+        Duration.ofMinutes(5)
+    );
+    try {
+      for (int idx = 0; idx < 5; idx++) {
+        jar.cookies();
+      }
+      assertThat(
+          "cant share one homepage request between callers",
+          loads.get(),
+          is(1)
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void keepsHomepageWithoutCookiesFresh() throws IOException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CookieJar jar = new CookieJar(
+        () -> {
+          loads.incrementAndGet();
+          return response();
+        },
+        Duration.ofMinutes(5)
+    );
+    try {
+      for (int idx = 0; idx < 5; idx++) {
+        jar.cookies();
+      }
+      assertThat(
+          "cant keep a homepage that sets no cookies until it expires",
+          loads.get(),
+          is(1)
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void refreshesAfterInvalidation() throws IOException, InterruptedException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CookieJar jar = new CookieJar(
+        () -> response("session=" + loads.incrementAndGet()),
+        Duration.ofMinutes(5)
+    );
+    try {
+      jar.cookies();
+      jar.invalidate();
+      while (loads.get() < 2) {
+        Thread.sleep(10L);
+      }
+      assertThat(
+          "cant hand out refreshed cookies after invalidation",
+          jar.cookies().get("session"),
+          is(equalTo("2"))
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void keepsPreviousCookiesWhenRefreshFails() throws IOException, InterruptedException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CookieJar jar = new CookieJar(
+        () -> {
+          if (loads.incrementAndGet() > 1) {
+            throw new IOException("homepage unavailable");
+          }
+          return response("session=first");
+        },
+        Duration.ofMillis(20)
+    );
+    try {
+      jar.cookies();
+      Thread.sleep(50L);
+      assertThat(
+          "cant keep old cookies when the refresh fails",
+          jar.cookies().get("session"),
+          is(equalTo("first"))
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void handsOutCookiesWhileRefreshIsInFlight() throws IOException, InterruptedException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final CookieJar jar = new CookieJar(
+        () -> {
+          if (loads.incrementAndGet() > 1) {
+            entered.countDown();
+            await(release);
+          }
+          return response("session=" + loads.get());
+        },
+        Duration.ofMinutes(5)
+    );
+    try {
+      jar.cookies();
+      jar.invalidate();
+      entered.await();
+      assertThat(
+          "cant hand out the loaded cookies while the homepage is being refreshed",
+          jar.cookies().get("session"),
+          is(equalTo("1"))
+      );
+    } finally {
+      release.countDown();
+      jar.stop();
+    }
+  }
+
+  @Test
+  void leavesFailedRefreshToBackground() throws IOException, InterruptedException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CookieJar jar = new CookieJar(
+        () -> {
+          if (loads.incrementAndGet() > 1) {
+            throw new IOException("homepage unavailable");
+          }
+          return response("session=first");
+        },
+        Duration.ofMillis(20)
+    );
+    try {
+      jar.cookies();
+      while (loads.get() < 2) {
+        Thread.sleep(10L);
+      }
+      Thread.sleep(30L);
+      for (int idx = 0; idx < 5; idx++) {
+        jar.cookies();
+        jar.invalidate();
+      }
+      Thread.sleep(50L);
+      assertThat(
+          "cant wait for the retry of a failed refresh",
+          loads.get(),
+          is(2)
+      );
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void failsWhenNoCookiesCanBeLoaded() {
+    final CookieJar jar = new CookieJar(
+        () -> {
+          throw new IOException("homepage unavailable");
+        },
+        Duration.ofMinutes(5)
+    );
+    try {
+      assertThrows(IOException.class, jar::cookies);
+    } finally {
+      jar.stop();
+    }
+  }
+
+  @Test
+  void expiresWithShortestMaxAge() {
+    final Instant now = Instant.now();
+    assertThat(
+        "cant take the expiry from the shortest lived cookie",
+        response("a=1; Max-Age=600", "b=2; Max-Age=120", "c=3")
+            .cookiesExpiry(now, Duration.ofHours(1)),
+        is(equalTo(now.plusSeconds(120)))
+    );
+  }
+
+  @Test
+  void capsExpiryAtMaximumLifetime() {
+    final Instant now = Instant.now();
+    assertThat(
+        "cant cap a long cookie lifetime",
+        response("a=1; Expires=Wed, 21 Oct 2099 07:28:00 GMT")
+            .cookiesExpiry(now, Duration.ofMinutes(30)),
+        is(equalTo(now.plus(Duration.ofMinutes(30))))
+    );
+  }
+
+  private static void await(final CountDownLatch latch) throws IOException {
+    try {
+      latch.await();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while holding the homepage", e);
+    }
+  }
+
+  private static ScraperResponse response(final String... setCookies) {
+    return new ScraperResponse(
+        "https://www.afisha.ru/",
+        200,
+        HttpHeaders.of(Map.of("Set-Cookie", List.of(setCookies)), (name, value) -> true),
+        ""
+    );
+  }
+}
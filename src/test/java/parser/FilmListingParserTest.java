@@ -0,0 +1,107 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FilmListingParser}.
+ */
+final class FilmListingParserTest {
+
+    private static final String BASE = "https://www.afisha.ru/msk/schedule_cinema/01-06_03-06/page1/";
+
+    @Test
+    void parseFilmsExtractsCinemaProductLinks() {
+        final String name = "Фильм " + UUID.randomUUID();
+        final String html = item(name, "/movie/" + UUID.randomUUID() + "/schedule_cinema_product/")
+            + item("Спектакль", "/performance/123/");
+
+        assertThat(
+            "cant keep only cinema product links",
+            FilmListingParser.parse(html, BASE).films(),
+            hasSize(1)
+        );
+    }
+
+    @Test
+    void parseFilmsReadsFilmName() {
+        final String name = "Фильм " + UUID.randomUUID();
+
+        assertThat(
+            "cant read film name from listing item",
+            FilmListingParser.parse(item(name, "/movie/1/schedule_cinema_product/"), BASE)
+                .films().getFirst().name(),
+            is(equalTo(name))
+        );
+    }
+
+    @Test
+    void parsePageCountReadsHighestPaginationLink() {
+        final String html = "<a href=\"/msk/schedule_cinema/01-06_03-06/page2/\">2</a>"
+            + "<a href=\"/msk/schedule_cinema/01-06_03-06/page7/\">7</a>"
+            + "<a href=\"/msk/schedule_cinema/01-06_03-06/page3/\">3</a>";
+
+        assertThat(
+            "cant read total page count from pagination links",
+            FilmListingParser.parse(html, BASE).totalPages(),
+            is(equalTo(7))
+        );
+    }
+
+    @Test
+    void parsePageCountReturnsZeroWithoutPagination() {
+        assertThat(
+            "cant report unknown page count for page without pagination",
+            FilmListingParser.parse(item("Фильм", "/movie/1/schedule_cinema_product/"), BASE).totalPages(),
+            is(equalTo(0))
+        );
+    }
+
+    @Test
+    void parseReadsLinkFromTicketButtonAttributes() {
+        final String href = "/movie/" + UUID.randomUUID() + "/schedule_cinema_product/";
+        final String html = "<div data-test=\"ITEM\">"
+            + "<a data-test=\"LINK ITEM-NAME ITEM-URL\" href=\"" + href + "\">Фильм</a>"
+            + "<a data-test=\"LINK LINK-BUTTON TICKET-BUTTON\" class=\"btn\" href=\"" + href + "\">Билеты</a>"
+            + "</div>";
+
+        assertThat(
+            "cant read the film link straight from the ticket button",
+            FilmListingParser.parse(html, BASE).films().getFirst().sessionsLink(),
+            is(equalTo("https://www.afisha.ru" + href))
+        );
+    }
+
+    @Test
+    void parseKeepsItemsNestedInLayoutContainers() {
+        final String html = "<main><section>"
+            + item("Первый", "/movie/1/schedule_cinema_product/")
+            + "<div><span>реклама</span></div>"
+            + item("Второй", "/movie/2/schedule_cinema_product/")
+            + "</section><a href=\"/msk/schedule_cinema/01-06_03-06/page4/\">4</a></main>";
+
+        assertThat(
+            "cant read the pagination after nested items",
+            FilmListingParser.parse(html, BASE).totalPages(),
+            is(equalTo(4))
+        );
+        assertThat(
+            "cant read both nested items",
+            FilmListingParser.parse(html, BASE).films(),
+            hasSize(2)
+        );
+    }
+
+    private static String item(final String name, final String href) {
+        return "<div data-test=\"ITEM\">"
+            + "<a data-test=\"LINK ITEM-NAME ITEM-URL\" href=\"" + href + "\">" + name + "</a>"
+            + "<a data-test=\"LINK LINK-BUTTON\" href=\"" + href + "\">Билеты</a>"
+            + "<img data-test=\"IMAGE ITEM-IMAGE\" src=\"https://img.example/" + UUID.randomUUID() + ".jpg\">"
+            + "</div>";
+    }
+}
@@ -0,0 +1,59 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FilmMetadataCache}.
+ */
+final class FilmMetadataCacheTest {
+
+    @Test
+    void extractsMetadataOncePerFilm() {
+        final FilmMetadataCache cache = new FilmMetadataCache();
+        final AtomicInteger extractions = new AtomicInteger();
+        for (int page = 1; page <= 3; page++) {
+            cache.resolve(
+                String.format("https://www.afisha.ru/movie/42/16-10-2026/page%d/", page),
+                () -> {
+                    extractions.incrementAndGet();
+                    return new FilmMetadata("Фильм", "", "", List.of());
+                }
+            );
+        }
+
+        assertThat("cant extract metadata only once for pages of one film", extractions.get(), is(1));
+    }
+
+    @Test
+    void canonicalDropsDatePageAndFragment() {
+        assertThat(
+            "cant reduce a schedule page link to its film",
+            FilmMetadataCache.canonical("https://www.afisha.ru/movie/42/16-10-2026/page2/#rasp"),
+            is(equalTo("https://www.afisha.ru/movie/42"))
+        );
+    }
+
+    @Test
+    void canonicalDropsDateRangeAndPage() {
+        assertThat(
+            "cant reduce a date range page link to its film",
+            FilmMetadataCache.canonical("https://www.afisha.ru/movie/42/16-10_18-10/page3/"),
+            is(equalTo("https://www.afisha.ru/movie/42"))
+        );
+    }
+
+    @Test
+    void canonicalDropsTrailingSlash() {
+        assertThat(
+            "cant drop the trailing slash of a film link",
+            FilmMetadataCache.canonical("https://www.afisha.ru/movie/42/"),
+            is(equalTo("https://www.afisha.ru/movie/42"))
+        );
+    }
+}
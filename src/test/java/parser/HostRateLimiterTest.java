@@ -0,0 +1,170 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for {@link HostRateLimiter}.
+ * Tests AIMD rate adjustment and request pacing.
+ */
+@Timeout(10)
+final class HostRateLimiterTest {
+
+  @Test
+  void increasesRateAdditivelyOnHealthyResponses() {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        2.0, 0.5, 10.0, 0.25, 0.5, 1_000L
+    );
+    limiter.onResponse(200, 10L);
+    limiter.onResponse(200, 10L);
+    assertThat(
+        "cant raise the rate by one step per healthy response",
+        limiter.currentRate(),
+        is(closeTo(2.5, 0.0001))
+    );
+  }
+
+  @Test
+  void cutsRateMultiplicativelyOnTooManyRequests() {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        4.0, 0.5, 10.0, 0.25, 0.5, 1_000L
+    );
+    limiter.onResponse(429, 10L);
+    assertThat(
+        "cant halve the rate after a 429 response",
+        limiter.currentRate(),
+        is(closeTo(2.0, 0.0001))
+    );
+  }
+
+  @Test
+  void cutsRateOnServerError() {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        4.0, 0.5, 10.0, 0.25, 0.5, 1_000L
+    );
+    limiter.onResponse(503, 10L);
+    assertThat(
+        "cant reduce the rate after a 5xx response",
+        limiter.currentRate(),
+        is(lessThan(4.0))
+    );
+  }
+
+  @Test
+  void cutsRateOnSlowResponse() {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        4.0, 0.5, 10.0, 0.25, 0.5, 1_000L
+    );
+    limiter.onResponse(200, 5_000L);
+    assertThat(
+        "cant reduce the rate after a slow response",
+        limiter.currentRate(),
+        is(lessThan(4.0))
+    );
+  }
+
+  @Test
+  void treatsBurstOfFailuresAsOneSignal() {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        4.0, 0.5, 10.0, 0.25, 0.5, 1_000L
+    );
+    limiter.onFailure();
+    limiter.onFailure();
+    limiter.onFailure();
+    assertThat(
+        "cant ignore failures that arrive within the cooldown",
+        limiter.currentRate(),
+        is(closeTo(2.0, 0.0001))
+    );
+  }
+
+  @Test
+  void neverDropsBelowMinimumRate() throws InterruptedException {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        100.0, 40.0, 200.0, 1.0, 0.1, 1_000L
+    );
+    limiter.onResponse(500, 10L);
+    Thread.sleep(50L);
+    limiter.onResponse(500, 10L);
+    assertThat(
+        "cant keep the rate at or above the minimum",
+        limiter.currentRate(),
+        is(closeTo(40.0, 0.0001))
+    );
+  }
+
+  @Test
+  void neverExceedsMaximumRate() {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        9.0, 0.5, 10.0, 0.75, 0.5, 1_000L
+    );
+    for (int idx = 0; idx < 10; idx++) {
+      limiter.onResponse(200, 10L);
+    }
+    assertThat(
+        "cant cap the rate at the maximum",
+        limiter.currentRate(),
+        is(closeTo(10.0, 0.0001))
+    );
+  }
+
+  @Test
+  void spacesAcquiredSlotsByCurrentRate() throws IOException {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        20.0, 20.0, 20.0, 0.0, 1.0, 1_000L
+    );
+    final long start = System.nanoTime();
+    for (int idx = 0; idx < 5; idx++) {
+      limiter.acquire();
+    }
+    final long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+    assertThat(
+        "cant space five slots 50ms apart",
+        elapsedMs,
+        is(greaterThanOrEqualTo(190L))
+    );
+  }
+
+  @Test
+  void grantsFirstSlotImmediately() throws IOException {
+    final HostRateLimiter limiter = new HostRateLimiter(
+        0.5, 0.5, 1.0, 0.1, 0.5, 1_000L
+    );
+    final long start = System.nanoTime();
+    limiter.acquire();
+    assertThat(
+        "cant grant the first slot without waiting",
+        (System.nanoTime() - start) / 1_000_000L,
+        is(lessThan(500L))
+    );
+  }
+
+  @Test
+  void sharesOneLimiterPerHost() {
+    final String host = UUID.randomUUID() + ".example";
+    assertThat(
+        "cant share one limiter between callers of the same host",
+        HostRateLimiter.forHost(host),
+        is(sameInstance(HostRateLimiter.forHost(host)))
+    );
+  }
+
+  @Test
+  void startsSharedLimiterAtPositiveRate() {
+    assertThat(
+        "cant start the shared limiter with a positive rate",
+        HostRateLimiter.forHost(UUID.randomUUID() + ".example").currentRate(),
+        is(greaterThan(0.0))
+    );
+  }
+}
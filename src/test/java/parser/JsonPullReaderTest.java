@@ -0,0 +1,71 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JsonPullReader}.
+ */
+final class JsonPullReaderTest {
+
+    @Test
+    void skipsNestedValuesUpToNextMember() throws IOException {
+        final JsonPullReader reader = new JsonPullReader(new StringReader(
+            "{\"skip\": {\"a\": [1, {\"b\": \"]}\"}, null], \"c\": true}, \"keep\": \"value\"}"
+        ));
+        reader.beginObject();
+        reader.nextName();
+        reader.skipValue();
+
+        assertThat(
+            "cant skip a nested subtree as one value",
+            reader.nextName() + "=" + reader.nextScalar(),
+            is(equalTo("keep=value"))
+        );
+    }
+
+    @Test
+    void decodesEscapesInStrings() throws IOException {
+        final JsonPullReader reader = new JsonPullReader(new StringReader("[\"\\u041a\\\"\\n\\/\"]"));
+        reader.beginArray();
+
+        assertThat("cant decode escaped characters", reader.nextScalar(), is(equalTo("К\"\n/")));
+    }
+
+    @Test
+    void readsScalarsAsOrgJsonPrintsThem() throws IOException {
+        final JsonPullReader reader = new JsonPullReader(new StringReader("[-12.5, false, null]"));
+        reader.beginArray();
+
+        assertThat(
+            "cant read numbers, booleans and nulls as text",
+            reader.nextScalar() + " " + reader.nextScalar() + " " + reader.nextScalar(),
+            is(equalTo("-12.5 false null"))
+        );
+    }
+
+    @Test
+    void readsDocumentLargerThanBuffer() throws IOException {
+        final String name = "x".repeat(20_000);
+        final JsonPullReader reader = new JsonPullReader(new StringReader("{\"" + name + "\": 1}"));
+        reader.beginObject();
+
+        assertThat("cant read a token spanning several buffers", reader.nextName(), is(equalTo(name)));
+    }
+
+    @Test
+    void failsOnMissingColon() throws IOException {
+        final JsonPullReader reader = new JsonPullReader(new StringReader("{\"a\" 1}"));
+        reader.beginObject();
+        reader.nextName();
+
+        assertThrows(JSONException.class, reader::nextScalar, "cant reject a member without a colon");
+    }
+}
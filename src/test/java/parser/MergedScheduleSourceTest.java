@@ -0,0 +1,239 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MergedScheduleSource}.
+ */
+final class MergedScheduleSourceTest {
+
+    private static final String DATE = "01-06-2026";
+
+    @Test
+    void fetchScheduleDropsSessionsSeenByEarlierSource() throws IOException {
+        final MovieThumbnail film = thumbnail(UUID.randomUUID().toString());
+        final Session shared = session(film.name(), 500);
+        final Session sameShowOtherPrice = session(film.name(), 700);
+        final Session only = session(film.name(), 300);
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(
+            new StubScheduleSource(List.of(film), Map.of(film.name(), List.of(shared)), Duration.ZERO),
+            new StubScheduleSource(
+                List.of(film),
+                Map.of(film.name(), List.of(copyAt(sameShowOtherPrice, shared), only)),
+                Duration.ZERO
+            )
+        ));
+
+        assertThat(
+            "merged source cant deduplicate sessions by cinema, start time and film",
+            source.fetchSchedule(film, DATE, Map.of()).sessions(),
+            containsInAnyOrder(shared, only)
+        );
+    }
+
+    @Test
+    void fetchScheduleDropsSessionsSpelledDifferentlyByLaterSource() throws IOException {
+        final MovieThumbnail film = thumbnail(UUID.randomUUID().toString());
+        final Session shared = session(film.name(), 500);
+        final Session respelled = new Session(
+            shared.dateTime(),
+            " " + shared.name().toUpperCase(Locale.ROOT) + " ",
+            shared.description(),
+            shared.verdict(),
+            shared.genres(),
+            shared.cinema().toUpperCase(Locale.ROOT) + " ",
+            shared.address(),
+            700,
+            shared.link(),
+            shared.russianSubtitlesSession()
+        );
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(
+            new StubScheduleSource(List.of(film), Map.of(film.name(), List.of(shared)), Duration.ZERO),
+            new StubScheduleSource(List.of(film), Map.of(film.name(), List.of(respelled)), Duration.ZERO)
+        ));
+
+        assertThat(
+            "merged source cant deduplicate sessions whose cinema and film differ only in case and spaces",
+            source.fetchSchedule(film, DATE, Map.of()).sessions(),
+            contains(shared)
+        );
+    }
+
+    @Test
+    void listFilmsMergesFilmsListedBySeveralSources() throws IOException {
+        final String name = UUID.randomUUID().toString();
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(
+            new StubScheduleSource(List.of(thumbnail(name), thumbnail(UUID.randomUUID().toString()))),
+            new StubScheduleSource(List.of(thumbnail(" " + name.toUpperCase() + " ")))
+        ));
+
+        assertThat(
+            "merged source cant list a film shown by two sources once",
+            source.listFilms("01-06_03-06"),
+            hasSize(2)
+        );
+    }
+
+    @Test
+    void fetchScheduleAsksSourcesAtTheSameTime() throws IOException {
+        final MovieThumbnail film = thumbnail(UUID.randomUUID().toString());
+        final Duration latency = Duration.ofMillis(400);
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(
+            new StubScheduleSource(List.of(film), Map.of(), latency),
+            new StubScheduleSource(List.of(film), Map.of(), latency),
+            new StubScheduleSource(List.of(film), Map.of(), latency)
+        ));
+
+        final long started = System.nanoTime();
+        source.fetchSchedule(film, DATE, Map.of());
+
+        assertThat(
+            "merged source cant fetch sources in parallel",
+            Duration.ofNanos(System.nanoTime() - started),
+            is(lessThan(latency.multipliedBy(2)))
+        );
+    }
+
+    @Test
+    void fetchScheduleKeepsEachSourcesPageDigestsApart() throws IOException {
+        final MovieThumbnail film = thumbnail(UUID.randomUUID().toString());
+        final PageDigest digest = PageDigest.fromBody(UUID.randomUUID().toString(), 1);
+        final DigestSource second = new DigestSource(digest);
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(new DigestSource(digest), second));
+
+        final ScheduleSnapshot first = source.fetchSchedule(film, DATE, Map.of());
+        source.fetchSchedule(film, DATE, first.digests());
+
+        assertThat(
+            "merged source cant keep the page digests of two sources apart",
+            first.digests().keySet(),
+            containsInAnyOrder(1, MergedScheduleSource.PAGES_PER_SOURCE + 1)
+        );
+        assertThat(
+            "merged source cant hand a source back its own page digests",
+            second.previous.keySet(),
+            containsInAnyOrder(1)
+        );
+    }
+
+    @Test
+    void fetchScheduleIsTruncatedWhenSourceFails() throws IOException {
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(
+            new DigestSource(PageDigest.fromBody(UUID.randomUUID().toString(), 1)),
+            new ScheduleSource() {
+                @Override
+                public List<MovieThumbnail> listFilms(final String dates) throws IOException {
+                    throw new IOException("listing is down");
+                }
+
+                @Override
+                public ScheduleSnapshot fetchSchedule(
+                    final MovieThumbnail film, final String date, final Map<Integer, PageDigest> previous
+                ) throws IOException {
+                    throw new IOException("schedule is down");
+                }
+            }
+        ));
+
+        assertThat(
+            "merged source cant tell a schedule with a failed source from a whole one",
+            source.fetchSchedule(thumbnail(UUID.randomUUID().toString()), DATE, Map.of()).complete(),
+            is(false)
+        );
+    }
+
+    @Test
+    void fetchScheduleRangeMergesEachDay() throws IOException {
+        final MovieThumbnail film = thumbnail(UUID.randomUUID().toString());
+        final Session shared = session(film.name(), 500);
+        final Session only = session(film.name(), 300);
+        final MergedScheduleSource source = new MergedScheduleSource(List.of(
+            new StubScheduleSource(List.of(film), Map.of(film.name(), List.of(shared)), Duration.ZERO),
+            new StubScheduleSource(
+                List.of(film), Map.of(film.name(), List.of(copyAt(only, shared), only)), Duration.ZERO
+            )
+        ));
+
+        assertThat(
+            "merged source cant merge the sessions of each day of a range",
+            source.fetchScheduleRange(film, LocalDate.of(2026, 6, 1), LocalDate.of(2026, 6, 2))
+                .sessionsOn(LocalDate.of(2026, 6, 2)),
+            containsInAnyOrder(shared, only)
+        );
+    }
+
+    private static MovieThumbnail thumbnail(final String name) {
+        return new MovieThumbnail(name, "https://example.com/" + UUID.randomUUID(), "");
+    }
+
+    private static Session session(final String film, final int price) {
+        return new Session(
+            LocalDateTime.of(2026, 6, 1, new Random().nextInt(24), 0),
+            film,
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            List.of(),
+            UUID.randomUUID().toString(),
+            UUID.randomUUID().toString(),
+            price,
+            "",
+            false
+        );
+    }
+
+    private static Session copyAt(final Session session, final Session place) {
+        return new Session(
+            place.dateTime(),
+            session.name(),
+            session.description(),
+            session.verdict(),
+            session.genres(),
+            place.cinema(),
+            session.address(),
+            session.price(),
+            session.link(),
+            session.russianSubtitlesSession()
+        );
+    }
+
+    /**
+     * Source that reports one page with a fixed digest and remembers the digests it was given.
+     */
+    private static final class DigestSource implements ScheduleSource {
+        private final PageDigest digest;
+        private Map<Integer, PageDigest> previous = Map.of();
+
+        DigestSource(final PageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public List<MovieThumbnail> listFilms(final String dates) {
+            return List.of();
+        }
+
+        @Override
+        public ScheduleSnapshot fetchSchedule(
+            final MovieThumbnail film, final String date, final Map<Integer, PageDigest> known
+        ) {
+            this.previous = known;
+            return new ScheduleSnapshot(List.of(), Map.of(1, this.digest), 0);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PageDigest}.
+ */
+final class PageDigestTest {
+
+    @Test
+    void equalBodiesHaveMatchingDigests() {
+        final String body = "{\"ScheduleWidget\":\"" + UUID.randomUUID() + "\"}";
+
+        assertThat(
+            "cant match the digest of an identical body",
+            PageDigest.fromBody(body, 3).matches(PageDigest.hash(body)),
+            is(true)
+        );
+    }
+
+    @Test
+    void differentBodiesHaveDifferentHashes() {
+        assertThat(
+            "cant tell two different bodies apart",
+            PageDigest.hash("{\"a\":1}"),
+            is(not(equalTo(PageDigest.hash("{\"a\":2}"))))
+        );
+    }
+
+    @Test
+    void decodeReadsWhatEncodeWrote() {
+        final PageDigest digest = PageDigest.fromBody(UUID.randomUUID().toString(), 7);
+
+        assertThat(
+            "cant read back an encoded digest",
+            PageDigest.decode(digest.encode()),
+            is(equalTo(digest))
+        );
+    }
+
+    @Test
+    void hashIsCompact() {
+        assertThat(
+            "cant keep the hash to 16 characters",
+            PageDigest.hash(UUID.randomUUID().toString()).length(),
+            is(16)
+        );
+    }
+
+    @Test
+    void decodeRejectsValueWithoutPageCount() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> PageDigest.decode("abc"),
+            "cant reject a value that is not a digest"
+        );
+    }
+}
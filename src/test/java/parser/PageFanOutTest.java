@@ -0,0 +1,85 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for {@link PageFanOut}.
+ */
+@Timeout(10)
+final class PageFanOutTest {
+
+  @Test
+  void returnsRemainingPagesInOrder() throws IOException {
+    assertThat(
+        "cant return pages after the first in page order",
+        PageFanOut.requiredPages(5, page -> {
+          sleep(60L - page * 10L);
+          return page;
+        }),
+        contains(2, 3, 4, 5)
+    );
+  }
+
+  @Test
+  void loadsPagesConcurrently() throws IOException {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger peak = new AtomicInteger();
+    PageFanOut.requiredPages(6, page -> {
+      peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      sleep(50L);
+      inFlight.decrementAndGet();
+      return page;
+    });
+    assertThat(
+        "cant load remaining pages at the same time",
+        peak.get(),
+        is(greaterThan(1))
+    );
+  }
+
+  @Test
+  void failsWhenRequiredPageFails() {
+    final IOException error = assertThrows(
+        IOException.class,
+        () -> PageFanOut.requiredPages(4, page -> {
+          if (page == 3) {
+            throw new IOException("page unavailable");
+          }
+          return page;
+        })
+    );
+    assertThat(
+        "cant fail with the error of a required page",
+        error.getMessage(),
+        is(equalTo("page unavailable"))
+    );
+  }
+
+  @Test
+  void capsNumberOfPages() throws IOException {
+    assertThat(
+        "cant cap an implausible page count",
+        PageFanOut.requiredPages(PageFanOut.MAX_PAGES * 10, page -> page),
+        hasSize(PageFanOut.MAX_PAGES - 1)
+    );
+  }
+
+  private static void sleep(final long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link PageFetcher}.
+ * Serves pages from a local HTTP server that honours If-None-Match.
+ */
+@Timeout(10)
+final class PageFetcherTest {
+
+  private static final String ETAG = "\"" + UUID.randomUUID() + "\"";
+
+  @TempDir
+  private Path directory;
+
+  private HttpServer server;
+  private String body;
+  private AtomicInteger fullResponses;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.body = "{\"name\":\"" + UUID.randomUUID() + "\"}";
+    this.fullResponses = new AtomicInteger();
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    this.server.createContext("/", exchange -> {
+      if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        this.fullResponses.incrementAndGet();
+        final byte[] bytes = this.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(bytes);
+        }
+      }
+      exchange.close();
+    });
+    this.server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+  }
+
+  @Test
+  void reusesStoredBodyWhenNotModified() throws IOException {
+    final PageFetcher fetcher = this.fetcher();
+    final String url = this.url();
+    fetcher.fetchPage(url, false, () -> HttpRequest.newBuilder(URI.create(url)));
+    final PageBody second = fetcher.fetchPage(url, false, () -> HttpRequest.newBuilder(URI.create(url)));
+    assertThat(
+        "cant reuse the stored body after a 304 answer",
+        second.body(),
+        is(equalTo(this.body))
+    );
+    assertThat(
+        "cant avoid downloading an unchanged page twice",
+        this.fullResponses.get(),
+        is(1)
+    );
+  }
+
+  @Test
+  void marksRevalidatedPageAsNotModified() throws IOException {
+    final PageFetcher fetcher = this.fetcher();
+    final String url = this.url();
+    final PageBody first = fetcher.fetchPage(url, false, () -> HttpRequest.newBuilder(URI.create(url)));
+    final PageBody second = fetcher.fetchPage(url, false, () -> HttpRequest.newBuilder(URI.create(url)));
+    assertThat(
+        "cant tell a downloaded page from a revalidated one",
+        first.notModified() || !second.notModified(),
+        is(false)
+    );
+  }
+
+  @Test
+  void skipsParsingUnchangedPage() throws IOException {
+    final PageFetcher fetcher = this.fetcher();
+    final PageMemo<String> memo = new PageMemo<>(4);
+    final AtomicInteger parses = new AtomicInteger();
+    final String url = this.url();
+    for (int idx = 0; idx < 3; idx++) {
+      final PageBody page = fetcher.fetchPage(url, false, () -> HttpRequest.newBuilder(URI.create(url)));
+      memo.resolve(page, () -> {
+        parses.incrementAndGet();
+        return page.body();
+      });
+    }
+    assertThat(
+        "cant skip parsing a page that was not modified",
+        parses.get(),
+        is(1)
+    );
+  }
+
+  @Test
+  void failsFastWhileCircuitIsOpen() throws CircuitOpenException {
+    final CircuitBreaker breaker = new CircuitBreaker(
+        CircuitBreaker.Endpoint.SCHEDULE, 2, 2, 0.5, Duration.ofMinutes(1)
+    );
+    for (int idx = 0; idx < 2; idx++) {
+      breaker.acquire();
+      breaker.onFailure();
+    }
+    final String url = this.url();
+    assertThrows(
+        CircuitOpenException.class,
+        () -> this.fetcher(breaker).fetchPage(url, false, () -> HttpRequest.newBuilder(URI.create(url)))
+    );
+    assertThat(
+        "cant avoid sending requests while the circuit is open",
+        this.fullResponses.get(),
+        is(0)
+    );
+  }
+
+  private PageFetcher fetcher() {
+    return this.fetcher(
+        new CircuitBreaker(CircuitBreaker.Endpoint.SCHEDULE, 10, 5, 0.5, Duration.ofSeconds(1))
+    );
+  }
+
+  private PageFetcher fetcher(final CircuitBreaker breaker) {
+    return new PageFetcher(
+        new Retrier(1_000L, 10L),
+        new HostRateLimiter(100.0, 100.0, 100.0, 0.0, 1.0, 5_000L),
+        breaker,
+        new ResponseStore(this.directory)
+    );
+  }
+
+  private String url() {
+    return "http://localhost:" + this.server.getAddress().getPort() + "/" + UUID.randomUUID();
+  }
+}
@@ -0,0 +1,217 @@
+package parser;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves pages recorded by {@link ResponseRecorder} on localhost, so the
+ * crawler can be measured and its retries exercised without reaching the
+ * live site. Point an {@link AfishaParser} at {@link #baseUrl()} to crawl
+ * the recording.
+ *
+ * <p>Every request waits for the configured latency and may then be
+ * answered with a {@code 429}, a {@code 503} or a redirect instead of the
+ * page, as configured by {@link Faults}. A redirect points back to the same
+ * page and is never redirected again, so a client that follows it gets the
+ * page. The fault of each request is derived from the seed, the path and
+ * how many times the path was requested before, so a run can be repeated
+ * exactly however its requests interleave. Paths without a recording are answered with a
+ * {@code 404}, except the homepage, which is answered with an empty page.
+ */
+public final class ReplayServer implements AutoCloseable {
+
+  private static final String REDIRECT_MARK = "replay-redirected=1";
+  private static final String DEFAULT_CONTENT_TYPE = "text/html; charset=utf-8";
+  private static final int HTTP_OK = 200;
+  private static final int FOUND = 302;
+  private static final int NOT_FOUND = 404;
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final int SERVICE_UNAVAILABLE = 503;
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Path directory;
+  private final Faults faults;
+  private final Map<String, AtomicInteger> requestsByPath = new ConcurrentHashMap<>();
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private ReplayServer(final Path directory, final Faults faults) throws IOException {
+    this.directory = directory;
+    this.faults = faults;
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    this.server.setExecutor(this.executor);
+    this.server.createContext("/", this::handle);
+  }
+
+  /**
+   * Starts a server on a free local port.
+   *
+   * @param directory the fixture directory written by {@link ResponseRecorder}
+   * @param faults the latency and failures to inject
+   * @return the running server
+   * @throws IOException if the server cannot be started
+   */
+  public static ReplayServer start(final Path directory, final Faults faults) throws IOException {
+    final ReplayServer replay = new ReplayServer(directory, faults);
+    replay.server.start();
+    return replay;
+  }
+
+  /**
+   * Returns the URL the recording is served under.
+   *
+   * @return the base URL, without a trailing slash
+   */
+  public String baseUrl() {
+    return "http://localhost:" + this.server.getAddress().getPort();
+  }
+
+  /**
+   * Tells how many requests the server has received, including the ones
+   * answered with an injected failure.
+   *
+   * @return the number of requests
+   */
+  public int requests() {
+    return this.requests.get();
+  }
+
+  @Override
+  public void close() {
+    this.server.stop(0);
+    this.executor.close();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    try (exchange) {
+      this.requests.incrementAndGet();
+      pause(this.faults.latency());
+      final URI uri = exchange.getRequestURI();
+      final boolean redirected = uri.getRawQuery() != null
+          && uri.getRawQuery().contains(REDIRECT_MARK);
+      final String path = ResponseRecorder.pathOf(unmarked(uri));
+      final double roll = this.roll(path);
+      if (roll < this.faults.throttleRate()) {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        exchange.sendResponseHeaders(TOO_MANY_REQUESTS, -1);
+      } else if (roll < this.faults.throttleRate() + this.faults.serverErrorRate()) {
+        exchange.sendResponseHeaders(SERVICE_UNAVAILABLE, -1);
+      } else if (!redirected && roll < this.faults.throttleRate()
+          + this.faults.serverErrorRate() + this.faults.redirectRate()) {
+        exchange.getResponseHeaders()
+            .set("Location", path + (path.contains("?") ? '&' : '?') + REDIRECT_MARK);
+        exchange.sendResponseHeaders(FOUND, -1);
+      } else {
+        this.serve(exchange, path);
+      }
+    }
+  }
+
+  private void serve(final HttpExchange exchange, final String path) throws IOException {
+    final Optional<ResponseRecorder.Fixture> fixture =
+        ResponseRecorder.lookup(this.directory, path);
+    if (fixture.isEmpty() && !"/".equals(path)) {
+      exchange.sendResponseHeaders(NOT_FOUND, -1);
+      return;
+    }
+    final String contentType = fixture.map(ResponseRecorder.Fixture::contentType)
+        .filter(type -> !type.isEmpty())
+        .orElse(DEFAULT_CONTENT_TYPE);
+    final byte[] body = fixture.map(ResponseRecorder.Fixture::body).orElse("")
+        .getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(HTTP_OK, body.length == 0 ? -1 : body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Draws the fault roll of a request from the seed, the path and the
+   * number of earlier requests for the path, so it does not depend on the
+   * order in which requests for different paths arrive.
+   */
+  private double roll(final String path) {
+    final long count = this.requestsByPath
+        .computeIfAbsent(path, key -> new AtomicInteger())
+        .getAndIncrement();
+    return new SplittableRandom(this.faults.seed() ^ ((long) path.hashCode() << 32 | count))
+        .nextDouble();
+  }
+
+  /**
+   * Drops the redirect mark from a request URI, so a redirected request is
+   * served the page of the original one.
+   */
+  private static URI unmarked(final URI uri) {
+    final String query = uri.getRawQuery();
+    if (query == null || !query.contains(REDIRECT_MARK)) {
+      return uri;
+    }
+    final String rest = query.replace("&" + REDIRECT_MARK, "").replace(REDIRECT_MARK, "");
+    return URI.create(uri.getRawPath() + (rest.isEmpty() ? "" : "?" + rest));
+  }
+
+  private static void pause(final Duration latency) throws IOException {
+    if (latency.isZero()) {
+      return;
+    }
+    try {
+      Thread.sleep(latency);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while delaying a replayed response", e);
+    }
+  }
+
+  /**
+   * Latency and failures a {@link ReplayServer} adds to its answers. The
+   * rates are the shares of requests answered with each failure and must
+   * not add up to more than 1.
+   *
+   * @param latency how long every request waits before it is answered
+   * @param throttleRate share of requests answered with {@code 429 Too Many Requests}
+   * @param serverErrorRate share of requests answered with {@code 503 Service Unavailable}
+   * @param redirectRate share of requests redirected back to the same page
+   * @param seed seed the failure of each request is derived from
+   */
+  public record Faults(
+      Duration latency, double throttleRate, double serverErrorRate, double redirectRate, long seed
+  ) {
+
+    /** Constructor. */
+    public Faults {
+      if (throttleRate < 0 || serverErrorRate < 0 || redirectRate < 0
+          || throttleRate + serverErrorRate + redirectRate > 1) {
+        throw new IllegalArgumentException(String.format(
+            "Fault rates must be non-negative and add up to at most 1, got %s, %s and %s",
+            throttleRate, serverErrorRate, redirectRate
+        ));
+      }
+    }
+
+    /**
+     * Returns faults that answer every request at once with its page.
+     *
+     * @return no faults
+     */
+    public static Faults none() {
+      return new Faults(Duration.ZERO, 0, 0, 0, 0);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link ReplayServer} and {@link ResponseRecorder}.
+ */
+@Timeout(10)
+final class ReplayServerTest {
+
+  private static final String DATES = "01-06_03-06";
+
+  @TempDir
+  private Path fixtures;
+
+  @TempDir
+  private Path store;
+
+  @Test
+  void replaysRecordedListingToParser() throws IOException {
+    final String name = "Фильм " + UUID.randomUUID();
+    new ResponseRecorder(this.fixtures).record(
+        "https://www.afisha.ru/msk/schedule_cinema/" + DATES + "/page1/",
+        "text/html; charset=utf-8",
+        listing(name)
+    );
+    try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+      assertThat(
+          "cant parse a listing replayed from a recording",
+          new AfishaParser(City.MOSCOW, server.baseUrl()).parseFilmsInDates(DATES).getFirst().name(),
+          is(equalTo(name))
+      );
+    }
+  }
+
+  @Test
+  void retriesInjectedThrottling() throws IOException {
+    final String body = UUID.randomUUID().toString();
+    new ResponseRecorder(this.fixtures).record("https://www.afisha.ru/page", "", body);
+    try (ReplayServer server = ReplayServer.start(
+        this.fixtures, new ReplayServer.Faults(Duration.ZERO, 1.0, 0, 0, 1L)
+    )) {
+      final String url = server.baseUrl() + "/page";
+      assertThrows(IOException.class, () -> this.fetch(url, true));
+      assertThat(
+          "cant retry a throttled request",
+          server.requests(),
+          is(greaterThan(1))
+      );
+    }
+  }
+
+  @Test
+  void servesPageBehindInjectedRedirect() throws IOException {
+    final String body = UUID.randomUUID().toString();
+    new ResponseRecorder(this.fixtures).record("https://www.afisha.ru/page?date=1", "", body);
+    try (ReplayServer server = ReplayServer.start(
+        this.fixtures, new ReplayServer.Faults(Duration.ZERO, 0, 0, 1.0, 1L)
+    )) {
+      final String url = server.baseUrl() + "/page?date=1";
+      assertThat(
+          "cant serve the page after following a redirect",
+          this.fetch(url, true).body(),
+          is(equalTo(body))
+      );
+      assertThat(
+          "cant redirect a request that does not follow redirects",
+          this.fetch(url, false).redirected(),
+          is(true)
+      );
+    }
+  }
+
+  @Test
+  void recordsFetchedPage() throws IOException {
+    final String body = UUID.randomUUID().toString();
+    new ResponseRecorder(this.fixtures).record("https://www.afisha.ru/source", "application/json", body);
+    final Path recording = this.store.resolve("recording");
+    try (ReplayServer server = ReplayServer.start(this.fixtures, ReplayServer.Faults.none())) {
+      final String url = server.baseUrl() + "/source";
+      new PageFetcher(
+          ScraperHttpClient.shared(),
+          new Retrier(1_000L, 10L),
+          new HostRateLimiter(100.0, 100.0, 100.0, 0.0, 1.0, 5_000L),
+          breaker(),
+          new ResponseStore(this.store),
+          RequestHedger.disabled(),
+          new ResponseRecorder(recording)
+      ).fetchPage(url, true, () -> HttpRequest.newBuilder(URI.create(url)));
+    }
+    assertThat(
+        "cant record a fetched page with its content type",
+        ResponseRecorder.lookup(recording, "/source"),
+        is(equalTo(Optional.of(new ResponseRecorder.Fixture("application/json", body))))
+    );
+  }
+
+  @Test
+  void injectsSameFaultsWhateverOrderRequestsArriveIn() throws IOException, InterruptedException {
+    final ReplayServer.Faults faults = new ReplayServer.Faults(Duration.ZERO, 0, 0.5, 0, 7L);
+    final List<String> paths = new ArrayList<>();
+    for (int idx = 0; idx < 8; idx++) {
+      paths.add("/page" + idx);
+    }
+    final Map<String, List<Integer>> forward = this.statuses(faults, paths);
+    final List<String> reversed = new ArrayList<>(paths);
+    Collections.reverse(reversed);
+    assertThat(
+        "cant inject the same faults into the same requests in another order",
+        this.statuses(faults, reversed),
+        is(equalTo(forward))
+    );
+  }
+
+  @Test
+  void rejectsFaultRatesAboveOne() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ReplayServer.Faults(Duration.ZERO, 0.5, 0.5, 0.1, 1L)
+    );
+  }
+
+  /**
+   * Requests every path twice on a fresh server and returns the statuses
+   * each path was answered with.
+   */
+  private Map<String, List<Integer>> statuses(final ReplayServer.Faults faults, final List<String> paths)
+      throws IOException, InterruptedException {
+    final Map<String, List<Integer>> statuses = new HashMap<>();
+    try (ReplayServer server = ReplayServer.start(this.fixtures, faults);
+        HttpClient client = HttpClient.newHttpClient()) {
+      for (int round = 0; round < 2; round++) {
+        for (final String path : paths) {
+          statuses.computeIfAbsent(path, key -> new ArrayList<>()).add(
+              client.send(
+                  HttpRequest.newBuilder(URI.create(server.baseUrl() + path)).build(),
+                  HttpResponse.BodyHandlers.discarding()
+              ).statusCode()
+          );
+        }
+      }
+    }
+    return statuses;
+  }
+
+  private PageBody fetch(final String url, final boolean follow) throws IOException {
+    return new PageFetcher(
+        new Retrier(1_000L, 10L),
+        new HostRateLimiter(100.0, 100.0, 100.0, 0.0, 1.0, 5_000L),
+        breaker(),
+        new ResponseStore(this.store)
+    ).fetchPage(url, follow, () -> HttpRequest.newBuilder(URI.create(url)));
+  }
+
+  private static CircuitBreaker breaker() {
+    return new CircuitBreaker(CircuitBreaker.Endpoint.SCHEDULE, 10, 5, 0.5, Duration.ofSeconds(1));
+  }
+
+  private static String listing(final String name) {
+    final String href = "/movie/" + UUID.randomUUID() + "/schedule_cinema_product/";
+    return "<div data-test=\"ITEM\">"
+        + "<a data-test=\"LINK ITEM-NAME ITEM-URL\" href=\"" + href + "\">" + name + "</a>"
+        + "<a data-test=\"LINK LINK-BUTTON\" href=\"" + href + "\">Билеты</a>"
+        + "</div>"
+        + "<a href=\"/msk/schedule_cinema/" + DATES + "/page1/\">1</a>";
+  }
+}
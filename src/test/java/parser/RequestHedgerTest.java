@@ -0,0 +1,162 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for {@link RequestHedger}.
+ */
+@Timeout(10)
+final class RequestHedgerTest {
+
+  @Test
+  void doesNotHedgeBeforeEnoughSamples() {
+    final RequestHedger hedger = new RequestHedger(100, 20, 0.95, 0L);
+    hedger.record(10L);
+    assertThat(
+        "cant wait for enough latencies before hedging",
+        hedger.hedgeDelayMs(),
+        is(-1L)
+    );
+  }
+
+  @Test
+  void hedgesAfterObservedPercentile() {
+    final RequestHedger hedger = new RequestHedger(100, 20, 0.95, 0L);
+    for (long latency = 1L; latency <= 100L; latency++) {
+      hedger.record(latency);
+    }
+    assertThat(
+        "cant compute p95 of recorded latencies",
+        hedger.hedgeDelayMs(),
+        is(95L)
+    );
+  }
+
+  @Test
+  void neverHedgesWhenDisabled() {
+    final RequestHedger hedger = RequestHedger.disabled();
+    for (int idx = 0; idx < 10; idx++) {
+      hedger.record(10L);
+    }
+    assertThat(
+        "cant stay off when hedging is disabled",
+        hedger.hedgeDelayMs(),
+        is(-1L)
+    );
+  }
+
+  @Test
+  void tellsWhetherHedgingIsEnabled() {
+    assertThat(
+        "cant tell a disabled hedger from an enabled one",
+        List.of(RequestHedger.disabled().isEnabled(), RequestHedger.p95().isEnabled()),
+        is(equalTo(List.of(false, true)))
+    );
+  }
+
+  @Test
+  void returnsHedgeWhenPrimaryIsSlow() throws IOException {
+    final RequestHedger hedger = trainedHedger();
+    final String fast = UUID.randomUUID().toString();
+    final List<CompletableFuture<String>> attempts = new ArrayList<>();
+    final String result = hedger.call(
+        () -> {
+          final CompletableFuture<String> attempt = attempts.isEmpty()
+              ? new CompletableFuture<>()
+              : CompletableFuture.completedFuture(fast);
+          attempts.add(attempt);
+          return attempt;
+        },
+        fastLimiter()
+    );
+    assertThat("cant return the answer of the hedge", result, is(equalTo(fast)));
+    assertThat(
+        "cant cancel the slow primary request",
+        attempts.getFirst().isCancelled(),
+        is(true)
+    );
+  }
+
+  @Test
+  void doesNotHedgeFastRequest() throws IOException {
+    final RequestHedger hedger = trainedHedger();
+    final List<CompletableFuture<String>> attempts = new ArrayList<>();
+    hedger.call(
+        () -> {
+          final CompletableFuture<String> attempt = CompletableFuture.completedFuture("ok");
+          attempts.add(attempt);
+          return attempt;
+        },
+        fastLimiter()
+    );
+    assertThat("cant avoid hedging a fast request", attempts.size(), is(1));
+  }
+
+  @Test
+  void usesPrimaryWhenHedgeFails() throws IOException {
+    final RequestHedger hedger = trainedHedger();
+    final String slow = UUID.randomUUID().toString();
+    final List<CompletableFuture<String>> attempts = new ArrayList<>();
+    final String result = hedger.call(
+        () -> {
+          final CompletableFuture<String> attempt = attempts.isEmpty()
+              ? CompletableFuture.supplyAsync(
+                  () -> slow, CompletableFuture.delayedExecutor(100L, TimeUnit.MILLISECONDS)
+              )
+              : CompletableFuture.failedFuture(new IOException("hedge failed"));
+          attempts.add(attempt);
+          return attempt;
+        },
+        fastLimiter()
+    );
+    assertThat("cant fall back to the primary answer", result, is(equalTo(slow)));
+  }
+
+  @Test
+  void hedgeWaitsForRateLimiterSlot() throws IOException {
+    final RequestHedger hedger = trainedHedger();
+    final HostRateLimiter limiter = new HostRateLimiter(5.0, 5.0, 5.0, 0.0, 1.0, 5_000L);
+    limiter.acquire();
+    final List<CompletableFuture<String>> attempts = new ArrayList<>();
+    final long start = System.nanoTime();
+    hedger.call(
+        () -> {
+          final CompletableFuture<String> attempt = attempts.isEmpty()
+              ? new CompletableFuture<>()
+              : CompletableFuture.completedFuture("hedge");
+          attempts.add(attempt);
+          return attempt;
+        },
+        limiter
+    );
+    assertThat(
+        "cant charge the hedge against the host budget",
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+        is(greaterThanOrEqualTo(150L))
+    );
+  }
+
+  private static RequestHedger trainedHedger() {
+    final RequestHedger hedger = new RequestHedger(10, 5, 0.95, 0L);
+    for (int idx = 0; idx < 10; idx++) {
+      hedger.record(20L);
+    }
+    return hedger;
+  }
+
+  private static HostRateLimiter fastLimiter() {
+    return new HostRateLimiter(1_000.0, 1_000.0, 1_000.0, 0.0, 1.0, 5_000L);
+  }
+}
@@ -0,0 +1,146 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link ResponseStore}.
+ */
+final class ResponseStoreTest {
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  void returnsStoredBodyForUrl() {
+    final ResponseStore store = new ResponseStore(this.directory);
+    final String url = "https://www.afisha.ru/" + UUID.randomUUID();
+    final String body = "Фильм " + UUID.randomUUID();
+    store.save(url, ResponseStore.StoredResponse.fromHeaders(body, "\"v1\"", null));
+    assertThat(
+        "cant return the stored body for a url",
+        store.lookup(url).orElseThrow().body(),
+        is(equalTo(body))
+    );
+  }
+
+  @Test
+  void skipsResponsesWithoutValidators() {
+    final ResponseStore store = new ResponseStore(this.directory);
+    final String url = "https://www.afisha.ru/" + UUID.randomUUID();
+    store.save(url, ResponseStore.StoredResponse.fromHeaders("body", null, null));
+    assertThat(
+        "cant skip storing a response that cannot be revalidated",
+        store.lookup(url).isPresent(),
+        is(false)
+    );
+  }
+
+  @Test
+  void returnsEmptyForUnknownUrl() {
+    assertThat(
+        "cant return empty for a url that was never stored",
+        new ResponseStore(this.directory).lookup("https://www.afisha.ru/" + UUID.randomUUID()).isPresent(),
+        is(false)
+    );
+  }
+
+  @Test
+  void replacesEarlierEntry() {
+    final ResponseStore store = new ResponseStore(this.directory);
+    final String url = "https://www.afisha.ru/" + UUID.randomUUID();
+    store.save(url, ResponseStore.StoredResponse.fromHeaders("old", "\"v1\"", null));
+    store.save(url, ResponseStore.StoredResponse.fromHeaders("new", "\"v2\"", null));
+    assertThat(
+        "cant replace an earlier entry for the same url",
+        store.lookup(url).orElseThrow().etag(),
+        is(equalTo("\"v2\""))
+    );
+  }
+
+  @Test
+  void evictsEntriesOlderThanMaxAge() throws IOException {
+    final String old = "https://www.afisha.ru/" + UUID.randomUUID();
+    final String fresh = "https://www.afisha.ru/" + UUID.randomUUID();
+    new ResponseStore(this.directory)
+        .save(old, ResponseStore.StoredResponse.fromHeaders("old", "\"v1\"", null));
+    this.age(Duration.ofDays(30));
+    final ResponseStore store = new ResponseStore(this.directory);
+    store.save(fresh, ResponseStore.StoredResponse.fromHeaders("fresh", "\"v1\"", null));
+    assertThat(
+        "cant evict an entry older than the maximum age",
+        store.lookup(old).isPresent(),
+        is(false)
+    );
+  }
+
+  @Test
+  void evictsOldestEntriesOverSizeLimit() throws IOException {
+    final String body = "x".repeat(1_000);
+    final String first = "https://www.afisha.ru/" + UUID.randomUUID();
+    final String second = "https://www.afisha.ru/" + UUID.randomUUID();
+    new ResponseStore(this.directory)
+        .save(first, ResponseStore.StoredResponse.fromHeaders(body, "\"v1\"", null));
+    this.age(Duration.ofHours(2));
+    new ResponseStore(this.directory)
+        .save(second, ResponseStore.StoredResponse.fromHeaders(body, "\"v1\"", null));
+    this.age(Duration.ofHours(1));
+    final ResponseStore store = new ResponseStore(this.directory, Duration.ofDays(1), 2_500L);
+    store.save(
+        "https://www.afisha.ru/" + UUID.randomUUID(),
+        ResponseStore.StoredResponse.fromHeaders(body, "\"v1\"", null)
+    );
+    assertThat(
+        "cant evict the least recently written entry over the size limit",
+        List.of(store.lookup(first).isPresent(), store.lookup(second).isPresent()),
+        contains(false, true)
+    );
+  }
+
+  @Test
+  void buildsIfNoneMatchHeaderFromEtag() {
+    assertThat(
+        "cant build If-None-Match from the stored ETag",
+        ResponseStore.StoredResponse.fromHeaders("body", "\"abc\"", null).conditionalHeaders(),
+        hasEntry("If-None-Match", "\"abc\"")
+    );
+  }
+
+  @Test
+  void buildsIfModifiedSinceHeaderFromLastModified() {
+    final String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+    assertThat(
+        "cant build If-Modified-Since from the stored Last-Modified",
+        ResponseStore.StoredResponse.fromHeaders("body", null, lastModified).conditionalHeaders(),
+        hasEntry("If-Modified-Since", lastModified)
+    );
+  }
+
+  /**
+   * Moves the write time of every stored entry back.
+   */
+  private void age(final Duration by) throws IOException {
+    try (Stream<Path> files = Files.list(this.directory)) {
+      for (final Path file : files.toList()) {
+        Files.setLastModifiedTime(
+            file,
+            FileTime.from(Files.getLastModifiedTime(file).toInstant().minus(by))
+        );
+      }
+    }
+  }
+}
@@ -3,11 +3,15 @@ package parser;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -157,4 +161,100 @@ final class RetrierTest {
         is(true)
     );
   }
+
+  @Test
+  void asyncRetriesAndCompletesAfterTransientFailure() throws Exception {
+    final String expected = UUID.randomUUID().toString();
+    final AtomicInteger counter = new AtomicInteger(0);
+    assertThat(
+        "cant complete async result after transient failure",
+        new Retrier(5000L, 10L).executeAsync(() -> {
+          if (counter.incrementAndGet() < 3) {
+            return CompletableFuture.failedFuture(new IOException("transient failure"));
+          }
+          return CompletableFuture.completedFuture(expected);
+        }).get(),
+        is(equalTo(expected))
+    );
+  }
+
+  @Test
+  void asyncFailsWithLastExceptionAfterBudgetExhausted() {
+    final AtomicInteger counter = new AtomicInteger(0);
+    final ExecutionException failure = assertThrows(
+        ExecutionException.class,
+        () -> new Retrier(100L, 10L).executeAsync(() -> {
+          counter.incrementAndGet();
+          return CompletableFuture.failedFuture(new IOException("persistent failure"));
+        }).get()
+    );
+    assertThat(
+        "cant fail async result with IOException when retry budget is exhausted",
+        failure.getCause(),
+        is(instanceOf(IOException.class))
+    );
+    assertThat(
+        "cant attempt async operation more than once before giving up",
+        counter.get(),
+        is(greaterThanOrEqualTo(2))
+    );
+  }
+
+  @Test
+  void asyncDoesNotRetryNonRetryableException() {
+    final AtomicInteger counter = new AtomicInteger(0);
+    final IOException original = new IOException("not found");
+    final ExecutionException failure = assertThrows(
+        ExecutionException.class,
+        () -> new Retrier(5000L, 10L).executeAsync(() -> {
+          counter.incrementAndGet();
+          return CompletableFuture.failedFuture(new NonRetryableIoException(original));
+        }).get()
+    );
+    assertThat(
+        "cant skip async retry and fail with the unwrapped original",
+        failure.getCause() == original && counter.get() == 1,
+        is(true)
+    );
+  }
+
+  @Test
+  void asyncStopsRetryingWhenCancelled() throws InterruptedException {
+    final AtomicInteger counter = new AtomicInteger(0);
+    final CompletableFuture<String> result = new Retrier(5000L, 50L).executeAsync(() -> {
+      counter.incrementAndGet();
+      return CompletableFuture.failedFuture(new IOException("always fails"));
+    });
+    result.cancel(false);
+    Thread.sleep(200L);
+    assertThat(
+        "cant stop async retries after the result is cancelled",
+        counter.get(),
+        is(1)
+    );
+  }
+
+  @Test
+  void asyncFailsWhenOperationReturnsNoFuture() {
+    final ExecutionException failure = assertThrows(
+        ExecutionException.class,
+        () -> new Retrier(5000L, 10L).<String>executeAsync(() -> null).get()
+    );
+    assertThat(
+        "cant fail async result when the operation returns no future",
+        failure.getCause(),
+        is(instanceOf(IllegalStateException.class))
+    );
+  }
+
+  @Test
+  void asyncCancelsPendingAttemptWhenCancelled() {
+    final CompletableFuture<String> pending = new CompletableFuture<>();
+    new Retrier(5000L, 10L).executeAsync(() -> pending).cancel(false);
+    assertThat(
+        "cant cancel the attempt in flight when the result is cancelled",
+        pending.isCancelled(),
+        is(true)
+    );
+  }
 }
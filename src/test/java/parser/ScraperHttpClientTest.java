@@ -0,0 +1,127 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Unit tests for {@link ScraperHttpClient}.
+ * Serves compressed pages, redirects and errors from a local HTTP server.
+ */
+@Timeout(10)
+final class ScraperHttpClientTest {
+
+  private HttpServer server;
+  private String body;
+
+  @BeforeEach
+  void startServer() throws IOException {
+    this.body = "Сеансы " + UUID.randomUUID();
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    this.server.createContext("/gzip", exchange -> {
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write(this.body.getBytes(StandardCharsets.UTF_8));
+      }
+      exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+      exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+      exchange.sendResponseHeaders(200, compressed.size());
+      try (OutputStream out = exchange.getResponseBody()) {
+        compressed.writeTo(out);
+      }
+    });
+    this.server.createContext("/redirect", exchange -> {
+      exchange.getResponseHeaders().add("Location", "/gzip");
+      exchange.sendResponseHeaders(302, -1);
+      exchange.close();
+    });
+    this.server.createContext("/missing", exchange -> {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+    });
+    this.server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    this.server.stop(0);
+  }
+
+  @Test
+  void decodesGzipBody() throws IOException {
+    assertThat(
+        "cant decode a gzip compressed body",
+        this.client().send(this.request("/gzip"), false).body(),
+        is(equalTo(this.body))
+    );
+  }
+
+  @Test
+  void followsRedirectsWhenAsked() throws IOException {
+    assertThat(
+        "cant follow a redirect to the target page",
+        this.client().send(this.request("/redirect"), true).body(),
+        is(equalTo(this.body))
+    );
+  }
+
+  @Test
+  void returnsRedirectWhenNotFollowing() throws IOException {
+    assertThat(
+        "cant return an unfollowed redirect as it is",
+        this.client().send(this.request("/redirect"), false).statusCode(),
+        is(302)
+    );
+  }
+
+  @Test
+  void sendsAsynchronously() throws Exception {
+    assertThat(
+        "cant fetch a page asynchronously",
+        this.client().sendAsync(this.request("/redirect"), true).get().body(),
+        is(equalTo(this.body))
+    );
+  }
+
+  @Test
+  void raisesClientErrorsAsHttpStatusException() {
+    assertThat(
+        "cant report the status code of a failed request",
+        assertThrows(
+            HttpStatusException.class,
+            () -> this.client().send(this.request("/missing"), false)
+        ).getStatusCode(),
+        is(404)
+    );
+  }
+
+  private ScraperHttpClient client() {
+    return new ScraperHttpClient(
+        HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build()
+    );
+  }
+
+  private HttpRequest.Builder request(final String path) {
+    return HttpRequest.newBuilder(
+        URI.create("http://localhost:" + this.server.getAddress().getPort() + path)
+    );
+  }
+}
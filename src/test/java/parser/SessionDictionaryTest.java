@@ -0,0 +1,66 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SessionDictionary}.
+ */
+final class SessionDictionaryTest {
+
+    private static final LocalDateTime EVENING = LocalDateTime.of(2026, 6, 1, 19, 30);
+
+    @Test
+    void sharesFilmAndCinemaBetweenSessions() {
+        final SessionDictionary dictionary = new SessionDictionary();
+        final Session first = session(dictionary, EVENING);
+        final Session second = session(dictionary, EVENING.plusHours(2));
+
+        assertThat("cant share film details between sessions", second.film(), is(sameInstance(first.film())));
+        assertThat("cant share a cinema between sessions", second.venue(), is(sameInstance(first.venue())));
+        assertThat("cant count shared entries", dictionary.size(), is(2));
+    }
+
+    @Test
+    void keepsFieldsOfCompactSession() {
+        final LocalDateTime start = LocalDateTime.of(1969, 12, 31, 23, 59, 17, 42);
+        final Session session = new Session(
+            start, "Фильм", "Описание", "Вердикт", List.of("Драма"), "Октябрь", "Новый Арбат, 24",
+            -1, "https://www.afisha.ru/movie/1/", true, "https://img/1.jpg"
+        );
+
+        assertThat("cant keep the start of a session", session.dateTime(), is(equalTo(start)));
+        assertThat("cant keep the subtitles flag of a session", session.russianSubtitlesSession(), is(true));
+        assertThat("cant keep the price of a session", session.price(), is(-1));
+        assertThat("cant keep the address of a session", session.address(), is(equalTo("Новый Арбат, 24")));
+    }
+
+    @Test
+    void equalsSessionBuiltFromFields() {
+        final Session shared = session(new SessionDictionary(), EVENING);
+        final Session copied = new Session(
+            EVENING, "Фильм", "", "", List.of("Драма"), "Октябрь", "Адрес", 500, "", false, ""
+        );
+
+        assertThat("cant tell a shared session equals its copy", copied, is(equalTo(shared)));
+        assertThat("cant hash a shared session as its copy", copied.hashCode(), is(shared.hashCode()));
+    }
+
+    private static Session session(final SessionDictionary dictionary, final LocalDateTime start) {
+        return dictionary.session(
+            start,
+            dictionary.film("Фильм", "", "", List.of("Драма")),
+            new Cinema("Октябрь", "Адрес"),
+            500,
+            "",
+            false,
+            ""
+        );
+    }
+}
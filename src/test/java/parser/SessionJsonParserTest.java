@@ -7,6 +7,9 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -220,6 +223,176 @@ final class SessionJsonParserTest {
         );
     }
 
+    @Test
+    void parseSessionsAcceptsSessionsOnAnyDayOfRange() {
+        final String json = buildAfishaJson("Фильм", "2024-01-17T18:00:00", "500");
+
+        assertThat(
+            "cant accept sessions on a later day of the range",
+            SessionJsonParser.parseSessions(
+                json, "", LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17), new FilmMetadataCache()
+            ),
+            hasSize(1)
+        );
+    }
+
+    @Test
+    void byScheduleDatePutsSmallHoursSessionOnDayBefore() {
+        final List<Session> sessions = SessionJsonParser.parseSessions(
+            buildAfishaJson("Фильм", "2024-01-16T01:30:00", "500"),
+            "",
+            LocalDate.of(2024, 1, 15),
+            LocalDate.of(2024, 1, 16),
+            new FilmMetadataCache()
+        );
+
+        assertThat(
+            "cant list a session after midnight under the evening it belongs to",
+            SessionJsonParser.byScheduleDate(sessions, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 16))
+                .keySet(),
+            contains(LocalDate.of(2024, 1, 15))
+        );
+    }
+
+    @Test
+    void parseSchedulePageReadsSessionsListedBeforeFilmDetails() {
+        final String json = "{\"ScheduleWidget\": {\"ScheduleList\": {\"Items\": [{"
+            + "\"Sessions\": [{\"DateTime\": \"2024-01-15T18:00:00\", \"MinPriceFormatted\": \"400\","
+            + " \"SubtitlesFormats\": null}], \"Place\": {\"Name\": \"Кинотеатр\", \"Address\": \"Адрес\"}"
+            + "}], \"Pager\": {\"PagesCount\": 2}}}, \"MovieCard\": {\"Info\": {\"Name\": \"Фильм\","
+            + " \"Verdict\": \"\", \"Genres\": {\"Links\": []}}}}";
+        final ParsedSchedulePage page = SessionJsonParser.parseSchedulePage(
+            json, "", LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 15), new FilmMetadataCache()
+        );
+
+        assertThat(
+            "cant combine sessions with film details that come later in the response",
+            page.sessions().get(0).name() + " " + page.sessions().get(0).cinema() + " " + page.totalPages(),
+            is(equalTo("Фильм Кинотеатр 2"))
+        );
+    }
+
+    @Test
+    void parseSchedulePageReadsResponseStream() throws IOException {
+        final String json = buildAfishaJson("Фильм", "2024-01-15T18:00:00", "500");
+
+        assertThat(
+            "cant parse sessions straight from the response stream",
+            SessionJsonParser.parseSchedulePage(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                "",
+                LocalDate.of(2024, 1, 15),
+                LocalDate.of(2024, 1, 15),
+                new FilmMetadataCache()
+            ).sessions().get(0).name(),
+            is(equalTo("Фильм"))
+        );
+    }
+
+    @Test
+    void parsePageCountReadsPagesCountFromPager() {
+        final JSONObject root = new JSONObject(buildAfishaJson("Фильм", "2024-01-15T18:00:00", "500"));
+        root.getJSONObject("ScheduleWidget").getJSONObject("ScheduleList")
+            .put("Pager", new JSONObject().put("PagesCount", 4));
+
+        assertThat(
+            "cant read total page count from pager",
+            SessionJsonParser.parsePageCount(root.toString()),
+            is(equalTo(4))
+        );
+    }
+
+    @Test
+    void parsePageCountDerivesPagesFromTotalCount() {
+        final JSONObject root = new JSONObject(buildAfishaJson("Фильм", "2024-01-15T18:00:00", "500"));
+        root.getJSONObject("ScheduleWidget")
+            .put("Pager", new JSONObject().put("TotalCount", 41).put("PageSize", 20));
+
+        assertThat(
+            "cant derive page count from total item count and page size",
+            SessionJsonParser.parsePageCount(root.toString()),
+            is(equalTo(3))
+        );
+    }
+
+    @Test
+    void parsePageCountReturnsZeroWithoutPager() {
+        assertThat(
+            "cant report unknown page count when response has no pager",
+            SessionJsonParser.parsePageCount(buildAfishaJson("Фильм", "2024-01-15T18:00:00", "500")),
+            is(equalTo(0))
+        );
+    }
+
+    @Test
+    void parseSessionsReusesFilmMetadataAcrossPagesOfSameFilm() {
+        final FilmMetadataCache films = new FilmMetadataCache();
+        final List<Session> first = SessionJsonParser.parseSessions(
+            buildAfishaJson("Первая страница", "2024-01-15T18:00:00", "500"),
+            "https://www.afisha.ru/movie/123/15-01-2024/page1/",
+            LocalDate.of(2024, 1, 15),
+            films
+        );
+        final List<Session> second = SessionJsonParser.parseSessions(
+            buildAfishaJson("Вторая страница", "2024-01-16T18:00:00", "500"),
+            "https://www.afisha.ru/movie/123/16-01-2024/page2/",
+            LocalDate.of(2024, 1, 16),
+            films
+        );
+
+        assertThat(
+            "cant share genres of the first page with later pages of the film",
+            second.get(0).genres() == first.get(0).genres() && "Первая страница".equals(second.get(0).name()),
+            is(true)
+        );
+    }
+
+    @Test
+    void parseSessionsKeepsMetadataOfDifferentFilmsApart() {
+        final FilmMetadataCache films = new FilmMetadataCache();
+        SessionJsonParser.parseSessions(
+            buildAfishaJson("Первый фильм", "2024-01-15T18:00:00", "500"),
+            "https://www.afisha.ru/movie/1/15-01-2024/page1/",
+            LocalDate.of(2024, 1, 15),
+            films
+        );
+
+        assertThat(
+            "cant extract metadata of a film not seen before",
+            SessionJsonParser.parseSessions(
+                buildAfishaJson("Второй фильм", "2024-01-15T18:00:00", "500"),
+                "https://www.afisha.ru/movie/2/15-01-2024/page1/",
+                LocalDate.of(2024, 1, 15),
+                films
+            ).get(0).name(),
+            is(equalTo("Второй фильм"))
+        );
+    }
+
+    @Test
+    void parseSessionsSharesCinemaStringsAcrossFilms() {
+        final FilmMetadataCache films = new FilmMetadataCache();
+        final Session first = SessionJsonParser.parseSessions(
+            buildAfishaJson("Первый фильм", "2024-01-15T18:00:00", "500"),
+            "https://www.afisha.ru/movie/1/15-01-2024/page1/",
+            LocalDate.of(2024, 1, 15),
+            films
+        ).get(0);
+        final Session second = SessionJsonParser.parseSessions(
+            buildAfishaJson("Второй фильм", "2024-01-15T18:00:00", "500"),
+            "https://www.afisha.ru/movie/2/15-01-2024/page1/",
+            LocalDate.of(2024, 1, 15),
+            films
+        ).get(0);
+
+        assertThat(
+            "cant share the cinema name read for another film",
+            second.cinema() == first.cinema() && second.genres().get(0) == first.genres().get(0),
+            is(true)
+        );
+        assertThat("cant count the bytes shared strings saved", films.strings().savedBytes() > 0, is(true));
+    }
+
     private static String buildAfishaJson(
         final String movieName, final String dateTime, final String price
     ) {
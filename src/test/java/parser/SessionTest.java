@@ -68,6 +68,28 @@ public class SessionTest {
         assertTrue(session.russianSubtitlesSession());
     }
 
+    @Test
+    public void testJsonRoundTripKeepsSubtitles() {
+        Session session = new Session(
+            LocalDateTime.of(2024, 1, 1, 10, 30), "Movie", "Desc", "Verdict",
+            Arrays.asList("Drama"), "Cinema", "Addr", 500, "link", true, "image"
+        );
+
+        assertEquals(Collections.singletonList(session), Session.fromJsonArray(session.toJson()));
+    }
+
+    @Test
+    public void testJsonArrayRoundTrip() {
+        List<Session> sessions = Arrays.asList(
+            new Session(LocalDateTime.of(2024, 1, 1, 10, 30), "Movie1", "Desc1", "Verdict1",
+                        Arrays.asList("Drama"), "Cinema1", "Addr1", 500, "link1", true),
+            new Session(LocalDateTime.of(2024, 1, 1, 12, 30), "Movie2", "Desc2", "Verdict2",
+                        Arrays.asList("Comedy"), "Cinema2", "Addr2", 600, "link2", false)
+        );
+
+        assertEquals(sessions, Session.fromJsonArray(Session.toJson(sessions)));
+    }
+
     @Test
     public void testFromJsonArrayEmpty() {
         List<Session> sessions = Session.fromJsonArray("");
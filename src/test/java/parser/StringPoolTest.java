@@ -0,0 +1,60 @@
+package parser;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link StringPool}.
+ */
+final class StringPoolTest {
+
+    @Test
+    void returnsCopyReadFirst() {
+        final StringPool pool = new StringPool();
+        final String first = pool.canonical(copy("Октябрь"));
+
+        assertThat("cant share an equal string", pool.canonical(copy("Октябрь")), is(sameInstance(first)));
+    }
+
+    @Test
+    void countsBytesOfDroppedCopies() {
+        final StringPool pool = new StringPool();
+        final String first = pool.canonical(copy("Октябрь"));
+        pool.canonical(first);
+        pool.canonical(copy("Октябрь"));
+
+        assertThat(
+            "cant count only the copies it dropped",
+            pool.savedBytes(),
+            is(equalTo(StringPool.heapSize("Октябрь")))
+        );
+    }
+
+    @Test
+    void passesNewStringsThroughWhenFull() {
+        final StringPool pool = new StringPool(1);
+        pool.canonical("Драма");
+        final String comedy = copy("Комедия");
+
+        assertThat("cant pass a string through a full pool", pool.canonical(comedy), is(sameInstance(comedy)));
+        assertThat("cant stay within its capacity", pool.size(), is(1));
+    }
+
+    @Test
+    void estimatesWideStringsLarger() {
+        assertThat(
+            "cant tell a Cyrillic string from a Latin one",
+            StringPool.heapSize("Октябрь"),
+            is(not(equalTo(StringPool.heapSize("October"))))
+        );
+    }
+
+    private static String copy(final String value) {
+        return new String(value.toCharArray());
+    }
+}
@@ -0,0 +1,104 @@
+package parser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Local schedule source for tests. Lists fixed films, returns fixed sessions
+ * by film name as a one-page schedule, records every schedule it is asked
+ * for and takes a fixed time to answer each call. The schedules of chosen
+ * films can be cut short, as if a page failed.
+ */
+public final class StubScheduleSource implements ScheduleSource {
+
+    private final List<MovieThumbnail> films;
+    private final Map<String, List<Session>> sessions;
+    private final Duration latency;
+    private final Set<String> truncated;
+    private final Queue<String> fetched = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a source that answers at once and shows no sessions.
+     *
+     * @param films The films to list
+     */
+    public StubScheduleSource(final List<MovieThumbnail> films) {
+        this(films, Map.of(), Duration.ZERO);
+    }
+
+    /**
+     * Creates a source.
+     *
+     * @param films The films to list
+     * @param sessions The sessions of each film, by film name
+     * @param latency How long each call takes
+     */
+    public StubScheduleSource(
+        final List<MovieThumbnail> films, final Map<String, List<Session>> sessions, final Duration latency
+    ) {
+        this(films, sessions, latency, Set.of());
+    }
+
+    private StubScheduleSource(
+        final List<MovieThumbnail> films,
+        final Map<String, List<Session>> sessions,
+        final Duration latency,
+        final Set<String> truncated
+    ) {
+        this.films = List.copyOf(films);
+        this.sessions = Map.copyOf(sessions);
+        this.latency = latency;
+        this.truncated = Set.copyOf(truncated);
+    }
+
+    /**
+     * Creates a copy of this source that cuts the schedules of some films short.
+     *
+     * @param names The names of the films whose schedules are truncated
+     * @return The new source
+     */
+    public StubScheduleSource truncating(final String... names) {
+        return new StubScheduleSource(this.films, this.sessions, this.latency, Set.of(names));
+    }
+
+    /**
+     * Returns the links of every schedule fetched so far.
+     *
+     * @return The links, in the order they were fetched
+     */
+    public List<String> fetchedLinks() {
+        return List.copyOf(this.fetched);
+    }
+
+    @Override
+    public List<MovieThumbnail> listFilms(final String dates) {
+        this.pause();
+        return this.films;
+    }
+
+    @Override
+    public ScheduleSnapshot fetchSchedule(
+        final MovieThumbnail film, final String date, final Map<Integer, PageDigest> previous
+    ) {
+        this.pause();
+        this.fetched.add(film.sessionsLink());
+        return new ScheduleSnapshot(
+            this.sessions.getOrDefault(film.name(), List.of()),
+            Map.of(1, new PageDigest(PageDigest.hash(film.sessionsLink() + date), 1)),
+            0,
+            this.truncated.contains(film.name())
+        );
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(this.latency);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,25 +2,33 @@ package scheduler;
 
 import bots.services.SessionCacheManager;
 import cache.RedisCache;
+import cache.ScheduleDiff;
+import crawler.CrawlCheckpoint;
+import crawler.CrawlUnit;
 import filters.DateInterval;
 import org.junit.jupiter.api.Test;
-import parser.AfishaParser;
 import parser.City;
+import parser.MovieThumbnail;
+import parser.PageDigest;
+import parser.ScheduleSnapshot;
+import parser.ScheduleSource;
 import parser.Session;
+import parser.StubScheduleSource;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for {@link CacheJob}.
@@ -79,6 +87,24 @@ final class CacheJobTest {
         );
     }
 
+    @Test
+    void cacheAllCitiesLeavesCityWithFailedUnitUnfinished() {
+        final MemoryCheckpoint checkpoint = new MemoryCheckpoint();
+        final CacheJob job = new CacheJob(
+            new FailingFetchManager(new SpyRedisCache(), City.MOSCOW, checkpoint),
+            new ThreeWeekInterval(LocalDate.of(2025, 6, 15))
+        );
+
+        job.cacheAllCities();
+
+        assertThat(
+            "job cant leave a city whose unit failed to be retried",
+            checkpoint.completedCities,
+            containsInAnyOrder(City.SPB, City.BALASHIHA)
+        );
+        assertThat("job cant keep the checkpoint of an unfinished run", checkpoint.cleared, is(false));
+    }
+
     /**
      * Spy implementation of RedisCache that records which cities were cached.
      */
@@ -120,6 +146,38 @@ final class CacheJobTest {
             return Collections.emptyList();
         }
 
+        @Override
+        public ScheduleDiff updateFilm(
+            final City city, final LocalDate date, final String filmName,
+            final List<Session> sessions, final boolean complete
+        ) {
+            return ScheduleDiff.between(List.of(), sessions, stored -> false);
+        }
+
+        @Override
+        public Optional<List<MovieThumbnail>> getCachedListing(
+            final City city, final LocalDate start, final LocalDate end
+        ) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void cacheListing(
+            final City city, final LocalDate start, final LocalDate end, final List<MovieThumbnail> films
+        ) {
+        }
+
+        @Override
+        public Map<Integer, PageDigest> getPageDigests(final City city, final LocalDate date, final String filmUrl) {
+            return Map.of();
+        }
+
+        @Override
+        public void savePageDigests(
+            final City city, final LocalDate date, final String filmUrl, final Map<Integer, PageDigest> digests
+        ) {
+        }
+
         @Override
         public void close() {
             this.storage.clear();
@@ -167,7 +225,7 @@ final class CacheJobTest {
     }
 
     /**
-     * Test-specific SessionCacheManager that provides a mocked AfishaParser.
+     * Test-specific SessionCacheManager that lists no films.
      */
     private static final class TestSessionCacheManager extends SessionCacheManager {
         TestSessionCacheManager(final RedisCache redisCache) {
@@ -175,19 +233,87 @@ final class CacheJobTest {
         }
 
         @Override
-        protected AfishaParser createAfishaParser(final City city) {
-            final AfishaParser mockParser = mock(AfishaParser.class);
-            try {
-                when(mockParser.parseFilmsInDates(org.mockito.ArgumentMatchers.anyString()))
-                    .thenReturn(Collections.emptyList());
-                when(mockParser.parseSchedule(
-                    org.mockito.ArgumentMatchers.anyString(),
-                    org.mockito.ArgumentMatchers.anyString()
-                )).thenReturn(Collections.emptyList());
-            } catch (final IOException e) {
-                // Should not happen in a mock
+        protected ScheduleSource createScheduleSource(final City city) {
+            return new StubScheduleSource(Collections.emptyList());
+        }
+    }
+
+    /**
+     * Cache manager that lists one film in every city and fails to fetch
+     * the schedule of one city, keeping the run's progress in memory.
+     */
+    private static final class FailingFetchManager extends SessionCacheManager {
+        private final City failing;
+        private final CrawlCheckpoint checkpoint;
+
+        FailingFetchManager(final RedisCache redisCache, final City failing, final CrawlCheckpoint checkpoint) {
+            super(redisCache);
+            this.failing = failing;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public CrawlCheckpoint openCheckpoint(final String runId) {
+            return this.checkpoint;
+        }
+
+        @Override
+        protected ScheduleSource createScheduleSource(final City city) {
+            final StubScheduleSource stub = new StubScheduleSource(List.of(new MovieThumbnail(
+                "Film " + city, "https://www.afisha.ru/movie/" + city.asCode(), ""
+            )));
+            if (city != this.failing) {
+                return stub;
             }
-            return mockParser;
+            return new ScheduleSource() {
+                @Override
+                public List<MovieThumbnail> listFilms(final String dates) {
+                    return stub.listFilms(dates);
+                }
+
+                @Override
+                public ScheduleSnapshot fetchSchedule(
+                    final MovieThumbnail film, final String date, final Map<Integer, PageDigest> previous
+                ) throws IOException {
+                    throw new IOException("Simulated failure for " + city);
+                }
+            };
+        }
+    }
+
+    /**
+     * Checkpoint kept in memory that records the cities finished by a run.
+     */
+    private static final class MemoryCheckpoint implements CrawlCheckpoint {
+        private final Set<City> completedCities = EnumSet.noneOf(City.class);
+        private boolean cleared;
+
+        @Override
+        public Optional<List<CrawlUnit>> pendingUnits(final City city) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void savePlan(final City city, final List<CrawlUnit> units) {
+        }
+
+        @Override
+        public void markCompleted(final CrawlUnit unit) {
+        }
+
+        @Override
+        public boolean isCityCompleted(final City city) {
+            return this.completedCities.contains(city);
+        }
+
+        @Override
+        public void markCityCompleted(final City city) {
+            this.completedCities.add(city);
+        }
+
+        @Override
+        public void clear() {
+            this.cleared = true;
         }
     }
 }